@@ -8,16 +8,19 @@ import ReplyBox from './ReplyBox';
  */
 const CommentBox = ({ postId }) => {
   const [comments, setComments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [newComment, setNewComment] = useState('');
   const [loading, setLoading] = useState(false);
   const [fetching, setFetching] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [showReplies, setShowReplies] = useState({});
   const { subscribe, connected } = useWebSocket();
 
   const fetchComments = useCallback(async () => {
     try {
-      const data = await commentService.getPostComments(postId);
-      setComments(Array.isArray(data) ? data : []);
+      const data = await commentService.getPostThread(postId);
+      setComments(Array.isArray(data?.items) ? data.items : []);
+      setNextCursor(data?.nextCursor || null);
     } catch (error) {
       console.error('Error fetching comments:', error);
     } finally {
@@ -25,6 +28,20 @@ const CommentBox = ({ postId }) => {
     }
   }, [postId]);
 
+  const loadMoreComments = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const data = await commentService.getPostThread(postId, nextCursor);
+      setComments((prev) => [...prev, ...(data?.items || [])]);
+      setNextCursor(data?.nextCursor || null);
+    } catch (error) {
+      console.error('Error fetching comments:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchComments();
   }, [fetchComments]);
@@ -32,12 +49,13 @@ const CommentBox = ({ postId }) => {
   useEffect(() => {
     if (!connected) return;
     const unsubscribe = subscribe(`/topic/post/${postId}/comments`, (event) => {
-      if (event.action === 'COMMENT_ADDED') {
+      // New comments land at the end of the thread, only refresh if it is fully loaded
+      if (event.action === 'COMMENT_ADDED' && !nextCursor) {
         fetchComments();
       }
     });
     return unsubscribe;
-  }, [postId, connected, fetchComments]);
+  }, [postId, connected, fetchComments, nextCursor]);
 
   const handleAddComment = async (e) => {
     e.preventDefault();
@@ -60,7 +78,7 @@ const CommentBox = ({ postId }) => {
 
   return (
     <div className="mt-4">
-      <h3 className="text-lg font-semibold mb-3">Comments ({comments.length})</h3>
+      <h3 className="text-lg font-semibold mb-3">Comments</h3>
 
       <form onSubmit={handleAddComment} className="mb-4">
         <div className="flex space-x-2">
@@ -112,12 +130,27 @@ const CommentBox = ({ postId }) => {
                   </button>
 
                   {showReplies[comment.id] && (
-                    <ReplyBox commentId={comment.id} postId={postId} />
+                    <ReplyBox
+                      commentId={comment.id}
+                      postId={postId}
+                      initialReplies={comment.replies}
+                      initialCursor={comment.nextReplyCursor}
+                      initialHasMore={comment.hasMoreReplies}
+                    />
                   )}
                 </div>
               </div>
             </div>
           ))}
+          {nextCursor && (
+            <button
+              onClick={loadMoreComments}
+              disabled={loadingMore}
+              className="text-sm text-primary-600 hover:text-primary-700 disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more comments'}
+            </button>
+          )}
         </div>
       )}
     </div>
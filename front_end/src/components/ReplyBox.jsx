@@ -5,34 +5,36 @@ import { useWebSocket } from '../hooks/useWebSocket';
 /**
  * Reply box component for nested comments
  */
-const ReplyBox = ({ commentId, postId }) => {
-  const [replies, setReplies] = useState([]);
+const ReplyBox = ({ commentId, postId, initialReplies = [], initialCursor = null, initialHasMore = false }) => {
+  const [replies, setReplies] = useState(initialReplies);
+  const [nextCursor, setNextCursor] = useState(initialCursor);
+  const [hasMore, setHasMore] = useState(initialHasMore);
   const [newReply, setNewReply] = useState('');
   const [loading, setLoading] = useState(false);
   const { subscribe, connected } = useWebSocket();
 
-  const fetchReplies = useCallback(async () => {
+  const fetchReplies = useCallback(async (cursor = null) => {
     try {
-      const data = await commentService.getCommentReplies(commentId);
-      setReplies(Array.isArray(data) ? data : []);
+      const data = await commentService.getCommentRepliesPage(commentId, cursor);
+      const items = Array.isArray(data?.items) ? data.items : [];
+      setReplies((prev) => (cursor ? [...prev, ...items] : items));
+      setNextCursor(data?.nextCursor || null);
+      setHasMore(Boolean(data?.hasMore));
     } catch (error) {
       console.error('Error fetching replies:', error);
     }
   }, [commentId]);
 
-  useEffect(() => {
-    fetchReplies();
-  }, [fetchReplies]);
-
   useEffect(() => {
     if (!connected) return;
     const unsubscribe = subscribe(`/topic/post/${postId}/comments`, (event) => {
-      if (event.action === 'REPLY_ADDED' && event.parentCommentId === commentId) {
+      // New replies land at the end, only refresh if every reply is already shown
+      if (event.action === 'REPLY_ADDED' && event.parentCommentId === commentId && !hasMore) {
         fetchReplies();
       }
     });
     return unsubscribe;
-  }, [commentId, postId, connected, fetchReplies]);
+  }, [commentId, postId, connected, fetchReplies, hasMore]);
 
   const handleAddReply = async (e) => {
     e.preventDefault();
@@ -41,7 +43,7 @@ const ReplyBox = ({ commentId, postId }) => {
     try {
       await commentService.addReply(commentId, newReply);
       setNewReply('');
-      fetchReplies();
+      if (!hasMore) fetchReplies();
     } catch (error) {
       console.error('Error adding reply:', error);
     } finally {
@@ -80,7 +82,15 @@ const ReplyBox = ({ commentId, postId }) => {
             <p className="text-sm text-gray-700">{reply.content}</p>
           </div>
         ))}
-        {replies.length === 0 && (
+        {hasMore && (
+          <button
+            onClick={() => fetchReplies(nextCursor)}
+            className="text-xs text-primary-600 hover:text-primary-700"
+          >
+            Load more replies
+          </button>
+        )}
+        {replies.length === 0 && !hasMore && (
           <p className="text-xs text-gray-400">No replies yet.</p>
         )}
       </div>
@@ -19,6 +19,72 @@ export const commentService = {
     }
   },
 
+  /**
+   * Get one cursor page of top-level comments with their first replies inlined
+   */
+  getPostThread: async (postId, cursor = null, size = 20, replies = 3) => {
+    try {
+      const params = { size, replies };
+      if (cursor) params.cursor = cursor;
+      const response = await axios.get(
+        `${API_BASE_URL}/comments/post/${postId}/thread`,
+        { params, headers: jwtUtils.getAuthHeader() }
+      );
+      return response.data;
+    } catch (error) {
+      throw error.response?.data?.message || 'Failed to fetch comments';
+    }
+  },
+
+  /**
+   * Get one cursor page of replies for a comment
+   */
+  getCommentRepliesPage: async (commentId, cursor = null, size = 20) => {
+    try {
+      const params = { size };
+      if (cursor) params.cursor = cursor;
+      const response = await axios.get(
+        `${API_BASE_URL}/comments/${commentId}/replies/page`,
+        { params, headers: jwtUtils.getAuthHeader() }
+      );
+      return response.data;
+    } catch (error) {
+      throw error.response?.data?.message || 'Failed to fetch replies';
+    }
+  },
+
+  /**
+   * Add a comment to a post
+   */
+  addComment: async (postId, content) => {
+    try {
+      const response = await axios.post(
+        `${API_BASE_URL}/comments/post/${postId}`,
+        { content },
+        { headers: jwtUtils.getAuthHeader() }
+      );
+      return response.data;
+    } catch (error) {
+      throw error.response?.data?.message || 'Failed to add comment';
+    }
+  },
+
+  /**
+   * Add a reply to a comment
+   */
+  addReply: async (commentId, content) => {
+    try {
+      const response = await axios.post(
+        `${API_BASE_URL}/comments/${commentId}/replies`,
+        { content },
+        { headers: jwtUtils.getAuthHeader() }
+      );
+      return response.data;
+    } catch (error) {
+      throw error.response?.data?.message || 'Failed to add reply';
+    }
+  },
+
   /**
    * Create a new comment
    */
@@ -1,10 +1,17 @@
 package com.baseer.social;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 /**
  * Jackson configuration to handle Hibernate lazy-loaded proxies.
  */
@@ -18,4 +25,33 @@ public class JacksonConfig {
         module.disable(Hibernate6Module.Feature.USE_TRANSIENT_ANNOTATION);
         return module;
     }
-}
\ No newline at end of file
+
+    /**
+     * Write ID properties as JSON strings: Long properties named id or ending in Id.
+     * Snowflake IDs use 63 bits and JavaScript numbers lose precision above 2^53;
+     * counters, sizes and timestamps stay numbers.
+     */
+    @Bean
+    public SimpleModule idAsStringModule() {
+        SimpleModule module = new SimpleModule("IdAsString");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> properties) {
+                for (BeanPropertyWriter property : properties) {
+                    if (isIdProperty(property)) {
+                        property.assignSerializer(ToStringSerializer.instance);
+                    }
+                }
+                return properties;
+            }
+        });
+        return module;
+    }
+
+    private static boolean isIdProperty(BeanPropertyWriter property) {
+        Class<?> type = property.getType().getRawClass();
+        String name = property.getName();
+        return (type == Long.class || type == Long.TYPE) && (name.equals("id") || name.endsWith("Id"));
+    }
+}
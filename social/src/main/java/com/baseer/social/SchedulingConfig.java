@@ -0,0 +1,15 @@
+package com.baseer.social;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the scheduled background jobs (PostReaper, AccountErasureJob).
+ * The test JVM sets social.jobs.enabled=false and drives the jobs directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "social.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,8 +1,10 @@
 package com.baseer.social.controller;
 
 import com.baseer.social.dto.CommentRequest;
-import com.baseer.social.entity.Comment;
-import com.baseer.social.entity.Reply;
+import com.baseer.social.dto.CommentThreadItem;
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.ReplyView;
 import com.baseer.social.service.CommentService;
 import com.baseer.social.websocket.CommentEvent;
 import jakarta.validation.Valid;
@@ -31,10 +33,10 @@ public class CommentController {
      * POST /api/comments/post/{postId}
      */
     @PostMapping("/post/{postId}")
-    public ResponseEntity<Comment> addComment(
+    public ResponseEntity<CommentView> addComment(
             @PathVariable Long postId,
             @Valid @RequestBody CommentRequest request) {
-        Comment comment = commentService.addComment(postId, request);
+        CommentView comment = commentService.addComment(postId, request);
 
         // Send WebSocket event - use postId from path, not lazy post
         CommentEvent event = CommentEvent.builder()
@@ -58,40 +60,49 @@ public class CommentController {
      * GET /api/comments/post/{postId}
      */
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Comment>> getPostComments(@PathVariable Long postId) {
-        List<Comment> comments = commentService.getPostComments(postId);
+    public ResponseEntity<List<CommentView>> getPostComments(@PathVariable Long postId) {
+        List<CommentView> comments = commentService.getPostComments(postId);
         return ResponseEntity.ok(comments);
     }
 
+    /**
+     * Get one cursor page of top-level comments with their first replies inlined
+     * GET /api/comments/post/{postId}/thread?cursor=&size=20&replies=3
+     */
+    @GetMapping("/post/{postId}/thread")
+    public ResponseEntity<CursorPage<CommentThreadItem>> getPostThread(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int replies) {
+        CursorPage<CommentThreadItem> page = commentService.getPostThread(postId, cursor, size, replies);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Add reply to comment
      * POST /api/comments/{commentId}/replies
      */
     @PostMapping("/{commentId}/replies")
-    public ResponseEntity<Reply> addReply(
+    public ResponseEntity<ReplyView> addReply(
             @PathVariable Long commentId,
             @Valid @RequestBody CommentRequest request) {
-        Reply reply = commentService.addReply(commentId, request);
-
-        // Get post id from the comment service
-        Long postId = commentService.getCommentById(commentId).getPost() != null
-                ? commentService.getCommentById(commentId).getPost().getId()
-                : null;
-
-        if (postId != null) {
-            CommentEvent event = CommentEvent.builder()
-                    .commentId(reply.getId())
-                    .postId(postId)
-                    .userId(reply.getUser().getId())
-                    .username(reply.getUser().getUsername())
-                    .content(reply.getContent())
-                    .commentsCount(null)
-                    .action("REPLY_ADDED")
-                    .parentCommentId(commentId)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-            messagingTemplate.convertAndSend("/topic/post/" + postId + "/comments", event);
-        }
+        ReplyView reply = commentService.addReply(commentId, request);
+
+        Long postId = commentService.getPostIdForComment(commentId);
+
+        CommentEvent event = CommentEvent.builder()
+                .commentId(reply.getId())
+                .postId(postId)
+                .userId(reply.getUser().getId())
+                .username(reply.getUser().getUsername())
+                .content(reply.getContent())
+                .commentsCount(null)
+                .action("REPLY_ADDED")
+                .parentCommentId(commentId)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        messagingTemplate.convertAndSend("/topic/post/" + postId + "/comments", event);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(reply);
     }
@@ -101,11 +112,24 @@ public class CommentController {
      * GET /api/comments/{commentId}/replies
      */
     @GetMapping("/{commentId}/replies")
-    public ResponseEntity<List<Reply>> getCommentReplies(@PathVariable Long commentId) {
-        List<Reply> replies = commentService.getCommentReplies(commentId);
+    public ResponseEntity<List<ReplyView>> getCommentReplies(@PathVariable Long commentId) {
+        List<ReplyView> replies = commentService.getCommentReplies(commentId);
         return ResponseEntity.ok(replies);
     }
 
+    /**
+     * Get one cursor page of replies for a comment
+     * GET /api/comments/{commentId}/replies/page?cursor=&size=20
+     */
+    @GetMapping("/{commentId}/replies/page")
+    public ResponseEntity<CursorPage<ReplyView>> getCommentRepliesPage(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<ReplyView> page = commentService.getCommentRepliesPage(commentId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Delete comment
      * DELETE /api/comments/{commentId}
@@ -1,12 +1,18 @@
 package com.baseer.social.controller;
 
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.LikerView;
+import com.baseer.social.dto.PostResponse;
 import com.baseer.social.service.LikeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller for like endpoints.
@@ -35,6 +41,36 @@ public class LikeController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Like a post; repeating the request has no further effect
+     * PUT /api/likes/post/{postId}
+     */
+    @PutMapping("/post/{postId}")
+    public ResponseEntity<Map<String, Object>> like(@PathVariable Long postId) {
+        boolean changed = likeService.like(postId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("liked", true);
+        response.put("changed", changed);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Remove the like of a post; repeating the request has no further effect
+     * DELETE /api/likes/post/{postId}
+     */
+    @DeleteMapping("/post/{postId}")
+    public ResponseEntity<Map<String, Object>> unlike(@PathVariable Long postId) {
+        boolean changed = likeService.unlike(postId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("liked", false);
+        response.put("changed", changed);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Check if current user has liked a post
      * GET /api/likes/post/{postId}/status
@@ -49,6 +85,44 @@ public class LikeController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Check which of a page of posts the current user has liked
+     * GET /api/likes/status?postIds=1,2,3
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<Long, Boolean>> getLikeStatuses(@RequestParam List<Long> postIds) {
+        Set<Long> liked = likeService.getLikedAmong(postIds);
+
+        Map<Long, Boolean> response = new LinkedHashMap<>();
+        postIds.forEach(postId -> response.put(postId, liked.contains(postId)));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get one cursor page of the users who liked a post, newest like first
+     * GET /api/likes/post/{postId}?cursor=...&size=20
+     */
+    @GetMapping("/post/{postId}")
+    public ResponseEntity<CursorPage<LikerView>> getLikers(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(likeService.getLikers(postId, cursor, size));
+    }
+
+    /**
+     * Get one cursor page of the posts a user liked, most recently liked first
+     * GET /api/likes/user/{userId}?cursor=...&size=20
+     */
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<CursorPage<PostResponse>> getLikedPosts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(likeService.getLikedPosts(userId, cursor, size));
+    }
+
     /**
      * Get like count for a post
      * GET /api/likes/post/{postId}/count
@@ -0,0 +1,61 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.MediaResponse;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.service.MediaStore;
+import com.baseer.social.service.ThumbnailGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * REST Controller for media uploads.
+ * The image is the raw request body rather than a multipart part, so it is streamed
+ * into the store as it arrives instead of being spooled by the multipart parser first.
+ */
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MediaController {
+
+    private final MediaStore mediaStore;
+    private final ThumbnailGenerator thumbnailGenerator;
+
+    /**
+     * Upload an image (Content-Type image/jpeg, image/png, image/gif or image/webp)
+     * POST /api/media
+     * Resized variants are generated in the background after the response.
+     */
+    @PostMapping
+    public ResponseEntity<MediaResponse> upload(HttpServletRequest request) throws IOException {
+        MediaStore.StoredMedia media = mediaStore.store(
+                request.getInputStream(), contentType(request), request.getContentLengthLong());
+        if (media.created()) {
+            thumbnailGenerator.submit(media.key());
+        }
+
+        MediaResponse response = MediaResponse.builder()
+                .key(media.key())
+                .url(media.url())
+                .contentType(media.contentType())
+                .size(media.size())
+                .build();
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    private static String contentType(HttpServletRequest request) {
+        try {
+            // Also rejects a missing header (InvalidMediaTypeException is an IllegalArgumentException)
+            MediaType type = MediaType.parseMediaType(request.getContentType());
+            return type.getType() + "/" + type.getSubtype();
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("Content-Type of the image is required", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+    }
+}
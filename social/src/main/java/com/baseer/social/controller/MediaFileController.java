@@ -0,0 +1,143 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.service.MediaFileCache;
+import com.baseer.social.service.MediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves stored media objects without copying them through the heap.
+ * Small hot objects are written from MediaFileCache's memory mappings; everything else
+ * is handed to Tomcat's sendfile, which streams the file with FileChannel.transferTo
+ * after the request returns. Keys are content hashes, so responses are cacheable forever
+ * and the key is a strong ETag.
+ */
+@RestController
+@RequestMapping("/media")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MediaFileController {
+
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MediaStore mediaStore;
+    private final MediaFileCache mediaFileCache;
+
+    /**
+     * Get a media object or a single byte range of it
+     * GET /media/{key}
+     */
+    @GetMapping("/{key}")
+    public void serve(@PathVariable String key, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!MediaStore.isValidKey(key)) {
+            throw new CustomException("Media not found", HttpStatus.NOT_FOUND);
+        }
+
+        Optional<ByteBuffer> cached = mediaFileCache.getIfPresent(key);
+        Path path = mediaStore.pathOf(key);
+        long length;
+        if (cached.isPresent()) {
+            length = cached.get().capacity();
+        } else {
+            try {
+                length = Files.size(path);
+            } catch (NoSuchFileException e) {
+                throw new CustomException("Media not found", HttpStatus.NOT_FOUND);
+            }
+        }
+
+        String etag = "\"" + key + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        if (cached.isEmpty()) {
+            cached = mediaFileCache.get(key, length);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges = parseRanges(range);
+            // Several ranges are answered with the whole object, multipart/byteranges is not worth it for images
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = Math.min(ranges.get(0).getRangeEnd(length), length - 1);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaStore.contentTypeOf(key).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (cached.isPresent()) {
+            ByteBuffer body = cached.get();
+            body.limit((int) (start + count)).position((int) start);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (body.hasRemaining()) {
+                out.write(body);
+            }
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Nothing is written here; Tomcat sends the region once the request returns
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+        } else {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long sent = 0;
+                while (sent < count) {
+                    sent += file.transferTo(start + sent, count - sent, out);
+                }
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored (RFC 9110, 14.2)
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.MessageRequest;
+import com.baseer.social.dto.MessageView;
+import com.baseer.social.messaging.DirectMessageService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST Controller for direct messages.
+ * Messages are also pushed over STOMP to both participants' /user/queue/messages.
+ */
+@RestController
+@RequestMapping("/api/messages")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MessageController {
+
+    private final DirectMessageService messageService;
+
+    /**
+     * Send a message to a user; the response is written once the message is stored
+     * POST /api/messages/{userId}
+     */
+    @PostMapping("/{userId}")
+    public CompletableFuture<ResponseEntity<MessageView>> send(@PathVariable Long userId,
+                                                               @Valid @RequestBody MessageRequest request) {
+        return messageService.send(userId, request)
+                .thenApply(message -> ResponseEntity.status(HttpStatus.CREATED).body(message));
+    }
+
+    /**
+     * Get one cursor page of the conversation with a user, newest message first
+     * GET /api/messages/{userId}?cursor=...&size=30
+     */
+    @GetMapping("/{userId}")
+    public ResponseEntity<CursorPage<MessageView>> getConversation(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int size) {
+        return ResponseEntity.ok(messageService.getConversation(userId, cursor, size));
+    }
+
+    /**
+     * Get unread message counts per sender
+     * GET /api/messages/unread
+     */
+    @GetMapping("/unread")
+    public ResponseEntity<Map<Long, Integer>> getUnreadCounts() {
+        return ResponseEntity.ok(messageService.getUnreadCounts());
+    }
+
+    /**
+     * Mark the conversation with a user read
+     * PUT /api/messages/{userId}/read
+     */
+    @PutMapping("/{userId}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long userId) {
+        messageService.markRead(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.NotificationView;
+import com.baseer.social.notification.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the current user's notifications.
+ * New notifications are also pushed over STOMP to /user/queue/notifications.
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * Get one cursor page of unread notifications, latest activity first
+     * GET /api/notifications?cursor=...&size=20
+     */
+    @GetMapping
+    public ResponseEntity<CursorPage<NotificationView>> getUnread(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getUnread(cursor, size));
+    }
+
+    /**
+     * Get the number of unread notifications
+     * GET /api/notifications/unread-count
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> countUnread() {
+        return ResponseEntity.ok(Map.of("unread", notificationService.countUnread()));
+    }
+
+    /**
+     * Mark one notification read
+     * PUT /api/notifications/{notificationId}/read
+     */
+    @PutMapping("/{notificationId}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long notificationId) {
+        notificationService.markRead(notificationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Mark all notifications read
+     * PUT /api/notifications/read
+     */
+    @PutMapping("/read")
+    public ResponseEntity<Void> markAllRead() {
+        notificationService.markAllRead();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,10 +2,15 @@ package com.baseer.social.controller;
 
 
 
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.ImpressionsRequest;
 import com.baseer.social.dto.PostRequest;
 import com.baseer.social.dto.PostResponse;
-import com.baseer.social.entity.Post;
+import com.baseer.social.dto.ScheduledPostRequest;
+import com.baseer.social.dto.ScheduledPostView;
+import com.baseer.social.feed.RankedFeedService;
 import com.baseer.social.service.PostService;
+import com.baseer.social.views.ViewCountService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +20,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller for post endpoints.
  * Handles CRUD operations for posts.
@@ -26,6 +33,8 @@ import org.springframework.web.bind.annotation.*;
 public class PostController {
 
     private final PostService postService;
+    private final RankedFeedService rankedFeedService;
+    private final ViewCountService viewCountService;
 
     /**
      * Create a new post
@@ -38,6 +47,34 @@ public class PostController {
         return ResponseEntity.status(HttpStatus.CREATED).body(post);
     }
 
+    /**
+     * Schedule a post for publication at publishAt
+     * POST /api/posts/scheduled
+     */
+    @PostMapping("/scheduled")
+    public ResponseEntity<ScheduledPostView> schedulePost(@Valid @RequestBody ScheduledPostRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(postService.schedulePost(request));
+    }
+
+    /**
+     * Get the current user's scheduled posts, newest first
+     * GET /api/posts/scheduled
+     */
+    @GetMapping("/scheduled")
+    public ResponseEntity<List<ScheduledPostView>> getScheduledPosts() {
+        return ResponseEntity.ok(postService.getScheduledPosts());
+    }
+
+    /**
+     * Cancel a scheduled post
+     * DELETE /api/posts/scheduled/{scheduledPostId}
+     */
+    @DeleteMapping("/scheduled/{scheduledPostId}")
+    public ResponseEntity<Void> cancelScheduledPost(@PathVariable Long scheduledPostId) {
+        postService.cancelScheduledPost(scheduledPostId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Get all posts (feed) with pagination
      * GET /api/posts?page=0&size=10
@@ -52,13 +89,34 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Get the feed ranked by recent engagement
+     * GET /api/posts/ranked?cursor=...&size=20
+     */
+    @GetMapping("/ranked")
+    public ResponseEntity<CursorPage<PostResponse>> getRankedFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(rankedFeedService.getRankedFeed(cursor, size));
+    }
+
+    /**
+     * Report a batch of posts shown to the current user, for unique view counts
+     * POST /api/posts/impressions
+     */
+    @PostMapping("/impressions")
+    public ResponseEntity<Void> recordImpressions(@Valid @RequestBody ImpressionsRequest request) {
+        viewCountService.recordImpressions(request.getPostIds());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Get post by ID
      * GET /api/posts/{postId}
      */
     @GetMapping("/{postId}")
-    public ResponseEntity<Post> getPostById(@PathVariable Long postId) {
-        Post post = postService.getPostById(postId);
+    public ResponseEntity<PostResponse> getPostById(@PathVariable Long postId) {
+        PostResponse post = postService.getPostResponse(postId);
         return ResponseEntity.ok(post);
     }
 
@@ -67,15 +125,39 @@ public class PostController {
      * GET /api/posts/user/{userId}?page=0&size=10
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<Post>> getUserPosts(
+    public ResponseEntity<Page<PostResponse>> getUserPosts(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Post> posts = postService.getUserPosts(userId, pageable);
+        Page<PostResponse> posts = postService.getUserPosts(userId, pageable);
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Get posts carrying a hashtag, newest first
+     * GET /api/posts/tag/{tag}?cursor=...&size=20
+     */
+    @GetMapping("/tag/{tag}")
+    public ResponseEntity<CursorPage<PostResponse>> getTagTimeline(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(postService.getTagTimeline(tag, cursor, size));
+    }
+
+    /**
+     * Get posts mentioning a user, newest first
+     * GET /api/posts/mentioning/{userId}?cursor=...&size=20
+     */
+    @GetMapping("/mentioning/{userId}")
+    public ResponseEntity<CursorPage<PostResponse>> getMentionTimeline(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(postService.getMentionTimeline(userId, cursor, size));
+    }
+
     /**
      * Update post
      * PUT /api/posts/{postId}
@@ -0,0 +1,51 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.presence.PresenceTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for online presence and live viewer counts.
+ * Viewer count changes are also pushed to /topic/post/{postId}/viewers.
+ */
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PresenceController {
+
+    public static final int MAX_USER_IDS = 200;
+
+    private final PresenceTracker presenceTracker;
+
+    /**
+     * Get which of the given users are online, as ID strings like every other ID in responses
+     * GET /api/presence/online?userIds=1,2,3
+     */
+    @GetMapping("/online")
+    public ResponseEntity<List<String>> getOnline(@RequestParam List<Long> userIds) {
+        if (userIds.size() > MAX_USER_IDS) {
+            throw new CustomException("At most " + MAX_USER_IDS + " user IDs per request", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(presenceTracker.getOnline(userIds).stream().map(String::valueOf).toList());
+    }
+
+    /**
+     * Get the number of sessions viewing a post
+     * GET /api/presence/post/{postId}/viewers
+     */
+    @GetMapping("/post/{postId}/viewers")
+    public ResponseEntity<Map<String, Object>> getViewers(@PathVariable Long postId) {
+        if (postId <= 0) {
+            throw new CustomException("Post ID must be positive", HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(Map.of("postId", String.valueOf(postId),
+                "viewers", presenceTracker.getViewerCount(postId)));
+    }
+}
@@ -0,0 +1,46 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.search.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for full-text search.
+ * Results are ranked by relevance; pages continue from an opaque cursor.
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Search posts containing every word of the query
+     * GET /api/search/posts?q=&cursor=&size=20
+     */
+    @GetMapping("/posts")
+    public ResponseEntity<CursorPage<PostResponse>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.searchPosts(q, cursor, size));
+    }
+
+    /**
+     * Search comments containing every word of the query
+     * GET /api/search/comments?q=&cursor=&size=20
+     */
+    @GetMapping("/comments")
+    public ResponseEntity<CursorPage<CommentView>> searchComments(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.searchComments(q, cursor, size));
+    }
+}
@@ -0,0 +1,29 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.TrendingResponse;
+import com.baseer.social.trending.TrendingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for trending hashtags and posts.
+ * Results are recomputed every few seconds, not per request.
+ */
+@RestController
+@RequestMapping("/api/trending")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    /**
+     * Get the trending hashtags and posts of the current window
+     * GET /api/trending?limit=10
+     */
+    @GetMapping
+    public ResponseEntity<TrendingResponse> getTrending(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.getTrending(limit));
+    }
+}
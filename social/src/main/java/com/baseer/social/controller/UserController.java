@@ -1,10 +1,22 @@
 package com.baseer.social.controller;
 
-import com.baseer.social.entity.User;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.UpdateProfileRequest;
+import com.baseer.social.dto.UserProfileView;
+import com.baseer.social.search.UserSearchService;
+import com.baseer.social.service.AccountErasureService;
+import com.baseer.social.service.UserExportService;
 import com.baseer.social.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for user endpoints.
@@ -17,24 +29,86 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final AccountErasureService accountErasureService;
+    private final UserExportService userExportService;
+    private final UserSearchService userSearchService;
 
     /**
      * Get current user profile
      * GET /api/users/me
      */
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser() {
-        User user = userService.getCurrentUser();
+    public ResponseEntity<UserProfileView> getCurrentUser() {
+        UserProfileView user = userService.getCurrentUserProfile();
+        return ResponseEntity.ok(user);
+    }
+
+    /**
+     * Update current user profile
+     * PUT /api/users/me
+     */
+    @PutMapping("/me")
+    public ResponseEntity<UserProfileView> updateCurrentUser(@Valid @RequestBody UpdateProfileRequest request) {
+        UserProfileView user = userService.updateCurrentUser(request);
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Delete current user account.
+     * The account is locked out immediately; its history is erased in the background.
+     * DELETE /api/users/me
+     */
+    @DeleteMapping("/me")
+    public ResponseEntity<Void> deleteCurrentUser() {
+        accountErasureService.requestErasure();
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Export all data of the current user as NDJSON, streamed while it is read.
+     * With gzip=true the stream is compressed on the fly and served as a .ndjson.gz file.
+     * GET /api/users/me/export
+     */
+    @GetMapping("/me/export")
+    public ResponseEntity<StreamingResponseBody> exportCurrentUser(@RequestParam(defaultValue = "false") boolean gzip) {
+        // Resolved here: the body is written on another thread, outside the security context
+        Long userId = userService.getCurrentUserId();
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                userExportService.writeExport(userId, compressed);
+                compressed.finish();
+            } else {
+                userExportService.writeExport(userId, out);
+            }
+        };
+
+        String filename = "export-" + userId + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Search users by username or name prefix, most active first; for @mention completion
+     * GET /api/users/search?q=ada&limit=10
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PostResponse.UserDTO>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userSearchService.search(q, limit));
+    }
+
     /**
      * Get user by ID
      * GET /api/users/{userId}
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<User> getUserById(@PathVariable Long userId) {
-        User user = userService.getUserById(userId);
+    public ResponseEntity<UserProfileView> getUserById(@PathVariable Long userId) {
+        UserProfileView user = userService.getUserProfile(userId);
         return ResponseEntity.ok(user);
     }
 
@@ -43,8 +117,8 @@ public class UserController {
      * GET /api/users/username/{username}
      */
     @GetMapping("/username/{username}")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
-        User user = userService.getUserByUsername(username);
+    public ResponseEntity<UserProfileView> getUserByUsername(@PathVariable String username) {
+        UserProfileView user = userService.getUserProfileByUsername(username);
         return ResponseEntity.ok(user);
     }
 }
\ No newline at end of file
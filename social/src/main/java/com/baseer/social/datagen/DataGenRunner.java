@@ -0,0 +1,81 @@
+package com.baseer.social.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+
+/**
+ * Command-line entry point of the benchmark data generator, active with the datagen profile
+ * (settings in application-datagen.properties, overridable as --social.datagen.* arguments):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=datagen \
+ *       -Dspring-boot.run.arguments="--social.datagen.seed=7 --social.datagen.likes=10000000"
+ *
+ * Every generated user's password is social.datagen.password. The application exits when done.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+public class DataGenRunner implements CommandLineRunner {
+
+    private final ConfigurableApplicationContext context;
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final DataGenSettings settings;
+    private final String password;
+    private final int batchRows;
+    private final int writers;
+
+    public DataGenRunner(ConfigurableApplicationContext context,
+                         DataSource dataSource,
+                         PasswordEncoder passwordEncoder,
+                         @Value("${social.datagen.seed:42}") long seed,
+                         @Value("${social.datagen.users:100000}") int users,
+                         @Value("${social.datagen.posts:1000000}") int posts,
+                         @Value("${social.datagen.comments:2000000}") long comments,
+                         @Value("${social.datagen.replies:4000000}") long replies,
+                         @Value("${social.datagen.likes:10000000}") long likes,
+                         @Value("${social.datagen.viral-posts:5}") int viralPosts,
+                         @Value("${social.datagen.viral-share:0.3}") double viralShare,
+                         @Value("${social.datagen.start:2025-01-01T00:00:00Z}") Instant start,
+                         @Value("${social.datagen.end:2025-04-01T00:00:00Z}") Instant end,
+                         @Value("${social.datagen.node-id:1023}") long nodeId,
+                         @Value("${social.datagen.username-prefix:gen}") String usernamePrefix,
+                         @Value("${social.datagen.password:password}") String password,
+                         @Value("${social.datagen.batch-rows:1000}") int batchRows,
+                         @Value("${social.datagen.writers:4}") int writers) {
+        this.context = context;
+        this.dataSource = dataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.settings = new DataGenSettings(seed, users, posts, comments, replies, likes,
+                viralPosts, viralShare, start, end, nodeId, usernamePrefix);
+        this.password = password;
+        this.batchRows = batchRows;
+        this.writers = writers;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        log.info("Generating {}", settings);
+        long begun = System.nanoTime();
+        DataGenerator.Counts counts;
+        try (JdbcRowSink sink = new JdbcRowSink(dataSource, batchRows, writers)) {
+            // One hash for everyone, BCrypt per user would dominate the run
+            counts = new DataGenerator(settings, passwordEncoder.encode(password)).generate(sink);
+        }
+        double seconds = (System.nanoTime() - begun) / 1e9;
+        long rows = counts.users() + counts.posts() + counts.comments() + counts.replies() + counts.likes();
+        log.info("Generated {} in {} s ({} rows/s)", counts, Math.round(seconds), Math.round(rows / seconds));
+
+        // The STOMP broker's scheduler would otherwise keep the JVM alive
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,27 @@
+package com.baseer.social.datagen;
+
+import java.time.Instant;
+
+/**
+ * Size and shape of a generated dataset.
+ * comments, replies and likes are targets: per-post and per-comment counts are drawn
+ * from power-law distributions with those means, so the totals land close to them.
+ *
+ * @param viralPosts posts that are liked by viralShare of all users on top of the distribution
+ * @param start      creation time of the first post; users are created in the 30 days before
+ * @param end        creation time of the last post's activity
+ * @param nodeId     Snowflake node the generated IDs carry, kept apart from the live instances
+ */
+public record DataGenSettings(long seed,
+                              int users,
+                              int posts,
+                              long comments,
+                              long replies,
+                              long likes,
+                              int viralPosts,
+                              double viralShare,
+                              Instant start,
+                              Instant end,
+                              long nodeId,
+                              String usernamePrefix) {
+}
@@ -0,0 +1,259 @@
+package com.baseer.social.datagen;
+
+import com.baseer.social.id.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic dataset for benchmarks: the same settings always yield the
+ * same rows, IDs included.
+ *
+ * Shape:
+ *   post authors are skewed (a few users write most posts);
+ *   likes, comments per post and replies per comment follow power-law distributions,
+ *   so most content gets little activity and a long tail gets a lot;
+ *   viralPosts posts are additionally liked by viralShare of all users.
+ *
+ * Rows are emitted in creation-time order and their Snowflake IDs are composed from
+ * that time, so ORDER BY id matches ORDER BY created_at as it does for live data.
+ * Each post owns an equal slice of [start, end); its comments, replies and likes fall
+ * in the first, second and last third of the slice. Likers of a post are a stride
+ * walk over the users, which makes them distinct without remembering them.
+ * Memory is O(users + comments of one post).
+ */
+@Slf4j
+public class DataGenerator {
+
+    private static final double LIKE_ALPHA = 1.5;
+    private static final double COMMENT_ALPHA = 1.5;
+    private static final double REPLY_ALPHA = 1.3;
+    private static final Duration USER_SIGNUP_WINDOW = Duration.ofDays(30);
+
+    private static final String[] WORDS = {
+            "the", "a", "today", "new", "great", "just", "finally", "love", "coffee", "code",
+            "weekend", "project", "music", "travel", "photo", "team", "launch", "idea", "city", "night",
+            "morning", "friends", "book", "game", "release", "update", "thanks", "happy", "working", "on",
+            "with", "for", "about", "really", "never", "always", "best", "first", "last", "week"
+    };
+
+    private final DataGenSettings settings;
+    private final String passwordHash;
+    private final SplittableRandom random;
+    private final Timeline timeline;
+
+    private long commentsTotal;
+    private long repliesTotal;
+    private long likesTotal;
+
+    /**
+     * @param passwordHash stored password of every generated user
+     */
+    public DataGenerator(DataGenSettings settings, String passwordHash) {
+        if (settings.users() < 1 || settings.posts() < 0) {
+            throw new IllegalArgumentException("Need at least one user and a non-negative post count");
+        }
+        if (!settings.end().isAfter(settings.start())) {
+            throw new IllegalArgumentException("end must be after start");
+        }
+        this.settings = settings;
+        this.passwordHash = passwordHash;
+        this.random = new SplittableRandom(settings.seed());
+        this.timeline = new Timeline(settings.nodeId());
+    }
+
+    /**
+     * Generate the whole dataset into the sink
+     * @return numbers of rows emitted per table
+     */
+    public Counts generate(RowSink sink) {
+        long[] userIds = generateUsers(sink);
+        Set<Integer> viralPosts = pickViralPosts();
+
+        int users = userIds.length;
+        int viralLikes = (int) Math.min(users, Math.round(users * settings.viralShare()));
+        int posts = settings.posts();
+        double likesMean = posts == 0 ? 0
+                : Math.max(0, settings.likes() - (long) viralPosts.size() * viralLikes) / (double) posts;
+        double commentsMean = posts == 0 ? 0 : settings.comments() / (double) posts;
+        double repliesMean = settings.comments() == 0 ? 0 : settings.replies() / (double) settings.comments();
+
+        long start = settings.start().toEpochMilli();
+        long span = settings.end().toEpochMilli() - start;
+        long slice = posts == 0 ? 0 : span / posts;
+        int progressStep = Math.max(1, posts / 10);
+        long begun = System.nanoTime();
+
+        for (int p = 0; p < posts; p++) {
+            long postTime = start + span * p / posts;
+            int likes = viralPosts.contains(p) ? viralLikes : (int) Math.min(users, powerLaw(likesMean, LIKE_ALPHA));
+            int comments = (int) powerLaw(commentsMean, COMMENT_ALPHA);
+            int[] repliesPerComment = new int[comments];
+            for (int c = 0; c < comments; c++) {
+                repliesPerComment[c] = (int) powerLaw(repliesMean, REPLY_ALPHA);
+            }
+
+            long postId = timeline.next(postTime);
+            long authorId = userIds[(int) (users * Math.pow(random.nextDouble(), 2))];
+            sink.post(postId, authorId, text(5, 30), likes, comments, createdAt(postId));
+
+            long[] commentIds = new long[comments];
+            for (int c = 0; c < comments; c++) {
+                long id = timeline.next(postTime + slice / 3 * c / comments);
+                commentIds[c] = id;
+                sink.comment(id, postId, randomUser(userIds), text(3, 15), repliesPerComment[c], createdAt(id));
+            }
+            commentsTotal += comments;
+
+            int replies = 0;
+            for (int r : repliesPerComment) {
+                replies += r;
+            }
+            int emitted = 0;
+            for (int c = 0; c < comments; c++) {
+                for (int r = 0; r < repliesPerComment[c]; r++) {
+                    long id = timeline.next(postTime + slice / 3 + slice / 3 * emitted++ / replies);
+                    sink.reply(id, commentIds[c], randomUser(userIds), text(3, 15), createdAt(id));
+                }
+            }
+            repliesTotal += replies;
+
+            long offset = random.nextInt(users);
+            long stride = coprimeStride(users);
+            for (int l = 0; l < likes; l++) {
+                long id = timeline.next(postTime + 2 * (slice / 3) + slice / 3 * l / likes);
+                sink.like(id, postId, userIds[(int) ((offset + stride * l) % users)], createdAt(id));
+            }
+            likesTotal += likes;
+
+            if ((p + 1) % progressStep == 0) {
+                double seconds = (System.nanoTime() - begun) / 1e9;
+                log.info("Generated {}/{} posts, {} comments, {} replies, {} likes ({} s)",
+                        p + 1, posts, commentsTotal, repliesTotal, likesTotal, Math.round(seconds));
+            }
+        }
+        return new Counts(users, posts, commentsTotal, repliesTotal, likesTotal);
+    }
+
+    private long[] generateUsers(RowSink sink) {
+        int users = settings.users();
+        long window = USER_SIGNUP_WINDOW.toMillis();
+        long first = settings.start().toEpochMilli() - window;
+        long[] ids = new long[users];
+        for (int i = 0; i < users; i++) {
+            long id = timeline.next(first + window * i / users);
+            ids[i] = id;
+            String username = settings.usernamePrefix() + i;
+            sink.user(id, username, username + "@example.com", passwordHash,
+                    capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + i, createdAt(id));
+        }
+        return ids;
+    }
+
+    private Set<Integer> pickViralPosts() {
+        Set<Integer> picked = new HashSet<>();
+        int wanted = Math.min(settings.viralPosts(), settings.posts());
+        while (picked.size() < wanted) {
+            picked.add(random.nextInt(settings.posts()));
+        }
+        return picked;
+    }
+
+    /**
+     * Lomax (Pareto shifted to start at 0) sample with the given mean, rounded to a count:
+     * zero and one are the most likely values and the tail decays as a power law
+     */
+    private long powerLaw(double mean, double alpha) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double scale = mean * (alpha - 1);
+        double sample = scale * (Math.pow(1 - random.nextDouble(), -1 / alpha) - 1);
+        return Math.min(Integer.MAX_VALUE, Math.round(sample));
+    }
+
+    /**
+     * Step coprime to n, so (offset + stride * i) % n visits n distinct values
+     */
+    private long coprimeStride(int n) {
+        if (n == 1) {
+            return 1;
+        }
+        long stride;
+        do {
+            stride = 1 + random.nextInt(n - 1);
+        } while (gcd(stride, n) != 1);
+        return stride;
+    }
+
+    private long randomUser(long[] userIds) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    private String text(int minWords, int maxWords) {
+        int words = minWords + random.nextInt(maxWords - minWords + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static long createdAt(long id) {
+        return SnowflakeIdGenerator.timestampOf(id);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Rows emitted per table
+     */
+    public record Counts(long users, long posts, long comments, long replies, long likes) {
+    }
+
+    /**
+     * Hands out Snowflake IDs for requested times that never go backwards: a request
+     * earlier than the last one reuses its millisecond with the next sequence number.
+     */
+    static final class Timeline {
+
+        private final long nodeId;
+        private long lastMillis = Long.MIN_VALUE;
+        private long sequence;
+
+        Timeline(long nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        long next(long millis) {
+            if (millis <= lastMillis) {
+                millis = lastMillis;
+                if (++sequence > SnowflakeIdGenerator.SEQUENCE_MASK) {
+                    millis++;
+                    sequence = 0;
+                }
+            } else {
+                sequence = 0;
+            }
+            lastMillis = millis;
+            return SnowflakeIdGenerator.compose(millis, nodeId, sequence);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.baseer.social.datagen;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes generated rows with multi-row INSERT statements of batchRows rows.
+ * Full batches go through a bounded queue to `writers` threads, each with its own
+ * connection in autocommit mode, so the generator never waits for a round trip unless
+ * every writer is busy.
+ *
+ * The generator guarantees unique keys, so each writer session turns off unique and
+ * foreign key checks (MySQL) and batches may land in any order across tables; this keeps
+ * secondary index maintenance from dominating. The checks are switched back on before the
+ * connections are returned. Load into an empty schema: a second run with the same
+ * settings repeats the IDs.
+ *
+ * A writer that fails records the error and keeps discarding batches; the producer and
+ * close() rethrow it. If every writer has died, queueing fails instead of blocking.
+ */
+public class JdbcRowSink implements RowSink, AutoCloseable {
+
+    private static final Batch END = new Batch(null, null, 0);
+
+    private final DataSource dataSource;
+    private final int batchRows;
+    private final BlockingQueue<Batch> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final TableBuffer users;
+    private final TableBuffer posts;
+    private final TableBuffer comments;
+    private final TableBuffer replies;
+    private final TableBuffer likes;
+
+    public JdbcRowSink(DataSource dataSource, int batchRows, int writerCount) {
+        this.dataSource = dataSource;
+        this.batchRows = batchRows;
+        this.queue = new ArrayBlockingQueue<>(writerCount * 2);
+
+        this.users = new TableBuffer("users",
+                List.of("id", "username", "email", "password", "full_name", "created_at", "updated_at"));
+        this.posts = new TableBuffer("posts",
+                List.of("id", "user_id", "content", "likes_count", "comments_count", "created_at", "updated_at"));
+        this.comments = new TableBuffer("comments",
+                List.of("id", "post_id", "user_id", "content", "replies_count", "created_at", "updated_at"));
+        this.replies = new TableBuffer("replies",
+                List.of("id", "comment_id", "user_id", "content", "created_at"));
+        this.likes = new TableBuffer("likes",
+                List.of("id", "post_id", "user_id", "created_at"));
+
+        for (int i = 0; i < writerCount; i++) {
+            Thread writer = new Thread(this::drain, "datagen-writer-" + i);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    @Override
+    public void user(long id, String username, String email, String password, String fullName, long createdAt) {
+        Timestamp time = new Timestamp(createdAt);
+        users.add(id, username, email, password, fullName, time, time);
+    }
+
+    @Override
+    public void post(long id, long userId, String content, int likesCount, int commentsCount, long createdAt) {
+        Timestamp time = new Timestamp(createdAt);
+        posts.add(id, userId, content, likesCount, commentsCount, time, time);
+    }
+
+    @Override
+    public void comment(long id, long postId, long userId, String content, int repliesCount, long createdAt) {
+        Timestamp time = new Timestamp(createdAt);
+        comments.add(id, postId, userId, content, repliesCount, time, time);
+    }
+
+    @Override
+    public void reply(long id, long commentId, long userId, String content, long createdAt) {
+        replies.add(id, commentId, userId, content, new Timestamp(createdAt));
+    }
+
+    @Override
+    public void like(long id, long postId, long userId, long createdAt) {
+        likes.add(id, postId, userId, new Timestamp(createdAt));
+    }
+
+    /**
+     * Write the remaining rows and wait for the writers to finish
+     * @throws SQLException if any writer failed
+     */
+    @Override
+    public void close() throws SQLException, InterruptedException {
+        try {
+            for (TableBuffer buffer : List.of(users, posts, comments, replies, likes)) {
+                buffer.flush();
+            }
+        } catch (IllegalStateException e) {
+            if (failure.get() == null) {
+                throw e;
+            }
+        }
+        for (int i = 0; i < writers.size(); i++) {
+            if (!enqueue(END)) {
+                break;
+            }
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new SQLException("Bulk insert failed", error);
+        }
+    }
+
+    private void submit(Batch batch) {
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IllegalStateException("Bulk insert failed", error);
+        }
+        try {
+            if (!enqueue(batch)) {
+                throw new IllegalStateException("Bulk insert failed: no writer left", failure.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing rows", e);
+        }
+    }
+
+    /**
+     * Queue a batch, waiting while any writer is alive to take it
+     * @return false if every writer has stopped
+     */
+    private boolean enqueue(Batch batch) throws InterruptedException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            if (writers.stream().noneMatch(Thread::isAlive)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writer loop: executes batches until END. After a failure it keeps taking batches
+     * so the producer is never blocked on a full queue.
+     */
+    private void drain() {
+        Map<TableBuffer, PreparedStatement> fullBatchStatements = new HashMap<>();
+        boolean ended = false;
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET unique_checks = 0, foreign_key_checks = 0");
+            }
+            try {
+                for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+                    if (failure.get() == null) {
+                        write(connection, fullBatchStatements, batch);
+                    }
+                }
+                ended = true;
+            } finally {
+                for (PreparedStatement statement : fullBatchStatements.values()) {
+                    statement.close();
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET unique_checks = 1, foreign_key_checks = 1");
+                }
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+            if (ended) {
+                // Failed restoring the session after END: nothing more is queued for this writer
+                return;
+            }
+            // Keep consuming so close() and the producer do not hang
+            try {
+                while (queue.take() != END) {
+                    // discard
+                }
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void write(Connection connection, Map<TableBuffer, PreparedStatement> fullBatchStatements,
+                       Batch batch) throws SQLException {
+        TableBuffer table = batch.table();
+        if (batch.rows() == batchRows) {
+            PreparedStatement statement = fullBatchStatements.get(table);
+            if (statement == null) {
+                statement = connection.prepareStatement(table.sql(batchRows));
+                fullBatchStatements.put(table, statement);
+            }
+            execute(statement, batch);
+        } else {
+            try (PreparedStatement statement = connection.prepareStatement(table.sql(batch.rows()))) {
+                execute(statement, batch);
+            }
+        }
+    }
+
+    private static void execute(PreparedStatement statement, Batch batch) throws SQLException {
+        Object[] values = batch.values();
+        int count = batch.rows() * batch.table().columns;
+        for (int i = 0; i < count; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        statement.executeUpdate();
+    }
+
+    private record Batch(TableBuffer table, Object[] values, int rows) {
+    }
+
+    /**
+     * Collects rows of one table until batchRows are buffered, then hands them to a writer
+     */
+    private final class TableBuffer {
+
+        private final String prefix;
+        private final String rowPlaceholders;
+        private final int columns;
+        private Object[] buffer;
+        private int rows;
+
+        TableBuffer(String table, List<String> columns) {
+            this.prefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+            this.rowPlaceholders = "(" + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+            this.columns = columns.size();
+            this.buffer = new Object[batchRows * this.columns];
+        }
+
+        void add(Object... values) {
+            System.arraycopy(values, 0, buffer, rows * columns, columns);
+            if (++rows == batchRows) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows == 0) {
+                return;
+            }
+            submit(new Batch(this, buffer, rows));
+            buffer = new Object[batchRows * columns];
+            rows = 0;
+        }
+
+        String sql(int rowCount) {
+            StringBuilder sql = new StringBuilder(prefix);
+            for (int i = 0; i < rowCount; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(rowPlaceholders);
+            }
+            return sql.toString();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.baseer.social.datagen;
+
+/**
+ * Receives the rows produced by DataGenerator, column values exactly as stored.
+ * Timestamps are epoch milliseconds.
+ */
+public interface RowSink {
+
+    void user(long id, String username, String email, String password, String fullName, long createdAt);
+
+    void post(long id, long userId, String content, int likesCount, int commentsCount, long createdAt);
+
+    void comment(long id, long postId, long userId, String content, int repliesCount, long createdAt);
+
+    void reply(long id, long commentId, long userId, String content, long createdAt);
+
+    void like(long id, long postId, long userId, long createdAt);
+}
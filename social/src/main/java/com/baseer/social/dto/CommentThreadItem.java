@@ -0,0 +1,30 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Top-level comment in a thread page, with the first few replies inlined.
+ * When hasMoreReplies is set, nextReplyCursor continues the replies via
+ * GET /api/comments/{id}/replies/page (a null cursor starts from the first reply).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentThreadItem {
+
+    private Long id;
+    private String content;
+    private Integer repliesCount;
+    private LocalDateTime createdAt;
+    private PostResponse.UserDTO user;
+    private List<ReplyView> replies;
+    private boolean hasMoreReplies;
+    private String nextReplyCursor;
+}
@@ -0,0 +1,39 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a comment, with a compact author card.
+ * Populated directly by JPQL constructor expressions, see CommentRepository.
+ * A class rather than a record: the query selects only the author ID and the
+ * card is set afterwards from AuthorCardCache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CommentView {
+
+    private Long id;
+    private Long postId;
+    private String content;
+    private Integer repliesCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private PostResponse.UserDTO user;
+
+    /**
+     * Constructor used by "SELECT new CommentView(...)" queries.
+     * Only the author ID is selected, the rest of the card is attached from AuthorCardCache.
+     */
+    public CommentView(Long id, Long postId, String content, Integer repliesCount,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, Long userId) {
+        this(id, postId, content, repliesCount, createdAt, updatedAt,
+                PostResponse.UserDTO.builder().id(userId).build());
+    }
+}
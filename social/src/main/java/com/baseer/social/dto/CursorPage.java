@@ -0,0 +1,55 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Generic keyset-paginated response.
+ * nextCursor is null when there are no more items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        return new CursorPage<>(items, nextCursor, nextCursor != null);
+    }
+
+    /**
+     * Read one page of rows and return them as the items
+     * @see #fetch(int, IntFunction, Function, Function)
+     */
+    public static <T> CursorPage<T> fetch(int pageSize, IntFunction<List<T>> read, Function<T, String> cursorOf) {
+        return fetch(pageSize, read, cursorOf, rows -> rows);
+    }
+
+    /**
+     * Read one page of rows, asking for one more than the page holds to know whether
+     * another page exists; the next cursor points at the last row kept
+     * @param read reads up to the given number of rows, in page order
+     * @param cursorOf the cursor resuming after a row
+     * @param toItems turns the kept rows into the page items; may leave rows out
+     */
+    public static <R, T> CursorPage<T> fetch(int pageSize, IntFunction<List<R>> read,
+                                             Function<R, String> cursorOf, Function<List<R>, List<T>> toItems) {
+        List<R> rows = read.apply(pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = cursorOf.apply(rows.get(pageSize - 1));
+        }
+        return of(toItems.apply(rows), nextCursor);
+    }
+}
@@ -0,0 +1,8 @@
+package com.baseer.social.dto;
+
+/**
+ * One NDJSON line of a user data export: the record type and its fields.
+ * Types: profile, post, comment, reply, like.
+ */
+public record ExportLine(String type, Object data) {
+}
@@ -0,0 +1,23 @@
+package com.baseer.social.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for reporting the posts a client has shown to the current user.
+ * Feeds send one batch per screen or scroll step rather than one request per post.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImpressionsRequest {
+
+    @NotEmpty(message = "At least one post ID is required")
+    @Size(max = 100, message = "At most 100 post IDs per batch")
+    private List<Long> postIds;
+}
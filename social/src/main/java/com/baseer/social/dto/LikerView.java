@@ -0,0 +1,31 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for one like of a post: who liked it and when, with a compact author card.
+ * Populated directly by JPQL constructor expressions, see LikeRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LikerView {
+
+    private Long likeId;
+    private LocalDateTime likedAt;
+    private PostResponse.UserDTO user;
+
+    /**
+     * Constructor used by "SELECT new LikerView(...)" queries.
+     * Only the user ID is selected, the rest of the card is attached from AuthorCardCache.
+     */
+    public LikerView(Long likeId, LocalDateTime likedAt, Long userId) {
+        this(likeId, likedAt, PostResponse.UserDTO.builder().id(userId).build());
+    }
+}
@@ -0,0 +1,21 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO returned for an uploaded media object.
+ * The key is what PostRequest.mediaKey and UpdateProfileRequest.profilePictureKey expect.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaResponse {
+    private String key;
+    private String url;
+    private String contentType;
+    private Long size;
+}
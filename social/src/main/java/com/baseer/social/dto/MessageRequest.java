@@ -0,0 +1,20 @@
+package com.baseer.social.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for sending a direct message.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageRequest {
+
+    @NotBlank(message = "Message content is required")
+    @Size(max = 2000, message = "Messages are at most 2000 characters")
+    private String content;
+}
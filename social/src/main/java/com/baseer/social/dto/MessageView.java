@@ -0,0 +1,33 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a direct message, as listed per conversation and pushed to /user/queue/messages.
+ * Populated directly by JPQL constructor expressions, see DirectMessageRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageView {
+
+    private Long id;
+    private Long senderId;
+    private Long recipientId;
+    private String content;
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor used by "SELECT new MessageView(...)" queries, which select the conversation's
+     * user pair; the recipient is whichever of the two did not send the message
+     */
+    public MessageView(Long id, Long userLow, Long userHigh, Long senderId, String content, LocalDateTime createdAt) {
+        this(id, senderId, senderId.equals(userLow) ? userHigh : userLow, content, createdAt);
+    }
+}
@@ -0,0 +1,31 @@
+package com.baseer.social.dto;
+
+import com.baseer.social.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model for an aggregated notification: "actors[0], actors[1] and (actorCount - 2) others
+ * liked your post". Served by the unread list and pushed to /user/queue/notifications.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationView {
+
+    private Long id;
+    private Notification.Kind kind;
+    /** The post for LIKE and COMMENT, the comment for REPLY */
+    private Long targetId;
+    private Long postId;
+    private Integer actorCount;
+    /** Latest actors, newest first, at most NotificationService.MAX_ACTORS */
+    private List<PostResponse.UserDTO> actors;
+    private LocalDateTime updatedAt;
+}
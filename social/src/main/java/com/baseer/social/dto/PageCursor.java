@@ -0,0 +1,46 @@
+package com.baseer.social.dto;
+
+import com.baseer.social.exceptionHandling.CustomException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor pointing at the last row of a page.
+ * IDs are time-ordered (see SnowflakeIdGenerator), so the ID alone is the sort key.
+ */
+public record PageCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(Long id) {
+        return new PageCursor(id).encode();
+    }
+
+    /**
+     * ID that a newest-first page continues below: the cursor's, or Long.MAX_VALUE on the first page
+     */
+    public static long idBelow(String cursor) {
+        PageCursor before = decode(cursor);
+        return before == null ? Long.MAX_VALUE : before.id();
+    }
+
+    /**
+     * Decode a cursor from a request parameter, null/blank means first page
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new PageCursor(Long.parseLong(raw));
+        } catch (RuntimeException ex) {
+            throw new CustomException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
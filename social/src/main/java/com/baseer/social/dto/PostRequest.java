@@ -7,7 +7,8 @@ import lombok.NoArgsConstructor;
 
 /**
  * DTO for creating and updating posts.
- * Contains post content and optional image URL.
+ * Contains post content and an optional image: the key of an uploaded media object
+ * (POST /api/media), or an external image URL. Scheduling takes a ScheduledPostRequest.
  */
 @Data
 @NoArgsConstructor
@@ -18,4 +19,6 @@ public class PostRequest {
     private String content;
 
     private String imageUrl;
+
+    private String mediaKey;
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.baseer.social.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -13,10 +15,13 @@ public class PostResponse {
     private String imageUrl;
     private Integer likesCount;
     private Integer commentsCount;
+    private Long viewCount;
     private LocalDateTime createdAt;
     private UserDTO user;
 
     @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
     @Builder
     public static class UserDTO {
         private Long id;
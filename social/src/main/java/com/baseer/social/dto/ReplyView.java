@@ -0,0 +1,35 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a reply, with a compact author card.
+ * Populated directly by JPQL constructor expressions, see ReplyRepository.
+ * A class rather than a record: the query selects only the author ID and the
+ * card is set afterwards from AuthorCardCache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplyView {
+
+    private Long id;
+    private Long commentId;
+    private String content;
+    private LocalDateTime createdAt;
+    private PostResponse.UserDTO user;
+
+    /**
+     * Constructor used by "SELECT new ReplyView(...)" queries.
+     * Only the author ID is selected, the rest of the card is attached from AuthorCardCache.
+     */
+    public ReplyView(Long id, Long commentId, String content, LocalDateTime createdAt, Long userId) {
+        this(id, commentId, content, createdAt, PostResponse.UserDTO.builder().id(userId).build());
+    }
+}
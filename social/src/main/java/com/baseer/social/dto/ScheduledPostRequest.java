@@ -0,0 +1,29 @@
+package com.baseer.social.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for scheduling a post.
+ * Same content and image fields as PostRequest, plus the time to publish the post at.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledPostRequest {
+
+    @NotBlank(message = "Post content is required")
+    private String content;
+
+    private String imageUrl;
+
+    private String mediaKey;
+
+    @NotNull(message = "Publication time is required")
+    private LocalDateTime publishAt;
+}
@@ -0,0 +1,24 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a post waiting for publication. Once published the post gets a new ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledPostView {
+
+    private Long id;
+    private String content;
+    private String imageUrl;
+    private LocalDateTime publishAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package com.baseer.social.dto;
+
+import com.baseer.social.exceptionHandling.CustomException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for ranked results, pointing at the last hit of a page.
+ * Ranked pages are ordered by score and then ID, so both are needed to continue;
+ * the score is kept as its exact float bits.
+ */
+public record ScoreCursor(float score, long id) {
+
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(score)) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a request parameter, null/blank means first page
+     */
+    public static ScoreCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new ScoreCursor(Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new CustomException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
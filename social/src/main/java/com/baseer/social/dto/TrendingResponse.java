@@ -0,0 +1,32 @@
+package com.baseer.social.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trending hashtags and posts of the current window, highest score first.
+ * Scores are weighted engagement counts, approximate and never below the true count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrendingResponse {
+
+    private List<TagScore> tags;
+    private List<PostResponse> posts;
+    private LocalDateTime computedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TagScore {
+        private String tag;
+        private int score;
+    }
+}
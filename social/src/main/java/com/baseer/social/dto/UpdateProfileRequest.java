@@ -0,0 +1,28 @@
+package com.baseer.social.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for updating the current user's profile.
+ * Contains the editable profile fields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateProfileRequest {
+
+    @NotBlank(message = "Full name is required")
+    @Size(max = 100, message = "Full name must be at most 100 characters")
+    private String fullName;
+
+    private String bio;
+
+    private String profilePicture;
+
+    /** Key of an uploaded media object, takes precedence over profilePicture */
+    private String profilePictureKey;
+}
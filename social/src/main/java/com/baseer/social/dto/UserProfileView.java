@@ -0,0 +1,21 @@
+package com.baseer.social.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a user profile.
+ * Carries only the columns the profile endpoints serialize, never the password hash
+ * or the posts/comments/likes collections. Populated directly by JPQL constructor
+ * expressions, see UserRepository.
+ */
+@Builder
+public record UserProfileView(Long id,
+                              String username,
+                              String email,
+                              String fullName,
+                              String bio,
+                              String profilePicture,
+                              LocalDateTime createdAt) {
+}
@@ -0,0 +1,54 @@
+package com.baseer.social.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a running account erasure.
+ * The row exists from the erasure request until the user row itself is deleted.
+ */
+@Entity
+@Table(name = "account_erasures")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountErasure {
+
+    /**
+     * Erasure steps, in execution order
+     */
+    public enum Phase {
+        LIKES, REPLIES, COMMENTS, POSTS, USER
+    }
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private Phase phase;
+
+    /**
+     * Keyset position inside the current phase, the last processed ID
+     */
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "rows_deleted", nullable = false)
+    private Long rowsDeleted;
+
+    @Column(name = "requested_at", nullable = false, updatable = false)
+    private LocalDateTime requestedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
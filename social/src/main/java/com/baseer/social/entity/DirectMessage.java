@@ -0,0 +1,39 @@
+package com.baseer.social.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One-to-one message. The conversation is the user pair (userLow < userHigh); the table's
+ * primary key is (user_low, user_high, id), the ID alone is unique as well.
+ * Rows are appended by MessageWriter in batches, never through this entity;
+ * it maps the table for DirectMessageRepository.
+ */
+@Entity
+@Table(name = "direct_messages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DirectMessage {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_low", nullable = false)
+    private Long userLow;
+
+    @Column(name = "user_high", nullable = false)
+    private Long userHigh;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false, length = 2000)
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
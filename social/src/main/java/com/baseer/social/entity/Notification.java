@@ -0,0 +1,71 @@
+package com.baseer.social.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregated notification: every event of one kind on one target for one recipient.
+ * Rows are written by NotificationService in batched upserts, never through this entity;
+ * it maps the table for NotificationRepository.
+ */
+@Entity
+@Table(name = "notifications",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"recipient_id", "kind", "target_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Notification {
+
+    /**
+     * What happened and to what: LIKE and COMMENT target a post, REPLY targets a comment
+     */
+    public enum Kind {
+        LIKE, COMMENT, REPLY
+    }
+
+    @Id
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    /**
+     * Events since the recipient last read the notification
+     */
+    @Column(name = "actor_count", nullable = false)
+    private Integer actorCount;
+
+    /**
+     * Latest actors' user IDs, newest first, comma-separated
+     */
+    @Column(name = "actor_ids", nullable = false, length = 64)
+    private String actorIds;
+
+    /**
+     * Snowflake ID of the last write, the sort key of the unread list
+     */
+    @Column(name = "activity_id", nullable = false)
+    private Long activityId;
+
+    @Column(name = "is_read", nullable = false)
+    private Boolean read;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
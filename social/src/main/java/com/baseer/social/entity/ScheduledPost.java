@@ -0,0 +1,39 @@
+package com.baseer.social.entity;
+
+import com.baseer.social.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Post waiting for its publication time. Publishing inserts a regular Post with a new ID,
+ * so the post sorts by when it appeared, and deletes this row in the same transaction.
+ */
+@Entity
+@Table(name = "scheduled_posts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledPost {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "image_url")
+    private String imageUrl;
+
+    @Column(name = "publish_at", nullable = false)
+    private LocalDateTime publishAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,115 @@
+package com.baseer.social.feed;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Posts ordered by exponentially time-decayed engagement, updated one event at a time.
+ *
+ * A post's score at time t is the sum of w * exp(-lambda * (t - t_i)) over its engagements
+ * (weight w at time t_i). All scores decay by the same factor as time passes, so ranking by
+ * sum of w * exp(lambda * (t_i - t0)) for a fixed origin t0 gives the same order at any
+ * instant, and that sum only changes when an engagement arrives ("forward decay"). It is
+ * kept as a natural logarithm, so it cannot overflow however long the process runs, and
+ * stored as a float, the precision ScoreCursor carries.
+ *
+ * Entries sit in a concurrent skip list ordered by score and then ID, both descending, so a
+ * page is a tail view walked for page-size entries. Beyond maxPosts the lowest are dropped.
+ * Writes hold the index lock, so the map and the list change together and an eviction cannot
+ * race an insert; pages read the list without it.
+ */
+final class RankedFeedIndex {
+
+    static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    private final double lambdaPerMilli;
+    private final long originMillis;
+    private final int maxPosts;
+    private final ConcurrentHashMap<Long, Float> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING);
+
+    /**
+     * @param halfLifeMillis time for an engagement's contribution to halve
+     * @param originMillis t0, scores of engagements at this time are ln(weight)
+     */
+    RankedFeedIndex(long halfLifeMillis, long originMillis, int maxPosts) {
+        this.lambdaPerMilli = Math.log(2) / halfLifeMillis;
+        this.originMillis = originMillis;
+        this.maxPosts = maxPosts;
+    }
+
+    /**
+     * Add an engagement of the given weight at a time to a post, creating its entry if needed
+     */
+    void add(long postId, double weight, long atMillis) {
+        float added = logWeight(weight, atMillis);
+        update(postId, old -> old == null ? added : (float) logAddExp(old, added));
+    }
+
+    /**
+     * Raise a post's score to at least that of one engagement of the given weight at a time;
+     * used when loading from the database, so engagements counted from events meanwhile are kept
+     */
+    void raise(long postId, double weight, long atMillis) {
+        float loaded = logWeight(weight, atMillis);
+        update(postId, old -> old == null ? loaded : Math.max(old, loaded));
+    }
+
+    synchronized void remove(long postId) {
+        Float old = scores.remove(postId);
+        if (old != null) {
+            ranking.remove(new Entry(old, postId));
+        }
+    }
+
+    /**
+     * Up to limit entries after a position, highest score first
+     * @param after last entry of the previous page, null for the first page
+     */
+    List<Entry> page(Entry after, int limit) {
+        List<Entry> page = new ArrayList<>(limit);
+        for (Entry entry : after == null ? ranking : ranking.tailSet(after, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    private float logWeight(double weight, long atMillis) {
+        return (float) (Math.log(weight) + lambdaPerMilli * (atMillis - originMillis));
+    }
+
+    private synchronized void update(long postId, Function<Float, Float> next) {
+        Float old = scores.get(postId);
+        Float score = next.apply(old);
+        if (old != null) {
+            ranking.remove(new Entry(old, postId));
+        }
+        ranking.add(new Entry(score, postId));
+        scores.put(postId, score);
+        // Drop the lowest, which may be the entry just added
+        while (scores.size() > maxPosts) {
+            scores.remove(ranking.pollLast().postId());
+        }
+    }
+
+    /** ln(e^a + e^b) without overflow */
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+
+    record Entry(float score, long postId) {
+    }
+}
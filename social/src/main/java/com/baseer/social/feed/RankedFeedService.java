@@ -0,0 +1,194 @@
+package com.baseer.social.feed;
+
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.ScoreCursor;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.id.SnowflakeIdGenerator;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.FeedScoreRow;
+import com.baseer.social.search.SearchDocumentEvent;
+import com.baseer.social.service.PostService;
+import com.baseer.social.trending.EngagementEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feed ranked by time-decayed engagement (see RankedFeedIndex).
+ *
+ * A post enters with post-weight at its creation time; every like and comment adds
+ * like-weight or comment-weight at the time it happens, so recent engagement (velocity)
+ * outweighs old totals and a post's weight halves every half-life. Scores change only on
+ * EngagementEvents, applied after commit in O(log n); serving a page walks page-size
+ * entries and hydrates them with one query. Unlikes are not subtracted.
+ *
+ * At startup posts created within max-age are loaded from the database; their existing
+ * counters are credited at creation time, as their history is not stored. A failed load is
+ * retried after load-retry-delay, doubled per attempt up to MAX_RETRY_DELAY; the feed
+ * answers 503 until a load has finished.
+ *
+ * Metrics: social.feed.ranked.posts.
+ */
+@Slf4j
+@Service
+public class RankedFeedService {
+
+    public static final int MAX_PAGE_SIZE = 50;
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(10);
+
+    private final PostRepository postRepository;
+    private final PostService postService;
+    private final RankedFeedIndex index;
+    private final double postWeight;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final Duration maxAge;
+    private final boolean loadOnStartup;
+    private final int chunkSize;
+    private final Duration retryDelay;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile boolean ready;
+
+    public RankedFeedService(PostRepository postRepository,
+                             PostService postService,
+                             MeterRegistry meterRegistry,
+                             @Value("${social.feed.ranked.half-life:6h}") Duration halfLife,
+                             @Value("${social.feed.ranked.max-age:7d}") Duration maxAge,
+                             @Value("${social.feed.ranked.max-posts:200000}") int maxPosts,
+                             @Value("${social.feed.ranked.post-weight:1}") double postWeight,
+                             @Value("${social.feed.ranked.like-weight:1}") double likeWeight,
+                             @Value("${social.feed.ranked.comment-weight:3}") double commentWeight,
+                             @Value("${social.feed.ranked.load-on-startup:true}") boolean loadOnStartup,
+                             @Value("${social.feed.ranked.load-chunk-size:10000}") int chunkSize,
+                             @Value("${social.feed.ranked.load-retry-delay:10s}") Duration retryDelay) {
+        this.postRepository = postRepository;
+        this.postService = postService;
+        this.index = new RankedFeedIndex(halfLife.toMillis(), System.currentTimeMillis(), maxPosts);
+        this.postWeight = postWeight;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.maxAge = maxAge;
+        this.loadOnStartup = loadOnStartup;
+        this.chunkSize = chunkSize;
+        this.retryDelay = retryDelay;
+
+        Gauge.builder("social.feed.ranked.posts", index, RankedFeedIndex::size).register(meterRegistry);
+    }
+
+    /**
+     * One page of the ranked feed, highest score first
+     */
+    public CursorPage<PostResponse> getRankedFeed(String cursor, int size) {
+        if (!ready) {
+            throw new CustomException("Ranked feed is loading", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        ScoreCursor after = ScoreCursor.decode(cursor);
+
+        RankedFeedIndex.Entry from = after == null ? null : new RankedFeedIndex.Entry(after.score(), after.id());
+
+        // Posts deleted in bulk are left out, so a page can be short while more follow
+        return CursorPage.fetch(pageSize, limit -> index.page(from, limit),
+                entry -> new ScoreCursor(entry.score(), entry.postId()).encode(),
+                entries -> postService.getPostResponses(entries.stream().map(RankedFeedIndex.Entry::postId).toList()));
+    }
+
+    /**
+     * Credit a new post, like or comment once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        switch (event.kind()) {
+            case POST -> index.add(event.postId(), postWeight, SnowflakeIdGenerator.timestampOf(event.postId()));
+            case LIKE -> index.add(event.postId(), likeWeight, System.currentTimeMillis());
+            case COMMENT -> index.add(event.postId(), commentWeight, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Drop a deleted post once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentChanged(SearchDocumentEvent event) {
+        if (event.kind() == SearchDocumentEvent.Kind.POST && event.isDelete()) {
+            index.remove(event.id());
+        }
+    }
+
+    /**
+     * Load recent posts in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!loadOnStartup) {
+            ready = true;
+            return;
+        }
+        Thread loader = new Thread(this::loadUntilReady, "ranked-feed-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Load, retrying with a doubling delay until a load succeeds or another load is running
+     */
+    void loadUntilReady() {
+        Duration delay = retryDelay;
+        while (true) {
+            try {
+                load();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not load the ranked feed, retrying in {}", delay, e);
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                Duration doubled = delay.multipliedBy(2);
+                delay = doubled.compareTo(MAX_RETRY_DELAY) < 0 ? doubled : MAX_RETRY_DELAY;
+            }
+        }
+    }
+
+    /**
+     * Credit the counters of every live post created within max-age. Blocks until done
+     * @return false if a load was already running
+     */
+    public boolean load() {
+        if (!loading.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long afterId = SnowflakeIdGenerator.minIdAt(System.currentTimeMillis() - maxAge.toMillis());
+            long loaded = 0;
+            List<FeedScoreRow> rows;
+            while (!(rows = postRepository.findFeedScoreChunk(afterId, chunkSize)).isEmpty()) {
+                for (FeedScoreRow row : rows) {
+                    double weight = postWeight + likeWeight * row.getLikesCount() + commentWeight * row.getCommentsCount();
+                    index.raise(row.getId(), weight, SnowflakeIdGenerator.timestampOf(row.getId()));
+                }
+                loaded += rows.size();
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            ready = true;
+            log.info("Ranked feed loaded: {} posts read, {} ranked", loaded, index.size());
+            return true;
+        } finally {
+            loading.set(false);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.baseer.social.id;
+
+/**
+ * Source of primary keys for entities annotated with {@link SnowflakeId}.
+ * Implementations must be thread-safe and return unique, positive IDs.
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,20 @@
+package com.baseer.social.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the node-aware ID generator and installs it for Hibernate.
+ * Every instance sharing a database must run with a distinct social.id.node-id.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${social.id.node-id:0}") long nodeId) {
+        IdGenerator generator = new SnowflakeIdGenerator(nodeId);
+        IdGenerators.install(generator);
+        return generator;
+    }
+}
@@ -0,0 +1,27 @@
+package com.baseer.social.id;
+
+/**
+ * Process-wide holder of the active {@link IdGenerator}.
+ * Hibernate instantiates identifier generators itself, so they look the
+ * generator up here rather than having it injected. IdGeneratorConfig
+ * installs the configured instance at startup.
+ */
+public final class IdGenerators {
+
+    private static volatile IdGenerator instance = new SnowflakeIdGenerator(0);
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator get() {
+        return instance;
+    }
+
+    public static void install(IdGenerator generator) {
+        instance = generator;
+    }
+
+    public static long nextId() {
+        return instance.nextId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.baseer.social.id;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snowflake-style 64-bit ID generator.
+ *
+ * Layout (most significant first):
+ *   1 bit   unused (IDs are always positive)
+ *   41 bits milliseconds since {@link #EPOCH} (~69 years)
+ *   10 bits node ID (0-1023), unique per running instance
+ *   12 bits per-millisecond sequence (4096 IDs/ms/node)
+ *
+ * IDs from one node are strictly increasing; across nodes they are ordered by
+ * creation time to the millisecond, so ORDER BY id matches ORDER BY created_at.
+ *
+ * After the clock steps backwards IDs keep using the last timestamp. If its sequence runs
+ * out, the generator sleeps until the clock catches up, or fails when that is more than
+ * {@link #MAX_BACKWARD_WAIT_MILLIS} away.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    public static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    static final long MAX_BACKWARD_WAIT_MILLIS = 1_000;
+
+    private final long nodeId;
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public synchronized long nextId() {
+        long timestamp = currentTimeMillis();
+
+        if (timestamp < lastTimestamp) {
+            // Clock moved backwards (NTP step): keep issuing from the last timestamp
+            // instead of risking duplicates, the sequence rolls it forward if needed
+            timestamp = lastTimestamp;
+        }
+
+        if (timestamp == lastTimestamp) {
+            if (sequence == SEQUENCE_MASK) {
+                // 4096 IDs used up in this millisecond; if waiting fails the sequence stays used up
+                timestamp = waitNextMillis(lastTimestamp);
+                sequence = 0L;
+            } else {
+                sequence++;
+            }
+        } else {
+            sequence = 0L;
+        }
+
+        lastTimestamp = timestamp;
+        return compose(timestamp, nodeId, sequence);
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Creation time encoded in an ID, in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * Node that generated an ID
+     */
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /**
+     * ID for an explicit time, node and sequence, for tools that assign IDs to synthetic rows
+     */
+    public static long compose(long epochMillis, long nodeId, long sequence) {
+        return ((epochMillis - EPOCH) << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Smallest ID that could be generated at the given time, for range scans by time
+     */
+    public static long minIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH) << TIMESTAMP_SHIFT;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Wait for the first millisecond after last. Within the current millisecond this spins;
+     * behind a backwards clock step it sleeps, and gives up on a step too large to sit out
+     */
+    private long waitNextMillis(long last) {
+        long timestamp = currentTimeMillis();
+        if (last - timestamp > MAX_BACKWARD_WAIT_MILLIS) {
+            throw new IllegalStateException("Clock moved backwards by " + (last - timestamp)
+                    + " ms and the sequence of the last millisecond is used up");
+        }
+        while (timestamp <= last) {
+            if (timestamp < last) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(last - timestamp));
+            } else {
+                Thread.onSpinWait();
+            }
+            timestamp = currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
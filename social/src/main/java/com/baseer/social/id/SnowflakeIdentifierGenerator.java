@@ -0,0 +1,15 @@
+package com.baseer.social.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate adapter for {@link SnowflakeId}, delegating to {@link IdGenerators}.
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return IdGenerators.nextId();
+    }
+}
@@ -0,0 +1,201 @@
+package com.baseer.social.messaging;
+
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.MessageRequest;
+import com.baseer.social.dto.MessageView;
+import com.baseer.social.dto.PageCursor;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.id.IdGenerator;
+import com.baseer.social.repository.DirectMessageRepository;
+import com.baseer.social.service.AuthorCardCache;
+import com.baseer.social.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Direct messages between two users.
+ *
+ * A send gets a time-ordered ID, is appended by MessageWriter's group commit and completes
+ * once stored; the request thread does not wait for it (the controller returns the future).
+ * After the commit the recipient's unread counter goes up and delivery to the recipient's and
+ * the sender's /user/queue/messages runs on a bounded pool; when that pool is saturated the
+ * push is dropped and counted, the message itself is stored and listed.
+ *
+ * Conversations are read newest first by keyset on the message ID, one primary-key range per
+ * page. Unread counts per (recipient, sender) live only in memory, in a cache bounded by
+ * unread-max-users: they start at zero after a restart, cover the messages stored by this
+ * instance and are cleared when the recipient marks the conversation read.
+ *
+ * Metrics: social.messages.sent, social.messages.delivery.dropped, social.messages.delivery.queued.
+ */
+@Slf4j
+@Service
+public class DirectMessageService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final String USER_DESTINATION = "/queue/messages";
+
+    private final DirectMessageRepository messageRepository;
+    private final MessageWriter writer;
+    private final AuthorCardCache authorCards;
+    private final UserService userService;
+    private final IdGenerator idGenerator;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolExecutor delivery;
+    /** Recipient ID -> sender ID -> unread messages */
+    private final Cache<Long, ConcurrentHashMap<Long, Integer>> unread;
+
+    private final Counter sent;
+    private final Counter deliveryDropped;
+
+    public DirectMessageService(DirectMessageRepository messageRepository,
+                                MessageWriter writer,
+                                AuthorCardCache authorCards,
+                                UserService userService,
+                                IdGenerator idGenerator,
+                                SimpMessagingTemplate messagingTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${social.messages.delivery-threads:2}") int deliveryThreads,
+                                @Value("${social.messages.delivery-queue:10000}") int deliveryQueue,
+                                @Value("${social.messages.unread-max-users:100000}") long unreadMaxUsers) {
+        this.messageRepository = messageRepository;
+        this.writer = writer;
+        this.authorCards = authorCards;
+        this.userService = userService;
+        this.idGenerator = idGenerator;
+        this.messagingTemplate = messagingTemplate;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.delivery = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(deliveryQueue),
+                task -> {
+                    Thread thread = new Thread(task, "message-delivery-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.unread = Caffeine.newBuilder()
+                .maximumSize(unreadMaxUsers)
+                .build();
+
+        this.sent = meterRegistry.counter("social.messages.sent");
+        this.deliveryDropped = meterRegistry.counter("social.messages.delivery.dropped");
+        meterRegistry.gauge("social.messages.delivery.queued", delivery, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Send a message from the current user
+     * @return completes with the stored message
+     */
+    public CompletableFuture<MessageView> send(Long recipientId, MessageRequest request) {
+        return send(userService.getCurrentUserId(), recipientId, request.getContent());
+    }
+
+    /**
+     * Send a message on behalf of a user
+     * @return completes with the stored message
+     */
+    public CompletableFuture<MessageView> send(Long senderId, Long recipientId, String content) {
+        if (senderId.equals(recipientId)) {
+            throw new CustomException("Cannot message yourself", HttpStatus.BAD_REQUEST);
+        }
+        if (authorCards.get(recipientId) == null) {
+            throw new CustomException("User not found", HttpStatus.NOT_FOUND);
+        }
+
+        MessageView message = MessageView.builder()
+                .id(idGenerator.nextId())
+                .senderId(senderId)
+                .recipientId(recipientId)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .build();
+        return writer.append(message).thenApply(stored -> {
+            sent.increment();
+            unread.get(recipientId, id -> new ConcurrentHashMap<>()).merge(senderId, 1, Integer::sum);
+            deliver(message);
+            return message;
+        });
+    }
+
+    /**
+     * Get one cursor page of the conversation with another user, newest message first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MessageView> getConversation(Long peerId, String cursor, int size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        long beforeId = PageCursor.idBelow(cursor);
+
+        return CursorPage.fetch(pageSize,
+                limit -> messageRepository.findConversationPage(Math.min(userId, peerId), Math.max(userId, peerId),
+                        beforeId, PageRequest.of(0, limit)),
+                message -> PageCursor.encode(message.getId()));
+    }
+
+    /**
+     * Unread messages of the current user, per sender
+     */
+    public Map<Long, Integer> getUnreadCounts() {
+        ConcurrentHashMap<Long, Integer> counts = unread.getIfPresent(userService.getCurrentUserId());
+        return counts == null ? Map.of() : Map.copyOf(counts);
+    }
+
+    /**
+     * Mark the conversation with another user read
+     */
+    public void markRead(Long peerId) {
+        ConcurrentHashMap<Long, Integer> counts = unread.getIfPresent(userService.getCurrentUserId());
+        if (counts != null) {
+            counts.remove(peerId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdownNow();
+    }
+
+    /**
+     * Push a stored message to both participants' sessions, off the writer thread
+     */
+    private void deliver(MessageView message) {
+        try {
+            delivery.execute(() -> {
+                Map<Long, PostResponse.UserDTO> users = authorCards.getAll(List.of(message.getSenderId(), message.getRecipientId()));
+                try {
+                    for (PostResponse.UserDTO user : users.values()) {
+                        messagingTemplate.convertAndSendToUser(user.getUsername(), USER_DESTINATION, message);
+                    }
+                } catch (MessagingException e) {
+                    log.warn("Could not deliver message {}: {}", message.getId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deliveryDropped.increment();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.baseer.social.messaging;
+
+import com.baseer.social.dto.MessageView;
+import com.baseer.social.exceptionHandling.CustomException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of direct messages.
+ *
+ * Senders queue their message and get a future; one writer thread takes everything queued
+ * (up to max-batch) and appends it with one batched INSERT in one transaction, then completes
+ * the futures. There is no linger: while one batch commits the next one accumulates, so at low
+ * rates a batch is a single message and under load one commit covers many. A message is only
+ * acknowledged once its batch has committed. When queue-capacity messages are waiting, sends are
+ * refused with 503 rather than queued without bound.
+ *
+ * Metrics: social.messages.queued, social.messages.batch (messages per commit),
+ * social.messages.commit (timer).
+ */
+@Slf4j
+@Component
+public class MessageWriter {
+
+    private static final String INSERT = "INSERT INTO direct_messages " +
+            "(user_low, user_high, id, sender_id, content, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Append> queue;
+    private final int maxBatch;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+
+    public MessageWriter(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${social.messages.queue-capacity:50000}") int queueCapacity,
+                         @Value("${social.messages.max-batch:1000}") int maxBatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+
+        meterRegistry.gauge("social.messages.queued", queue, BlockingQueue::size);
+        this.batchSizes = meterRegistry.summary("social.messages.batch");
+        this.commitTimer = meterRegistry.timer("social.messages.commit");
+
+        this.writer = new Thread(this::run, "message-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a message for the next commit
+     * @return completed once the message is stored, or exceptionally with a CustomException
+     */
+    public CompletableFuture<Void> append(MessageView message) {
+        Append append = new Append(message, new CompletableFuture<>());
+        if (!running || !queue.offer(append)) {
+            throw new CustomException("Too many messages in flight, try again", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return append.stored();
+    }
+
+    /**
+     * Commit what is queued, then stop the writer
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        List<Append> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Append first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Append> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Append append : batch) {
+            MessageView message = append.message();
+            long low = Math.min(message.getSenderId(), message.getRecipientId());
+            long high = Math.max(message.getSenderId(), message.getRecipientId());
+            rows.add(new Object[]{low, high, message.getId(), message.getSenderId(), message.getContent(),
+                    Timestamp.valueOf(message.getCreatedAt())});
+        }
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, rows)));
+        } catch (RuntimeException e) {
+            log.warn("Could not store {} messages: {}", batch.size(), e.getMessage());
+            CustomException failure = new CustomException("Message could not be stored, try again", HttpStatus.SERVICE_UNAVAILABLE);
+            batch.forEach(append -> append.stored().completeExceptionally(failure));
+            return;
+        }
+        batchSizes.record(batch.size());
+        batch.forEach(append -> append.stored().complete(null));
+    }
+
+    private record Append(MessageView message, CompletableFuture<Void> stored) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.baseer.social.notification;
+
+import com.baseer.social.entity.Notification;
+
+/**
+ * Someone engaged with a recipient's post or comment; published by the services that write
+ * likes, comments and replies. NotificationService aggregates it once the transaction commits.
+ * @param targetId the post for LIKE and COMMENT, the comment for REPLY
+ */
+public record NotificationEvent(Notification.Kind kind, long recipientId, long targetId, long postId, long actorId) {
+
+    public static NotificationEvent onPost(Notification.Kind kind, long recipientId, long postId, long actorId) {
+        return new NotificationEvent(kind, recipientId, postId, postId, actorId);
+    }
+
+    public static NotificationEvent onComment(long recipientId, long commentId, long postId, long actorId) {
+        return new NotificationEvent(Notification.Kind.REPLY, recipientId, commentId, postId, actorId);
+    }
+}
@@ -0,0 +1,380 @@
+package com.baseer.social.notification;
+
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.NotificationView;
+import com.baseer.social.dto.PageCursor;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.Notification;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.id.IdGenerator;
+import com.baseer.social.repository.NotificationRepository;
+import com.baseer.social.repository.projection.NotificationRow;
+import com.baseer.social.service.AuthorCardCache;
+import com.baseer.social.service.PostCache;
+import com.baseer.social.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregated notifications: "alice, bob and 57 others liked your post".
+ *
+ * Committed NotificationEvents are summed in memory per (recipient, kind, target) with the
+ * latest MAX_ACTORS actors (at most max-pending of them, further targets are dropped and
+ * counted). Every flush-interval-ms the sums are upserted chunk by chunk, each chunk one
+ * batched statement in one transaction, into a single row per recipient and target: while
+ * unread the counts add up and the newest actors go first, once read the next event starts
+ * the row over. A viral post therefore costs its author one row and one write per flush,
+ * not one per like. After each chunk commits, the rows it wrote are read back and pushed to
+ * each recipient's /user/queue/notifications.
+ *
+ * actorCount counts events: a like is one per user, a second comment by the same user counts
+ * again. Unlikes and deletions do not take notifications back. Rows are listed, unread and
+ * latest activity first, by keyset on the activity ID that every write renews, so a row that
+ * gets new activity while a client pages moves to the top instead of showing twice.
+ *
+ * Metrics: social.notifications.events, social.notifications.dropped,
+ * social.notifications.pending, social.notifications.flush (timer).
+ */
+@Slf4j
+@Service
+public class NotificationService {
+
+    public static final int MAX_ACTORS = 3;
+    public static final int MAX_PAGE_SIZE = 50;
+    public static final String USER_DESTINATION = "/queue/notifications";
+
+    private static final String UPSERT = "INSERT INTO notifications (id, recipient_id, kind, target_id, post_id, " +
+            "actor_count, actor_ids, activity_id, is_read, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, FALSE, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "actor_count = IF(is_read, VALUES(actor_count), actor_count + VALUES(actor_count)), " +
+            "actor_ids = IF(is_read, VALUES(actor_ids), " +
+            "SUBSTRING_INDEX(CONCAT(VALUES(actor_ids), ',', actor_ids), ',', " + MAX_ACTORS + ")), " +
+            "activity_id = VALUES(activity_id), updated_at = VALUES(updated_at), is_read = FALSE";
+
+    private static final Comparator<Key> LOCK_ORDER = Comparator.comparingLong(Key::recipientId)
+            .thenComparing(Key::kind)
+            .thenComparingLong(Key::targetId);
+
+    private final NotificationRepository notificationRepository;
+    private final AuthorCardCache authorCards;
+    private final PostCache postCache;
+    private final UserService userService;
+    private final IdGenerator idGenerator;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+    private final int flushChunkSize;
+
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+
+    private final Counter received;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               AuthorCardCache authorCards,
+                               PostCache postCache,
+                               UserService userService,
+                               IdGenerator idGenerator,
+                               SimpMessagingTemplate messagingTemplate,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${social.notifications.max-pending:100000}") int maxPending,
+                               @Value("${social.notifications.flush-chunk-size:500}") int flushChunkSize) {
+        this.notificationRepository = notificationRepository;
+        this.authorCards = authorCards;
+        this.postCache = postCache;
+        this.userService = userService;
+        this.idGenerator = idGenerator;
+        this.messagingTemplate = messagingTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+        this.flushChunkSize = flushChunkSize;
+
+        this.received = meterRegistry.counter("social.notifications.events");
+        this.dropped = meterRegistry.counter("social.notifications.dropped");
+        meterRegistry.gauge("social.notifications.pending", pending, Map::size);
+        this.flushTimer = meterRegistry.timer("social.notifications.flush");
+    }
+
+    /**
+     * Add an event to its recipient's pending notification once its transaction has committed;
+     * nobody is notified of their own actions
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvent(NotificationEvent event) {
+        if (event.actorId() == event.recipientId()) {
+            return;
+        }
+        pending.compute(new Key(event.recipientId(), event.kind(), event.targetId()), (key, sum) -> {
+            if (sum == null) {
+                if (pending.size() >= maxPending) {
+                    dropped.increment();
+                    return null;
+                }
+                sum = new Pending(event.postId());
+            }
+            sum.add(event.actorId());
+            return sum;
+        });
+        received.increment();
+    }
+
+    /**
+     * Get one cursor page of the current user's unread notifications, latest activity first.
+     * Notifications about deleted posts are left out, so a page can be short while more follow
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationView> getUnread(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        Long userId = userService.getCurrentUserId();
+        long beforeId = PageCursor.idBelow(cursor);
+
+        return CursorPage.fetch(pageSize,
+                limit -> notificationRepository.findUnreadPage(userId, beforeId, limit),
+                row -> PageCursor.encode(row.getActivityId()),
+                rows -> toViews(rows.stream().filter(row -> postCache.get(row.getPostId()) != null).toList()));
+    }
+
+    /**
+     * Number of unread notifications of the current user
+     */
+    @Transactional(readOnly = true)
+    public long countUnread() {
+        return notificationRepository.countUnread(userService.getCurrentUserId());
+    }
+
+    /**
+     * Mark one of the current user's notifications read
+     */
+    @Transactional
+    public void markRead(Long notificationId) {
+        if (notificationRepository.markRead(notificationId, userService.getCurrentUserId()) == 0) {
+            throw new CustomException("Notification not found", HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Mark all of the current user's notifications read
+     */
+    @Transactional
+    public void markAllRead() {
+        notificationRepository.markAllRead(userService.getCurrentUserId());
+    }
+
+    /**
+     * Write the pending notifications and push them to their recipients
+     */
+    @Scheduled(fixedDelayString = "${social.notifications.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            // Rows are locked in key order, so instances flushing the same targets cannot deadlock
+            List<Key> keys = new ArrayList<>(pending.keySet());
+            keys.sort(LOCK_ORDER);
+            for (int from = 0; from < keys.size(); from += flushChunkSize) {
+                Map<Key, Pending> chunk = new LinkedHashMap<>();
+                for (Key key : keys.subList(from, Math.min(keys.size(), from + flushChunkSize))) {
+                    Pending sum = pending.remove(key);
+                    if (sum != null) {
+                        chunk.put(key, sum);
+                    }
+                }
+                if (chunk.isEmpty()) {
+                    continue;
+                }
+                long since;
+                try {
+                    since = transactionTemplate.execute(status -> write(chunk));
+                } catch (DataAccessException e) {
+                    // Keep the events for the next flush, behind any that arrived meanwhile
+                    log.warn("Could not write {} notifications: {}", chunk.size(), e.getMessage());
+                    chunk.forEach((key, sum) -> pending.merge(key, sum, Pending::absorbOlder));
+                    continue;
+                }
+                push(chunk.keySet().stream().map(Key::recipientId).collect(Collectors.toSet()), since);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Upsert a chunk of pending notifications in one batch
+     * @return the lowest activity ID written
+     */
+    private long write(Map<Key, Pending> chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        long since = 0;
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (Map.Entry<Key, Pending> entry : chunk.entrySet()) {
+            Key key = entry.getKey();
+            Pending sum = entry.getValue();
+            // A new row takes its activity ID as its ID
+            long activityId = idGenerator.nextId();
+            if (since == 0) {
+                since = activityId;
+            }
+            rows.add(new Object[]{activityId, key.recipientId(), key.kind().name(), key.targetId(), sum.postId,
+                    sum.count, sum.actorIds(), activityId, now});
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+        return since;
+    }
+
+    /**
+     * Send the rows a flush wrote to their recipients' user destination
+     */
+    private void push(Set<Long> recipientIds, long since) {
+        try {
+            List<NotificationRow> rows = notificationRepository.findUnreadSince(recipientIds, since);
+            List<NotificationView> views = toViews(rows);
+            Map<Long, PostResponse.UserDTO> recipients = authorCards.getAll(recipientIds);
+            for (int i = 0; i < rows.size(); i++) {
+                PostResponse.UserDTO recipient = recipients.get(rows.get(i).getRecipientId());
+                if (recipient != null) {
+                    messagingTemplate.convertAndSendToUser(recipient.getUsername(), USER_DESTINATION, views.get(i));
+                }
+            }
+        } catch (DataAccessException | MessagingException e) {
+            // Written already; clients see them in the unread list
+            log.warn("Could not push notifications to {} users: {}", recipientIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Views of stored rows, in the same order, with the actor cards resolved in one lookup;
+     * actors whose account is gone are left out
+     */
+    private List<NotificationView> toViews(List<NotificationRow> rows) {
+        List<List<Long>> actorIds = new ArrayList<>(rows.size());
+        Set<Long> allActors = new HashSet<>();
+        for (NotificationRow row : rows) {
+            // A read row restarts its list, an unread one may repeat an actor across flushes
+            List<Long> ids = new ArrayList<>(Arrays.stream(row.getActorIds().split(","))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+            actorIds.add(ids);
+            allActors.addAll(ids);
+        }
+        Map<Long, PostResponse.UserDTO> cards = allActors.isEmpty() ? Map.of() : authorCards.getAll(allActors);
+
+        List<NotificationView> views = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            NotificationRow row = rows.get(i);
+            views.add(NotificationView.builder()
+                    .id(row.getId())
+                    .kind(Notification.Kind.valueOf(row.getKind()))
+                    .targetId(row.getTargetId())
+                    .postId(row.getPostId())
+                    .actorCount(row.getActorCount())
+                    .actors(actorIds.get(i).stream().map(cards::get).filter(Objects::nonNull).toList())
+                    .updatedAt(row.getUpdatedAt())
+                    .build());
+        }
+        return views;
+    }
+
+    private record Key(long recipientId, Notification.Kind kind, long targetId) {
+    }
+
+    /**
+     * Events of one key since the last flush; guarded by the pending map's compute
+     */
+    private static final class Pending {
+
+        private final long postId;
+        private int count;
+        /** Newest first */
+        private final long[] actors = new long[MAX_ACTORS];
+        private int actorsSize;
+
+        Pending(long postId) {
+            this.postId = postId;
+        }
+
+        void add(long actorId) {
+            count++;
+            int at = 0;
+            while (at < actorsSize && actors[at] != actorId) {
+                at++;
+            }
+            if (at == actorsSize && actorsSize < MAX_ACTORS) {
+                actorsSize++;
+            }
+            // Shift the actors before the old position (or the oldest out) and put this one first
+            System.arraycopy(actors, 0, actors, 1, Math.min(at, MAX_ACTORS - 1));
+            actors[0] = actorId;
+        }
+
+        /**
+         * Fold in the events of an earlier window that could not be written
+         */
+        Pending absorbOlder(Pending older) {
+            for (int i = 0; i < older.actorsSize; i++) {
+                addOlder(older.actors[i]);
+            }
+            count += older.count;
+            return this;
+        }
+
+        private void addOlder(long actorId) {
+            for (int i = 0; i < actorsSize; i++) {
+                if (actors[i] == actorId) {
+                    return;
+                }
+            }
+            if (actorsSize < MAX_ACTORS) {
+                actors[actorsSize++] = actorId;
+            }
+        }
+
+        String actorIds() {
+            StringBuilder ids = new StringBuilder();
+            for (int i = 0; i < actorsSize; i++) {
+                if (i > 0) {
+                    ids.append(',');
+                }
+                ids.append(actors[i]);
+            }
+            return ids.toString();
+        }
+    }
+}
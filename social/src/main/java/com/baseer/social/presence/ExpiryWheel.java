@@ -0,0 +1,74 @@
+package com.baseer.social.presence;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Timing wheel of deadlines, in ticks.
+ * One slot per tick over a power-of-two span; scheduling appends to the deadline's slot and
+ * advancing drains every slot passed since the previous advance. Entries are never cancelled:
+ * the owner re-schedules when a deadline moves and discards stale entries when they fire, so a
+ * heartbeat costs one append instead of a timer. Deadlines must lie less than span() ticks ahead.
+ */
+final class ExpiryWheel {
+
+    private final Queue<Entry>[] slots;
+    private final int mask;
+    private long cursor = -1;
+
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(int span) {
+        int size = Integer.highestOneBit(Math.max(2, span - 1)) << 1;
+        slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        mask = size - 1;
+    }
+
+    int span() {
+        return slots.length;
+    }
+
+    /**
+     * Add an entry firing at the given tick
+     */
+    void schedule(String id, long deadline) {
+        slots[(int) (deadline & mask)].add(new Entry(id, deadline));
+    }
+
+    /**
+     * Fire the entries of every slot up to and including the given tick
+     * @param due called with each entry's ID and the deadline it was scheduled for
+     */
+    synchronized void advance(long tick, Due due) {
+        if (cursor < 0) {
+            cursor = tick - 1;
+        }
+        // After a long pause every slot is passed once, wrapping only repeats them
+        long from = Math.max(cursor + 1, tick - mask);
+        for (long t = from; t <= tick; t++) {
+            Queue<Entry> slot = slots[(int) (t & mask)];
+            for (int n = slot.size(); n > 0; n--) {
+                Entry entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.deadline() > tick) {
+                    // Scheduled after this slot was passed for its earlier tick: keep for the next turn
+                    slot.add(entry);
+                } else {
+                    due.fire(entry.id(), entry.deadline());
+                }
+            }
+        }
+        cursor = Math.max(cursor, tick);
+    }
+
+    interface Due {
+        void fire(String id, long deadline);
+    }
+
+    private record Entry(String id, long deadline) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.baseer.social.presence;
+
+import com.baseer.social.search.LongIntMap;
+
+/**
+ * Concurrent counters keyed by Snowflake ID, without boxing.
+ * The key space is split over a fixed number of LongIntMap stripes, each guarded by its own lock,
+ * so updates of different keys rarely contend. A counter that drops to zero is removed.
+ */
+final class LongCounterMap {
+
+    private static final int STRIPES = 64;
+
+    private final LongIntMap[] stripes = new LongIntMap[STRIPES];
+
+    LongCounterMap() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongIntMap(64);
+        }
+    }
+
+    /**
+     * Add delta to the key's counter
+     * @return the new count
+     */
+    int add(long key, int delta) {
+        LongIntMap stripe = stripe(key);
+        synchronized (stripe) {
+            int current = stripe.get(key);
+            int next = (current == LongIntMap.MISSING ? 0 : current) + delta;
+            if (next <= 0) {
+                stripe.remove(key);
+                return 0;
+            }
+            stripe.put(key, next);
+            return next;
+        }
+    }
+
+    /**
+     * @return the key's count, 0 if absent
+     */
+    int get(long key) {
+        LongIntMap stripe = stripe(key);
+        synchronized (stripe) {
+            int count = stripe.get(key);
+            return count == LongIntMap.MISSING ? 0 : count;
+        }
+    }
+
+    /**
+     * @return number of keys with a positive count
+     */
+    int size() {
+        int size = 0;
+        for (LongIntMap stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private LongIntMap stripe(long key) {
+        // Different bits from the ones LongIntMap mixes into its slot
+        long h = key * 0xC2B2AE3D27D4EB4FL;
+        return stripes[(int) (h >>> 58)];
+    }
+}
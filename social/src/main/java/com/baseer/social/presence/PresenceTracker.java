@@ -0,0 +1,350 @@
+package com.baseer.social.presence;
+
+import com.baseer.social.search.LongIntMap;
+import com.baseer.social.security.AuthenticatedUser;
+import com.baseer.social.service.UserIdCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Who is connected over STOMP and how many sessions are viewing each post, from the /ws session
+ * lifecycle events.
+ *
+ * A session views a post while it holds at least one subscription under /topic/post/{postId}/,
+ * however many it holds. A user is online while they have an authenticated session; anonymous
+ * sessions only count as viewers. Counts live in lock-striped primitive maps and changed post IDs
+ * are collected for ViewerCountBroadcaster, which pushes each at most once per interval.
+ *
+ * Sessions that negotiated client heartbeats are also dropped when nothing arrived from them for
+ * missed-heartbeats intervals, even if no DISCONNECT was seen. Every inbound message, heartbeats
+ * included, passes preSend and moves the session's deadline; one ExpiryWheel tick job finds the
+ * expired ones instead of a timer per session. The deadline is moved and checked under the
+ * session's lock, so a frame arriving during the check either keeps the session or comes too
+ * late. An expired session is then disconnected like the broker does for missed heartbeats
+ * (ERROR frame and close), so it cannot stay connected without being counted.
+ *
+ * Post and user IDs below 1 are ignored: 0 marks free slots in the counter maps.
+ *
+ * Metrics: social.presence.sessions, social.presence.online, social.presence.expired.
+ */
+@Slf4j
+@Component
+public class PresenceTracker implements ChannelInterceptor {
+
+    private static final Pattern POST_TOPIC = Pattern.compile("^/topic/post/(\\d+)(/.*)?$");
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final UserIdCache userIds;
+    /** Resolved on first use, as the channel's configuration depends on this interceptor */
+    private final ObjectProvider<MessageChannel> clientOutboundChannel;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    /** Post ID -> sessions viewing it */
+    private final LongCounterMap viewers = new LongCounterMap();
+    /** User ID -> connected sessions */
+    private final LongCounterMap online = new LongCounterMap();
+    private final Set<Long> changedPosts = ConcurrentHashMap.newKeySet();
+    private final ExpiryWheel wheel;
+    private final long tickMillis;
+    private final long heartbeatMillis;
+    private final int missedHeartbeats;
+
+    private final Counter expired;
+
+    public PresenceTracker(UserIdCache userIds,
+                           @Qualifier("clientOutboundChannel") ObjectProvider<MessageChannel> clientOutboundChannel,
+                           MeterRegistry meterRegistry,
+                           @Value("${social.presence.heartbeat-ms:10000}") long heartbeatMillis,
+                           @Value("${social.presence.missed-heartbeats:3}") int missedHeartbeats,
+                           @Value("${social.presence.tick-ms:1000}") long tickMillis,
+                           @Value("${social.presence.wheel-size:256}") int wheelSize) {
+        this.userIds = userIds;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.heartbeatMillis = heartbeatMillis;
+        this.missedHeartbeats = missedHeartbeats;
+        this.tickMillis = tickMillis;
+        this.wheel = new ExpiryWheel(wheelSize);
+
+        meterRegistry.gauge("social.presence.sessions", sessions, Map::size);
+        meterRegistry.gauge("social.presence.online", online, LongCounterMap::size);
+        this.expired = meterRegistry.counter("social.presence.expired");
+    }
+
+    /**
+     * Sessions viewing a post
+     */
+    public int getViewerCount(long postId) {
+        return postId > 0 ? viewers.get(postId) : 0;
+    }
+
+    /**
+     * @return which of the given users are connected
+     */
+    public List<Long> getOnline(List<Long> candidates) {
+        List<Long> connected = new ArrayList<>();
+        for (Long userId : candidates) {
+            if (userId > 0 && online.get(userId) > 0) {
+                connected.add(userId);
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Take the posts whose viewer count changed since the last call
+     */
+    List<Long> drainChangedPosts() {
+        List<Long> drained = new ArrayList<>();
+        for (Iterator<Long> it = changedPosts.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        long interval = clientHeartbeat(event.getMessage());
+        long timeoutTicks = 0;
+        if (interval > 0) {
+            // Deadlines must stay inside the wheel; a longer timeout is cut to its span
+            timeoutTicks = Math.min(wheel.span() - 1, (interval * missedHeartbeats + tickMillis - 1) / tickMillis);
+        }
+        Session session = new Session(userId == null ? 0 : userId, timeoutTicks);
+        String sessionId = sessionId(event);
+        if (sessions.putIfAbsent(sessionId, session) != null) {
+            return;
+        }
+        if (session.userId != 0) {
+            online.add(session.userId, 1);
+        }
+        touch(sessionId, session, System.currentTimeMillis());
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        Long postId = postId(accessor.getDestination());
+        if (session == null || postId == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (session) {
+            if (session.closed || session.subscriptions.putIfAbsent(accessor.getSubscriptionId(), postId) != null) {
+                return;
+            }
+            int refs = session.postRefs.get(postId);
+            session.postRefs.put(postId, refs == LongIntMap.MISSING ? 1 : refs + 1);
+            if (refs == LongIntMap.MISSING) {
+                viewers.add(postId, 1);
+                changedPosts.add(postId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Session session = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        if (session == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        synchronized (session) {
+            Long postId = session.subscriptions.remove(accessor.getSubscriptionId());
+            if (session.closed || postId == null) {
+                return;
+            }
+            int refs = session.postRefs.get(postId);
+            if (refs > 1) {
+                session.postRefs.put(postId, refs - 1);
+            } else {
+                session.postRefs.remove(postId);
+                viewers.add(postId, -1);
+                changedPosts.add(postId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Session session = sessions.get(event.getSessionId());
+        if (session != null) {
+            synchronized (session) {
+                close(event.getSessionId(), session);
+            }
+        }
+    }
+
+    /**
+     * Any frame from a session, heartbeats included, shows it is alive
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        if (session != null) {
+            touch(sessionId, session, System.currentTimeMillis());
+        }
+        return message;
+    }
+
+    @Scheduled(fixedRateString = "${social.presence.tick-ms:1000}")
+    public void expireSessions() {
+        expire(System.currentTimeMillis());
+    }
+
+    /**
+     * Close and disconnect the sessions whose heartbeat deadline passed by the given time
+     */
+    void expire(long nowMillis) {
+        wheel.advance(nowMillis / tickMillis, (sessionId, deadline) -> {
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                return;
+            }
+            synchronized (session) {
+                // A session touched since this entry was scheduled has a later one in its new slot
+                if (session.deadline != deadline || !close(sessionId, session)) {
+                    return;
+                }
+            }
+            expired.increment();
+            log.debug("Presence of session {} expired", sessionId);
+            disconnect(sessionId);
+        });
+    }
+
+    private void touch(String sessionId, Session session, long nowMillis) {
+        if (session.timeoutTicks == 0) {
+            return;
+        }
+        long deadline = nowMillis / tickMillis + session.timeoutTicks;
+        synchronized (session) {
+            // Frames within one tick land on the same deadline; only a later tick needs a new slot
+            if (!session.closed && (deadline > session.deadline || session.deadline == NO_DEADLINE)) {
+                session.deadline = deadline;
+                wheel.schedule(sessionId, deadline);
+            }
+        }
+    }
+
+    /**
+     * Stop counting a session; the caller holds its lock
+     * @return false if it was already closed
+     */
+    private boolean close(String sessionId, Session session) {
+        if (session.closed) {
+            return false;
+        }
+        session.closed = true;
+        sessions.remove(sessionId, session);
+        for (Long postId : Set.copyOf(session.subscriptions.values())) {
+            viewers.add(postId, -1);
+            changedPosts.add(postId);
+        }
+        session.subscriptions.clear();
+        if (session.userId != 0) {
+            online.add(session.userId, -1);
+        }
+        return true;
+    }
+
+    /**
+     * Have the WebSocket handler send the session an ERROR frame and close it,
+     * as the broker does when a client misses its heartbeats
+     */
+    private void disconnect(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        clientOutboundChannel.getObject().send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    /**
+     * Interval the session promised to send heartbeats at, as negotiated with the broker, 0 for none
+     */
+    private long clientHeartbeat(Message<?> connectedMessage) {
+        Object connect = connectedMessage.getHeaders().get(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        if (!(connect instanceof Message<?> connectMessage)) {
+            return 0;
+        }
+        long[] heartbeat = StompHeaderAccessor.wrap(connectMessage).getHeartbeat();
+        if (heartbeat[0] == 0 || heartbeatMillis == 0) {
+            return 0;
+        }
+        return Math.max(heartbeat[0], heartbeatMillis);
+    }
+
+    private Long userId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        Long userId = AuthenticatedUser.idOf(principal);
+        return userId != null ? userId : userIds.get(principal.getName());
+    }
+
+    private static String sessionId(AbstractSubProtocolEvent event) {
+        return SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    }
+
+    private static Long postId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = POST_TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            long postId = Long.parseLong(matcher.group(1));
+            return postId > 0 ? postId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Session {
+        final long userId;
+        final long timeoutTicks;
+        volatile long deadline = NO_DEADLINE;
+        /** Subscription ID -> post ID, guarded by the session */
+        final Map<String, Long> subscriptions = new HashMap<>();
+        /** Post ID -> subscriptions to it, guarded by the session */
+        final LongIntMap postRefs = new LongIntMap(4);
+        boolean closed;
+
+        Session(long userId, long timeoutTicks) {
+            this.userId = userId;
+            this.timeoutTicks = timeoutTicks;
+        }
+    }
+}
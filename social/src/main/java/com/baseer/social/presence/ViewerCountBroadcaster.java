@@ -0,0 +1,41 @@
+package com.baseer.social.presence;
+
+import com.baseer.social.websocket.ViewerCountEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes viewer counts to /topic/post/{postId}/viewers.
+ * Changes PresenceTracker collected since the last run are coalesced into one event per post
+ * carrying the current count, so a post is broadcast at most once per interval however many
+ * sessions came and went.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViewerCountBroadcaster {
+
+    private final PresenceTracker presenceTracker;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Scheduled(fixedDelayString = "${social.presence.broadcast-interval-ms:2000}")
+    public void broadcast() {
+        long now = System.currentTimeMillis();
+        for (Long postId : presenceTracker.drainChangedPosts()) {
+            ViewerCountEvent event = ViewerCountEvent.builder()
+                    .postId(postId)
+                    .viewers(presenceTracker.getViewerCount(postId))
+                    .timestamp(now)
+                    .build();
+            try {
+                messagingTemplate.convertAndSend("/topic/post/" + postId + "/viewers", event);
+            } catch (MessagingException e) {
+                log.warn("Could not broadcast viewers of post {}: {}", postId, e.getMessage());
+            }
+        }
+    }
+}
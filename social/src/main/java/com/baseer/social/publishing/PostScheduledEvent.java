@@ -0,0 +1,10 @@
+package com.baseer.social.publishing;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post was scheduled for publication. Published by PostService in the scheduling transaction
+ * and handed to ScheduledPostPublisher once it commits.
+ */
+public record PostScheduledEvent(long scheduledPostId, LocalDateTime publishAt) {
+}
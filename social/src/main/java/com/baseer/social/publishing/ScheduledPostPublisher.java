@@ -0,0 +1,246 @@
+package com.baseer.social.publishing;
+
+import com.baseer.social.repository.ScheduledPostRepository;
+import com.baseer.social.repository.projection.ScheduledPostRef;
+import com.baseer.social.service.PostService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes scheduled posts when they are due.
+ *
+ * Every pending post's ID sits in an in-memory TimingWheel at its publication tick. The wheel
+ * is filled once at startup by reading scheduled_posts in primary-key chunks, and afterwards
+ * by PostScheduledEvent as posts are scheduled; the table is never polled. Each tick hands the
+ * publishing to a dedicated publisher thread, so slow inserts do not hold up the other
+ * @Scheduled jobs; a tick arriving while the previous run is busy is skipped, and the next run
+ * catches up to its own time. A run advances the wheel and publishes what came due through
+ * PostService.publishScheduled, in batches of batch-size posts per transaction.
+ *
+ * A batch that fails is published again post by post, so one bad row cannot hold back the
+ * others; a post that fails on its own is put back into the wheel after a delay that doubles
+ * with each failure, from two ticks up to MAX_RETRY_DELAY.
+ *
+ * Cancelled posts stay in the wheel and are skipped when their row is gone. A post due while
+ * the startup load is still running is published once the load reaches it; a post due while
+ * the application was down is published on the first tick after the load.
+ *
+ * Metrics: social.scheduled-posts.pending (wheel entries), social.scheduled-posts.published,
+ * social.scheduled-posts.failed (failed attempts of single posts).
+ */
+@Slf4j
+@Component
+public class ScheduledPostPublisher {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final ScheduledPostRepository scheduledPostRepository;
+    private final PostService postService;
+    private final long tickMillis;
+    private final int batchSize;
+    private final int loadChunkSize;
+    private final boolean loadOnStartup;
+    private final TimingWheel wheel;
+    /** Scheduled post ID -> failed attempts, guarded by the wheel */
+    private final Map<Long, Integer> failures = new HashMap<>();
+    private final ThreadPoolExecutor publisher;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter published;
+    private final Counter failed;
+
+    public ScheduledPostPublisher(ScheduledPostRepository scheduledPostRepository,
+                                  PostService postService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${social.scheduled-posts.tick-ms:1000}") long tickMillis,
+                                  @Value("${social.scheduled-posts.wheel-levels:5}") int wheelLevels,
+                                  @Value("${social.scheduled-posts.batch-size:500}") int batchSize,
+                                  @Value("${social.scheduled-posts.load-chunk-size:10000}") int loadChunkSize,
+                                  @Value("${social.scheduled-posts.load-on-startup:true}") boolean loadOnStartup) {
+        this.scheduledPostRepository = scheduledPostRepository;
+        this.postService = postService;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.loadChunkSize = loadChunkSize;
+        this.loadOnStartup = loadOnStartup;
+        this.wheel = new TimingWheel(wheelLevels, System.currentTimeMillis() / tickMillis);
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "scheduled-post-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        meterRegistry.gauge("social.scheduled-posts.pending", this, ScheduledPostPublisher::pending);
+        this.published = meterRegistry.counter("social.scheduled-posts.published");
+        this.failed = meterRegistry.counter("social.scheduled-posts.failed");
+    }
+
+    /**
+     * Add a newly scheduled post to the wheel once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduled(PostScheduledEvent event) {
+        add(event.scheduledPostId(), event.publishAt());
+    }
+
+    /**
+     * Fill the wheel from the database in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!loadOnStartup) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Could not load scheduled posts", e);
+            }
+        }, "scheduled-post-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Add every scheduled post in the database to the wheel. Blocks until done
+     * @return number of posts read
+     */
+    public int load() {
+        int loaded = 0;
+        long afterId = 0;
+        List<ScheduledPostRef> chunk;
+        do {
+            chunk = scheduledPostRepository.findRefChunk(afterId, PageRequest.of(0, loadChunkSize));
+            for (ScheduledPostRef ref : chunk) {
+                add(ref.getId(), ref.getPublishAt());
+            }
+            loaded += chunk.size();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == loadChunkSize);
+        log.info("Scheduled posts loaded: {} pending", loaded);
+        return loaded;
+    }
+
+    /**
+     * Publish what is due on the publisher thread, unless it is still busy with the last tick
+     */
+    @Scheduled(fixedRateString = "${social.scheduled-posts.tick-ms:1000}")
+    public void tick() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            publisher.execute(() -> {
+                try {
+                    publishDue(System.currentTimeMillis());
+                } catch (RuntimeException e) {
+                    log.error("Could not publish scheduled posts", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Publish every post due by the given time, on the calling thread
+     * @return number of posts published
+     */
+    public int publishDue(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(nowMillis / tickMillis, due::add);
+        }
+        int count = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                count += postService.publishScheduled(batch);
+                forget(batch);
+            } catch (RuntimeException e) {
+                log.warn("Could not publish {} scheduled posts, trying them one by one: {}", batch.size(), e.getMessage());
+                for (Long id : batch) {
+                    count += publishOne(id);
+                }
+            }
+        }
+        published.increment(count);
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    /**
+     * Publish a single post, putting it back into the wheel with a growing delay if that fails
+     * @return number of posts published
+     */
+    private int publishOne(Long id) {
+        try {
+            int count = postService.publishScheduled(List.of(id));
+            forget(List.of(id));
+            return count;
+        } catch (RuntimeException e) {
+            failed.increment();
+            synchronized (wheel) {
+                int attempts = failures.merge(id, 1, Integer::sum);
+                long delayTicks = Math.max(1, Math.min(MAX_RETRY_DELAY.toMillis() / tickMillis, 1L << Math.min(attempts, 30)));
+                wheel.add(id, wheel.currentTick() + delayTicks);
+                log.warn("Could not publish scheduled post {} (attempt {}), retrying in {} ticks: {}",
+                        id, attempts, delayTicks, e.getMessage());
+            }
+            return 0;
+        }
+    }
+
+    private void forget(List<Long> ids) {
+        synchronized (wheel) {
+            if (!failures.isEmpty()) {
+                ids.forEach(failures::remove);
+            }
+        }
+    }
+
+    private void add(long id, LocalDateTime publishAt) {
+        long dueTick = publishAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / tickMillis;
+        synchronized (wheel) {
+            wheel.add(id, dueTick);
+        }
+    }
+
+    private int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.baseer.social.publishing;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of IDs due at a tick.
+ *
+ * Level 0 has one slot per tick, each higher level one slot per full turn of the level below,
+ * 64 slots per level: with one-second ticks five levels reach 34 years ahead. An ID is placed on
+ * the lowest level whose span covers its distance from the current tick and, when a level's slot
+ * comes up, its IDs are spread over the level below, so every ID is touched at most once per
+ * level. Advancing costs one slot per tick, however many IDs wait; adding is constant time.
+ * IDs and due ticks are stored in primitive arrays per slot. Not thread-safe, callers lock.
+ */
+final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final Slot[][] levels;
+    private long current;
+    private int size;
+
+    /**
+     * @param startTick the current tick; IDs due at or before it fire on the next advance
+     */
+    TimingWheel(int levelCount, long startTick) {
+        levels = new Slot[levelCount][SLOTS];
+        for (Slot[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot();
+            }
+        }
+        current = startTick;
+    }
+
+    /**
+     * Add an ID due at the given tick; past ticks fire on the next advance
+     */
+    void add(long id, long dueTick) {
+        place(id, Math.max(dueTick, current + 1));
+        size++;
+    }
+
+    /**
+     * Move to the given tick, firing every ID due up to and including it
+     */
+    void advance(long tick, LongConsumer due) {
+        while (current < tick) {
+            current++;
+            // Higher levels first: a slot spread over level 1 may feed this tick's level 0 slot
+            for (int level = highestTurnedLevel(); level > 0; level--) {
+                cascade(levels[level][(int) ((current >>> (SLOT_BITS * level)) & MASK)]);
+            }
+            Slot slot = levels[0][(int) (current & MASK)];
+            int count = slot.size;
+            long[] entries = slot.take();
+            for (int i = 0; i < count; i++) {
+                long id = entries[2 * i];
+                long dueTick = entries[2 * i + 1];
+                if (dueTick <= current) {
+                    size--;
+                    due.accept(id);
+                } else {
+                    place(id, dueTick);
+                }
+            }
+        }
+    }
+
+    long currentTick() {
+        return current;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(long id, long dueTick) {
+        long distance = dueTick - current;
+        int level = 0;
+        while (level < levels.length - 1 && distance >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Beyond the top level's span the ID comes around early and is placed again
+        levels[level][(int) ((dueTick >>> (SLOT_BITS * level)) & MASK)].add(id, dueTick);
+    }
+
+    private void cascade(Slot slot) {
+        int count = slot.size;
+        long[] entries = slot.take();
+        for (int i = 0; i < count; i++) {
+            place(entries[2 * i], entries[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Highest level whose lower levels all completed a turn at the current tick
+     */
+    private int highestTurnedLevel() {
+        int level = 0;
+        while (level < levels.length - 1 && (current & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Growable array of (ID, due tick) pairs
+     */
+    private static final class Slot {
+        private static final long[] EMPTY = new long[0];
+
+        long[] entries = EMPTY;
+        int size;
+
+        void add(long id, long dueTick) {
+            if (2 * size == entries.length) {
+                long[] grown = new long[Math.max(8, entries.length * 2)];
+                System.arraycopy(entries, 0, grown, 0, entries.length);
+                entries = grown;
+            }
+            entries[2 * size] = id;
+            entries[2 * size + 1] = dueTick;
+            size++;
+        }
+
+        /**
+         * Empty the slot, returning its previous entries array
+         */
+        long[] take() {
+            long[] taken = entries;
+            entries = EMPTY;
+            size = 0;
+            return taken;
+        }
+    }
+}
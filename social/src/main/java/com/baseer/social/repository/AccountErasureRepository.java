@@ -0,0 +1,38 @@
+package com.baseer.social.repository;
+
+import com.baseer.social.entity.AccountErasure;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for AccountErasure checkpoints.
+ */
+@Repository
+public interface AccountErasureRepository extends JpaRepository<AccountErasure, Long> {
+
+    /**
+     * Users with an erasure in progress
+     * @param pageable max number of users
+     * @return user IDs in ID order
+     */
+    @Query("SELECT e.userId FROM AccountErasure e ORDER BY e.userId")
+    List<Long> findPendingUserIds(Pageable pageable);
+
+    /**
+     * Load a checkpoint with a row lock (SELECT ... FOR UPDATE), so concurrent
+     * workers run the steps of one erasure strictly one after another
+     * @param userId the user ID
+     * @return Optional containing the locked checkpoint
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM AccountErasure e WHERE e.userId = :userId")
+    Optional<AccountErasure> findForUpdate(@Param("userId") Long userId);
+}
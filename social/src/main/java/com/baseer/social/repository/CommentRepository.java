@@ -1,10 +1,25 @@
 package com.baseer.social.repository;
 
+import com.baseer.social.dto.CommentView;
 import com.baseer.social.entity.Comment;
+import com.baseer.social.repository.projection.ChildRef;
+import com.baseer.social.repository.projection.CommentRow;
+import com.baseer.social.repository.projection.SearchDocRow;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Comment entity.
@@ -14,11 +29,48 @@ import java.util.List;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     /**
-     * Find all comments for a specific post, ordered by creation date
+     * Comment columns plus the bare author ID, authors are resolved through AuthorCardCache
+     */
+    String VIEW_SELECT = "SELECT new com.baseer.social.dto.CommentView(" +
+            "c.id, c.post.id, c.content, c.repliesCount, c.createdAt, c.updatedAt, c.user.id) " +
+            "FROM Comment c ";
+
+    /**
+     * All comments of a post as read views
+     * @param postId the post ID
+     * @return list of comment views, oldest first
+     */
+    @Query(VIEW_SELECT + "WHERE c.post.id = :postId ORDER BY c.id ASC")
+    List<CommentView> findViewsByPostId(@Param("postId") Long postId);
+
+    /**
+     * First page of top-level comments for a post, oldest first
+     * @param postId the post ID
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return list of comment views
+     */
+    @Query(VIEW_SELECT + "WHERE c.post.id = :postId ORDER BY c.id ASC")
+    List<CommentView> findViewPage(@Param("postId") Long postId, Pageable pageable);
+
+    /**
+     * Next page of top-level comments after the keyset cursor
      * @param postId the post ID
-     * @return list of comments
+     * @param afterId id of the last comment on the previous page
+     * @param pageable page size
+     * @return list of comment views
      */
-    List<Comment> findByPostIdOrderByCreatedAtAsc(Long postId);
+    @Query(VIEW_SELECT + "WHERE c.post.id = :postId AND c.id > :afterId ORDER BY c.id ASC")
+    List<CommentView> findViewPageAfter(@Param("postId") Long postId,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Find the post a comment belongs to without loading the comment
+     * @param commentId the comment ID
+     * @return Optional containing the post ID if the comment exists
+     */
+    @Query("SELECT c.post.id FROM Comment c WHERE c.id = :commentId")
+    Optional<Long> findPostIdById(@Param("commentId") Long commentId);
 
     /**
      * Count comments for a specific post
@@ -26,4 +78,92 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @return number of comments
      */
     Long countByPostId(Long postId);
-}
\ No newline at end of file
+
+    /**
+     * Next chunk of comment IDs of a post, used by PostReaper
+     * @param postId the post ID
+     * @param limit chunk size
+     * @return comment IDs in ID order
+     */
+    @Query(value = "SELECT id FROM comments WHERE post_id = :postId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdChunkByPostId(@Param("postId") Long postId, @Param("limit") int limit);
+
+    /**
+     * Delete comments by ID in one statement, their replies must already be gone
+     * @param ids the comment IDs
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of a user's comments with their post IDs, used by account erasure
+     * @param userId the user ID
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return comment refs in ID order
+     */
+    @Query(value = "SELECT id AS id, post_id AS parentId FROM comments WHERE user_id = :userId AND id > :afterId " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<ChildRef> findRefChunkByUserId(@Param("userId") Long userId,
+                                        @Param("afterId") Long afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Subtract delta from replies_count of several comments in one statement, never going below zero
+     * @param commentIds the comment IDs
+     * @param delta amount to subtract
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Comment c SET c.repliesCount = CASE WHEN c.repliesCount - :delta < 0 THEN 0 " +
+            "ELSE c.repliesCount - :delta END WHERE c.id IN :commentIds")
+    int decrementRepliesCountIn(@Param("commentIds") Collection<Long> commentIds, @Param("delta") int delta);
+
+    /**
+     * All comments of a user as a forward-only stream, oldest first
+     * @param userId the user ID
+     * @return stream of comment rows
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = PostRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT c.id AS id, c.post.id AS postId, c.content AS content, c.repliesCount AS repliesCount, " +
+            "c.createdAt AS createdAt, c.updatedAt AS updatedAt FROM Comment c WHERE c.user.id = :userId ORDER BY c.id")
+    Stream<CommentRow> streamRowsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Several comments as read views, skipping comments of soft-deleted posts
+     * @param ids the comment IDs
+     * @return views of the comments that exist, in no particular order
+     */
+    @Query(VIEW_SELECT + "WHERE c.id IN :ids AND c.post.deletedAt IS NULL")
+    List<CommentView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of comment texts for the search index rebuild
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return rows in ID order
+     */
+    @Query(value = "SELECT id AS id, content AS content, updated_at AS updatedAt, NULL AS deletedAt " +
+            "FROM comments WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<SearchDocRow> findSearchDocChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Next chunk of comment texts created or edited since a time, for the search index catch-up.
+     * Keyset on (updated_at, id): pass the last row's updatedAt and ID to continue. The index is forced
+     * because for a since far in the past the planner may pick a full scan and filesort instead
+     * @param since lower bound of updated_at, inclusive
+     * @param afterId ID of the last row seen at exactly since, 0 for the first chunk
+     * @param limit chunk size
+     * @return rows in (updated_at, id) order
+     */
+    @Query(value = "SELECT id AS id, content AS content, updated_at AS updatedAt, NULL AS deletedAt " +
+            "FROM comments FORCE INDEX (idx_comments_updated_at) " +
+            "WHERE updated_at >= :since AND (updated_at > :since OR id > :afterId) " +
+            "ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<SearchDocRow> findSearchDocsUpdatedSince(@Param("since") LocalDateTime since,
+                                                  @Param("afterId") Long afterId,
+                                                  @Param("limit") int limit);
+}
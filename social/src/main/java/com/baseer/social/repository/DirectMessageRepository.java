@@ -0,0 +1,60 @@
+package com.baseer.social.repository;
+
+import com.baseer.social.dto.MessageView;
+import com.baseer.social.entity.DirectMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository for direct messages. Writes are batched appends in MessageWriter.
+ */
+@Repository
+public interface DirectMessageRepository extends JpaRepository<DirectMessage, Long> {
+
+    /**
+     * One page of a conversation, newest first
+     * @param userLow the lower user ID of the pair
+     * @param userHigh the higher user ID of the pair
+     * @param beforeId keyset position, Long.MAX_VALUE for the first page
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return messages in descending ID order
+     */
+    @Query("SELECT new com.baseer.social.dto.MessageView(m.id, m.userLow, m.userHigh, m.senderId, m.content, m.createdAt) " +
+            "FROM DirectMessage m WHERE m.userLow = :userLow AND m.userHigh = :userHigh AND m.id < :beforeId " +
+            "ORDER BY m.id DESC")
+    List<MessageView> findConversationPage(@Param("userLow") Long userLow,
+                                           @Param("userHigh") Long userHigh,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+
+    /**
+     * Delete up to {@code limit} messages of conversations where the user has the lower ID,
+     * used by account erasure
+     * @param userId the user
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM direct_messages WHERE user_low = :userId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByUserLow(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Delete up to {@code limit} messages of conversations where the user has the higher ID,
+     * used by account erasure
+     * @param userId the user
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM direct_messages WHERE user_high = :userId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByUserHigh(@Param("userId") Long userId, @Param("limit") int limit);
+}
@@ -1,10 +1,24 @@
 package com.baseer.social.repository;
 
+import com.baseer.social.dto.LikerView;
 import com.baseer.social.entity.Like;
+import com.baseer.social.repository.projection.ChildRef;
+import com.baseer.social.repository.projection.LikeRow;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Like entity.
@@ -29,6 +43,25 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
      */
     Boolean existsByPostIdAndUserId(Long postId, Long userId);
 
+    /**
+     * Insert a like unless the user already likes the post
+     * @param id new like ID
+     * @return 1 if inserted, 0 if the like already existed
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO likes (id, post_id, user_id, created_at) " +
+            "VALUES (:id, :postId, :userId, :createdAt)", nativeQuery = true)
+    int insertIgnore(@Param("id") Long id, @Param("postId") Long postId, @Param("userId") Long userId,
+                     @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Delete a user's like of a post without loading it
+     * @return 1 if deleted, 0 if there was no such like
+     */
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deleteOne(@Param("postId") Long postId, @Param("userId") Long userId);
+
     /**
      * Count likes for a specific post
      * @param postId the post ID
@@ -42,4 +75,71 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
      * @param userId the user ID
      */
     void deleteByPostIdAndUserId(Long postId, Long userId);
-}
\ No newline at end of file
+
+    /**
+     * One page of a post's likers, newest like first
+     * @param postId the post ID
+     * @param beforeId keyset position, Long.MAX_VALUE for the first page
+     * @param pageable page size (page number is ignored by callers, always 0)
+     * @return liker views with bare user IDs
+     */
+    @Query("SELECT new com.baseer.social.dto.LikerView(l.id, l.createdAt, l.user.id) FROM Like l " +
+            "WHERE l.post.id = :postId AND l.id < :beforeId ORDER BY l.id DESC")
+    List<LikerView> findLikerPage(@Param("postId") Long postId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * One page of the likes a user gave, newest first. The index is forced because the
+     * (user_id, post_id) index also covers this query and the planner may pick it and sort
+     * @param userId the user ID
+     * @param beforeId keyset position, Long.MAX_VALUE for the first page
+     * @param limit page size
+     * @return like IDs with the liked post as parent
+     */
+    @Query(value = "SELECT id AS id, post_id AS parentId FROM likes FORCE INDEX (idx_likes_user_id_id) " +
+            "WHERE user_id = :userId AND id < :beforeId ORDER BY id DESC LIMIT :limit", nativeQuery = true)
+    List<ChildRef> findLikedPostPage(@Param("userId") Long userId, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    /**
+     * Delete up to {@code limit} likes of a post, used by PostReaper
+     * @param postId the post ID
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE post_id = :postId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") Long postId, @Param("limit") int limit);
+
+    /**
+     * Next chunk of post IDs liked by a user, used by account erasure
+     * @param userId the user ID
+     * @param afterPostId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return post IDs in ID order
+     */
+    @Query(value = "SELECT post_id FROM likes WHERE user_id = :userId AND post_id > :afterPostId " +
+            "ORDER BY post_id LIMIT :limit", nativeQuery = true)
+    List<Long> findPostIdChunkByUserId(@Param("userId") Long userId,
+                                       @Param("afterPostId") Long afterPostId,
+                                       @Param("limit") int limit);
+
+    /**
+     * Delete a user's likes on the given posts in one statement
+     * @param userId the user ID
+     * @param postIds the post IDs
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE user_id = :userId AND post_id IN (:postIds)", nativeQuery = true)
+    int deleteByUserIdAndPostIdIn(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
+    /**
+     * All likes of a user as a forward-only stream, in post ID order
+     * @param userId the user ID
+     * @return stream of like rows
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = PostRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT l.post.id AS postId, l.createdAt AS createdAt FROM Like l WHERE l.user.id = :userId " +
+            "ORDER BY l.post.id")
+    Stream<LikeRow> streamRowsByUserId(@Param("userId") Long userId);
+}
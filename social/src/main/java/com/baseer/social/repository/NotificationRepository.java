@@ -0,0 +1,90 @@
+package com.baseer.social.repository;
+
+import com.baseer.social.entity.Notification;
+import com.baseer.social.repository.projection.NotificationRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for aggregated notifications. Writes are batched upserts in NotificationService.
+ */
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    String ROW_COLUMNS = "SELECT id AS id, recipient_id AS recipientId, kind AS kind, target_id AS targetId, " +
+            "post_id AS postId, actor_count AS actorCount, actor_ids AS actorIds, activity_id AS activityId, " +
+            "updated_at AS updatedAt FROM notifications ";
+
+    /**
+     * One page of a user's unread notifications, latest activity first
+     * @param recipientId the recipient
+     * @param beforeActivityId keyset position, Long.MAX_VALUE for the first page
+     * @param limit page size
+     * @return rows in descending activity order
+     */
+    @Query(value = ROW_COLUMNS + "WHERE recipient_id = :recipientId AND is_read = FALSE " +
+            "AND activity_id < :beforeActivityId ORDER BY activity_id DESC LIMIT :limit", nativeQuery = true)
+    List<NotificationRow> findUnreadPage(@Param("recipientId") Long recipientId,
+                                         @Param("beforeActivityId") Long beforeActivityId,
+                                         @Param("limit") int limit);
+
+    /**
+     * Unread notifications of several users written at or after an activity ID, used to
+     * push the rows a flush just wrote
+     * @param recipientIds the recipients
+     * @param sinceActivityId lowest activity ID, inclusive
+     * @return matching rows
+     */
+    @Query(value = ROW_COLUMNS + "WHERE recipient_id IN (:recipientIds) AND is_read = FALSE " +
+            "AND activity_id >= :sinceActivityId", nativeQuery = true)
+    List<NotificationRow> findUnreadSince(@Param("recipientIds") Collection<Long> recipientIds,
+                                          @Param("sinceActivityId") Long sinceActivityId);
+
+    /**
+     * Number of unread notifications of a user
+     * @param recipientId the recipient
+     * @return unread count
+     */
+    @Query(value = "SELECT COUNT(*) FROM notifications WHERE recipient_id = :recipientId AND is_read = FALSE",
+            nativeQuery = true)
+    long countUnread(@Param("recipientId") Long recipientId);
+
+    /**
+     * Mark one notification read, only if it belongs to the recipient
+     * @param id the notification ID
+     * @param recipientId the recipient
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications SET is_read = TRUE WHERE id = :id AND recipient_id = :recipientId",
+            nativeQuery = true)
+    int markRead(@Param("id") Long id, @Param("recipientId") Long recipientId);
+
+    /**
+     * Mark every unread notification of a user read
+     * @param recipientId the recipient
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications SET is_read = TRUE WHERE recipient_id = :recipientId AND is_read = FALSE",
+            nativeQuery = true)
+    int markAllRead(@Param("recipientId") Long recipientId);
+
+    /**
+     * Delete up to {@code limit} notifications of a user, used by account erasure
+     * @param recipientId the recipient
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE recipient_id = :recipientId LIMIT :limit", nativeQuery = true)
+    int deleteChunkByRecipientId(@Param("recipientId") Long recipientId, @Param("limit") int limit);
+}
@@ -1,13 +1,27 @@
 package com.baseer.social.repository;
 
 import com.baseer.social.entity.Post;
+import com.baseer.social.repository.projection.FeedScoreRow;
+import com.baseer.social.repository.projection.PostCountRow;
+import com.baseer.social.repository.projection.PostRow;
+import com.baseer.social.repository.projection.SearchDocRow;
+import com.baseer.social.repository.projection.ViewCountRow;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Post entity.
@@ -17,25 +31,296 @@ import java.util.List;
 public interface PostRepository extends JpaRepository<Post, Long> {
 
     /**
-     * Find all posts ordered by creation date (newest first) with pagination
-     * @param pageable pagination information
-     * @return page of posts
+     * Fetch size that makes MySQL Connector/J stream rows one by one instead of
+     * buffering the whole result set; used by the Stream queries of every repository
      */
+    String STREAM_FETCH_SIZE = "" + Integer.MIN_VALUE;
 
-    Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    String ROW_SELECT = "SELECT p.id AS id, p.user.id AS userId, p.content AS content, p.imageUrl AS imageUrl, " +
+            "p.likesCount AS likesCount, p.commentsCount AS commentsCount, p.createdAt AS createdAt FROM Post p ";
 
     /**
-     * Find posts by user ID ordered by creation date
+     * Find all posts by user ID
      * @param userId the user ID
+     * @return list of posts
+     */
+    List<Post> findByUserId(Long userId);
+
+    /**
+     * Feed page as rows with bare author IDs, newest first.
+     * IDs are time-ordered, so this sorts on the primary key instead of created_at
      * @param pageable pagination information
-     * @return page of posts
+     * @return page of post rows
      */
-    Page<Post> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    @Query(value = ROW_SELECT + "ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostRow> findFeedRows(Pageable pageable);
 
     /**
-     * Find all posts by user ID
+     * A user's posts as rows with bare author IDs, newest first
      * @param userId the user ID
-     * @return list of posts
+     * @param pageable pagination information
+     * @return page of post rows
      */
-    List<Post> findByUserId(Long userId);
-}
\ No newline at end of file
+    @Query(value = ROW_SELECT + "WHERE p.user.id = :userId ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Post p WHERE p.user.id = :userId")
+    Page<PostRow> findRowsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Single post as a row with the bare author ID
+     * @param id the post ID
+     * @return Optional containing the row if found
+     */
+    @Query(ROW_SELECT + "WHERE p.id = :id")
+    Optional<PostRow> findRowById(@Param("id") Long id);
+
+    /**
+     * Atomically add delta to likes_count without loading the post. Not clamped, so the
+     * opposite delta undoes it exactly; LikeService relies on that
+     * @param postId the post ID
+     * @param delta +1 or -1
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :postId")
+    int adjustLikesCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    /**
+     * Atomically add delta to comments_count without loading the post, never going below zero
+     * @param postId the post ID
+     * @param delta +1 or -1
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = CASE WHEN p.commentsCount + :delta < 0 THEN 0 " +
+            "ELSE p.commentsCount + :delta END WHERE p.id = :postId")
+    int adjustCommentsCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    /**
+     * Hide a post; its rows are removed later by PostReaper
+     * @param postId the post ID
+     * @param deletedAt deletion time
+     * @return number of updated rows, 0 if the post was already deleted
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.deletedAt = :deletedAt, p.updatedAt = :deletedAt WHERE p.id = :postId AND p.deletedAt IS NULL")
+    int softDelete(@Param("postId") Long postId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Soft-deleted posts waiting to be reaped, oldest deletion first
+     * @param limit max number of IDs
+     * @return post IDs
+     */
+    @Query(value = "SELECT id FROM posts WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findSoftDeletedIds(@Param("limit") int limit);
+
+    /**
+     * Number of soft-deleted posts waiting to be reaped
+     * @return backlog size
+     */
+    @Query(value = "SELECT COUNT(*) FROM posts WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countSoftDeleted();
+
+    /**
+     * Remove a soft-deleted post row once its children are gone
+     * @param postId the post ID
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM posts WHERE id = :postId AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeSoftDeleted(@Param("postId") Long postId);
+
+    /**
+     * Subtract delta from likes_count of several posts in one statement, never going below zero
+     * @param postIds the post IDs
+     * @param delta amount to subtract
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = CASE WHEN p.likesCount - :delta < 0 THEN 0 " +
+            "ELSE p.likesCount - :delta END WHERE p.id IN :postIds")
+    int decrementLikesCountIn(@Param("postIds") Collection<Long> postIds, @Param("delta") int delta);
+
+    /**
+     * Subtract delta from comments_count of several posts in one statement, never going below zero
+     * @param postIds the post IDs
+     * @param delta amount to subtract
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = CASE WHEN p.commentsCount - :delta < 0 THEN 0 " +
+            "ELSE p.commentsCount - :delta END WHERE p.id IN :postIds")
+    int decrementCommentsCountIn(@Param("postIds") Collection<Long> postIds, @Param("delta") int delta);
+
+    /**
+     * Next chunk of a user's post IDs, soft-deleted ones included
+     * @param userId the user ID
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return post IDs in ID order
+     */
+    @Query(value = "SELECT id FROM posts WHERE user_id = :userId AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdChunkByUserId(@Param("userId") Long userId,
+                                   @Param("afterId") Long afterId,
+                                   @Param("limit") int limit);
+
+    /**
+     * Any remaining post row of a user, soft-deleted ones included
+     * @param userId the user ID
+     * @return Optional containing a post ID if the user still has posts
+     */
+    @Query(value = "SELECT id FROM posts WHERE user_id = :userId LIMIT 1", nativeQuery = true)
+    Optional<Long> findAnyIdByUserId(@Param("userId") Long userId);
+
+    /**
+     * Hide several posts at once; PostReaper removes them
+     * @param postIds the post IDs
+     * @param deletedAt deletion time
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.deletedAt = :deletedAt, p.updatedAt = :deletedAt " +
+            "WHERE p.id IN :postIds AND p.deletedAt IS NULL")
+    int softDeleteIn(@Param("postIds") Collection<Long> postIds, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * All posts of a user as a forward-only stream, oldest first.
+     * Must be consumed inside a transaction and closed.
+     * @param userId the user ID
+     * @return stream of post rows
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE))
+    @Query(ROW_SELECT + "WHERE p.user.id = :userId ORDER BY p.id")
+    Stream<PostRow> streamRowsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Several posts as rows with bare author IDs, in no particular order
+     * @param ids the post IDs
+     * @return rows of the posts that exist and are not deleted
+     */
+    @Query(ROW_SELECT + "WHERE p.id IN :ids")
+    List<PostRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Next chunk of post texts for the search index rebuild, soft-deleted ones included
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return rows in ID order
+     */
+    @Query(value = "SELECT id AS id, content AS content, updated_at AS updatedAt, deleted_at AS deletedAt " +
+            "FROM posts WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<SearchDocRow> findSearchDocChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Next chunk of post texts created, edited or soft-deleted since a time, for the search index catch-up.
+     * Keyset on (updated_at, id): pass the last row's updatedAt and ID to continue. The index is forced
+     * because for a since far in the past the planner may pick a full scan and filesort instead
+     * @param since lower bound of updated_at, inclusive
+     * @param afterId ID of the last row seen at exactly since, 0 for the first chunk
+     * @param limit chunk size
+     * @return rows in (updated_at, id) order
+     */
+    @Query(value = "SELECT id AS id, content AS content, updated_at AS updatedAt, deleted_at AS deletedAt " +
+            "FROM posts FORCE INDEX (idx_posts_updated_at) " +
+            "WHERE updated_at >= :since AND (updated_at > :since OR id > :afterId) " +
+            "ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<SearchDocRow> findSearchDocsUpdatedSince(@Param("since") LocalDateTime since,
+                                                  @Param("afterId") Long afterId,
+                                                  @Param("limit") int limit);
+
+    /**
+     * Post counts of the users in an ID range, soft-deleted posts included; served from (user_id, id) alone.
+     * Written as two comparisons rather than BETWEEN: MariaDB plans BETWEEN x AND x (a one-user chunk)
+     * as a lookup and then sorts a temporary table for the GROUP BY
+     * @param fromUserId lowest user ID, inclusive
+     * @param toUserId highest user ID, inclusive
+     * @return one row per user with at least one post
+     */
+    @Query(value = "SELECT user_id AS userId, COUNT(*) AS posts FROM posts " +
+            "WHERE user_id >= :fromUserId AND user_id <= :toUserId GROUP BY user_id", nativeQuery = true)
+    List<PostCountRow> countByUserIdBetween(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+
+    /**
+     * One page of a hashtag timeline, newest first; a range of the post_tags primary key
+     * @param tag folded tag, without the '#'
+     * @param beforeId keyset position, Long.MAX_VALUE for the first page
+     * @param limit page size
+     * @return post IDs, soft-deleted posts not filtered out
+     */
+    @Query(value = "SELECT post_id FROM post_tags WHERE tag = :tag AND post_id < :beforeId " +
+            "ORDER BY post_id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByTag(@Param("tag") String tag, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    /**
+     * One page of the posts mentioning a user, newest first
+     * @param userId the mentioned user
+     * @param beforeId keyset position, Long.MAX_VALUE for the first page
+     * @param limit page size
+     * @return post IDs, soft-deleted posts not filtered out
+     */
+    @Query(value = "SELECT post_id FROM post_mentions WHERE user_id = :userId AND post_id < :beforeId " +
+            "ORDER BY post_id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsMentioning(@Param("userId") Long userId, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    /**
+     * Remove the hashtags of a post, before re-extracting them or when the post is reaped
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_tags WHERE post_id = :postId", nativeQuery = true)
+    int deleteTagsByPostId(@Param("postId") Long postId);
+
+    /**
+     * Remove the mentions in a post, before re-extracting them or when the post is reaped
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_mentions WHERE post_id = :postId", nativeQuery = true)
+    int deleteMentionsByPostId(@Param("postId") Long postId);
+
+    /**
+     * Persisted unique-viewer estimates of some posts; posts never viewed have no row
+     * @param postIds the posts
+     * @return one row per viewed post
+     */
+    @Query(value = "SELECT post_id AS postId, view_count AS viewCount FROM post_views WHERE post_id IN (:postIds)",
+            nativeQuery = true)
+    List<ViewCountRow> findViewCounts(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Remove the view sketch of a post when it is reaped
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_views WHERE post_id = :postId", nativeQuery = true)
+    int deleteViewsByPostId(@Param("postId") Long postId);
+
+    /**
+     * Delete up to {@code limit} mentions of a user, used by account erasure
+     * @param userId the mentioned user
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_mentions WHERE user_id = :userId LIMIT :limit", nativeQuery = true)
+    int deleteMentionChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Next chunk of live posts' counters for loading the ranked feed; IDs are time-ordered,
+     * so starting after the smallest ID of a time reads only posts created since then
+     * @param afterId keyset position
+     * @param limit chunk size
+     * @return rows in ID order
+     */
+    @Query(value = "SELECT id AS id, COALESCE(likes_count, 0) AS likesCount, " +
+            "COALESCE(comments_count, 0) AS commentsCount FROM posts " +
+            "WHERE id > :afterId AND deleted_at IS NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<FeedScoreRow> findFeedScoreChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+}
@@ -1,10 +1,22 @@
 package com.baseer.social.repository;
 
+import com.baseer.social.dto.ReplyView;
 import com.baseer.social.entity.Reply;
+import com.baseer.social.repository.projection.ChildRef;
+import com.baseer.social.repository.projection.ReplyRow;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for Reply entity.
@@ -14,11 +26,11 @@ import java.util.List;
 public interface ReplyRepository extends JpaRepository<Reply, Long> {
 
     /**
-     * Find all replies for a specific comment, ordered by creation date
-     * @param commentId the comment ID
-     * @return list of replies
+     * Reply columns plus the bare author ID, authors are resolved through AuthorCardCache
      */
-    List<Reply> findByCommentIdOrderByCreatedAtAsc(Long commentId);
+    String VIEW_SELECT = "SELECT new com.baseer.social.dto.ReplyView(" +
+            "r.id, r.comment.id, r.content, r.createdAt, r.user.id) " +
+            "FROM Reply r ";
 
     /**
      * Count replies for a specific comment
@@ -26,4 +38,95 @@ public interface ReplyRepository extends JpaRepository<Reply, Long> {
      * @return number of replies
      */
     Long countByCommentId(Long commentId);
-}
\ No newline at end of file
+
+    /**
+     * Load the first {@code perComment} replies of every given comment in one query.
+     * Rows come back grouped by comment, oldest reply first.
+     * @param commentIds the comment IDs of one thread page
+     * @param perComment max replies per comment
+     * @return reply rows with bare author IDs
+     */
+    @Query(value = "SELECT t.id, t.commentId, t.content, t.createdAt, t.userId FROM (" +
+            "  SELECT r.id AS id, r.comment_id AS commentId, r.content AS content, r.created_at AS createdAt, " +
+            "         r.user_id AS userId, " +
+            "         ROW_NUMBER() OVER (PARTITION BY r.comment_id ORDER BY r.id) AS rn " +
+            "  FROM replies r " +
+            "  WHERE r.comment_id IN (:commentIds)) t " +
+            "WHERE t.rn <= :perComment " +
+            "ORDER BY t.commentId, t.id",
+            nativeQuery = true)
+    List<ReplyRow> findFirstRepliesPerComment(@Param("commentIds") Collection<Long> commentIds,
+                                              @Param("perComment") int perComment);
+
+    /**
+     * All replies of a comment as read views
+     * @param commentId the comment ID
+     * @return list of reply views, oldest first
+     */
+    @Query(VIEW_SELECT + "WHERE r.comment.id = :commentId ORDER BY r.id ASC")
+    List<ReplyView> findViewsByCommentId(@Param("commentId") Long commentId);
+
+    /**
+     * Page of replies for a comment, oldest first
+     * @param commentId the comment ID
+     * @param pageable page size
+     * @return list of reply views
+     */
+    @Query(VIEW_SELECT + "WHERE r.comment.id = :commentId ORDER BY r.id ASC")
+    List<ReplyView> findViewPage(@Param("commentId") Long commentId, Pageable pageable);
+
+    /**
+     * Page of replies after the keyset cursor
+     * @param commentId the comment ID
+     * @param afterId id of the last reply on the previous page
+     * @param pageable page size
+     * @return list of reply views
+     */
+    @Query(VIEW_SELECT + "WHERE r.comment.id = :commentId AND r.id > :afterId ORDER BY r.id ASC")
+    List<ReplyView> findViewPageAfter(@Param("commentId") Long commentId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Delete up to {@code limit} replies of the given comments, used by PostReaper
+     * @param commentIds the comment IDs
+     * @param limit max rows per statement
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM replies WHERE comment_id IN (:commentIds) LIMIT :limit", nativeQuery = true)
+    int deleteChunkByCommentIdIn(@Param("commentIds") Collection<Long> commentIds, @Param("limit") int limit);
+
+    /**
+     * Next chunk of a user's replies with their comment IDs, used by account erasure
+     * @param userId the user ID
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return reply refs in ID order
+     */
+    @Query(value = "SELECT id AS id, comment_id AS parentId FROM replies WHERE user_id = :userId AND id > :afterId " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<ChildRef> findRefChunkByUserId(@Param("userId") Long userId,
+                                        @Param("afterId") Long afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Delete replies by ID in one statement
+     * @param ids the reply IDs
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM replies WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * All replies of a user as a forward-only stream, oldest first
+     * @param userId the user ID
+     * @return stream of reply rows
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = PostRepository.STREAM_FETCH_SIZE))
+    @Query("SELECT r.id AS id, r.comment.id AS commentId, r.content AS content, r.createdAt AS createdAt, " +
+            "r.user.id AS userId FROM Reply r WHERE r.user.id = :userId ORDER BY r.id")
+    Stream<ReplyRow> streamRowsByUserId(@Param("userId") Long userId);
+}
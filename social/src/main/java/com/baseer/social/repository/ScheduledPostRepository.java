@@ -0,0 +1,79 @@
+package com.baseer.social.repository;
+
+import com.baseer.social.entity.ScheduledPost;
+import com.baseer.social.repository.projection.ScheduledPostRef;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for posts waiting for publication. The publisher reads the table only at
+ * startup; due posts are found by ID from its timing wheel.
+ */
+@Repository
+public interface ScheduledPostRepository extends JpaRepository<ScheduledPost, Long> {
+
+    /**
+     * One chunk of all scheduled posts, by primary key, for the startup load
+     * @param afterId keyset position, 0 for the first chunk
+     * @param pageable chunk size (page number is ignored by callers, always 0)
+     * @return IDs and publication times in ID order
+     */
+    @Query("SELECT s.id AS id, s.publishAt AS publishAt FROM ScheduledPost s WHERE s.id > :afterId ORDER BY s.id")
+    List<ScheduledPostRef> findRefChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Load scheduled posts with row locks (SELECT ... FOR UPDATE), so a post is published
+     * once even when cancelled or picked up by another instance at the same time
+     * @param ids scheduled post IDs
+     * @return the posts still scheduled
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ScheduledPost s WHERE s.id IN :ids")
+    List<ScheduledPost> findForPublish(@Param("ids") Collection<Long> ids);
+
+    /**
+     * A user's scheduled posts, newest first
+     */
+    @Query("SELECT s FROM ScheduledPost s WHERE s.userId = :userId ORDER BY s.id DESC")
+    List<ScheduledPost> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(s) FROM ScheduledPost s WHERE s.userId = :userId")
+    long countByUserId(@Param("userId") Long userId);
+
+    /**
+     * Delete published posts
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ScheduledPost s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Cancel a scheduled post of a user
+     * @return number of deleted rows, 0 if it was not the user's or already published
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ScheduledPost s WHERE s.id = :id AND s.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Cancel all scheduled posts of a user, used by account erasure
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ScheduledPost s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
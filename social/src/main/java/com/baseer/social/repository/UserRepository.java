@@ -1,9 +1,17 @@
 package com.baseer.social.repository;
 
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.UserProfileView;
 import com.baseer.social.entity.User;
+import com.baseer.social.repository.projection.UserDirectoryRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,6 +21,10 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    String PROFILE_SELECT = "SELECT new com.baseer.social.dto.UserProfileView(" +
+            "u.id, u.username, u.email, u.fullName, u.bio, u.profilePicture, u.createdAt) " +
+            "FROM User u ";
+
     /**
      * Find user by username
      * @param username the username to search for
@@ -20,6 +32,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Find only the ID of a user by username
+     * @param username the username to search for
+     * @return Optional containing the user ID if found
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     /**
      * Find user by email
      * @param email the email to search for
@@ -40,4 +60,49 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if exists, false otherwise
      */
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Find a user profile view by ID
+     * @param id the user ID
+     * @return Optional containing the profile if found
+     */
+    @Query(PROFILE_SELECT + "WHERE u.id = :id")
+    Optional<UserProfileView> findProfileById(@Param("id") Long id);
+
+    /**
+     * Find a user profile view by username
+     * @param username the username to search for
+     * @return Optional containing the profile if found
+     */
+    @Query(PROFILE_SELECT + "WHERE u.username = :username")
+    Optional<UserProfileView> findProfileByUsername(@Param("username") String username);
+
+    /**
+     * Load author cards for a batch of users in one query
+     * @param ids the user IDs
+     * @return author cards of the users that exist
+     */
+    @Query("SELECT new com.baseer.social.dto.PostResponse$UserDTO(u.id, u.username, u.fullName, u.profilePicture) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<PostResponse.UserDTO> findAuthorCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Delete a user row without loading its collections; the erasure job removes the children first
+     * @param id the user ID
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id", nativeQuery = true)
+    int purgeById(@Param("id") Long id);
+
+    /**
+     * Next chunk of user names for the user prefix index, leaving out accounts being erased
+     * @param afterId keyset position, 0 for the first chunk
+     * @param limit chunk size
+     * @return rows in ID order
+     */
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.full_name AS fullName FROM users u " +
+            "LEFT JOIN account_erasures e ON e.user_id = u.id " +
+            "WHERE u.id > :afterId AND e.user_id IS NULL ORDER BY u.id LIMIT :limit", nativeQuery = true)
+    List<UserDirectoryRow> findDirectoryChunk(@Param("afterId") Long afterId, @Param("limit") int limit);
+}
@@ -0,0 +1,12 @@
+package com.baseer.social.repository.projection;
+
+/**
+ * Row ID plus the ID of its parent (comment -> post, reply -> comment).
+ * Used by chunked deletes that must adjust the parent's counter.
+ */
+public interface ChildRef {
+
+    Long getId();
+
+    Long getParentId();
+}
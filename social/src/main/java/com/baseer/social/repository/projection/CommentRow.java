@@ -0,0 +1,21 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat comment row without the author, for exports of one user's comments.
+ */
+public interface CommentRow {
+
+    Long getId();
+
+    Long getPostId();
+
+    String getContent();
+
+    Integer getRepliesCount();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.baseer.social.repository.projection;
+
+/**
+ * Engagement counters of a post, read when the ranked feed is loaded.
+ * The creation time is part of the Snowflake ID.
+ */
+public interface FeedScoreRow {
+
+    Long getId();
+
+    Integer getLikesCount();
+
+    Integer getCommentsCount();
+}
@@ -0,0 +1,13 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A like of one user: the liked post and when.
+ */
+public interface LikeRow {
+
+    Long getPostId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,27 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One aggregated notification as stored, actors as the raw ID list.
+ */
+public interface NotificationRow {
+
+    Long getId();
+
+    Long getRecipientId();
+
+    String getKind();
+
+    Long getTargetId();
+
+    Long getPostId();
+
+    Integer getActorCount();
+
+    String getActorIds();
+
+    Long getActivityId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,11 @@
+package com.baseer.social.repository.projection;
+
+/**
+ * Number of posts of one user.
+ */
+public interface PostCountRow {
+
+    Long getUserId();
+
+    Long getPosts();
+}
@@ -0,0 +1,24 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Post columns with the bare author ID.
+ * Authors are resolved through AuthorCardCache instead of joining users.
+ */
+public interface PostRow {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getContent();
+
+    String getImageUrl();
+
+    Integer getLikesCount();
+
+    Integer getCommentsCount();
+
+    LocalDateTime getCreatedAt();
+}
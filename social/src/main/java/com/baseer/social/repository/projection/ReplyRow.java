@@ -0,0 +1,20 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat reply row with the bare author ID.
+ * Used by native queries where the Reply entity (with its EAGER user) is not needed.
+ */
+public interface ReplyRow {
+
+    Long getId();
+
+    Long getCommentId();
+
+    String getContent();
+
+    LocalDateTime getCreatedAt();
+
+    Long getUserId();
+}
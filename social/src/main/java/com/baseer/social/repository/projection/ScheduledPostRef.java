@@ -0,0 +1,13 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scheduled post ID and its publication time, what the publisher keeps in memory.
+ */
+public interface ScheduledPostRef {
+
+    Long getId();
+
+    LocalDateTime getPublishAt();
+}
@@ -0,0 +1,18 @@
+package com.baseer.social.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Searchable text of a post or comment, read by the search index rebuild and catch-up.
+ * deletedAt is always null for comments.
+ */
+public interface SearchDocRow {
+
+    Long getId();
+
+    String getContent();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getDeletedAt();
+}
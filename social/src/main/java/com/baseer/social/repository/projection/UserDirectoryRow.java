@@ -0,0 +1,13 @@
+package com.baseer.social.repository.projection;
+
+/**
+ * Name fields of a user, read by the user prefix index rebuild.
+ */
+public interface UserDirectoryRow {
+
+    Long getId();
+
+    String getUsername();
+
+    String getFullName();
+}
@@ -0,0 +1,11 @@
+package com.baseer.social.repository.projection;
+
+/**
+ * Persisted unique-viewer estimate of a post.
+ */
+public interface ViewCountRow {
+
+    Long getPostId();
+
+    Long getViewCount();
+}
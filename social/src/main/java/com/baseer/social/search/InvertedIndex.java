@@ -0,0 +1,333 @@
+package com.baseer.social.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over one kind of document (posts or comments).
+ *
+ * Documents get dense int ordinals in the order they are added; each term maps to a
+ * PostingList of ordinals. A changed document is re-added under a new ordinal and its
+ * old ordinal is only marked deleted, so posting lists stay append-only; deleted
+ * ordinals are skipped at query time and dropped by compact().
+ *
+ * Queries are conjunctive (every term must match) and ranked with BM25. Results are
+ * ordered by score, then by ID (newest first), and a page continues strictly after the
+ * last hit of the previous one. Readers share a read lock; adding and removing documents
+ * takes the write lock for the few microseconds the postings append takes.
+ */
+final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /** Better hits first: higher score, then higher (newer) ID */
+    static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    /**
+     * A matching document
+     */
+    record Hit(long id, float score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final LongIntMap ordinals;
+    private long[] ids;
+    private int[] lengths;
+    private int docCount;
+    private long liveLength;
+
+    InvertedIndex() {
+        this(1024);
+    }
+
+    private InvertedIndex(int capacity) {
+        ordinals = new LongIntMap(capacity);
+        ids = new long[capacity];
+        lengths = new int[capacity];
+    }
+
+    /**
+     * Add a document, replacing any earlier version with the same ID
+     */
+    void index(long id, String text) {
+        List<String> terms = Tokenizer.tokenize(text);
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String term : terms) {
+            freqs.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (terms.isEmpty()) {
+                return;
+            }
+            int doc = newOrdinal(id, terms.size());
+            ordinals.put(id, doc);
+            liveLength += terms.size();
+            freqs.forEach((term, freq) -> postings.computeIfAbsent(term, t -> new PostingList()).add(doc, freq));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document; unknown IDs are ignored
+     */
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches of a query
+     * @param query raw query text, tokenized like documents
+     * @param after last hit of the previous page, or null for the first page
+     * @param limit max number of hits
+     * @return hits in ranking order
+     */
+    List<Hit> search(String query, Hit after, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            // Drive the intersection from the rarest term, the others only skip forward
+            Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+
+            int live = ordinals.size();
+            float averageLength = live == 0 ? 1 : (float) liveLength / live;
+            float[] idf = new float[lists.length];
+            PostingList.Cursor[] cursors = new PostingList.Cursor[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                int df = lists[i].size();
+                idf[i] = (float) Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                cursors[i] = lists[i].cursor();
+            }
+
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            int doc = cursors[0].next();
+            candidates:
+            while (doc != PostingList.NO_MORE_DOCS) {
+                for (int i = 1; i < cursors.length; i++) {
+                    int other = cursors[i].advance(doc);
+                    if (other > doc) {
+                        doc = cursors[0].advance(other);
+                        continue candidates;
+                    }
+                }
+                if (!deleted.get(doc)) {
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    float score = 0;
+                    for (int i = 0; i < cursors.length; i++) {
+                        int tf = cursors[i].freq();
+                        score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                    }
+                    Hit hit = new Hit(ids[doc], score);
+                    if ((after == null || RANKING.compare(after, hit) < 0)
+                            && (best.size() < limit || RANKING.compare(hit, best.peek()) < 0)) {
+                        best.add(hit);
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+                doc = cursors[0].next();
+            }
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append every document of an index built over other IDs, as the bulk rebuild does per chunk
+     */
+    void addAll(InvertedIndex other) {
+        lock.writeLock().lock();
+        other.lock.readLock().lock();
+        try {
+            int offset = docCount;
+            for (int doc = 0; doc < other.docCount; doc++) {
+                long id = other.ids[doc];
+                if (other.deleted.get(doc)) {
+                    deleted.set(newOrdinal(id, other.lengths[doc]));
+                } else {
+                    removeLocked(id);
+                    ordinals.put(id, newOrdinal(id, other.lengths[doc]));
+                    liveLength += other.lengths[doc];
+                }
+            }
+            other.postings.forEach((term, list) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).addAll(list, offset));
+        } finally {
+            other.lock.readLock().unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy without the deleted ordinals. Ordinals are renumbered in order, so postings stay sorted.
+     */
+    InvertedIndex compact() {
+        lock.readLock().lock();
+        try {
+            InvertedIndex compacted = new InvertedIndex(Math.max(16, ordinals.size()));
+            int[] remap = new int[docCount];
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    remap[doc] = -1;
+                } else {
+                    remap[doc] = compacted.newOrdinal(ids[doc], lengths[doc]);
+                    compacted.ordinals.put(ids[doc], remap[doc]);
+                }
+            }
+            compacted.liveLength = liveLength;
+            postings.forEach((term, list) -> {
+                PostingList copy = new PostingList();
+                PostingList.Cursor cursor = list.cursor();
+                for (int doc = cursor.next(); doc != PostingList.NO_MORE_DOCS; doc = cursor.next()) {
+                    if (remap[doc] >= 0) {
+                        copy.add(remap[doc], cursor.freq());
+                    }
+                }
+                if (copy.size() > 0) {
+                    compacted.postings.put(term, copy);
+                }
+            });
+            return compacted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of searchable documents */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Share of ordinals that belong to removed or replaced documents */
+    double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return docCount == 0 ? 0 : 1 - (double) ordinals.size() / docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of distinct terms */
+    int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the index body; see SegmentFile for the framing
+     */
+    void write(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeLong(ids[doc]);
+                out.writeInt(lengths[doc]);
+            }
+            long[] deletedWords = deleted.toLongArray();
+            out.writeInt(deletedWords.length);
+            for (long word : deletedWords) {
+                out.writeLong(word);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static InvertedIndex read(DataInput in) throws IOException {
+        int docCount = in.readInt();
+        InvertedIndex index = new InvertedIndex(Math.max(16, docCount));
+        for (int doc = 0; doc < docCount; doc++) {
+            index.newOrdinal(in.readLong(), in.readInt());
+        }
+        long[] deletedWords = new long[in.readInt()];
+        for (int i = 0; i < deletedWords.length; i++) {
+            deletedWords[i] = in.readLong();
+        }
+        index.deleted.or(BitSet.valueOf(deletedWords));
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!index.deleted.get(doc)) {
+                index.ordinals.put(index.ids[doc], doc);
+                index.liveLength += index.lengths[doc];
+            }
+        }
+        int terms = in.readInt();
+        for (int i = 0; i < terms; i++) {
+            String term = in.readUTF();
+            index.postings.put(term, PostingList.read(in));
+        }
+        return index;
+    }
+
+    private int newOrdinal(long id, int length) {
+        if (docCount == ids.length) {
+            ids = Arrays.copyOf(ids, docCount * 2);
+            lengths = Arrays.copyOf(lengths, docCount * 2);
+        }
+        ids[docCount] = id;
+        lengths[docCount] = length;
+        return docCount++;
+    }
+
+    private void removeLocked(long id) {
+        int doc = ordinals.remove(id);
+        if (doc != LongIntMap.MISSING) {
+            deleted.set(doc);
+            liveLength -= lengths[doc];
+        }
+    }
+}
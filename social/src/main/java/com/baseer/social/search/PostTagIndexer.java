@@ -0,0 +1,265 @@
+package com.baseer.social.search;
+
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.SearchDocRow;
+import com.baseer.social.service.UserIdCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maintains the post_tags and post_mentions tables behind hashtag and mention timelines.
+ *
+ * Post changes arrive as SearchDocumentEvents after their transaction commits and are
+ * applied on one "tag-indexer" thread, so creating or editing a post never waits for
+ * extraction and edits of one post are applied in commit order. Each change replaces the
+ * post's rows in one transaction; a delete removes them. Mentions are resolved to user IDs
+ * through the UserIdCache and mentions of unknown users are dropped.
+ *
+ * backfill() covers posts written before the tables existed: this thread reads posts by
+ * keyset while backfill-threads workers extract and insert their tags. It only adds
+ * missing rows (INSERT IGNORE), so it is safe to re-run. Its rows are inserted through
+ * INSERT ... SELECT from the post, only while the post still has the content read by the
+ * backfill and is not deleted: posts edited or deleted since are left to the indexer thread.
+ * (updated_at is not compared as it may be stored without fractional seconds.) The SELECT
+ * locks the post row, so an edit committing meanwhile either waits for the insert or makes
+ * it insert nothing.
+ *
+ * Metrics: social.tags.indexer.queued, social.tags.backfill.posts, social.tags.backfill (timer).
+ */
+@Slf4j
+@Service
+public class PostTagIndexer {
+
+    private static final String INSERT_TAG = "INSERT IGNORE INTO post_tags (tag, post_id) VALUES (?, ?)";
+    private static final String INSERT_MENTION = "INSERT IGNORE INTO post_mentions (user_id, post_id) VALUES (?, ?)";
+    private static final String UNCHANGED_POST =
+            " FROM posts WHERE id = ? AND content = BINARY ? AND deleted_at IS NULL";
+    private static final String BACKFILL_TAG =
+            "INSERT IGNORE INTO post_tags (tag, post_id) SELECT ?, id" + UNCHANGED_POST;
+    private static final String BACKFILL_MENTION =
+            "INSERT IGNORE INTO post_mentions (user_id, post_id) SELECT ?, id" + UNCHANGED_POST;
+
+    private final PostRepository postRepository;
+    private final UserIdCache userIdCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int chunkSize;
+    private final int backfillThreads;
+
+    private final ThreadPoolExecutor indexer;
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+    private final Counter backfilledPosts;
+    private final Timer backfillTimer;
+
+    public PostTagIndexer(PostRepository postRepository,
+                          UserIdCache userIdCache,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${social.tags.backfill-on-startup:false}") boolean backfillOnStartup,
+                          @Value("${social.tags.backfill-chunk-size:2000}") int chunkSize,
+                          @Value("${social.tags.backfill-threads:0}") int backfillThreads) {
+        this.postRepository = postRepository;
+        this.userIdCache = userIdCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.chunkSize = chunkSize;
+        this.backfillThreads = backfillThreads > 0 ? backfillThreads : Runtime.getRuntime().availableProcessors();
+
+        this.indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "tag-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        meterRegistry.gauge("social.tags.indexer.queued", indexer, pool -> pool.getQueue().size());
+        this.backfilledPosts = meterRegistry.counter("social.tags.backfill.posts");
+        this.backfillTimer = meterRegistry.timer("social.tags.backfill");
+    }
+
+    /**
+     * Queue a post change for tag extraction once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentChanged(SearchDocumentEvent event) {
+        if (event.kind() != SearchDocumentEvent.Kind.POST) {
+            return;
+        }
+        indexer.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> replace(event));
+            } catch (DataAccessException e) {
+                log.warn("Could not index tags of post {}: {}", event.id(), e.getMessage());
+            } catch (RuntimeException e) {
+                // Keep the indexer thread for the next change
+                log.error("Could not index tags of post {}", event.id(), e);
+            }
+        });
+    }
+
+    /**
+     * Run the backfill in the background once the application is up, if configured
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                log.error("Tag backfill failed", e);
+            }
+        }, "tag-backfill");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Extract the tags of every live post and insert the missing rows. Blocks until done
+     * @return number of posts read, or -1 if a backfill was already running
+     */
+    public long backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            long posts = backfillTimer.recordCallable(this::backfillAll);
+            log.info("Tag backfill finished: {} posts", posts);
+            return posts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during tag backfill", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tag backfill failed", e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException("Tag backfill failed", e);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        indexer.shutdown();
+        if (!indexer.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Tag indexer queue not drained at shutdown");
+        }
+    }
+
+    private void replace(SearchDocumentEvent event) {
+        postRepository.deleteTagsByPostId(event.id());
+        postRepository.deleteMentionsByPostId(event.id());
+        if (!event.isDelete()) {
+            insert(List.of(new Extracted(event.id(), event.content(), PostTags.of(event.content()))), false);
+        }
+    }
+
+    private long backfillAll() throws InterruptedException, ExecutionException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(backfillThreads, task -> {
+            Thread thread = new Thread(task, "tag-backfill-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long posts = 0;
+            Deque<Future<?>> pending = new ArrayDeque<>();
+            long afterId = 0;
+            List<SearchDocRow> rows;
+            while (!(rows = postRepository.findSearchDocChunk(afterId, chunkSize)).isEmpty()) {
+                afterId = rows.get(rows.size() - 1).getId();
+                posts += rows.size();
+                List<SearchDocRow> chunk = rows;
+                pending.add(workers.submit(() -> backfillChunk(chunk)));
+                // Bound the chunks held in memory
+                while (pending.size() > 2 * backfillThreads || (!pending.isEmpty() && pending.peek().isDone())) {
+                    pending.poll().get();
+                }
+            }
+            while (!pending.isEmpty()) {
+                pending.poll().get();
+            }
+            return posts;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Insert the tags of one chunk of posts as read by the backfill
+     */
+    void backfillChunk(List<SearchDocRow> rows) {
+        List<Extracted> extracted = new ArrayList<>(rows.size());
+        for (SearchDocRow row : rows) {
+            if (row.getDeletedAt() == null) {
+                extracted.add(new Extracted(row.getId(), row.getContent(), PostTags.of(row.getContent())));
+            }
+        }
+        insert(extracted, true);
+        backfilledPosts.increment(rows.size());
+    }
+
+    /**
+     * Insert the rows of several posts with one batch per table
+     * @param ifUnchanged only insert for posts still with the extracted content and not deleted
+     */
+    private void insert(List<Extracted> posts, boolean ifUnchanged) {
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> mentions = new ArrayList<>();
+        for (Extracted post : posts) {
+            for (String tag : post.tags.hashtags()) {
+                tags.add(row(tag, post, ifUnchanged));
+            }
+            for (String username : post.tags.mentions()) {
+                Long userId = userIdCache.get(username);
+                if (userId != null) {
+                    mentions.add(row(userId, post, ifUnchanged));
+                }
+            }
+        }
+        if (!tags.isEmpty()) {
+            jdbcTemplate.batchUpdate(ifUnchanged ? BACKFILL_TAG : INSERT_TAG, tags);
+        }
+        if (!mentions.isEmpty()) {
+            jdbcTemplate.batchUpdate(ifUnchanged ? BACKFILL_MENTION : INSERT_MENTION, mentions);
+        }
+    }
+
+    private static Object[] row(Object key, Extracted post, boolean ifUnchanged) {
+        return ifUnchanged ? new Object[]{key, post.postId, post.content} : new Object[]{key, post.postId};
+    }
+
+    private record Extracted(long postId, String content, PostTags tags) {
+    }
+}
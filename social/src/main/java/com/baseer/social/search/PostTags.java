@@ -0,0 +1,85 @@
+package com.baseer.social.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Hashtags and @mentions found in a post text.
+ * A hashtag is '#' followed by letters, digits or underscores, not directly after one of
+ * those (so "a#b" is not a tag) and not digits only ("#1" is not a tag). Tags are folded
+ * like search terms, so #Café and #cafe are the same tag; tags longer than MAX_TAG_LENGTH
+ * are ignored. A mention is '@' followed by letters, digits, '_', '.' or '-', without
+ * trailing punctuation, and keeps its case. At most MAX_PER_POST of each are kept.
+ */
+public record PostTags(Set<String> hashtags, Set<String> mentions) {
+
+    public static final int MAX_TAG_LENGTH = 64;
+    public static final int MAX_PER_POST = 30;
+
+    /**
+     * Extract the hashtags and mentions of a text, in order of first appearance
+     */
+    public static PostTags of(String text) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        Set<String> mentions = new LinkedHashSet<>();
+        if (text == null) {
+            return new PostTags(hashtags, mentions);
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char marker = text.charAt(i);
+            boolean atWordStart = i == 0 || !isTagChar(text.codePointBefore(i));
+            if ((marker != '#' && marker != '@') || !atWordStart) {
+                i++;
+                continue;
+            }
+            boolean mention = marker == '@';
+            int start = ++i;
+            while (i < length) {
+                int c = text.codePointAt(i);
+                if (!isTagChar(c) && !(mention && (c == '.' || c == '-'))) {
+                    break;
+                }
+                i += Character.charCount(c);
+            }
+            int end = i;
+            if (mention) {
+                while (end > start && (text.charAt(end - 1) == '.' || text.charAt(end - 1) == '-')) {
+                    end--;
+                }
+                if (end > start && mentions.size() < MAX_PER_POST) {
+                    mentions.add(text.substring(start, end));
+                }
+            } else if (hashtags.size() < MAX_PER_POST) {
+                String tag = normalizeTag(text.substring(start, end));
+                if (tag != null) {
+                    hashtags.add(tag);
+                }
+            }
+        }
+        return new PostTags(hashtags, mentions);
+    }
+
+    /**
+     * Stored form of a hashtag given with or without its '#'
+     * @return the folded tag, or null if it is not a valid tag
+     */
+    public static String normalizeTag(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String folded = Tokenizer.fold(tag.startsWith("#") ? tag.substring(1) : tag);
+        if (folded.isEmpty() || folded.codePointCount(0, folded.length()) > MAX_TAG_LENGTH
+                || !folded.codePoints().allMatch(PostTags::isTagChar)
+                || folded.codePoints().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return folded;
+    }
+
+    /** Letters, digits, '_' and combining marks (accents, Arabic vowel signs), which folding removes */
+    private static boolean isTagChar(int c) {
+        return Character.isLetterOrDigit(c) || c == '_' || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+}
@@ -0,0 +1,199 @@
+package com.baseer.social.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Documents containing one term, as an append-only compressed list of
+ * (ordinal, term frequency) pairs in ascending ordinal order.
+ *
+ * Entries are variable-length integers in one byte array: the gap to the previous
+ * ordinal shifted left by one, with the low bit set when the frequency is 1 (the
+ * common case) and the frequency following otherwise. Most entries take one or two
+ * bytes. Every BLOCK entries start a block whose last ordinal and byte offset are kept
+ * in two int arrays, so Cursor.advance skips whole blocks without decoding them.
+ */
+final class PostingList {
+
+    static final int BLOCK = 128;
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private byte[] bytes = new byte[8];
+    private int byteLength;
+    private int[] blockLastDoc = new int[1];
+    private int[] blockOffset = new int[1];
+    private int blocks;
+    private int size;
+    private int lastDoc = -1;
+
+    /**
+     * Append a document, which must have a higher ordinal than every document already in the list
+     */
+    void add(int doc, int freq) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Ordinal " + doc + " is not above " + lastDoc);
+        }
+        if (size % BLOCK == 0) {
+            if (blocks == blockLastDoc.length) {
+                blockLastDoc = Arrays.copyOf(blockLastDoc, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockOffset[blocks++] = byteLength;
+        }
+        int gap = doc - lastDoc;
+        if (freq == 1) {
+            writeVInt((gap << 1) | 1);
+        } else {
+            writeVInt(gap << 1);
+            writeVInt(freq);
+        }
+        lastDoc = doc;
+        blockLastDoc[blocks - 1] = doc;
+        size++;
+    }
+
+    /**
+     * Append every entry of another list with its ordinals shifted by offset
+     */
+    void addAll(PostingList other, int offset) {
+        Cursor cursor = other.cursor();
+        for (int doc = cursor.next(); doc != NO_MORE_DOCS; doc = cursor.next()) {
+            add(doc + offset, cursor.freq());
+        }
+    }
+
+    /** Number of documents, deleted ones included */
+    int size() {
+        return size;
+    }
+
+    /** Bytes held by this list */
+    long memoryBytes() {
+        return bytes.length + 8L * blockLastDoc.length + 32;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(lastDoc);
+        out.writeInt(byteLength);
+        out.write(bytes, 0, byteLength);
+        out.writeInt(blocks);
+        for (int i = 0; i < blocks; i++) {
+            out.writeInt(blockLastDoc[i]);
+            out.writeInt(blockOffset[i]);
+        }
+    }
+
+    static PostingList read(DataInput in) throws IOException {
+        PostingList list = new PostingList();
+        list.size = in.readInt();
+        list.lastDoc = in.readInt();
+        list.byteLength = in.readInt();
+        list.bytes = new byte[Math.max(8, list.byteLength)];
+        in.readFully(list.bytes, 0, list.byteLength);
+        list.blocks = in.readInt();
+        list.blockLastDoc = new int[Math.max(1, list.blocks)];
+        list.blockOffset = new int[Math.max(1, list.blocks)];
+        for (int i = 0; i < list.blocks; i++) {
+            list.blockLastDoc[i] = in.readInt();
+            list.blockOffset[i] = in.readInt();
+        }
+        return list;
+    }
+
+    private void writeVInt(int value) {
+        if (byteLength + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteLength + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[byteLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[byteLength++] = (byte) value;
+    }
+
+    /**
+     * Forward-only reader. Sees the entries present when it was created;
+     * the owning index keeps writers out while a cursor is in use.
+     */
+    final class Cursor {
+
+        private final int end = size;
+        private int index;
+        private int position;
+        private int doc = -1;
+        private int freq;
+
+        /** Current ordinal, -1 before the first call to next */
+        int doc() {
+            return doc;
+        }
+
+        int freq() {
+            return freq;
+        }
+
+        int next() {
+            if (index >= end) {
+                return doc = NO_MORE_DOCS;
+            }
+            int code = readVInt();
+            doc += code >>> 1;
+            freq = (code & 1) != 0 ? 1 : readVInt();
+            index++;
+            return doc;
+        }
+
+        /**
+         * Move to the first document at or after target
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int block = index == 0 ? 0 : (index - 1) / BLOCK;
+            if (target > blockLastDoc[block]) {
+                int last = (end - 1) / BLOCK;
+                int low = block + 1;
+                int high = last;
+                // First block whose last ordinal reaches target
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (blockLastDoc[mid] < target) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                if (low > last || blockLastDoc[low] < target) {
+                    index = end;
+                    return doc = NO_MORE_DOCS;
+                }
+                index = low * BLOCK;
+                position = blockOffset[low];
+                doc = blockLastDoc[low - 1];
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private int readVInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.baseer.social.search;
+
+/**
+ * A post or comment whose searchable text changed, published by the services that write them.
+ * SearchService applies it once the publishing transaction commits.
+ * @param content the new text, or null if the document was deleted
+ */
+public record SearchDocumentEvent(Kind kind, long id, String content) {
+
+    public enum Kind {
+        POST, COMMENT
+    }
+
+    public static SearchDocumentEvent upsert(Kind kind, long id, String content) {
+        return new SearchDocumentEvent(kind, id, content);
+    }
+
+    public static SearchDocumentEvent delete(Kind kind, long id) {
+        return new SearchDocumentEvent(kind, id, null);
+    }
+
+    public boolean isDelete() {
+        return content == null;
+    }
+}
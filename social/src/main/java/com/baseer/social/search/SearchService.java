@@ -0,0 +1,444 @@
+package com.baseer.social.search;
+
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.ScoreCursor;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.repository.CommentRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.SearchDocRow;
+import com.baseer.social.service.CommentService;
+import com.baseer.social.service.PostService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-process full-text search over posts and comments.
+ *
+ * Each kind has an InvertedIndex kept current from SearchDocumentEvents, applied after the
+ * publishing transaction commits. All index writes happen on one "search-indexer" thread,
+ * so request threads never wait for the index and changes are applied in commit order;
+ * queries read concurrently.
+ *
+ * At startup the indexes are loaded from the snapshot under social.search.dir and caught up
+ * on rows updated since it was written (minus a safety overlap); without a usable snapshot
+ * they are rebuilt from the database, reading chunks by keyset and tokenizing them on
+ * rebuild-threads workers. Events that arrive while indexes are being loaded or rebuilt are
+ * applied to the serving indexes and replayed onto the new ones before they are swapped in.
+ * The snapshot is rewritten every persist-interval-ms and at shutdown when anything changed.
+ *
+ * Hits are hydrated from the database, so posts and comments deleted in bulk (PostReaper,
+ * account erasure) never show up; such stale entries are dropped from the index when met.
+ *
+ * Metrics: social.search.documents{index}, social.search.terms{index},
+ * social.search.indexer.queued, social.search.query{index} and social.search.rebuild (timers).
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private static final String SEGMENT_FILE = "search.seg";
+
+    /** Catch-up re-reads rows updated this long before the snapshot, covering transactions open while it was written */
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(5);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostService postService;
+    private final CommentService commentService;
+    private final Path segment;
+    private final boolean loadOnStartup;
+    private final int chunkSize;
+    private final int rebuildThreads;
+    private final double compactRatio;
+
+    private final ThreadPoolExecutor indexer;
+    private final AtomicBoolean replacing = new AtomicBoolean();
+    private volatile InvertedIndex posts = new InvertedIndex();
+    private volatile InvertedIndex comments = new InvertedIndex();
+    private volatile boolean ready;
+
+    /** Events to replay onto indexes being loaded or rebuilt; indexer thread only */
+    private List<SearchDocumentEvent> replay;
+    /** Whether the indexes changed since the last snapshot; indexer thread only */
+    private boolean dirty;
+
+    private final Timer postQueryTimer;
+    private final Timer commentQueryTimer;
+    private final Timer rebuildTimer;
+
+    public SearchService(PostRepository postRepository,
+                         CommentRepository commentRepository,
+                         PostService postService,
+                         CommentService commentService,
+                         MeterRegistry meterRegistry,
+                         @Value("${social.search.dir:search-index}") String dir,
+                         @Value("${social.search.load-on-startup:true}") boolean loadOnStartup,
+                         @Value("${social.search.rebuild-chunk-size:5000}") int chunkSize,
+                         @Value("${social.search.rebuild-threads:0}") int rebuildThreads,
+                         @Value("${social.search.compact-ratio:0.25}") double compactRatio) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postService = postService;
+        this.commentService = commentService;
+        this.segment = Path.of(dir).toAbsolutePath().normalize().resolve(SEGMENT_FILE);
+        this.loadOnStartup = loadOnStartup;
+        this.chunkSize = chunkSize;
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        this.compactRatio = compactRatio;
+
+        this.indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "search-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("social.search.documents", this, s -> s.posts.size()).tag("index", "posts").register(meterRegistry);
+        Gauge.builder("social.search.documents", this, s -> s.comments.size()).tag("index", "comments").register(meterRegistry);
+        Gauge.builder("social.search.terms", this, s -> s.posts.terms()).tag("index", "posts").register(meterRegistry);
+        Gauge.builder("social.search.terms", this, s -> s.comments.terms()).tag("index", "comments").register(meterRegistry);
+        meterRegistry.gauge("social.search.indexer.queued", indexer, pool -> pool.getQueue().size());
+        this.postQueryTimer = meterRegistry.timer("social.search.query", "index", "posts");
+        this.commentQueryTimer = meterRegistry.timer("social.search.query", "index", "comments");
+        this.rebuildTimer = meterRegistry.timer("social.search.rebuild");
+    }
+
+    /**
+     * Search posts, best match first
+     */
+    public CursorPage<PostResponse> searchPosts(String query, String cursor, int size) {
+        return postQueryTimer.record(() -> search(SearchDocumentEvent.Kind.POST, query, cursor, size,
+                postService::getPostResponses, PostResponse::getId));
+    }
+
+    /**
+     * Search comments, best match first
+     */
+    public CursorPage<CommentView> searchComments(String query, String cursor, int size) {
+        return commentQueryTimer.record(() -> search(SearchDocumentEvent.Kind.COMMENT, query, cursor, size,
+                commentService::getCommentViews, CommentView::getId));
+    }
+
+    /**
+     * Whether the indexes have been loaded or built since startup
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Queue a post or comment change for indexing once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentChanged(SearchDocumentEvent event) {
+        indexer.execute(() -> {
+            apply(posts, comments, event);
+            if (replay != null) {
+                replay.add(event);
+            }
+            dirty = true;
+        });
+    }
+
+    /**
+     * Load the snapshot, or build the indexes, in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!loadOnStartup) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.error("Could not load the search index", e);
+            }
+        }, "search-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Load both indexes from the snapshot and catch them up with the database, or rebuild
+     * them if there is no usable snapshot, then swap them in. Blocks until done
+     * @return false if a load or rebuild was already running
+     */
+    public boolean reload() {
+        return replace(this::restore);
+    }
+
+    /**
+     * Rebuild both indexes from the database and swap them in; queries keep using
+     * the current indexes meanwhile. Blocks until done
+     * @return false if a load or rebuild was already running
+     */
+    public boolean rebuild() {
+        return replace(this::buildAll);
+    }
+
+    /**
+     * Write a snapshot if the indexes changed since the last one
+     */
+    @Scheduled(fixedDelayString = "${social.search.persist-interval-ms:300000}")
+    public void persist() {
+        onIndexer(this::persistIfDirty);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        indexer.execute(this::persistIfDirty);
+        indexer.shutdown();
+        if (!indexer.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Search index snapshot not finished at shutdown");
+        }
+    }
+
+    private <T> CursorPage<T> search(SearchDocumentEvent.Kind kind, String query, String cursor, int size,
+                                     Function<List<Long>, List<T>> hydrate, Function<T, Long> idOf) {
+        if (query == null || query.isBlank()) {
+            throw new CustomException("Search query must not be blank", HttpStatus.BAD_REQUEST);
+        }
+        if (!ready) {
+            throw new CustomException("Search index is loading", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        ScoreCursor after = ScoreCursor.decode(cursor);
+
+        InvertedIndex index = kind == SearchDocumentEvent.Kind.POST ? posts : comments;
+        InvertedIndex.Hit from = after == null ? null : new InvertedIndex.Hit(after.id(), after.score());
+
+        return CursorPage.fetch(pageSize, limit -> index.search(query, from, limit),
+                hit -> new ScoreCursor(hit.score(), hit.id()).encode(),
+                hits -> {
+                    List<Long> ids = hits.stream().map(InvertedIndex.Hit::id).toList();
+                    List<T> items = hydrate.apply(ids);
+                    if (items.size() < ids.size()) {
+                        // Deleted without an event (bulk paths) or not committed yet; the next rebuild would drop them anyway
+                        Set<Long> found = new HashSet<>(items.stream().map(idOf).toList());
+                        ids.stream().filter(id -> !found.contains(id))
+                                .forEach(id -> onDocumentChanged(SearchDocumentEvent.delete(kind, id)));
+                    }
+                    return items;
+                });
+    }
+
+    /**
+     * Indexes from the snapshot caught up with the database, or rebuilt if there is no usable snapshot
+     */
+    private Indexes restore() throws Exception {
+        SegmentFile.Snapshot snapshot;
+        try {
+            snapshot = SegmentFile.read(segment);
+        } catch (IOException e) {
+            log.warn("Could not read search snapshot {}: {}", segment, e.toString());
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            log.info("No usable search snapshot at {}, rebuilding from the database", segment);
+            return buildAll();
+        }
+
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(snapshot.watermark()).minus(CATCH_UP_OVERLAP), ZoneId.systemDefault());
+        int changedPosts = catchUp(snapshot.posts(), since, postRepository::findSearchDocsUpdatedSince);
+        int changedComments = catchUp(snapshot.comments(), since, commentRepository::findSearchDocsUpdatedSince);
+        log.info("Search snapshot loaded: {} posts, {} comments, caught up on {} and {} changed rows",
+                snapshot.posts().size(), snapshot.comments().size(), changedPosts, changedComments);
+        return new Indexes(snapshot.posts(), snapshot.comments());
+    }
+
+    /**
+     * Swap in new indexes. Events arriving while they are built are recorded on the
+     * indexer thread and replayed onto them, in order, right before the swap.
+     */
+    private boolean replace(Callable<Indexes> builder) {
+        if (!replacing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            onIndexer(() -> replay = new ArrayList<>());
+            Indexes built;
+            try {
+                built = builder.call();
+            } catch (Exception e) {
+                onIndexer(() -> replay = null);
+                throw new IllegalStateException("Search index build failed", e);
+            }
+            onIndexer(() -> {
+                replay.forEach(event -> apply(built.posts(), built.comments(), event));
+                replay = null;
+                posts = built.posts();
+                comments = built.comments();
+                ready = true;
+                dirty = true;
+            });
+            return true;
+        } finally {
+            replacing.set(false);
+        }
+    }
+
+    private Indexes buildAll() throws Exception {
+        return rebuildTimer.recordCallable(() -> new Indexes(
+                build(postRepository::findSearchDocChunk), build(commentRepository::findSearchDocChunk)));
+    }
+
+    /**
+     * Index every row of one table: this thread reads chunks by keyset while workers
+     * tokenize them into chunk indexes, which are appended in order as they complete
+     */
+    private InvertedIndex build(ChunkReader reader) throws InterruptedException, ExecutionException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(rebuildThreads, task -> {
+            Thread thread = new Thread(task, "search-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            InvertedIndex index = new InvertedIndex();
+            Deque<Future<InvertedIndex>> pending = new ArrayDeque<>();
+            long afterId = 0;
+            List<SearchDocRow> rows;
+            while (!(rows = reader.read(afterId, chunkSize)).isEmpty()) {
+                afterId = rows.get(rows.size() - 1).getId();
+                List<SearchDocRow> chunk = rows;
+                pending.add(workers.submit(() -> indexChunk(chunk)));
+                // Bound the chunks held in memory, and merge finished ones early
+                while (pending.size() > 2 * rebuildThreads || (!pending.isEmpty() && pending.peek().isDone())) {
+                    index.addAll(pending.poll().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                index.addAll(pending.poll().get());
+            }
+            return index;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static InvertedIndex indexChunk(List<SearchDocRow> rows) {
+        InvertedIndex chunk = new InvertedIndex();
+        for (SearchDocRow row : rows) {
+            if (row.getDeletedAt() == null) {
+                chunk.index(row.getId(), row.getContent());
+            }
+        }
+        return chunk;
+    }
+
+    private int catchUp(InvertedIndex index, LocalDateTime since, ChangeReader reader) {
+        int changed = 0;
+        long afterId = 0;
+        List<SearchDocRow> rows;
+        while (!(rows = reader.read(since, afterId, chunkSize)).isEmpty()) {
+            for (SearchDocRow row : rows) {
+                if (row.getDeletedAt() == null) {
+                    index.index(row.getId(), row.getContent());
+                } else {
+                    index.remove(row.getId());
+                }
+            }
+            changed += rows.size();
+            SearchDocRow last = rows.get(rows.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+        }
+        return changed;
+    }
+
+    private void persistIfDirty() {
+        if (!ready || !dirty) {
+            return;
+        }
+        long watermark = System.currentTimeMillis();
+        if (posts.deletedRatio() > compactRatio) {
+            posts = posts.compact();
+        }
+        if (comments.deletedRatio() > compactRatio) {
+            comments = comments.compact();
+        }
+        try {
+            SegmentFile.write(segment, watermark, posts, comments);
+            dirty = false;
+            log.debug("Search snapshot written: {} posts, {} comments", posts.size(), comments.size());
+        } catch (IOException e) {
+            log.warn("Could not write search snapshot {}: {}", segment, e.toString());
+        }
+    }
+
+    private static void apply(InvertedIndex posts, InvertedIndex comments, SearchDocumentEvent event) {
+        InvertedIndex index = event.kind() == SearchDocumentEvent.Kind.POST ? posts : comments;
+        if (event.isDelete()) {
+            index.remove(event.id());
+        } else {
+            index.index(event.id(), event.content());
+        }
+    }
+
+    /**
+     * Run a task on the indexer thread and wait for it
+     */
+    private void onIndexer(Runnable task) {
+        try {
+            indexer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the search indexer", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search indexer task failed", e.getCause());
+        }
+    }
+
+    private record Indexes(InvertedIndex posts, InvertedIndex comments) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkReader {
+        List<SearchDocRow> read(Long afterId, int limit);
+    }
+
+    @FunctionalInterface
+    private interface ChangeReader {
+        List<SearchDocRow> read(LocalDateTime since, Long afterId, int limit);
+    }
+}
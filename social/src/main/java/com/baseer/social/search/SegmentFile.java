@@ -0,0 +1,103 @@
+package com.baseer.social.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk snapshot of the post and comment indexes, so a restart loads postings
+ * instead of re-reading and re-tokenizing every row.
+ *
+ * Layout (big-endian): magic, format version, watermark (epoch millis; rows updated
+ * before it are in the snapshot), the post index, the comment index, and a CRC32 of
+ * everything before it. Posting lists are stored exactly as held in memory, so loading
+ * is a sequence of bulk reads. The file is written to a temp file, synced and moved
+ * into place atomically; a missing, truncated or corrupt file reads as absent.
+ */
+final class SegmentFile {
+
+    private static final int MAGIC = 0x53584958;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Indexes read back from disk
+     */
+    record Snapshot(long watermark, InvertedIndex posts, InvertedIndex comments) {
+    }
+
+    private SegmentFile() {
+    }
+
+    static void write(Path file, long watermark, InvertedIndex posts, InvertedIndex comments) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "segment-", ".part");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(watermark);
+                posts.write(out);
+                comments.write(out);
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+                stream.getFD().sync();
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read a snapshot
+     * @return null if the file is missing or not a complete snapshot of this format version
+     */
+    static Snapshot read(Path file) throws IOException {
+        // Verify the checksum before parsing, so sizes read from a corrupt file are never allocated
+        if (!Files.isRegularFile(file) || !checksumMatches(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long watermark = in.readLong();
+            return new Snapshot(watermark, InvertedIndex.read(in), InvertedIndex.read(in));
+        }
+    }
+
+    private static boolean checksumMatches(Path file) throws IOException {
+        long length = Files.size(file);
+        if (length < 24) {
+            return false;
+        }
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length - 8;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return false;
+                }
+                remaining -= read;
+            }
+            long expected = checked.getChecksum().getValue();
+            return in.readLong() == expected;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.baseer.social.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits post and comment text into index terms.
+ * A term is a run of letters or digits, lowercased and stripped of accents and
+ * diacritics (so "Café" and "cafe" match, as do vocalized and plain Arabic).
+ * Single characters and a few English stop words are dropped; longer runs are
+ * cut at MAX_TERM_LENGTH so a pasted blob cannot bloat the dictionary.
+ */
+final class Tokenizer {
+
+    static final int MAX_TERM_LENGTH = 32;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "so", "such", "that", "the", "their", "then", "there",
+            "these", "they", "this", "to", "was", "will", "with");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Terms of a text in order of appearance, duplicates included
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = fold(text);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(normalized.codePointAt(i))) {
+                i += Character.charCount(normalized.codePointAt(i));
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(normalized.codePointAt(i))) {
+                i += Character.charCount(normalized.codePointAt(i));
+            }
+            if (i - start > 1) {
+                String term = normalized.substring(start, Math.min(i, start + MAX_TERM_LENGTH));
+                if (!STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lowercase and strip accents and diacritics, the normalization applied to every term
+     */
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFKD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,53 @@
+package com.baseer.social.search;
+
+/**
+ * Bounded best-first list of users by popularity, ties going to the lower (older) ID.
+ * Offering a user already in the list is a no-op. Sized for a page of suggestions,
+ * so insertion is a shift within a few dozen slots.
+ */
+final class TopUsers {
+
+    private final long[] ids;
+    private final int[] scores;
+    private int size;
+
+    TopUsers(int capacity) {
+        ids = new long[capacity];
+        scores = new int[capacity];
+    }
+
+    void offer(long id, int score) {
+        if (size == ids.length && !better(score, id, scores[size - 1], ids[size - 1])) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return;
+            }
+        }
+        int position = size == ids.length ? size - 1 : size++;
+        while (position > 0 && better(score, id, scores[position - 1], ids[position - 1])) {
+            ids[position] = ids[position - 1];
+            scores[position] = scores[position - 1];
+            position--;
+        }
+        ids[position] = id;
+        scores[position] = score;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return ids.length;
+    }
+
+    long idAt(int rank) {
+        return ids[rank];
+    }
+
+    private static boolean better(int score, long id, int otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+}
@@ -0,0 +1,21 @@
+package com.baseer.social.search;
+
+/**
+ * A user whose searchable names changed, published on registration, profile update and erasure.
+ * UserSearchService applies it once the publishing transaction commits.
+ * @param username the username, or null if the user was removed from search
+ */
+public record UserDirectoryEvent(long userId, String username, String fullName) {
+
+    public static UserDirectoryEvent upsert(long userId, String username, String fullName) {
+        return new UserDirectoryEvent(userId, username, fullName);
+    }
+
+    public static UserDirectoryEvent remove(long userId) {
+        return new UserDirectoryEvent(userId, null, null);
+    }
+
+    public boolean isRemove() {
+        return username == null;
+    }
+}
@@ -0,0 +1,345 @@
+package com.baseer.social.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable prefix index over usernames and full names, built in bulk.
+ *
+ * Every user contributes a few keys: the folded username, the folded full name and each
+ * later word of it onward ("ada lovelace" and "lovelace"), so "@ada", "Ada" and "love" all
+ * find the same user. Keys are UTF-8 bytes packed into one array and sorted with a
+ * multikey quicksort over an int permutation; UTF-8 byte order is code point order, so
+ * the keys sharing a prefix form one contiguous range found by two binary searches.
+ *
+ * Ranges longer than HEAVY_RANGE would be too slow to scan per keystroke, so their best
+ * STORED_TOP users by popularity are precomputed bottom-up at build time: every key is
+ * scanned once, in the deepest heavy range holding it, and each heavy range merges the
+ * precomputed lists of its heavy sub-ranges. A query therefore either scans at most
+ * HEAVY_RANGE keys or reads one stored list.
+ *
+ * Users are held in ascending ID order with one popularity value each; the whole index
+ * is primitive arrays, about 40 bytes per user plus the key bytes.
+ */
+final class UserPrefixIndex {
+
+    static final int HEAVY_RANGE = 512;
+    static final int STORED_TOP = 32;
+    static final int MAX_KEY_BYTES = 64;
+
+    private final long[] userIds;
+    private final int[] popularity;
+    private final int users;
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final int[] keyUser;
+    private final int keys;
+    private final int[] sorted;
+    private final Map<String, int[]> heavyTops = new HashMap<>();
+
+    private UserPrefixIndex(Builder builder) {
+        this.userIds = builder.userIds;
+        this.popularity = builder.popularity;
+        this.users = builder.users;
+        this.keyBytes = builder.keyBytes;
+        this.keyOffsets = builder.keyOffsets;
+        this.keyUser = builder.keyUser;
+        this.keys = builder.keys;
+        this.sorted = new int[keys];
+        for (int i = 0; i < keys; i++) {
+            sorted[i] = i;
+        }
+        sort(0, keys - 1, 0);
+        if (keys > HEAVY_RANGE) {
+            computeTops(0, keys, 0);
+        }
+    }
+
+    static Builder builder(int expectedUsers) {
+        return new Builder(expectedUsers);
+    }
+
+    static UserPrefixIndex empty() {
+        return builder(16).build();
+    }
+
+    /**
+     * Offer the users having a key that starts with prefix to top, best first
+     * @param prefix folded UTF-8 prefix, not empty
+     * @param excluded users whose entries here are stale
+     */
+    void search(byte[] prefix, LongPredicate excluded, TopUsers top) {
+        int lo = bound(prefix, false);
+        int hi = bound(prefix, true);
+        if (hi - lo > HEAVY_RANGE) {
+            int[] best = heavyTops.get(new String(prefix, StandardCharsets.ISO_8859_1));
+            int offered = 0;
+            for (int user : best) {
+                if (!excluded.test(userIds[user])) {
+                    top.offer(userIds[user], popularity[user]);
+                    offered++;
+                }
+            }
+            // Enough left after exclusions, or the stored list already holds every user of the range
+            if (offered >= top.capacity() || best.length < STORED_TOP) {
+                return;
+            }
+        }
+        for (int i = lo; i < hi; i++) {
+            int user = keyUser[sorted[i]];
+            if (!excluded.test(userIds[user])) {
+                top.offer(userIds[user], popularity[user]);
+            }
+        }
+    }
+
+    /**
+     * Popularity of a user, or -1 if the user is not in this index
+     */
+    int popularityOf(long userId) {
+        int user = Arrays.binarySearch(userIds, 0, users, userId);
+        return user < 0 ? -1 : popularity[user];
+    }
+
+    int users() {
+        return users;
+    }
+
+    int keys() {
+        return keys;
+    }
+
+    /** Number of precomputed prefix lists */
+    int heavyPrefixes() {
+        return heavyTops.size();
+    }
+
+    /**
+     * Keys of a user: folded username, folded full name and each later word of the full name onward
+     */
+    static Set<String> keysOf(String username, String fullName) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (username != null && !username.isBlank()) {
+            keys.add(Tokenizer.fold(username.strip()));
+        }
+        if (fullName != null && !fullName.isBlank()) {
+            String name = Tokenizer.fold(fullName.strip()).replaceAll("\\s+", " ");
+            keys.add(name);
+            for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+                keys.add(name.substring(space + 1));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * First sorted position whose key starts with prefix (or sorts after it), or with
+     * after set, the first position whose key sorts after every key starting with prefix
+     */
+    private int bound(byte[] prefix, boolean after) {
+        int low = 0;
+        int high = keys;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareToPrefix(sorted[mid], prefix);
+            if (cmp < 0 || (after && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Negative if the key sorts before the prefix range, 0 inside it, positive after it */
+    private int compareToPrefix(int key, byte[] prefix) {
+        int offset = keyOffsets[key];
+        int length = keyOffsets[key + 1] - offset;
+        int n = Math.min(length, prefix.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (keyBytes[offset + i] & 0xFF) - (prefix[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length < prefix.length ? -1 : 0;
+    }
+
+    /** Byte of a key at a depth, -1 past its end */
+    private int byteAt(int key, int depth) {
+        int position = keyOffsets[key] + depth;
+        return position < keyOffsets[key + 1] ? keyBytes[position] & 0xFF : -1;
+    }
+
+    /**
+     * Multikey quicksort of sorted[lo..hi], whose keys share their first depth bytes
+     */
+    private void sort(int lo, int hi, int depth) {
+        while (hi - lo >= 16) {
+            int mid = (lo + hi) >>> 1;
+            int a = byteAt(sorted[lo], depth);
+            int b = byteAt(sorted[mid], depth);
+            int c = byteAt(sorted[hi], depth);
+            int pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                int t = byteAt(sorted[i], depth);
+                if (t < pivot) {
+                    swap(lt++, i++);
+                } else if (t > pivot) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (pivot >= 0) {
+                sort(lt, gt, depth + 1);
+            }
+            // Recurse into the smaller side, loop on the larger one
+            if (lt - lo < hi - gt) {
+                sort(lo, lt - 1, depth);
+                lo = gt + 1;
+            } else {
+                sort(gt + 1, hi, depth);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && compareFrom(sorted[j - 1], sorted[j], depth) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private int compareFrom(int left, int right, int depth) {
+        for (int d = depth; ; d++) {
+            int a = byteAt(left, d);
+            int b = byteAt(right, d);
+            if (a != b || a < 0) {
+                return a - b;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = sorted[i];
+        sorted[i] = sorted[j];
+        sorted[j] = t;
+    }
+
+    /**
+     * Best users of sorted[lo, hi), whose keys share their first depth bytes; stores the
+     * result for every range longer than HEAVY_RANGE
+     */
+    private int[] computeTops(int lo, int hi, int depth) {
+        TopUsers top = new TopUsers(STORED_TOP);
+        int i = lo;
+        while (i < hi) {
+            int b = byteAt(sorted[i], depth);
+            int j = childEnd(i, hi, depth, b);
+            if (b >= 0 && j - i > HEAVY_RANGE) {
+                for (int user : computeTops(i, j, depth + 1)) {
+                    top.offer(user, popularity[user]);
+                }
+            } else {
+                for (int k = i; k < j; k++) {
+                    int user = keyUser[sorted[k]];
+                    top.offer(user, popularity[user]);
+                }
+            }
+            i = j;
+        }
+        // Users are ordered by ID, so ordinals break ties exactly like IDs do at query time
+        int[] best = new int[top.size()];
+        for (int k = 0; k < best.length; k++) {
+            best[k] = (int) top.idAt(k);
+        }
+        if (depth > 0) {
+            heavyTops.put(new String(keyBytes, keyOffsets[sorted[lo]], depth, StandardCharsets.ISO_8859_1), best);
+        }
+        return best;
+    }
+
+    /** End of the run of keys in sorted[from, hi) having byte b at depth */
+    private int childEnd(int from, int hi, int depth, int b) {
+        int low = from + 1;
+        int high = hi;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byteAt(sorted[mid], depth) <= b) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects users in ascending ID order; keys are packed as they arrive
+     */
+    static final class Builder {
+
+        private long[] userIds;
+        private int[] popularity;
+        private int users;
+        private byte[] keyBytes;
+        private int[] keyOffsets;
+        private int[] keyUser;
+        private int keys;
+
+        private Builder(int expectedUsers) {
+            int capacity = Math.max(16, expectedUsers);
+            userIds = new long[capacity];
+            popularity = new int[capacity];
+            keyBytes = new byte[capacity * 24];
+            keyOffsets = new int[capacity * 2 + 1];
+            keyUser = new int[capacity * 2];
+        }
+
+        /**
+         * Add a user; IDs must be added in ascending order
+         */
+        Builder add(long userId, String username, String fullName, int userPopularity) {
+            if (users > 0 && userId <= userIds[users - 1]) {
+                throw new IllegalArgumentException("User " + userId + " added out of order");
+            }
+            if (users == userIds.length) {
+                userIds = Arrays.copyOf(userIds, users * 2);
+                popularity = Arrays.copyOf(popularity, users * 2);
+            }
+            int user = users++;
+            userIds[user] = userId;
+            popularity[user] = userPopularity;
+
+            for (String key : keysOf(username, fullName)) {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(bytes.length, MAX_KEY_BYTES);
+                if (keys + 1 >= keyOffsets.length) {
+                    keyOffsets = Arrays.copyOf(keyOffsets, keyOffsets.length * 2);
+                    keyUser = Arrays.copyOf(keyUser, keyOffsets.length);
+                }
+                int offset = keyOffsets[keys];
+                if (offset + length > keyBytes.length) {
+                    keyBytes = Arrays.copyOf(keyBytes, Math.max(keyBytes.length * 2, offset + length));
+                }
+                System.arraycopy(bytes, 0, keyBytes, offset, length);
+                keyUser[keys] = user;
+                keyOffsets[++keys] = offset + length;
+            }
+            return this;
+        }
+
+        UserPrefixIndex build() {
+            return new UserPrefixIndex(this);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.baseer.social.search;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.repository.projection.PostCountRow;
+import com.baseer.social.repository.projection.UserDirectoryRow;
+import com.baseer.social.service.AuthorCardCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+
+/**
+ * Username and full-name prefix search for user lookup and @mention completion.
+ *
+ * Matches come from an immutable UserPrefixIndex plus a small delta of users registered,
+ * renamed or erased since it was built: the delta's keys sit in a sorted concurrent map
+ * and its users' stale index entries are skipped. The index is rebuilt from the database
+ * at startup and every rebuild-interval-ms, which folds the delta in and refreshes
+ * popularity. Popularity is the number of posts a user has written, counted from the
+ * (user_id, id) index without touching post rows.
+ *
+ * Metrics: social.user-search.users, social.user-search.pending (delta size),
+ * social.user-search.query and social.user-search.rebuild (timers).
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final AuthorCardCache authorCards;
+    private final boolean loadOnStartup;
+    private final int chunkSize;
+
+    private volatile State state = new State(UserPrefixIndex.empty());
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    /** Changes to replay onto the index being rebuilt; guarded by this */
+    private List<UserDirectoryEvent> replay;
+
+    private final Timer queryTimer;
+    private final Timer rebuildTimer;
+
+    public UserSearchService(UserRepository userRepository,
+                             PostRepository postRepository,
+                             AuthorCardCache authorCards,
+                             MeterRegistry meterRegistry,
+                             @Value("${social.user-search.load-on-startup:true}") boolean loadOnStartup,
+                             @Value("${social.user-search.rebuild-chunk-size:10000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.authorCards = authorCards;
+        this.loadOnStartup = loadOnStartup;
+        this.chunkSize = chunkSize;
+
+        Gauge.builder("social.user-search.users", this, s -> s.state.index.users()).register(meterRegistry);
+        Gauge.builder("social.user-search.pending", this, s -> s.state.userKeys.size()).register(meterRegistry);
+        this.queryTimer = meterRegistry.timer("social.user-search.query");
+        this.rebuildTimer = meterRegistry.timer("social.user-search.rebuild");
+    }
+
+    /**
+     * Users whose username, full name or a later word of the full name starts with the query,
+     * most popular first. A leading "@" is ignored.
+     */
+    public List<PostResponse.UserDTO> search(String query, int limit) {
+        String prefix = query == null ? "" : Tokenizer.fold(query.strip());
+        if (prefix.startsWith("@")) {
+            prefix = prefix.substring(1);
+        }
+        if (prefix.isEmpty()) {
+            throw new CustomException("Search query must not be blank", HttpStatus.BAD_REQUEST);
+        }
+        if (!ready) {
+            throw new CustomException("User search is loading", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        TopUsers top = new TopUsers(Math.max(1, Math.min(MAX_LIMIT, limit)));
+        String folded = prefix;
+        queryTimer.record(() -> state.collect(folded, top));
+
+        List<Long> ids = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            ids.add(top.idAt(i));
+        }
+        Map<Long, PostResponse.UserDTO> cards = ids.isEmpty() ? Map.of() : authorCards.getAll(ids);
+        return ids.stream().map(cards::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Apply a registration, profile change or erasure once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserDirectoryEvent event) {
+        state.apply(event);
+        if (replay != null) {
+            replay.add(event);
+        }
+    }
+
+    /**
+     * Build the index in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!loadOnStartup) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Could not build the user prefix index", e);
+            }
+        }, "user-search-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Refresh popularity and fold the delta into a new index
+     */
+    @Scheduled(initialDelayString = "${social.user-search.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${social.user-search.rebuild-interval-ms:3600000}")
+    public void refresh() {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Build a new index from the database and swap it in; queries keep using the current one
+     * meanwhile. Changes arriving during the build are replayed onto the new index's delta.
+     * Blocks until done
+     * @return false if a rebuild was already running
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            UserPrefixIndex built;
+            try {
+                built = rebuildTimer.record(this::buildFromDatabase);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    replay = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                State next = new State(built);
+                replay.forEach(next::apply);
+                replay = null;
+                state = next;
+                ready = true;
+            }
+            log.info("User prefix index built: {} users, {} keys, {} precomputed prefixes",
+                    built.users(), built.keys(), built.heavyPrefixes());
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private UserPrefixIndex buildFromDatabase() {
+        UserPrefixIndex.Builder builder = UserPrefixIndex.builder(1024);
+        long afterId = 0;
+        List<UserDirectoryRow> rows;
+        while (!(rows = userRepository.findDirectoryChunk(afterId, chunkSize)).isEmpty()) {
+            long from = rows.get(0).getId();
+            afterId = rows.get(rows.size() - 1).getId();
+            Map<Long, Long> posts = new HashMap<>();
+            for (PostCountRow count : postRepository.countByUserIdBetween(from, afterId)) {
+                posts.put(count.getUserId(), count.getPosts());
+            }
+            for (UserDirectoryRow row : rows) {
+                int popularity = (int) Math.min(Integer.MAX_VALUE, posts.getOrDefault(row.getId(), 0L));
+                builder.add(row.getId(), row.getUsername(), row.getFullName(), popularity);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * An index and the changes made since it was built
+     */
+    private static final class State {
+
+        private final UserPrefixIndex index;
+        /** folded key + '\0' + user ID -> {user ID, popularity} */
+        private final ConcurrentSkipListMap<String, long[]> keys = new ConcurrentSkipListMap<>();
+        private final Map<Long, Set<String>> userKeys = new ConcurrentHashMap<>();
+        /** Users whose entries in the index are out of date */
+        private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+        State(UserPrefixIndex index) {
+            this.index = index;
+        }
+
+        void collect(String prefix, TopUsers top) {
+            LongPredicate stale = changed.isEmpty() ? id -> false : changed::contains;
+            index.search(prefix.getBytes(StandardCharsets.UTF_8), stale, top);
+            for (long[] entry : keys.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                top.offer(entry[0], (int) entry[1]);
+            }
+        }
+
+        /** Callers serialize changes */
+        void apply(UserDirectoryEvent event) {
+            long userId = event.userId();
+            changed.add(userId);
+            Set<String> previous = userKeys.remove(userId);
+            if (previous != null) {
+                previous.forEach(keys::remove);
+            }
+            if (event.isRemove()) {
+                return;
+            }
+            long popularity = Math.max(0, index.popularityOf(userId));
+            Set<String> added = ConcurrentHashMap.newKeySet();
+            for (String key : UserPrefixIndex.keysOf(event.username(), event.fullName())) {
+                String entry = key + '\0' + userId;
+                keys.put(entry, new long[]{userId, popularity});
+                added.add(entry);
+            }
+            userKeys.put(userId, added);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.baseer.social.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.Principal;
+import java.util.Collection;
+
+/**
+ * Spring Security principal that also carries the user's ID.
+ * JWTs are bound to this ID, so a token of an erased account does not
+ * authenticate whoever registers the freed username next.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * ID of the user an authentication was checked against, null if it carries no AuthenticatedUser
+     */
+    public static Long idOf(Principal authentication) {
+        return authentication instanceof Authentication auth && auth.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getId()
+                : null;
+    }
+}
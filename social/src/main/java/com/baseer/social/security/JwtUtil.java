@@ -15,10 +15,13 @@ import java.util.function.Function;
 /**
  * Utility class for JWT token operations.
  * Handles token generation, validation, and extraction of claims.
+ * Tokens carry the user ID next to the username and are only valid for that same account.
  */
 @Component
 public class JwtUtil {
 
+    static final String USER_ID_CLAIM = "uid";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -39,6 +42,13 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    /**
+     * Extract the user ID from token, null for tokens issued without one
+     */
+    public Long extractUserId(String token) {
+        return extractClaim(token, claims -> claims.get(USER_ID_CLAIM, Long.class));
+    }
+
     /**
      * Extract expiration date from token
      */
@@ -77,6 +87,9 @@ public class JwtUtil {
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AuthenticatedUser user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -94,10 +107,14 @@ public class JwtUtil {
     }
 
     /**
-     * Validate token against user details
+     * Validate token against user details. The username alone is not enough: an erased
+     * account's name can be registered again, so the user ID must match as well
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return (username.equals(userDetails.getUsername())
+                && userDetails instanceof AuthenticatedUser user
+                && user.getId().equals(extractUserId(token))
+                && !isTokenExpired(token));
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.AccountErasureRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives pending account erasures, at most chunks-per-run steps per run.
+ * Every step commits on its own (see AccountErasureService), so stopping
+ * the application at any point loses no progress.
+ *
+ * Metrics: social.erasure.pending.accounts (gauge), social.erasure.deleted.rows{table}.
+ */
+@Slf4j
+@Component
+public class AccountErasureJob {
+
+    private final AccountErasureService erasureService;
+    private final AccountErasureRepository erasureRepository;
+    private final int chunksPerRun;
+    private final AtomicLong pendingAccounts = new AtomicLong();
+
+    public AccountErasureJob(AccountErasureService erasureService,
+                             AccountErasureRepository erasureRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${social.erasure.chunks-per-run:200}") int chunksPerRun) {
+        this.erasureService = erasureService;
+        this.erasureRepository = erasureRepository;
+        this.chunksPerRun = chunksPerRun;
+
+        Gauge.builder("social.erasure.pending.accounts", pendingAccounts, AtomicLong::get)
+                .description("Accounts with an erasure in progress")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${social.erasure.interval-ms:5000}")
+    public void run() {
+        pendingAccounts.set(erasureRepository.count());
+        if (pendingAccounts.get() == 0) {
+            return;
+        }
+
+        int budget = chunksPerRun;
+        for (Long userId : erasureRepository.findPendingUserIds(PageRequest.of(0, chunksPerRun))) {
+            try {
+                boolean more = true;
+                while (more && budget-- > 0) {
+                    more = erasureService.processChunk(userId);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Erasure step for user {} failed, will retry: {}", userId, e.getMessage());
+            }
+            if (budget <= 0) {
+                break;
+            }
+        }
+        pendingAccounts.set(erasureRepository.count());
+    }
+}
@@ -0,0 +1,307 @@
+package com.baseer.social.service;
+
+import com.baseer.social.entity.AccountErasure;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.AccountErasureRepository;
+import com.baseer.social.repository.CommentRepository;
+import com.baseer.social.repository.DirectMessageRepository;
+import com.baseer.social.repository.LikeRepository;
+import com.baseer.social.repository.NotificationRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.ReplyRepository;
+import com.baseer.social.repository.ScheduledPostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.repository.projection.ChildRef;
+import com.baseer.social.search.UserDirectoryEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Account erasure.
+ * A request locks the account out and scrubs the profile at once; the history is then
+ * removed by AccountErasureJob one step at a time. Each step reads at most batch-size rows
+ * with a keyset scan, deletes them with set-based statements, applies the parents' counter
+ * changes grouped by delta, and saves the checkpoint (phase + last ID) in the same
+ * transaction. Memory per step is bounded by batch-size however large the history is,
+ * and a restart resumes from the last committed step.
+ *
+ * Phases: LIKES, REPLIES, COMMENTS (with other users' replies under them), POSTS
+ * (soft-deleted and left to PostReaper), then USER once no post rows remain, which first
+ * removes the user's mentions in other posts, the notifications they received and their
+ * conversations.
+ */
+@Slf4j
+@Service
+public class AccountErasureService {
+
+    private final AccountErasureRepository erasureRepository;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ReplyRepository replyRepository;
+    private final LikeRepository likeRepository;
+    private final NotificationRepository notificationRepository;
+    private final DirectMessageRepository messageRepository;
+    private final ScheduledPostRepository scheduledPostRepository;
+    private final UserService userService;
+    private final PostCache postCache;
+    private final LikedPostIndex likedPosts;
+    private final AuthorCardCache authorCards;
+    private final UserIdCache userIdCache;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+
+    private final Counter deletedLikes;
+    private final Counter deletedReplies;
+    private final Counter deletedComments;
+
+    public AccountErasureService(AccountErasureRepository erasureRepository,
+                                 UserRepository userRepository,
+                                 PostRepository postRepository,
+                                 CommentRepository commentRepository,
+                                 ReplyRepository replyRepository,
+                                 LikeRepository likeRepository,
+                                 NotificationRepository notificationRepository,
+                                 DirectMessageRepository messageRepository,
+                                 ScheduledPostRepository scheduledPostRepository,
+                                 UserService userService,
+                                 PostCache postCache,
+                                 LikedPostIndex likedPosts,
+                                 AuthorCardCache authorCards,
+                                 UserIdCache userIdCache,
+                                 ApplicationEventPublisher events,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${social.erasure.batch-size:1000}") int batchSize) {
+        this.erasureRepository = erasureRepository;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.replyRepository = replyRepository;
+        this.likeRepository = likeRepository;
+        this.notificationRepository = notificationRepository;
+        this.messageRepository = messageRepository;
+        this.scheduledPostRepository = scheduledPostRepository;
+        this.userService = userService;
+        this.postCache = postCache;
+        this.likedPosts = likedPosts;
+        this.authorCards = authorCards;
+        this.userIdCache = userIdCache;
+        this.events = events;
+        this.batchSize = batchSize;
+
+        this.deletedLikes = meterRegistry.counter("social.erasure.deleted.rows", "table", "likes");
+        this.deletedReplies = meterRegistry.counter("social.erasure.deleted.rows", "table", "replies");
+        this.deletedComments = meterRegistry.counter("social.erasure.deleted.rows", "table", "comments");
+    }
+
+    /**
+     * Request erasure of the current user's account.
+     * Credentials and profile fields are replaced immediately, so existing tokens stop
+     * resolving and the username and email can be registered again, and scheduled posts are cancelled.
+     */
+    @Transactional
+    public void requestErasure() {
+        User user = userService.getCurrentUser();
+        if (erasureRepository.existsById(user.getId())) {
+            return;
+        }
+
+        String username = user.getUsername();
+        user.setUsername("erased-" + user.getId());
+        user.setEmail("erased-" + user.getId() + "@invalid");
+        user.setPassword("{erased}");
+        user.setFullName(null);
+        user.setBio(null);
+        user.setProfilePicture(null);
+        userRepository.save(user);
+        // At most MAX_SCHEDULED_PER_USER rows, and none may be published from now on
+        scheduledPostRepository.deleteByUserId(user.getId());
+
+        erasureRepository.save(AccountErasure.builder()
+                .userId(user.getId())
+                .phase(AccountErasure.Phase.LIKES)
+                .lastId(0L)
+                .rowsDeleted(0L)
+                .requestedAt(LocalDateTime.now())
+                .build());
+
+        userIdCache.invalidate(username);
+        authorCards.invalidate(user.getId());
+        events.publishEvent(UserDirectoryEvent.remove(user.getId()));
+    }
+
+    /**
+     * Run one bounded step of a user's erasure and checkpoint it
+     * @param userId the user being erased
+     * @return true if more work can run right away, false when finished or waiting for PostReaper
+     */
+    @Transactional
+    public boolean processChunk(Long userId) {
+        // Locked so a second worker (another instance) cannot apply the same chunk's counters twice
+        AccountErasure erasure = erasureRepository.findForUpdate(userId).orElse(null);
+        if (erasure == null) {
+            return false;
+        }
+
+        switch (erasure.getPhase()) {
+            case LIKES -> eraseLikes(erasure);
+            case REPLIES -> eraseReplies(erasure);
+            case COMMENTS -> eraseComments(erasure);
+            case POSTS -> erasePosts(erasure);
+            case USER -> {
+                return eraseUser(erasure);
+            }
+        }
+        return true;
+    }
+
+    private void eraseLikes(AccountErasure erasure) {
+        List<Long> postIds = likeRepository.findPostIdChunkByUserId(erasure.getUserId(), erasure.getLastId(), batchSize);
+        if (postIds.isEmpty()) {
+            nextPhase(erasure, AccountErasure.Phase.REPLIES);
+            return;
+        }
+
+        int deleted = likeRepository.deleteByUserIdAndPostIdIn(erasure.getUserId(), postIds);
+        // One like per (post, user), so every post of the chunk loses exactly one
+        postRepository.decrementLikesCountIn(postIds, 1);
+        postIds.forEach(postId -> postCache.adjustLikesCount(postId, -1));
+        likedPosts.invalidate(erasure.getUserId());
+
+        deletedLikes.increment(deleted);
+        checkpoint(erasure, postIds.get(postIds.size() - 1), deleted);
+    }
+
+    private void eraseReplies(AccountErasure erasure) {
+        List<ChildRef> replies = replyRepository.findRefChunkByUserId(erasure.getUserId(), erasure.getLastId(), batchSize);
+        if (replies.isEmpty()) {
+            nextPhase(erasure, AccountErasure.Phase.COMMENTS);
+            return;
+        }
+
+        int deleted = replyRepository.deleteByIdIn(ids(replies));
+        decrementParents(replies, commentRepository::decrementRepliesCountIn);
+
+        deletedReplies.increment(deleted);
+        checkpoint(erasure, replies.get(replies.size() - 1).getId(), deleted);
+    }
+
+    private void eraseComments(AccountErasure erasure) {
+        List<ChildRef> comments = commentRepository.findRefChunkByUserId(erasure.getUserId(), erasure.getLastId(), batchSize);
+        if (comments.isEmpty()) {
+            nextPhase(erasure, AccountErasure.Phase.POSTS);
+            return;
+        }
+
+        List<Long> commentIds = ids(comments);
+        // Replies under these comments go first, at most batch-size per step;
+        // a full chunk keeps the keyset position so the next step continues with them
+        int replies = replyRepository.deleteChunkByCommentIdIn(commentIds, batchSize);
+        deletedReplies.increment(replies);
+        if (replies == batchSize) {
+            checkpoint(erasure, erasure.getLastId(), replies);
+            return;
+        }
+
+        int deleted = commentRepository.deleteByIdIn(commentIds);
+        decrementParents(comments, postRepository::decrementCommentsCountIn)
+                .forEach((postId, delta) -> postCache.adjustCommentsCount(postId, -delta));
+
+        deletedComments.increment(deleted);
+        checkpoint(erasure, comments.get(comments.size() - 1).getId(), replies + deleted);
+    }
+
+    private void erasePosts(AccountErasure erasure) {
+        List<Long> postIds = postRepository.findIdChunkByUserId(erasure.getUserId(), erasure.getLastId(), batchSize);
+        if (postIds.isEmpty()) {
+            nextPhase(erasure, AccountErasure.Phase.USER);
+            return;
+        }
+
+        postRepository.softDeleteIn(postIds, LocalDateTime.now());
+        postIds.forEach(postCache::invalidate);
+        checkpoint(erasure, postIds.get(postIds.size() - 1), 0);
+    }
+
+    private boolean eraseUser(AccountErasure erasure) {
+        Long userId = erasure.getUserId();
+        if (postRepository.findAnyIdByUserId(userId).isPresent()) {
+            // PostReaper has not removed every post yet
+            return false;
+        }
+
+        // Mentions of the user in other people's posts, one chunk per step
+        int mentions = postRepository.deleteMentionChunkByUserId(userId, batchSize);
+        if (mentions == batchSize) {
+            checkpoint(erasure, erasure.getLastId(), mentions);
+            return true;
+        }
+
+        // Then the user's own notifications and conversations, on both sides
+        int notifications = notificationRepository.deleteChunkByRecipientId(userId, batchSize);
+        if (notifications == batchSize) {
+            checkpoint(erasure, erasure.getLastId(), notifications);
+            return true;
+        }
+        int messages = messageRepository.deleteChunkByUserLow(userId, batchSize);
+        if (messages < batchSize) {
+            messages += messageRepository.deleteChunkByUserHigh(userId, batchSize - messages);
+        }
+        if (messages == batchSize) {
+            checkpoint(erasure, erasure.getLastId(), messages);
+            return true;
+        }
+
+        erasureRepository.delete(erasure);
+        userRepository.purgeById(userId);
+        authorCards.invalidate(userId);
+        log.info("Erased account {}: {} rows deleted", userId, erasure.getRowsDeleted());
+        return false;
+    }
+
+    /**
+     * Subtract each parent's number of deleted children from its counter,
+     * one UPDATE per distinct delta rather than one per parent
+     * @return deleted children per parent ID
+     */
+    private Map<Long, Integer> decrementParents(List<ChildRef> children,
+                                                BiFunction<Collection<Long>, Integer, Integer> decrement) {
+        Map<Long, Integer> perParent = new HashMap<>();
+        for (ChildRef child : children) {
+            perParent.merge(child.getParentId(), 1, Integer::sum);
+        }
+
+        Map<Integer, List<Long>> parentsByDelta = new HashMap<>();
+        perParent.forEach((parentId, delta) ->
+                parentsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(parentId));
+        parentsByDelta.forEach((delta, parentIds) -> decrement.apply(parentIds, delta));
+        return perParent;
+    }
+
+    private static List<Long> ids(List<ChildRef> refs) {
+        return refs.stream().map(ChildRef::getId).toList();
+    }
+
+    private static void checkpoint(AccountErasure erasure, Long lastId, int deleted) {
+        erasure.setLastId(lastId);
+        erasure.setRowsDeleted(erasure.getRowsDeleted() + deleted);
+    }
+
+    private static void nextPhase(AccountErasure erasure, AccountErasure.Phase phase) {
+        erasure.setPhase(phase);
+        erasure.setLastId(0L);
+    }
+}
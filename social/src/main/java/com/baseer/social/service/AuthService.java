@@ -6,8 +6,10 @@ import com.baseer.social.dto.RegisterRequest;
 import com.baseer.social.entity.User;
 import com.baseer.social.exceptionHandling.CustomException;
 import com.baseer.social.repository.UserRepository;
+import com.baseer.social.search.UserDirectoryEvent;
 import com.baseer.social.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -30,6 +32,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final ApplicationEventPublisher events;
 
     /**
      * Register a new user
@@ -56,6 +59,7 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
+        events.publishEvent(UserDirectoryEvent.upsert(user.getId(), user.getUsername(), user.getFullName()));
 
         // Generate token
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
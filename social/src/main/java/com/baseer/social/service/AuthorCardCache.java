@@ -0,0 +1,125 @@
+package com.baseer.social.service;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of author cards keyed by user ID.
+ * Feed, comment and reply assembly load bare user IDs and resolve authors here;
+ * all misses of one page are loaded with a single IN query.
+ * Entries are evicted by size and invalidated when a profile changes, once right away and again
+ * after commit, as a load in between reads the old row; expire-after-write bounds how long
+ * other instances keep an old card.
+ *
+ * The cache is asynchronous so that a load claims its keys before querying: an invalidate
+ * that arrives while the query runs drops the pending entry, and the loaded card is handed
+ * to the caller without being cached. Loads run on the calling thread.
+ */
+@Component
+public class AuthorCardCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, PostResponse.UserDTO> cache;
+
+    public AuthorCardCache(UserRepository userRepository,
+                           @Value("${social.cache.author-cards.max-size:50000}") long maxSize,
+                           @Value("${social.cache.author-cards.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .executor(Runnable::run)
+                .buildAsync();
+    }
+
+    /**
+     * Get the author card for one user
+     * @return the card, or null if the user does not exist
+     */
+    public PostResponse.UserDTO get(Long userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * Get author cards for a set of users, loading every miss in one query.
+     * Users that do not exist are left out of the map
+     */
+    public Map<Long, PostResponse.UserDTO> getAll(Collection<Long> userIds) {
+        return cache.synchronous().getAll(Set.copyOf(userIds), this::loadAll);
+    }
+
+    /**
+     * Resolve the author of every item in a page and hand it to the item.
+     * Items whose author no longer exists get an ID-only placeholder card
+     */
+    public <T> void attach(List<T> items, Function<T, Long> userIdOf, BiConsumer<T, PostResponse.UserDTO> setter) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Long, PostResponse.UserDTO> cards = getAll(items.stream().map(userIdOf).toList());
+        for (T item : items) {
+            setter.accept(item, cardOf(cards, userIdOf.apply(item)));
+        }
+    }
+
+    /**
+     * Seed or refresh the card from an already loaded user
+     */
+    public PostResponse.UserDTO put(User user) {
+        PostResponse.UserDTO card = toCard(user);
+        cache.synchronous().put(user.getId(), card);
+        return card;
+    }
+
+    /**
+     * Drop the card of a user whose profile changed, now and once the change commits
+     */
+    public void invalidate(Long userId) {
+        cache.synchronous().invalidate(userId);
+        PostCache.afterCommit(() -> cache.synchronous().invalidate(userId));
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private Map<Long, PostResponse.UserDTO> loadAll(Set<? extends Long> userIds) {
+        Map<Long, PostResponse.UserDTO> cards = new HashMap<>();
+        for (PostResponse.UserDTO card : userRepository.findAuthorCardsByIdIn(Set.copyOf(userIds))) {
+            cards.put(card.getId(), card);
+        }
+        return cards;
+    }
+
+    /**
+     * The card of a user from a getAll result, or an ID-only placeholder if the user is gone
+     */
+    public static PostResponse.UserDTO cardOf(Map<Long, PostResponse.UserDTO> cards, Long userId) {
+        PostResponse.UserDTO card = cards.get(userId);
+        return card != null ? card : PostResponse.UserDTO.builder().id(userId).build();
+    }
+
+    public static PostResponse.UserDTO toCard(User user) {
+        return PostResponse.UserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .profilePicture(user.getProfilePicture())
+                .build();
+    }
+}
@@ -1,59 +1,198 @@
 package com.baseer.social.service;
 
 import com.baseer.social.dto.CommentRequest;
+import com.baseer.social.dto.CommentThreadItem;
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.PageCursor;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.ReplyView;
 import com.baseer.social.entity.Comment;
-import com.baseer.social.entity.Post;
+import com.baseer.social.entity.Notification;
 import com.baseer.social.entity.Reply;
 import com.baseer.social.entity.User;
 import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.notification.NotificationEvent;
 import com.baseer.social.repository.CommentRepository;
 import com.baseer.social.repository.ReplyRepository;
+import com.baseer.social.repository.projection.ReplyRow;
+import com.baseer.social.search.SearchDocumentEvent;
+import com.baseer.social.trending.EngagementEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for comment operations.
+ * Read paths return CommentView/ReplyView projections rather than entities.
  */
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    public static final int MAX_THREAD_PAGE_SIZE = 50;
+    public static final int MAX_REPLY_PREVIEWS = 10;
+    public static final int MAX_REPLY_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final ReplyRepository replyRepository;
     private final PostService postService;
     private final UserService userService;
+    private final AuthorCardCache authorCards;
+    private final ApplicationEventPublisher events;
 
     /**
      * Add comment to post
      */
     @Transactional
-    public Comment addComment(Long postId, CommentRequest request) {
-        User currentUser = userService.getCurrentUser();
-        Post post = postService.getPostById(postId);
-
+    public CommentView addComment(Long postId, CommentRequest request) {
+        PostCache.CachedPost post = postService.getCachedPost(postId);
         Comment comment = Comment.builder()
-                .post(post)
-                .user(currentUser)
+                .post(postService.getPostReference(postId))
+                .user(userService.getCurrentUserReference())
                 .content(request.getContent())
                 .repliesCount(0)
                 .build();
 
-        Comment saved = commentRepository.save(comment);
+        // Flush so the response carries the generated timestamps
+        Comment saved = commentRepository.saveAndFlush(comment);
         postService.incrementCommentsCount(postId);
+        events.publishEvent(SearchDocumentEvent.upsert(SearchDocumentEvent.Kind.COMMENT, saved.getId(), saved.getContent()));
+        events.publishEvent(EngagementEvent.of(EngagementEvent.Kind.COMMENT, postId));
+        events.publishEvent(NotificationEvent.onPost(Notification.Kind.COMMENT, post.userId(), postId,
+                saved.getUser().getId()));
 
-        return saved;
+        return toCommentView(saved, postId, userService.getCurrentUserId());
     }
 
     /**
      * Get comments for a post
      */
     @Transactional(readOnly = true)
-    public List<Comment> getPostComments(Long postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtAsc(postId);
+    public List<CommentView> getPostComments(Long postId) {
+        List<CommentView> comments = commentRepository.findViewsByPostId(postId);
+        authorCards.attach(comments, c -> c.getUser().getId(), CommentView::setUser);
+        return comments;
+    }
+
+    /**
+     * Get several comments in the given order, leaving out missing ones and comments of deleted posts
+     */
+    @Transactional(readOnly = true)
+    public List<CommentView> getCommentViews(List<Long> commentIds) {
+        if (commentIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, CommentView> views = commentRepository.findViewsByIdIn(commentIds).stream()
+                .collect(Collectors.toMap(CommentView::getId, Function.identity()));
+        List<CommentView> comments = commentIds.stream().map(views::get).filter(Objects::nonNull).toList();
+        authorCards.attach(comments, c -> c.getUser().getId(), CommentView::setUser);
+        return comments;
+    }
+
+    /**
+     * Get one cursor page of top-level comments, each with its first replies inlined.
+     * Costs at most three queries regardless of thread size: one for the comments page,
+     * one batched window query for the reply previews of the whole page, and one
+     * for the author cards that are not cached yet.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentThreadItem> getPostThread(Long postId, String cursor, int size, int replyPreviews) {
+        int pageSize = clamp(size, 1, MAX_THREAD_PAGE_SIZE);
+        int previews = clamp(replyPreviews, 0, MAX_REPLY_PREVIEWS);
+        PageCursor after = PageCursor.decode(cursor);
+
+        return CursorPage.fetch(pageSize, limit -> after == null
+                        ? commentRepository.findViewPage(postId, PageRequest.of(0, limit))
+                        : commentRepository.findViewPageAfter(postId, after.id(), PageRequest.of(0, limit)),
+                comment -> PageCursor.encode(comment.getId()),
+                comments -> threadItems(comments, previews));
+    }
+
+    /**
+     * Thread items for a page of comments: their first replies in one batched query
+     * and every author card in one lookup
+     */
+    private List<CommentThreadItem> threadItems(List<CommentView> comments, int previews) {
+        Map<Long, List<ReplyView>> previewsByComment = new HashMap<>();
+        List<ReplyView> allPreviews = new ArrayList<>();
+        if (previews > 0 && !comments.isEmpty()) {
+            List<Long> withReplies = comments.stream()
+                    .filter(c -> c.getRepliesCount() != null && c.getRepliesCount() > 0)
+                    .map(CommentView::getId)
+                    .toList();
+            if (!withReplies.isEmpty()) {
+                // previews + 1 so each comment knows whether it needs a reply cursor
+                for (ReplyRow row : replyRepository.findFirstRepliesPerComment(withReplies, previews + 1)) {
+                    ReplyView reply = toReplyView(row);
+                    previewsByComment.computeIfAbsent(row.getCommentId(), k -> new ArrayList<>()).add(reply);
+                    allPreviews.add(reply);
+                }
+            }
+        }
+
+        // One author lookup for the comments and every reply preview of the page
+        List<Long> authorIds = new ArrayList<>(comments.size() + allPreviews.size());
+        comments.forEach(c -> authorIds.add(c.getUser().getId()));
+        allPreviews.forEach(r -> authorIds.add(r.getUser().getId()));
+        Map<Long, PostResponse.UserDTO> authors = authorIds.isEmpty() ? Map.of() : authorCards.getAll(authorIds);
+        comments.forEach(c -> c.setUser(AuthorCardCache.cardOf(authors, c.getUser().getId())));
+        allPreviews.forEach(r -> r.setUser(AuthorCardCache.cardOf(authors, r.getUser().getId())));
+
+        List<CommentThreadItem> items = new ArrayList<>(comments.size());
+        for (CommentView comment : comments) {
+            List<ReplyView> rows = previewsByComment.getOrDefault(comment.getId(), List.of());
+            boolean hasMoreReplies;
+            String nextReplyCursor = null;
+            if (previews == 0) {
+                hasMoreReplies = comment.getRepliesCount() != null && comment.getRepliesCount() > 0;
+            } else {
+                hasMoreReplies = rows.size() > previews;
+                if (hasMoreReplies) {
+                    rows = rows.subList(0, previews);
+                    ReplyView last = rows.get(rows.size() - 1);
+                    nextReplyCursor = PageCursor.encode(last.getId());
+                }
+            }
+            items.add(CommentThreadItem.builder()
+                    .id(comment.getId())
+                    .content(comment.getContent())
+                    .repliesCount(comment.getRepliesCount())
+                    .createdAt(comment.getCreatedAt())
+                    .user(comment.getUser())
+                    .replies(rows)
+                    .hasMoreReplies(hasMoreReplies)
+                    .nextReplyCursor(nextReplyCursor)
+                    .build());
+        }
+        return items;
+    }
+
+    /**
+     * Get one cursor page of replies for a comment, oldest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReplyView> getCommentRepliesPage(Long commentId, String cursor, int size) {
+        int pageSize = clamp(size, 1, MAX_REPLY_PAGE_SIZE);
+        PageCursor after = PageCursor.decode(cursor);
+
+        CursorPage<ReplyView> page = CursorPage.fetch(pageSize, limit -> after == null
+                        ? replyRepository.findViewPage(commentId, PageRequest.of(0, limit))
+                        : replyRepository.findViewPageAfter(commentId, after.id(), PageRequest.of(0, limit)),
+                reply -> PageCursor.encode(reply.getId()));
+        authorCards.attach(page.getItems(), r -> r.getUser().getId(), ReplyView::setUser);
+        return page;
     }
 
     /**
@@ -65,11 +204,20 @@ public class CommentService {
                 .orElseThrow(() -> new CustomException("Comment not found", HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Get the ID of the post a comment belongs to
+     */
+    @Transactional(readOnly = true)
+    public Long getPostIdForComment(Long commentId) {
+        return commentRepository.findPostIdById(commentId)
+                .orElseThrow(() -> new CustomException("Comment not found", HttpStatus.NOT_FOUND));
+    }
+
     /**
      * Add reply to comment
      */
     @Transactional
-    public Reply addReply(Long commentId, CommentRequest request) {
+    public ReplyView addReply(Long commentId, CommentRequest request) {
         User currentUser = userService.getCurrentUser();
         Comment comment = getCommentById(commentId);
 
@@ -79,20 +227,31 @@ public class CommentService {
                 .content(request.getContent())
                 .build();
 
-        Reply saved = replyRepository.save(reply);
+        Reply saved = replyRepository.saveAndFlush(reply);
 
         comment.setRepliesCount(comment.getRepliesCount() + 1);
         commentRepository.save(comment);
+        events.publishEvent(EngagementEvent.of(EngagementEvent.Kind.COMMENT, comment.getPost().getId()));
+        events.publishEvent(NotificationEvent.onComment(comment.getUser().getId(), commentId,
+                comment.getPost().getId(), currentUser.getId()));
 
-        return saved;
+        return ReplyView.builder()
+                .id(saved.getId())
+                .commentId(commentId)
+                .content(saved.getContent())
+                .createdAt(saved.getCreatedAt())
+                .user(authorCards.put(currentUser))
+                .build();
     }
 
     /**
      * Get replies for a comment
      */
     @Transactional(readOnly = true)
-    public List<Reply> getCommentReplies(Long commentId) {
-        return replyRepository.findByCommentIdOrderByCreatedAtAsc(commentId);
+    public List<ReplyView> getCommentReplies(Long commentId) {
+        List<ReplyView> replies = replyRepository.findViewsByCommentId(commentId);
+        authorCards.attach(replies, r -> r.getUser().getId(), ReplyView::setUser);
+        return replies;
     }
 
     /**
@@ -108,6 +267,7 @@ public class CommentService {
         }
 
         commentRepository.delete(comment);
+        events.publishEvent(SearchDocumentEvent.delete(SearchDocumentEvent.Kind.COMMENT, commentId));
     }
 
     /**
@@ -130,4 +290,24 @@ public class CommentService {
 
         replyRepository.delete(reply);
     }
-}
\ No newline at end of file
+
+    private CommentView toCommentView(Comment comment, Long postId, Long userId) {
+        return CommentView.builder()
+                .id(comment.getId())
+                .postId(postId)
+                .content(comment.getContent())
+                .repliesCount(comment.getRepliesCount())
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .user(authorCards.get(userId))
+                .build();
+    }
+
+    private ReplyView toReplyView(ReplyRow row) {
+        return new ReplyView(row.getId(), row.getCommentId(), row.getContent(), row.getCreatedAt(), row.getUserId());
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
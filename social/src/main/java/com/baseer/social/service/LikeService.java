@@ -1,16 +1,29 @@
 package com.baseer.social.service;
 
-import com.baseer.social.entity.Like;
-import com.baseer.social.entity.Post;
-import com.baseer.social.entity.User;
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.LikerView;
+import com.baseer.social.dto.PageCursor;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.Notification;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.id.IdGenerator;
+import com.baseer.social.notification.NotificationEvent;
 import com.baseer.social.repository.LikeRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.ChildRef;
+import com.baseer.social.trending.EngagementEvent;
 import com.baseer.social.websocket.LikeEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * Service for like operations.
@@ -19,46 +32,80 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class LikeService {
 
+    public static final int MAX_STATUS_BATCH = 100;
+    public static final int MAX_LIST_PAGE_SIZE = 50;
+
     private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final PostCache postCache;
+    private final LikedPostIndex likedPosts;
+    private final IdGenerator idGenerator;
     private final PostService postService;
     private final UserService userService;
+    private final AuthorCardCache authorCards;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher events;
 
     /**
-     * Toggle like on a post
+     * Toggle like on a post.
+     * The liked-posts index picks the statement to try and its row count settles the outcome,
+     * so no like is read and a stale index entry costs one extra statement
      */
     @Transactional
     public boolean toggleLike(Long postId) {
-        User currentUser = userService.getCurrentUser();
-        Post post = postService.getPostById(postId);
-
-        Optional<Like> existingLike = likeRepository.findByPostIdAndUserId(postId, currentUser.getId());
+        Long userId = userService.getCurrentUserId();
+        PostCache.CachedPost post = postService.getCachedPost(postId);
 
-        if (existingLike.isPresent()) {
-            likeRepository.delete(existingLike.get());
-            postService.decrementLikesCount(postId);
-            int newCount = Math.max(0, post.getLikesCount() - 1);
-            sendLikeEvent(postId, currentUser, newCount, "UNLIKE");
+        if (likedPosts.isLiked(userId, postId) && deleteLike(post, userId)) {
             return false;
-        } else {
-            Like like = Like.builder()
-                    .post(post)
-                    .user(currentUser)
-                    .build();
-            likeRepository.save(like);
-            postService.incrementLikesCount(postId);
-            int newCount = post.getLikesCount() + 1;
-            sendLikeEvent(postId, currentUser, newCount, "LIKE");
+        }
+        if (insertLike(post, userId)) {
             return true;
         }
+        // Liked although the index said otherwise
+        deleteLike(post, userId);
+        return false;
+    }
+
+    /**
+     * Like a post; liking it again changes nothing and, when the liked-posts index
+     * already has the like, writes nothing
+     * @return true if this call added the like
+     */
+    @Transactional
+    public boolean like(Long postId) {
+        Long userId = userService.getCurrentUserId();
+        PostCache.CachedPost post = postService.getCachedPost(postId);
+        return !likedPosts.isLiked(userId, postId) && insertLike(post, userId);
+    }
+
+    /**
+     * Remove the like of a post; removing it again changes nothing and, when the
+     * liked-posts index has no such like, writes nothing
+     * @return true if this call removed the like
+     */
+    @Transactional
+    public boolean unlike(Long postId) {
+        Long userId = userService.getCurrentUserId();
+        PostCache.CachedPost post = postService.getCachedPost(postId);
+        return likedPosts.isLiked(userId, postId) && deleteLike(post, userId);
     }
 
     /**
      * Check if current user has liked a post
      */
     public boolean hasUserLikedPost(Long postId) {
-        User currentUser = userService.getCurrentUser();
-        return likeRepository.existsByPostIdAndUserId(postId, currentUser.getId());
+        return likedPosts.isLiked(userService.getCurrentUserId(), postId);
+    }
+
+    /**
+     * The given posts that the current user has liked, e.g. for a feed page
+     */
+    public Set<Long> getLikedAmong(Collection<Long> postIds) {
+        if (postIds.size() > MAX_STATUS_BATCH) {
+            throw new CustomException("At most " + MAX_STATUS_BATCH + " posts per request", HttpStatus.BAD_REQUEST);
+        }
+        return likedPosts.likedAmong(userService.getCurrentUserId(), postIds);
     }
 
     /**
@@ -68,14 +115,83 @@ public class LikeService {
         return likeRepository.countByPostId(postId);
     }
 
+    /**
+     * Get one cursor page of a post's likers, newest like first.
+     * One query on (post_id, id) plus one for the author cards that are not cached yet
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<LikerView> getLikers(Long postId, String cursor, int size) {
+        postService.getCachedPost(postId);
+        int pageSize = Math.max(1, Math.min(MAX_LIST_PAGE_SIZE, size));
+        long beforeId = PageCursor.idBelow(cursor);
+
+        CursorPage<LikerView> page = CursorPage.fetch(pageSize,
+                limit -> likeRepository.findLikerPage(postId, beforeId, PageRequest.of(0, limit)),
+                liker -> PageCursor.encode(liker.getLikeId()));
+        authorCards.attach(page.getItems(), l -> l.getUser().getId(), LikerView::setUser);
+        return page;
+    }
+
+    /**
+     * Get one cursor page of the posts a user liked, most recently liked first.
+     * One query on (user_id, id) plus the usual post hydration; deleted posts are left out,
+     * so a page can be short while more follow
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getLikedPosts(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(MAX_LIST_PAGE_SIZE, size));
+        long beforeId = PageCursor.idBelow(cursor);
+
+        return CursorPage.fetch(pageSize,
+                limit -> likeRepository.findLikedPostPage(userId, beforeId, limit),
+                like -> PageCursor.encode(like.getId()),
+                likes -> postService.getPostResponses(likes.stream().map(ChildRef::getParentId).toList()));
+    }
+
+    /**
+     * Insert the like and count it: one INSERT IGNORE and one counter update.
+     * Both paths update the counter first, so every like write to a post queues on the post's
+     * row lock before locking anything in likes. Inserting first would deadlock concurrent
+     * likes, each holding the shared lock of its foreign-key check while waiting to update.
+     * The pushed count is the cached one plus this like, so the counter is not read back
+     */
+    private boolean insertLike(PostCache.CachedPost post, Long userId) {
+        postRepository.adjustLikesCount(post.id(), 1);
+        if (likeRepository.insertIgnore(idGenerator.nextId(), post.id(), userId, LocalDateTime.now()) == 0) {
+            postRepository.adjustLikesCount(post.id(), -1);
+            return false;
+        }
+        postCache.adjustLikesCount(post.id(), 1);
+        likedPosts.added(userId, post.id());
+        sendLikeEvent(post.id(), userId, post.withLikesDelta(1).likesCount(), "LIKE");
+        events.publishEvent(EngagementEvent.of(EngagementEvent.Kind.LIKE, post.id()));
+        events.publishEvent(NotificationEvent.onPost(Notification.Kind.LIKE, post.userId(), post.id(), userId));
+        return true;
+    }
+
+    /**
+     * Delete the like and uncount it: one counter update and one DELETE, in the same lock order
+     */
+    private boolean deleteLike(PostCache.CachedPost post, Long userId) {
+        postRepository.adjustLikesCount(post.id(), -1);
+        if (likeRepository.deleteOne(post.id(), userId) == 0) {
+            postRepository.adjustLikesCount(post.id(), 1);
+            return false;
+        }
+        postCache.adjustLikesCount(post.id(), -1);
+        likedPosts.removed(userId, post.id());
+        sendLikeEvent(post.id(), userId, post.withLikesDelta(-1).likesCount(), "UNLIKE");
+        return true;
+    }
+
     /**
      * Send like event via WebSocket
      */
-    private void sendLikeEvent(Long postId, User user, Integer likesCount, String action) {
+    private void sendLikeEvent(Long postId, Long userId, Integer likesCount, String action) {
         LikeEvent event = LikeEvent.builder()
                 .postId(postId)
-                .userId(user.getId())
-                .username(user.getUsername())
+                .userId(userId)
+                .username(userService.getCurrentUsername())
                 .likesCount(likesCount)
                 .action(action)
                 .timestamp(System.currentTimeMillis())
@@ -0,0 +1,120 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.LikeRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The posts each user liked, as compressed sets (LikedPostSet) keyed by user ID.
+ * Answers "did I like this?" for a single post or a whole feed page without touching the
+ * likes table. A user's set is loaded on first use by keyset over (user_id, post_id) and
+ * updated after each like or unlike commits; sets are evicted by total weight against
+ * max-size, and expire-after-write bounds drift from writes made by other instances.
+ *
+ * A load running while a like commits cannot lose it: the update waits for the load of
+ * that user to finish and is then applied on top of it.
+ */
+@Component
+public class LikedPostIndex {
+
+    private final LikeRepository likeRepository;
+    private final int loadChunkSize;
+    private final LoadingCache<Long, LikedPostSet> cache;
+
+    public LikedPostIndex(LikeRepository likeRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${social.cache.liked-posts.max-size:64MB}") DataSize maxSize,
+                          @Value("${social.cache.liked-posts.expire-after-write:30m}") Duration expireAfterWrite,
+                          @Value("${social.cache.liked-posts.load-chunk-size:10000}") int loadChunkSize) {
+        this.likeRepository = likeRepository;
+        this.loadChunkSize = loadChunkSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long userId, LikedPostSet set) -> set.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "liked-posts");
+    }
+
+    /**
+     * Whether a user likes a post
+     */
+    public boolean isLiked(Long userId, Long postId) {
+        return cache.get(userId).contains(postId);
+    }
+
+    /**
+     * The given posts that a user likes, in the given order
+     */
+    public Set<Long> likedAmong(Long userId, Collection<Long> postIds) {
+        LikedPostSet liked = cache.get(userId);
+        Set<Long> result = new LinkedHashSet<>();
+        for (Long postId : postIds) {
+            if (liked.contains(postId)) {
+                result.add(postId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record a like once the current transaction commits
+     */
+    public void added(Long userId, Long postId) {
+        PostCache.afterCommit(() -> cache.asMap().computeIfPresent(userId, (id, set) -> {
+            set.add(postId);
+            return set;
+        }));
+    }
+
+    /**
+     * Record an unlike once the current transaction commits
+     */
+    public void removed(Long userId, Long postId) {
+        PostCache.afterCommit(() -> cache.asMap().computeIfPresent(userId, (id, set) -> {
+            set.remove(postId);
+            return set;
+        }));
+    }
+
+    /**
+     * Drop a user's set after likes were deleted in bulk (account erasure)
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        PostCache.afterCommit(() -> cache.invalidate(userId));
+    }
+
+    private LikedPostSet load(Long userId) {
+        long[] postIds = new long[0];
+        int size = 0;
+        long afterPostId = 0;
+        List<Long> chunk;
+        do {
+            chunk = likeRepository.findPostIdChunkByUserId(userId, afterPostId, loadChunkSize);
+            if (size + chunk.size() > postIds.length) {
+                postIds = Arrays.copyOf(postIds, Math.max(size + chunk.size(), postIds.length * 2));
+            }
+            for (Long postId : chunk) {
+                postIds[size++] = postId;
+            }
+            if (!chunk.isEmpty()) {
+                afterPostId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == loadChunkSize);
+        return LikedPostSet.of(Arrays.copyOf(postIds, size));
+    }
+}
@@ -0,0 +1,213 @@
+package com.baseer.social.service;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of the post IDs one user liked, compressed for LikedPostIndex.
+ *
+ * IDs are kept in blocks of at most MAX_BLOCK ascending IDs: the first ID of each block in
+ * a long array searched by bisection, the rest as variable-length gaps to the previous ID.
+ * A membership probe is one bisection over the block heads and a scan of at most one
+ * block; adding or removing an ID re-encodes one block, splitting it when full.
+ *
+ * Roaring bitmaps would key containers by the high 48 bits, but Snowflake IDs are sparse in
+ * that space (one ID per 16-bit container), while a user's likes cluster in time, so gaps
+ * between them usually fit 3 to 6 bytes instead of 8.
+ *
+ * All methods are synchronized: updates after a toggle and probes of a page may race.
+ */
+final class LikedPostSet {
+
+    static final int MAX_BLOCK = 128;
+    /** Blocks built by of() are half full, so inserts rarely split them */
+    private static final int LOAD_BLOCK = MAX_BLOCK / 2;
+
+    private long[] heads = new long[1];
+    private byte[][] gaps = new byte[1][];
+    private int[] counts = new int[1];
+    private int blocks;
+    private int size;
+    private long gapBytes;
+
+    /**
+     * A set of the given IDs, which must be ascending and distinct
+     */
+    static LikedPostSet of(long[] sortedIds) {
+        LikedPostSet set = new LikedPostSet();
+        for (int from = 0; from < sortedIds.length; from += LOAD_BLOCK) {
+            set.insertBlock(set.blocks, Arrays.copyOfRange(sortedIds, from, Math.min(sortedIds.length, from + LOAD_BLOCK)));
+        }
+        set.size = sortedIds.length;
+        return set;
+    }
+
+    synchronized boolean contains(long id) {
+        int block = blockOf(id);
+        if (block < 0) {
+            return false;
+        }
+        long current = heads[block];
+        byte[] encoded = gaps[block];
+        int at = 0;
+        for (int i = 1; i < counts[block] && current < id; i++) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[at++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += gap;
+        }
+        return current == id;
+    }
+
+    /**
+     * @return false if the ID was already present
+     */
+    synchronized boolean add(long id) {
+        if (blocks == 0) {
+            insertBlock(0, new long[]{id});
+            size = 1;
+            return true;
+        }
+        int block = Math.max(0, blockOf(id));
+        long[] ids = decode(block);
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        long[] grown = new long[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(ids, at, grown, at + 1, ids.length - at);
+        if (grown.length > MAX_BLOCK) {
+            int half = grown.length / 2;
+            replaceBlock(block, Arrays.copyOf(grown, half));
+            insertBlock(block + 1, Arrays.copyOfRange(grown, half, grown.length));
+        } else {
+            replaceBlock(block, grown);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return false if the ID was not present
+     */
+    synchronized boolean remove(long id) {
+        int block = blockOf(id);
+        if (block < 0) {
+            return false;
+        }
+        long[] ids = decode(block);
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return false;
+        }
+        if (ids.length == 1) {
+            removeBlock(block);
+        } else {
+            long[] shrunk = new long[ids.length - 1];
+            System.arraycopy(ids, 0, shrunk, 0, at);
+            System.arraycopy(ids, at + 1, shrunk, at, shrunk.length - at);
+            replaceBlock(block, shrunk);
+        }
+        size--;
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap footprint in bytes, for the cache's memory budget
+     */
+    synchronized int weight() {
+        // Arrays of heads, gap arrays and counts, plus one array header per block
+        long bytes = 64 + (long) heads.length * (8 + 8 + 4) + 16L * blocks + gapBytes;
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    /** Last block whose head is at most the ID, -1 if the ID is below every head */
+    private int blockOf(long id) {
+        int low = 0;
+        int high = blocks - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (heads[mid] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private long[] decode(int block) {
+        long[] ids = new long[counts[block]];
+        ids[0] = heads[block];
+        byte[] encoded = gaps[block];
+        int at = 0;
+        for (int i = 1; i < ids.length; i++) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[at++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            ids[i] = ids[i - 1] + gap;
+        }
+        return ids;
+    }
+
+    private void replaceBlock(int block, long[] ids) {
+        gapBytes -= gaps[block].length;
+        heads[block] = ids[0];
+        gaps[block] = encode(ids);
+        counts[block] = ids.length;
+        gapBytes += gaps[block].length;
+    }
+
+    private void insertBlock(int block, long[] ids) {
+        if (blocks == heads.length) {
+            heads = Arrays.copyOf(heads, blocks * 2);
+            gaps = Arrays.copyOf(gaps, blocks * 2);
+            counts = Arrays.copyOf(counts, blocks * 2);
+        }
+        System.arraycopy(heads, block, heads, block + 1, blocks - block);
+        System.arraycopy(gaps, block, gaps, block + 1, blocks - block);
+        System.arraycopy(counts, block, counts, block + 1, blocks - block);
+        blocks++;
+        gaps[block] = new byte[0];
+        replaceBlock(block, ids);
+    }
+
+    private void removeBlock(int block) {
+        gapBytes -= gaps[block].length;
+        System.arraycopy(heads, block + 1, heads, block, blocks - block - 1);
+        System.arraycopy(gaps, block + 1, gaps, block, blocks - block - 1);
+        System.arraycopy(counts, block + 1, counts, block, blocks - block - 1);
+        blocks--;
+        gaps[blocks] = null;
+    }
+
+    private static byte[] encode(long[] ids) {
+        byte[] buffer = new byte[(ids.length - 1) * 10];
+        int length = 0;
+        for (int i = 1; i < ids.length; i++) {
+            long gap = ids[i] - ids[i - 1];
+            while ((gap & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            buffer[length++] = (byte) gap;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+}
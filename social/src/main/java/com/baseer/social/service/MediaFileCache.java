@@ -0,0 +1,82 @@
+package com.baseer.social.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Memory-mapped copies of the most requested small media objects, mostly avatar and
+ * thumbnail variants shown next to every post and comment.
+ * The mappings live outside the heap and are bounded by total bytes; Caffeine's
+ * frequency-based admission keeps the objects requested most often, so a burst of
+ * one-off requests does not flush the avatars. Objects are immutable (content-addressed),
+ * so entries never need invalidation.
+ */
+@Component
+public class MediaFileCache {
+
+    private final MediaStore mediaStore;
+    private final long maxObjectBytes;
+    private final Cache<String, ByteBuffer> cache;
+
+    public MediaFileCache(MediaStore mediaStore,
+                          MeterRegistry meterRegistry,
+                          @Value("${social.media.cache.max-size:64MB}") DataSize maxSize,
+                          @Value("${social.media.cache.max-object-size:256KB}") DataSize maxObjectSize) {
+        this.mediaStore = mediaStore;
+        this.maxObjectBytes = maxObjectSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, ByteBuffer buffer) -> buffer.capacity())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media-files");
+    }
+
+    /**
+     * Read-only view of an object if it is cached, without touching the file system
+     */
+    public Optional<ByteBuffer> getIfPresent(String key) {
+        ByteBuffer buffer = cache.getIfPresent(key);
+        return buffer == null ? Optional.empty() : Optional.of(buffer.duplicate());
+    }
+
+    /**
+     * Read-only view of an object, mapping it on first use if it is small enough
+     * @param size the object's size in bytes
+     * @return empty if the object is too large to cache
+     */
+    public Optional<ByteBuffer> get(String key, long size) {
+        if (size > maxObjectBytes) {
+            return Optional.empty();
+        }
+        try {
+            // Each caller gets its own position and limit over the shared mapping
+            return Optional.of(cache.get(key, this::map).duplicate());
+        } catch (UncheckedIOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private ByteBuffer map(String key) {
+        Path path = mediaStore.pathOf(key);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.baseer.social.service;
+
+import com.baseer.social.exceptionHandling.CustomException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed media store on the local file system.
+ * An object's key is the SHA-256 of its bytes plus an extension for its type
+ * ("3f9a...c1.png"), so identical uploads share one file and a key never changes meaning.
+ * Objects live under root/<first two hex chars>/<key>; resized variants sit next to
+ * the original as <hash>-<width>.<ext>.
+ *
+ * Uploads are copied from the request channel into a temp file through one fixed-size
+ * buffer while being hashed, then moved into place atomically: heap use per upload is
+ * the buffer, whatever the file size.
+ */
+@Service
+public class MediaStore {
+
+    public static final String URL_PREFIX = "/media/";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}(-\\d{1,5})?\\.(jpg|png|gif|webp)");
+
+    /** Accepted content types and the extension stored for each */
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp");
+
+    private final Path root;
+    private final Path tempDir;
+    private final long maxBytes;
+
+    public MediaStore(@Value("${social.media.root:media}") String root,
+                      @Value("${social.media.max-size:10MB}") DataSize maxSize) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve("tmp");
+        this.maxBytes = maxSize.toBytes();
+        Files.createDirectories(tempDir);
+    }
+
+    /**
+     * An object written to the store
+     * @param created false if identical content was already stored
+     */
+    public record StoredMedia(String key, String contentType, long size, boolean created) {
+
+        public String url() {
+            return URL_PREFIX + key;
+        }
+    }
+
+    /**
+     * Stream content into the store
+     * @param contentType declared type, must match the content's signature
+     * @param declaredLength Content-Length of the request, or -1 if unknown
+     */
+    public StoredMedia store(InputStream in, String contentType, long declaredLength) throws IOException {
+        String extension = EXTENSIONS.get(contentType);
+        if (extension == null) {
+            throw new CustomException("Unsupported media type: " + contentType, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+        if (declaredLength > maxBytes) {
+            throw tooLarge();
+        }
+
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ReadableByteChannel source = Channels.newChannel(in);
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxBytes) {
+                        throw tooLarge();
+                    }
+                    sha256.update(buffer.array(), 0, buffer.limit());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (size == 0) {
+                throw new CustomException("Empty upload", HttpStatus.BAD_REQUEST);
+            }
+            if (!extension.equals(sniffExtension(temp))) {
+                throw new CustomException("Content does not match " + contentType, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            }
+
+            String key = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            Path path = pathOf(key);
+            Files.createDirectories(path.getParent());
+            if (Files.exists(path)) {
+                return new StoredMedia(key, contentType, size, false);
+            }
+            // Same name means same bytes, so replacing a file from a concurrent identical upload is harmless
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredMedia(key, contentType, size, true);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Whether a key names a stored object
+     */
+    public boolean exists(String key) {
+        return isValidKey(key) && Files.isRegularFile(pathOf(key));
+    }
+
+    /**
+     * Public URL of a stored object
+     * @throws CustomException if no such object exists
+     */
+    public String urlOf(String key) {
+        if (!exists(key)) {
+            throw new CustomException("Media not found: " + key, HttpStatus.BAD_REQUEST);
+        }
+        return URL_PREFIX + key;
+    }
+
+    /**
+     * File of an object or variant; the key must be valid
+     */
+    public Path pathOf(String key) {
+        if (!isValidKey(key)) {
+            throw new CustomException("Invalid media key", HttpStatus.BAD_REQUEST);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * Key of a resized variant of an object
+     */
+    public static String variantKey(String key, int width, String extension) {
+        return key.substring(0, 64) + "-" + width + "." + extension;
+    }
+
+    /**
+     * Content type for a key's extension
+     */
+    public static Optional<String> contentTypeOf(String key) {
+        String extension = key.substring(key.lastIndexOf('.') + 1);
+        return EXTENSIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(extension))
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    /**
+     * Temp file in the store's file system, so finished writes can be moved in atomically
+     */
+    Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDir, "variant-", ".part");
+    }
+
+    /**
+     * Extension matching the file's leading bytes, or null
+     */
+    private static String sniffExtension(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // fill the header
+            }
+        }
+        byte[] b = header.array();
+        int n = header.position();
+        if (n >= 3 && (b[0] & 0xff) == 0xFF && (b[1] & 0xff) == 0xD8 && (b[2] & 0xff) == 0xFF) {
+            return "jpg";
+        }
+        if (n >= 8 && (b[0] & 0xff) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "png";
+        }
+        if (n >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "gif";
+        }
+        if (n >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private CustomException tooLarge() {
+        return new CustomException("Media larger than " + maxBytes + " bytes", HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.PostRow;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through cache of post snapshots keyed by post ID.
+ * Serves single-post views and the existence/ownership checks of write paths
+ * (like toggle, comment, update, delete) without a SELECT per call.
+ *
+ * Counter changes are applied to the cached entry after the surrounding transaction
+ * commits; updates and deletes invalidate the entry. expire-after-write bounds any drift.
+ *
+ * Each entry remembers when its load ran on a logical clock, so a counter change can tell
+ * whether the loaded row already contained it: a load that finished before the change was
+ * made gets the delta, one that started after the commit already has it, and an entry
+ * whose load overlapped the commit is dropped and read again.
+ */
+@Component
+public class PostCache {
+
+    private final LoadingCache<Long, Entry> cache;
+    private final AtomicLong clock = new AtomicLong();
+
+    public PostCache(PostRepository postRepository,
+                     @Value("${social.cache.posts.max-size:100000}") long maxSize,
+                     @Value("${social.cache.posts.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(id -> {
+                    long loadedFrom = clock.incrementAndGet();
+                    CachedPost post = postRepository.findRowById(id).map(CachedPost::of).orElse(null);
+                    return post == null ? null : new Entry(post, loadedFrom, clock.incrementAndGet());
+                });
+    }
+
+    /**
+     * Get a post snapshot, loading it on a miss
+     * @return the snapshot, or null if the post does not exist
+     */
+    public CachedPost get(Long postId) {
+        Entry entry = cache.get(postId);
+        return entry == null ? null : entry.post();
+    }
+
+    /**
+     * Apply a likes counter change once the current transaction commits
+     */
+    public void adjustLikesCount(Long postId, int delta) {
+        adjust(postId, post -> post.withLikesDelta(delta));
+    }
+
+    /**
+     * Apply a comments counter change once the current transaction commits
+     */
+    public void adjustCommentsCount(Long postId, int delta) {
+        adjust(postId, post -> post.withCommentsDelta(delta));
+    }
+
+    /**
+     * Drop a post that was updated or deleted. Evicts now and again after commit,
+     * so a concurrent reader cannot re-cache the pre-commit row.
+     */
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+        afterCommit(() -> cache.invalidate(postId));
+    }
+
+    /**
+     * Apply a change after commit to an entry loaded before the change was made. Called while
+     * the change is still uncommitted, so a load that finished before now cannot have seen it
+     */
+    private void adjust(Long postId, UnaryOperator<CachedPost> change) {
+        long changed = clock.incrementAndGet();
+        afterCommit(() -> {
+            long committed = clock.incrementAndGet();
+            cache.asMap().computeIfPresent(postId, (id, entry) -> {
+                if (entry.loadedTo() < changed) {
+                    return new Entry(change.apply(entry.post()), entry.loadedFrom(), entry.loadedTo());
+                }
+                // Loaded after the commit: the row already has the change. Otherwise unknown
+                return entry.loadedFrom() > committed ? entry : null;
+            });
+        });
+    }
+
+    /**
+     * Run an action after the current transaction commits, or now if there is none
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A snapshot with the clock readings taken before and after its row was read
+     */
+    private record Entry(CachedPost post, long loadedFrom, long loadedTo) {
+    }
+
+    /**
+     * Immutable post snapshot. The author is kept as a bare ID and
+     * resolved through AuthorCardCache so profile changes are picked up.
+     */
+    public record CachedPost(Long id, Long userId, String content, String imageUrl,
+                             int likesCount, int commentsCount, LocalDateTime createdAt) {
+
+        static CachedPost of(PostRow row) {
+            return new CachedPost(row.getId(), row.getUserId(), row.getContent(), row.getImageUrl(),
+                    row.getLikesCount() == null ? 0 : row.getLikesCount(),
+                    row.getCommentsCount() == null ? 0 : row.getCommentsCount(),
+                    row.getCreatedAt());
+        }
+
+        CachedPost withLikesDelta(int delta) {
+            return new CachedPost(id, userId, content, imageUrl,
+                    Math.max(0, likesCount + delta), commentsCount, createdAt);
+        }
+
+        CachedPost withCommentsDelta(int delta) {
+            return new CachedPost(id, userId, content, imageUrl,
+                    likesCount, Math.max(0, commentsCount + delta), createdAt);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.CommentRepository;
+import com.baseer.social.repository.LikeRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.ReplyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background removal of soft-deleted posts.
+ * Children are deleted with native statements of at most batch-size rows, each in its own
+ * short transaction, so deleting a post with 100k likes never loads them into memory and
+ * never holds locks for longer than one chunk. The post row goes last; if a late insert
+ * still references it, the post stays soft-deleted and is retried on the next run.
+ *
+ * Metrics: social.reaper.pending.posts (gauge), social.reaper.deleted.rows{table},
+ * social.reaper.posts.reaped and social.reaper.run (timer).
+ */
+@Slf4j
+@Component
+public class PostReaper {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ReplyRepository replyRepository;
+    private final LikeRepository likeRepository;
+    private final int batchSize;
+    private final int postsPerRun;
+
+    private final AtomicLong pendingPosts = new AtomicLong();
+    private final Counter reapedPosts;
+    private final Counter deletedReplies;
+    private final Counter deletedComments;
+    private final Counter deletedLikes;
+    private final Timer runTimer;
+
+    public PostReaper(PostRepository postRepository,
+                      CommentRepository commentRepository,
+                      ReplyRepository replyRepository,
+                      LikeRepository likeRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${social.reaper.batch-size:1000}") int batchSize,
+                      @Value("${social.reaper.posts-per-run:100}") int postsPerRun) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.replyRepository = replyRepository;
+        this.likeRepository = likeRepository;
+        this.batchSize = batchSize;
+        this.postsPerRun = postsPerRun;
+
+        Gauge.builder("social.reaper.pending.posts", pendingPosts, AtomicLong::get)
+                .description("Soft-deleted posts waiting to be reaped")
+                .register(meterRegistry);
+        this.reapedPosts = meterRegistry.counter("social.reaper.posts.reaped");
+        this.deletedReplies = meterRegistry.counter("social.reaper.deleted.rows", "table", "replies");
+        this.deletedComments = meterRegistry.counter("social.reaper.deleted.rows", "table", "comments");
+        this.deletedLikes = meterRegistry.counter("social.reaper.deleted.rows", "table", "likes");
+        this.runTimer = meterRegistry.timer("social.reaper.run");
+    }
+
+    /**
+     * Reap up to posts-per-run soft-deleted posts, oldest deletion first
+     */
+    @Scheduled(fixedDelayString = "${social.reaper.interval-ms:5000}")
+    public void reap() {
+        pendingPosts.set(postRepository.countSoftDeleted());
+        if (pendingPosts.get() == 0) {
+            return;
+        }
+
+        runTimer.record(() -> {
+            for (Long postId : postRepository.findSoftDeletedIds(postsPerRun)) {
+                try {
+                    reapPost(postId);
+                } catch (DataAccessException e) {
+                    log.warn("Reaping post {} failed, will retry: {}", postId, e.getMessage());
+                }
+            }
+        });
+        pendingPosts.set(postRepository.countSoftDeleted());
+    }
+
+    /**
+     * Delete all rows of one soft-deleted post: replies and comments chunk by chunk
+     * of comment IDs, then likes, hashtags, mentions and views, then the post itself
+     */
+    void reapPost(Long postId) {
+        long replies = 0;
+        long comments = 0;
+        long likes = 0;
+        int deleted;
+
+        List<Long> commentIds;
+        while (!(commentIds = commentRepository.findIdChunkByPostId(postId, batchSize)).isEmpty()) {
+            do {
+                deleted = replyRepository.deleteChunkByCommentIdIn(commentIds, batchSize);
+                deletedReplies.increment(deleted);
+                replies += deleted;
+            } while (deleted == batchSize);
+
+            deleted = commentRepository.deleteByIdIn(commentIds);
+            deletedComments.increment(deleted);
+            comments += deleted;
+        }
+
+        do {
+            deleted = likeRepository.deleteChunkByPostId(postId, batchSize);
+            deletedLikes.increment(deleted);
+            likes += deleted;
+        } while (deleted == batchSize);
+
+        // A handful of rows per post, usually already removed by PostTagIndexer
+        postRepository.deleteTagsByPostId(postId);
+        postRepository.deleteMentionsByPostId(postId);
+        postRepository.deleteViewsByPostId(postId);
+
+        if (postRepository.purgeSoftDeleted(postId) > 0) {
+            reapedPosts.increment();
+        }
+        log.info("Reaped post {}: {} replies, {} comments, {} likes", postId, replies, comments, likes);
+    }
+}
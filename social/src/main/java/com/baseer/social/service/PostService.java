@@ -1,20 +1,42 @@
 package com.baseer.social.service;
 
+import com.baseer.social.dto.CursorPage;
+import com.baseer.social.dto.PageCursor;
 import com.baseer.social.dto.PostRequest;
 import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.ScheduledPostRequest;
+import com.baseer.social.dto.ScheduledPostView;
 import com.baseer.social.entity.Post;
+import com.baseer.social.entity.ScheduledPost;
 import com.baseer.social.entity.User;
 import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.publishing.PostScheduledEvent;
 import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.ScheduledPostRepository;
+import com.baseer.social.repository.projection.PostRow;
+import com.baseer.social.search.PostTags;
+import com.baseer.social.search.SearchDocumentEvent;
+import com.baseer.social.trending.EngagementEvent;
+import com.baseer.social.views.ViewCountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Service for post operations.
  * Handles CRUD operations for posts.
@@ -23,8 +45,18 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class PostService {
 
+    public static final int MAX_TIMELINE_PAGE_SIZE = 50;
+    public static final int MAX_SCHEDULED_PER_USER = 100;
+    public static final Duration MAX_SCHEDULE_AHEAD = Duration.ofDays(365);
+
     private final PostRepository postRepository;
+    private final ScheduledPostRepository scheduledPostRepository;
     private final UserService userService;
+    private final AuthorCardCache authorCards;
+    private final PostCache postCache;
+    private final ViewCountService viewCounts;
+    private final MediaStore mediaStore;
+    private final ApplicationEventPublisher events;
 
     /**
      * Create a new post
@@ -37,7 +69,7 @@ public class PostService {
         Post post = Post.builder()
                 .user(currentUser)
                 .content(request.getContent())
-                .imageUrl(request.getImageUrl())
+                .imageUrl(imageUrlOf(request))
                 .likesCount(0)
                 .commentsCount(0)
                 .build();
@@ -46,9 +78,94 @@ public class PostService {
         postRepository.flush();
 
         System.out.println("✅ Post created with ID: " + savedPost.getId());
+        events.publishEvent(SearchDocumentEvent.upsert(SearchDocumentEvent.Kind.POST, savedPost.getId(), savedPost.getContent()));
+        events.publishEvent(EngagementEvent.of(EngagementEvent.Kind.POST, savedPost.getId()));
 
         // Convert entity to DTO before returning
-        return convertToDTO(savedPost);
+        return convertToDTO(savedPost, 0);
+    }
+
+    /**
+     * Schedule a post of the current user for publication at request.publishAt.
+     * ScheduledPostPublisher publishes it through publishScheduled when due
+     */
+    @Transactional
+    public ScheduledPostView schedulePost(ScheduledPostRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime publishAt = request.getPublishAt();
+        if (publishAt == null || !publishAt.isAfter(now)) {
+            throw new CustomException("Publication time must be in the future", HttpStatus.BAD_REQUEST);
+        }
+        if (publishAt.isAfter(now.plus(MAX_SCHEDULE_AHEAD))) {
+            throw new CustomException("Posts can be scheduled at most " + MAX_SCHEDULE_AHEAD.toDays() + " days ahead",
+                    HttpStatus.BAD_REQUEST);
+        }
+        Long userId = userService.getCurrentUserId();
+        if (scheduledPostRepository.countByUserId(userId) >= MAX_SCHEDULED_PER_USER) {
+            throw new CustomException("At most " + MAX_SCHEDULED_PER_USER + " scheduled posts", HttpStatus.BAD_REQUEST);
+        }
+
+        ScheduledPost scheduled = scheduledPostRepository.save(ScheduledPost.builder()
+                .userId(userId)
+                .content(request.getContent())
+                .imageUrl(imageUrlOf(request.getMediaKey(), request.getImageUrl()))
+                .publishAt(publishAt)
+                .createdAt(now)
+                .build());
+        events.publishEvent(new PostScheduledEvent(scheduled.getId(), publishAt));
+        return toView(scheduled);
+    }
+
+    /**
+     * Get the current user's scheduled posts, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<ScheduledPostView> getScheduledPosts() {
+        return scheduledPostRepository.findByUserId(userService.getCurrentUserId()).stream()
+                .map(PostService::toView)
+                .toList();
+    }
+
+    /**
+     * Cancel a scheduled post of the current user
+     */
+    public void cancelScheduledPost(Long scheduledPostId) {
+        if (scheduledPostRepository.deleteByIdAndUserId(scheduledPostId, userService.getCurrentUserId()) == 0) {
+            throw new CustomException("Scheduled post not found", HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Publish due scheduled posts in one transaction: each becomes a post with a new ID,
+     * with the same index and feed updates as createPost. Posts cancelled meanwhile are skipped
+     * @return number of posts published
+     */
+    @Transactional
+    public int publishScheduled(List<Long> scheduledPostIds) {
+        List<ScheduledPost> due = scheduledPostRepository.findForPublish(scheduledPostIds);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Post> posts = new ArrayList<>(due.size());
+        for (ScheduledPost scheduled : due) {
+            posts.add(Post.builder()
+                    .user(userService.getUserReference(scheduled.getUserId()))
+                    .content(scheduled.getContent())
+                    .imageUrl(scheduled.getImageUrl())
+                    .likesCount(0)
+                    .commentsCount(0)
+                    .build());
+        }
+        postRepository.saveAll(posts);
+        postRepository.flush();
+        scheduledPostRepository.deleteByIdIn(due.stream().map(ScheduledPost::getId).toList());
+
+        for (Post post : posts) {
+            events.publishEvent(SearchDocumentEvent.upsert(SearchDocumentEvent.Kind.POST, post.getId(), post.getContent()));
+            events.publishEvent(EngagementEvent.of(EngagementEvent.Kind.POST, post.getId()));
+        }
+        return posts.size();
     }
 
     /**
@@ -59,13 +176,9 @@ public class PostService {
         System.out.println("=== getAllPosts called ===");
         System.out.println("Page: " + pageable.getPageNumber() + ", Size: " + pageable.getPageSize());
 
-        // Fetch posts from database
-        Page<Post> posts = postRepository.findAll(
-                PageRequest.of(
-                        pageable.getPageNumber(),
-                        pageable.getPageSize(),
-                        Sort.by("createdAt").descending()
-                )
+        // Fetch post rows from database, authors come from the author card cache
+        Page<PostRow> posts = postRepository.findFeedRows(
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
         );
 
         System.out.println("Total posts in DB: " + posts.getTotalElements());
@@ -75,8 +188,8 @@ public class PostService {
             System.out.println("⚠️ WARNING: No posts returned!");
         }
 
-        // Convert Page<Post> to Page<PostResponse>
-        return posts.map(this::convertToDTO);
+        // Convert Page<PostRow> to Page<PostResponse>
+        return convertRows(posts);
     }
 
     /**
@@ -87,11 +200,91 @@ public class PostService {
                 .orElseThrow(() -> new CustomException("Post not found", HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Get a cached post snapshot, for existence and ownership checks
+     */
+    public PostCache.CachedPost getCachedPost(Long postId) {
+        PostCache.CachedPost post = postCache.get(postId);
+        if (post == null) {
+            throw new CustomException("Post not found", HttpStatus.NOT_FOUND);
+        }
+        return post;
+    }
+
+    /**
+     * Get a single post as a DTO, served from the post cache
+     */
+    public PostResponse getPostResponse(Long postId) {
+        PostCache.CachedPost post = getCachedPost(postId);
+        return PostResponse.builder()
+                .id(post.id())
+                .content(post.content())
+                .imageUrl(post.imageUrl())
+                .likesCount(post.likesCount())
+                .commentsCount(post.commentsCount())
+                .createdAt(post.createdAt())
+                .viewCount(viewCounts.getViewCount(postId))
+                .user(authorCards.get(post.userId()))
+                .build();
+    }
+
+    /**
+     * Get several posts as DTOs in the given order, leaving out missing and deleted ones.
+     * One query for the posts and one author lookup for all of them
+     */
+    @Transactional(readOnly = true)
+    public List<PostResponse> getPostResponses(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostRow> rows = postRepository.findRowsByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostRow::getId, Function.identity()));
+        Map<Long, PostResponse.UserDTO> authors = rows.isEmpty()
+                ? Map.of()
+                : authorCards.getAll(rows.values().stream().map(PostRow::getUserId).toList());
+        Map<Long, Long> views = rows.isEmpty() ? Map.of() : viewCounts.getViewCounts(rows.keySet());
+        return postIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(row -> toResponse(row, authors, views))
+                .toList();
+    }
+
+    /**
+     * Get an ID-only reference to an existing post, for write paths that
+     * only need the foreign key. The existence check is served from the post cache.
+     */
+    public Post getPostReference(Long postId) {
+        getCachedPost(postId);
+        return postRepository.getReferenceById(postId);
+    }
+
     /**
      * Get posts by user
      */
-    public Page<Post> getUserPosts(Long userId, Pageable pageable) {
-        return postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    public Page<PostResponse> getUserPosts(Long userId, Pageable pageable) {
+        return convertRows(postRepository.findRowsByUserId(userId, pageable));
+    }
+
+    /**
+     * Get one cursor page of the posts carrying a hashtag, newest first
+     * @param tag the hashtag, with or without its '#'
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getTagTimeline(String tag, String cursor, int size) {
+        String normalized = PostTags.normalizeTag(tag);
+        if (normalized == null) {
+            throw new CustomException("Invalid hashtag", HttpStatus.BAD_REQUEST);
+        }
+        return timelinePage(cursor, size, (beforeId, limit) -> postRepository.findIdsByTag(normalized, beforeId, limit));
+    }
+
+    /**
+     * Get one cursor page of the posts mentioning a user, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getMentionTimeline(Long userId, String cursor, int size) {
+        return timelinePage(cursor, size, (beforeId, limit) -> postRepository.findIdsMentioning(userId, beforeId, limit));
     }
 
     /**
@@ -100,55 +293,36 @@ public class PostService {
      */
     @Transactional
     public PostResponse updatePost(Long postId, PostRequest request) {
-        Post post = getPostById(postId);
-        User currentUser = userService.getCurrentUser();
-
-        if (!post.getUser().getId().equals(currentUser.getId())) {
+        if (!getCachedPost(postId).userId().equals(userService.getCurrentUserId())) {
             throw new CustomException("Unauthorized to update this post", HttpStatus.FORBIDDEN);
         }
 
+        Post post = getPostById(postId);
         post.setContent(request.getContent());
-        post.setImageUrl(request.getImageUrl());
+        post.setImageUrl(imageUrlOf(request));
 
         Post updatedPost = postRepository.save(post);
+        postCache.invalidate(postId);
+        events.publishEvent(SearchDocumentEvent.upsert(SearchDocumentEvent.Kind.POST, postId, updatedPost.getContent()));
 
         // Convert to DTO before returning
-        return convertToDTO(updatedPost);
+        return convertToDTO(updatedPost, viewCounts.getViewCount(postId));
     }
 
     /**
-     * Delete post
+     * Delete post.
+     * The post is hidden immediately; PostReaper removes it with its comments,
+     * replies and likes in bounded batches outside the request.
      */
     @Transactional
     public void deletePost(Long postId) {
-        Post post = getPostById(postId);
-        User currentUser = userService.getCurrentUser();
-
-        if (!post.getUser().getId().equals(currentUser.getId())) {
+        if (!getCachedPost(postId).userId().equals(userService.getCurrentUserId())) {
             throw new CustomException("Unauthorized to delete this post", HttpStatus.FORBIDDEN);
         }
 
-        postRepository.delete(post);
-    }
-
-    /**
-     * Increment likes count
-     */
-    @Transactional
-    public void incrementLikesCount(Long postId) {
-        Post post = getPostById(postId);
-        post.setLikesCount(post.getLikesCount() + 1);
-        postRepository.save(post);
-    }
-
-    /**
-     * Decrement likes count
-     */
-    @Transactional
-    public void decrementLikesCount(Long postId) {
-        Post post = getPostById(postId);
-        post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-        postRepository.save(post);
+        postRepository.softDelete(postId, LocalDateTime.now());
+        postCache.invalidate(postId);
+        events.publishEvent(SearchDocumentEvent.delete(SearchDocumentEvent.Kind.POST, postId));
     }
 
     /**
@@ -156,29 +330,30 @@ public class PostService {
      */
     @Transactional
     public void incrementCommentsCount(Long postId) {
-        Post post = getPostById(postId);
-        post.setCommentsCount(post.getCommentsCount() + 1);
-        postRepository.save(post);
+        postRepository.adjustCommentsCount(postId, 1);
+        postCache.adjustCommentsCount(postId, 1);
     }
 
     // ========================================
     // ⭐ NEW METHOD: Convert Post Entity to PostResponse DTO
     // ========================================
 
+    /**
+     * Image of a post request: an uploaded media object if given, else the external URL
+     */
+    private String imageUrlOf(PostRequest request) {
+        return imageUrlOf(request.getMediaKey(), request.getImageUrl());
+    }
+
+    private String imageUrlOf(String mediaKey, String imageUrl) {
+        return mediaKey != null ? mediaStore.urlOf(mediaKey) : imageUrl;
+    }
+
     /**
      * Convert Post entity to PostResponse DTO
      * This method extracts only the safe fields we want to send to frontend
      */
-    private PostResponse convertToDTO(Post post) {
-        // First, build the UserDTO (nested object)
-        PostResponse.UserDTO userDTO = PostResponse.UserDTO.builder()
-                .id(post.getUser().getId())
-                .username(post.getUser().getUsername())
-                .fullName(post.getUser().getFullName())
-                .profilePicture(post.getUser().getProfilePicture())
-                .build();
-
-        // Then, build the PostResponse with the UserDTO inside
+    private PostResponse convertToDTO(Post post, long viewCount) {
         return PostResponse.builder()
                 .id(post.getId())
                 .content(post.getContent())
@@ -186,7 +361,57 @@ public class PostService {
                 .likesCount(post.getLikesCount())
                 .commentsCount(post.getCommentsCount())
                 .createdAt(post.getCreatedAt())
-                .user(userDTO)
+                .viewCount(viewCount)
+                .user(authorCards.put(post.getUser()))
+                .build();
+    }
+
+    /**
+     * Convert a page of post rows to PostResponse DTOs,
+     * resolving all authors and view counts of the page with one cache lookup each
+     */
+    private Page<PostResponse> convertRows(Page<PostRow> rows) {
+        Map<Long, PostResponse.UserDTO> authors = rows.isEmpty()
+                ? Map.of()
+                : authorCards.getAll(rows.map(PostRow::getUserId).getContent());
+        Map<Long, Long> views = rows.isEmpty()
+                ? Map.of()
+                : viewCounts.getViewCounts(rows.map(PostRow::getId).getContent());
+
+        return rows.map(row -> toResponse(row, authors, views));
+    }
+
+    /**
+     * One page of a timeline index. Deleted posts still in the index are left out of the
+     * page, so a page can be short while more follow
+     */
+    private CursorPage<PostResponse> timelinePage(String cursor, int size, BiFunction<Long, Integer, List<Long>> ids) {
+        int pageSize = Math.max(1, Math.min(MAX_TIMELINE_PAGE_SIZE, size));
+        long beforeId = PageCursor.idBelow(cursor);
+
+        return CursorPage.fetch(pageSize, limit -> ids.apply(beforeId, limit), PageCursor::encode, this::getPostResponses);
+    }
+
+    private static ScheduledPostView toView(ScheduledPost scheduled) {
+        return ScheduledPostView.builder()
+                .id(scheduled.getId())
+                .content(scheduled.getContent())
+                .imageUrl(scheduled.getImageUrl())
+                .publishAt(scheduled.getPublishAt())
+                .createdAt(scheduled.getCreatedAt())
+                .build();
+    }
+
+    private static PostResponse toResponse(PostRow row, Map<Long, PostResponse.UserDTO> authors, Map<Long, Long> views) {
+        return PostResponse.builder()
+                .id(row.getId())
+                .content(row.getContent())
+                .imageUrl(row.getImageUrl())
+                .likesCount(row.getLikesCount())
+                .commentsCount(row.getCommentsCount())
+                .createdAt(row.getCreatedAt())
+                .viewCount(views.get(row.getId()))
+                .user(AuthorCardCache.cardOf(authors, row.getUserId()))
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.baseer.social.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces resized variants of uploaded images off the request thread.
+ * Work runs on a fixed pool with a bounded queue: when the queue is full the upload is
+ * not delayed, its variants are skipped and counted (social.media.thumbnails.rejected).
+ * Images larger than max-pixels are never decoded, so one upload cannot exhaust the heap.
+ * Variants are JPEG for JPEG sources and PNG otherwise; formats ImageIO cannot read
+ * (WebP) keep only the original.
+ */
+@Slf4j
+@Component
+public class ThumbnailGenerator {
+
+    private final MediaStore mediaStore;
+    private final List<Integer> widths;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer timer;
+
+    public ThumbnailGenerator(MediaStore mediaStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${social.media.thumbnail-widths:320,960}") List<Integer> widths,
+                              @Value("${social.media.thumbnail-threads:2}") int threads,
+                              @Value("${social.media.thumbnail-queue:200}") int queueSize,
+                              @Value("${social.media.max-pixels:40000000}") long maxPixels) {
+        this.mediaStore = mediaStore;
+        this.widths = widths;
+        this.maxPixels = maxPixels;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = meterRegistry.counter("social.media.thumbnails.rejected");
+        this.failed = meterRegistry.counter("social.media.thumbnails.failed");
+        this.timer = meterRegistry.timer("social.media.thumbnails");
+        meterRegistry.gauge("social.media.thumbnails.queued", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Queue variant generation for a stored image
+     * @return false if the queue is full and the variants were skipped
+     */
+    public boolean submit(String key) {
+        try {
+            executor.execute(() -> timer.record(() -> generate(key)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Thumbnail queue full, skipping variants of {}", key);
+            return false;
+        }
+    }
+
+    private void generate(String key) {
+        String extension = key.endsWith(".jpg") ? "jpg" : "png";
+        try {
+            BufferedImage source = read(mediaStore.pathOf(key));
+            if (source == null) {
+                return;
+            }
+            for (int width : widths) {
+                if (width >= source.getWidth()) {
+                    continue;
+                }
+                Path target = mediaStore.pathOf(MediaStore.variantKey(key, width, extension));
+                if (Files.exists(target)) {
+                    continue;
+                }
+                write(resize(source, width, extension.equals("jpg")), extension, target);
+            }
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Could not create variants of {}: {}", key, e.toString());
+        }
+    }
+
+    /**
+     * Decode the image, or return null if no reader supports it or it is too large
+     */
+    private BufferedImage read(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Dimensions come from the header, before any pixel is decoded
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    log.info("Skipping variants of {}: {}x{} exceeds max-pixels",
+                            path.getFileName(), reader.getWidth(0), reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String extension, Path target) throws IOException {
+        Path temp = mediaStore.createTempFile();
+        try {
+            if (!ImageIO.write(image, extension.equals("jpg") ? "jpeg" : "png", temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + extension);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
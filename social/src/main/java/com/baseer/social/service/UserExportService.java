@@ -0,0 +1,119 @@
+package com.baseer.social.service;
+
+import com.baseer.social.dto.ExportLine;
+import com.baseer.social.dto.UserProfileView;
+import com.baseer.social.exceptionHandling.CustomException;
+import com.baseer.social.repository.CommentRepository;
+import com.baseer.social.repository.LikeRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.ReplyRepository;
+import com.baseer.social.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's data export as NDJSON, one {"type":...,"data":...} object per line.
+ * Every table is read with a forward-only Stream of projections, so neither the JDBC
+ * driver nor the persistence context holds more than the current row, and output is
+ * flushed every FLUSH_EVERY lines. Memory stays flat regardless of history size.
+ */
+@Service
+public class UserExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ReplyRepository replyRepository;
+    private final LikeRepository likeRepository;
+    private final ObjectWriter lineWriter;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(UserRepository userRepository,
+                             PostRepository postRepository,
+                             CommentRepository commentRepository,
+                             ReplyRepository replyRepository,
+                             LikeRepository likeRepository,
+                             ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.replyRepository = replyRepository;
+        this.likeRepository = likeRepository;
+        this.objectMapper = objectMapper;
+        // Flushing is done in batches below, not after every line
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write the profile, posts, comments, replies and likes of a user to the stream.
+     * The stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void writeExport(Long userId, OutputStream out) throws IOException {
+        UserProfileView profile = userRepository.findProfileById(userId)
+                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated by the explicit newline, not Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+            LineSink sink = new LineSink(generator);
+
+            sink.write(new ExportLine("profile", profile));
+            try (Stream<?> posts = postRepository.streamRowsByUserId(userId)) {
+                sink.writeAll("post", posts);
+            }
+            try (Stream<?> comments = commentRepository.streamRowsByUserId(userId)) {
+                sink.writeAll("comment", comments);
+            }
+            try (Stream<?> replies = replyRepository.streamRowsByUserId(userId)) {
+                sink.writeAll("reply", replies);
+            }
+            try (Stream<?> likes = likeRepository.streamRowsByUserId(userId)) {
+                sink.writeAll("like", likes);
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * Writes lines to the generator and flushes every FLUSH_EVERY lines
+     */
+    private final class LineSink {
+
+        private final JsonGenerator generator;
+        private int unflushed;
+
+        private LineSink(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        void writeAll(String type, Stream<?> rows) throws IOException {
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                write(new ExportLine(type, iterator.next()));
+            }
+        }
+
+        void write(ExportLine line) throws IOException {
+            lineWriter.writeValue(generator, line);
+            generator.writeRaw('\n');
+            if (++unflushed >= FLUSH_EVERY) {
+                generator.flush();
+                unflushed = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache of username to user ID.
+ * Lets write paths turn the authenticated principal into an ID-only User reference
+ * without loading the user row on every request. Usernames cannot change, but an
+ * erased account frees its name for someone else: its entry is dropped now and again after
+ * commit, and expire-after-write bounds how long other instances keep serving it.
+ */
+@Component
+public class UserIdCache {
+
+    private final LoadingCache<String, Long> cache;
+
+    public UserIdCache(UserRepository userRepository,
+                       @Value("${social.cache.user-ids.max-size:100000}") long maxSize,
+                       @Value("${social.cache.user-ids.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build(username -> userRepository.findIdByUsername(username).orElse(null));
+    }
+
+    /**
+     * @return the user ID, or null if no such user exists
+     */
+    public Long get(String username) {
+        return cache.get(username);
+    }
+
+    /**
+     * Drop a username now and once the current transaction commits, so a lookup
+     * made before the commit cannot leave the old ID cached
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+        PostCache.afterCommit(() -> cache.invalidate(username));
+    }
+}
@@ -1,13 +1,19 @@
 package com.baseer.social.service;
 
+import com.baseer.social.dto.UpdateProfileRequest;
+import com.baseer.social.dto.UserProfileView;
 import com.baseer.social.entity.User;
 import com.baseer.social.exceptionHandling.CustomException;
 import com.baseer.social.repository.UserRepository;
+import com.baseer.social.search.UserDirectoryEvent;
+import com.baseer.social.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for user operations.
@@ -18,16 +24,56 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final AuthorCardCache authorCards;
+    private final UserIdCache userIdCache;
+    private final MediaStore mediaStore;
+    private final ApplicationEventPublisher events;
 
     /**
      * Get current authenticated user
      */
     public User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
+                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Get the current authenticated username, no database access
+     */
+    public String getCurrentUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    /**
+     * Get the current authenticated user's ID from the principal the token was checked against;
+     * the username cache only serves authentications without one
+     */
+    public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
+        Long userId = AuthenticatedUser.idOf(authentication);
+        if (userId == null) {
+            userId = userIdCache.get(authentication.getName());
+        }
+        if (userId == null) {
+            throw new CustomException("User not found", HttpStatus.NOT_FOUND);
+        }
+        return userId;
+    }
 
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+    /**
+     * Get an ID-only reference to the current user, for write paths that
+     * only need the foreign key. Does not issue a SELECT.
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    /**
+     * Get an ID-only reference to a user, for write paths that
+     * only need the foreign key. Does not issue a SELECT.
+     */
+    public User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
     }
 
     /**
@@ -45,4 +91,55 @@ public class UserService {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the current user's profile view
+     */
+    public UserProfileView getCurrentUserProfile() {
+        return getUserProfileByUsername(getCurrentUsername());
+    }
+
+    /**
+     * Get a user profile view by ID
+     */
+    public UserProfileView getUserProfile(Long userId) {
+        return userRepository.findProfileById(userId)
+                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Get a user profile view by username
+     */
+    public UserProfileView getUserProfileByUsername(String username) {
+        return userRepository.findProfileByUsername(username)
+                .orElseThrow(() -> new CustomException("User not found", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Update the current user's profile
+     */
+    @Transactional
+    public UserProfileView updateCurrentUser(UpdateProfileRequest request) {
+        User user = getCurrentUser();
+        user.setFullName(request.getFullName());
+        user.setBio(request.getBio());
+        user.setProfilePicture(request.getProfilePictureKey() != null
+                ? mediaStore.urlOf(request.getProfilePictureKey())
+                : request.getProfilePicture());
+        userRepository.save(user);
+
+        // Cached author cards carry fullName and profilePicture
+        authorCards.invalidate(user.getId());
+        events.publishEvent(UserDirectoryEvent.upsert(user.getId(), user.getUsername(), user.getFullName()));
+
+        return UserProfileView.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .bio(user.getBio())
+                .profilePicture(user.getProfilePicture())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.baseer.social.trending;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch over 64-bit key hashes: depth rows of width counters, width a power of two.
+ * Estimates never undercount; with total weight N they overcount by at most about
+ * 2N/width with probability 1 - 2^-depth. Row positions come from two halves of one mixed
+ * hash (Kirsch-Mitzenmacher), so an update is depth array writes and no allocation.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counts;
+
+    CountMinSketch(int depth, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counts = new int[depth * width];
+    }
+
+    void add(long hash, int weight) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counts[row * (mask + 1) + ((h1 + row * h2) & mask)] += weight;
+        }
+    }
+
+    int estimate(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * (mask + 1) + ((h1 + row * h2) & mask)]);
+        }
+        return min;
+    }
+
+    /**
+     * Add (sign 1) or subtract (sign -1) another sketch of the same shape, cell by cell
+     */
+    void merge(CountMinSketch other, int sign) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += sign * other.counts[i];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    /** Finalizer of SplitMix64, so sequential IDs spread over all cells */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
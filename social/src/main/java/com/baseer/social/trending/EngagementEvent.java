@@ -0,0 +1,28 @@
+package com.baseer.social.trending;
+
+/**
+ * A post was created, liked or commented on; published by the services that write them.
+ * TrendingService counts it once the publishing transaction commits.
+ */
+public record EngagementEvent(Kind kind, long postId) {
+
+    /**
+     * What happened, with its weight towards the post's own score and towards its hashtags.
+     * A new post has no engagement yet, so it only counts for its hashtags
+     */
+    public enum Kind {
+        POST(0, 1), LIKE(1, 1), COMMENT(2, 2);
+
+        final int postWeight;
+        final int tagWeight;
+
+        Kind(int postWeight, int tagWeight) {
+            this.postWeight = postWeight;
+            this.tagWeight = tagWeight;
+        }
+    }
+
+    public static EngagementEvent of(Kind kind, long postId) {
+        return new EngagementEvent(kind, postId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.baseer.social.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Approximate top-K by weight over a sliding time window, in fixed memory.
+ *
+ * The window is split into buckets of equal length. Each bucket has a count-min sketch and
+ * a space-saving summary; a running total sketch holds the sum of the bucket sketches, so
+ * when the oldest bucket expires its sketch is subtracted from the total and reused for
+ * the next one. The union of the buckets' space-saving keys is the candidate set, and
+ * candidates are ranked by their windowed count-min estimate. The window therefore covers
+ * the last buckets - 1 full buckets plus the current one.
+ *
+ * Not thread-safe; TrendingService touches it from one thread.
+ */
+final class SlidingTopK<K> {
+
+    private final long bucketMillis;
+    private final ToLongFunction<K> hasher;
+    private final CountMinSketch[] sketches;
+    private final List<SpaceSaving<K>> hitters = new ArrayList<>();
+    private final CountMinSketch total;
+    private long currentBucket = -1;
+
+    /**
+     * @param hasher 64-bit hash of a key for the sketches
+     */
+    SlidingTopK(long windowMillis, int buckets, int depth, int width, int capacity, ToLongFunction<K> hasher) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.hasher = hasher;
+        this.sketches = new CountMinSketch[buckets];
+        for (int i = 0; i < buckets; i++) {
+            sketches[i] = new CountMinSketch(depth, width);
+            hitters.add(new SpaceSaving<>(capacity));
+        }
+        this.total = new CountMinSketch(depth, width);
+    }
+
+    void add(K key, int weight, long nowMillis) {
+        advance(nowMillis);
+        int bucket = (int) (currentBucket % sketches.length);
+        long hash = hasher.applyAsLong(key);
+        sketches[bucket].add(hash, weight);
+        total.add(hash, weight);
+        hitters.get(bucket).offer(key, weight);
+    }
+
+    /**
+     * Windowed weight estimate of a key, never below the true weight
+     */
+    int estimate(K key, long nowMillis) {
+        advance(nowMillis);
+        return total.estimate(hasher.applyAsLong(key));
+    }
+
+    /**
+     * Heaviest keys of the window, heaviest first
+     */
+    List<Counted<K>> top(int limit, long nowMillis) {
+        advance(nowMillis);
+        Set<K> candidates = new HashSet<>();
+        for (SpaceSaving<K> bucket : hitters) {
+            bucket.forEachKey(candidates::add);
+        }
+        List<Counted<K>> counted = new ArrayList<>(candidates.size());
+        for (K key : candidates) {
+            counted.add(new Counted<>(key, total.estimate(hasher.applyAsLong(key))));
+        }
+        counted.sort(Comparator.comparingInt((Counted<K> c) -> c.count()).reversed());
+        return counted.subList(0, Math.min(limit, counted.size()));
+    }
+
+    /**
+     * Expire the buckets that fell out of the window since the last call
+     */
+    private void advance(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        if (currentBucket < 0) {
+            currentBucket = bucket;
+            return;
+        }
+        long expired = Math.min(bucket - currentBucket, sketches.length);
+        for (long i = 1; i <= expired; i++) {
+            int slot = (int) ((currentBucket + i) % sketches.length);
+            total.merge(sketches[slot], -1);
+            sketches[slot].clear();
+            hitters.get(slot).clear();
+        }
+        currentBucket = Math.max(currentBucket, bucket);
+    }
+
+    record Counted<K>(K key, int count) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.baseer.social.trending;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Space-saving heavy hitters (Metwally et al.) with a fixed number of counters.
+ * A new key takes over the counter of the current minimum and inherits its count, so any
+ * key whose weight exceeds total/capacity is guaranteed to hold a counter. Counters sit
+ * in a min-heap, making every offer O(log capacity).
+ */
+final class SpaceSaving<K> {
+
+    private final Object[] keys;
+    private final long[] counts;
+    /** Heap of counter slots, smallest count first */
+    private final int[] heap;
+    /** Heap position of each slot */
+    private final int[] position;
+    private final Map<K, Integer> slots;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        heap = new int[capacity];
+        position = new int[capacity];
+        slots = new HashMap<>(capacity * 2);
+    }
+
+    void offer(K key, long weight) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(position[slot]);
+            return;
+        }
+        if (size < keys.length) {
+            slot = size;
+            keys[slot] = key;
+            counts[slot] = weight;
+            heap[size] = slot;
+            position[slot] = size;
+            size++;
+            siftUp(size - 1);
+        } else {
+            slot = heap[0];
+            slots.remove(keyAt(slot));
+            keys[slot] = key;
+            counts[slot] += weight;
+            siftDown(0);
+        }
+        slots.put(key, slot);
+    }
+
+    /**
+     * Upper bound of a key's weight, 0 if it holds no counter
+     */
+    long count(K key) {
+        Integer slot = slots.get(key);
+        return slot == null ? 0 : counts[slot];
+    }
+
+    void forEachKey(Consumer<K> action) {
+        for (int slot = 0; slot < size; slot++) {
+            action.accept(keyAt(slot));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        slots.clear();
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int slot) {
+        return (K) keys[slot];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[i]]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                smallest = left;
+            }
+            if (left + 1 < size && counts[heap[left + 1]] < counts[heap[smallest]]) {
+                smallest = left + 1;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+        position[heap[i]] = i;
+        position[heap[j]] = j;
+    }
+}
@@ -0,0 +1,152 @@
+package com.baseer.social.trending;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.dto.TrendingResponse;
+import com.baseer.social.search.PostTags;
+import com.baseer.social.service.PostCache;
+import com.baseer.social.service.PostService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Trending hashtags and posts over a sliding window, from a stream of EngagementEvents.
+ *
+ * Committed events go into a bounded queue and request threads do nothing else; when the
+ * queue is full events are dropped and counted rather than held. Every refresh-interval-ms
+ * the queue is drained, events are summed per post, each touched post's hashtags are read
+ * from the PostCache, and the sums feed two SlidingTopK structures (count-min sketches plus
+ * space-saving summaries). Their top entries are hydrated into a TrendingResponse that the
+ * endpoint serves as is until the next refresh.
+ *
+ * Memory is fixed by configuration: 2 x (buckets + 1) sketches of sketch-depth x sketch-width
+ * counters, 2 x buckets summaries of heavy-hitters keys and queue-capacity queued events.
+ * Unlikes and deletions are not subtracted; deleted posts are left out when hydrating.
+ *
+ * Metrics: social.trending.queued, social.trending.dropped, social.trending.refresh (timer).
+ */
+@Service
+public class TrendingService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final PostCache postCache;
+    private final PostService postService;
+    private final BlockingQueue<EngagementEvent> queue;
+    private final SlidingTopK<Long> posts;
+    private final SlidingTopK<String> tags;
+
+    private volatile TrendingResponse snapshot = new TrendingResponse(List.of(), List.of(), null);
+
+    private final Counter dropped;
+    private final Timer refreshTimer;
+
+    public TrendingService(PostCache postCache,
+                           PostService postService,
+                           MeterRegistry meterRegistry,
+                           @Value("${social.trending.window-ms:3600000}") long windowMillis,
+                           @Value("${social.trending.buckets:12}") int buckets,
+                           @Value("${social.trending.sketch-depth:4}") int sketchDepth,
+                           @Value("${social.trending.sketch-width:16384}") int sketchWidth,
+                           @Value("${social.trending.heavy-hitters:256}") int heavyHitters,
+                           @Value("${social.trending.queue-capacity:100000}") int queueCapacity) {
+        this.postCache = postCache;
+        this.postService = postService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.posts = new SlidingTopK<>(windowMillis, buckets, sketchDepth, sketchWidth, heavyHitters, Long::longValue);
+        this.tags = new SlidingTopK<>(windowMillis, buckets, sketchDepth, sketchWidth, heavyHitters, TrendingService::hash);
+
+        meterRegistry.gauge("social.trending.queued", queue, BlockingQueue::size);
+        this.dropped = meterRegistry.counter("social.trending.dropped");
+        this.refreshTimer = meterRegistry.timer("social.trending.refresh");
+    }
+
+    /**
+     * Queue an engagement once its transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Trending hashtags and posts as of the last refresh
+     * @param limit entries of each list, at most MAX_LIMIT
+     */
+    public TrendingResponse getTrending(int limit) {
+        int size = Math.max(1, Math.min(MAX_LIMIT, limit));
+        TrendingResponse current = snapshot;
+        return new TrendingResponse(
+                current.getTags().subList(0, Math.min(size, current.getTags().size())),
+                current.getPosts().subList(0, Math.min(size, current.getPosts().size())),
+                current.getComputedAt());
+    }
+
+    /**
+     * Count the queued events and recompute the trending lists
+     */
+    @Scheduled(fixedDelayString = "${social.trending.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        refreshTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            drain(now);
+
+            List<TrendingResponse.TagScore> topTags = new ArrayList<>();
+            for (SlidingTopK.Counted<String> tag : tags.top(MAX_LIMIT, now)) {
+                topTags.add(new TrendingResponse.TagScore(tag.key(), tag.count()));
+            }
+            // Over-fetch: some of the top posts may have been deleted since
+            List<Long> topPostIds = posts.top(2 * MAX_LIMIT, now).stream().map(SlidingTopK.Counted::key).toList();
+            List<PostResponse> topPosts = postService.getPostResponses(topPostIds);
+            snapshot = new TrendingResponse(topTags, topPosts.subList(0, Math.min(MAX_LIMIT, topPosts.size())),
+                    LocalDateTime.now());
+        });
+    }
+
+    private void drain(long now) {
+        List<EngagementEvent> events = new ArrayList<>(queue.size());
+        queue.drainTo(events);
+
+        // Sum per post first, so a post liked a thousand times is looked up and parsed once
+        Map<Long, int[]> weights = new HashMap<>();
+        for (EngagementEvent event : events) {
+            int[] sum = weights.computeIfAbsent(event.postId(), id -> new int[2]);
+            sum[0] += event.kind().postWeight;
+            sum[1] += event.kind().tagWeight;
+        }
+        weights.forEach((postId, sum) -> {
+            if (sum[0] > 0) {
+                posts.add(postId, sum[0], now);
+            }
+            PostCache.CachedPost post = postCache.get(postId);
+            if (post != null) {
+                for (String tag : PostTags.of(post.content()).hashtags()) {
+                    tags.add(tag, sum[1], now);
+                }
+            }
+        });
+    }
+
+    /** 64-bit FNV-1a of a tag; the sketch mixes it further */
+    private static long hash(String tag) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tag.length(); i++) {
+            hash = (hash ^ tag.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,284 @@
+package com.baseer.social.views;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch of distinct 64-bit values (Flajolet et al.) with 2^precision registers.
+ * The relative standard error of estimate() is about 1.04 / sqrt(2^precision): 1.6% at 12.
+ *
+ * A sketch starts sparse, as a sorted array of (register, rank) pairs, and turns into a
+ * dense byte per register once that would be smaller; most posts are seen by few users, so
+ * most sketches stay a few dozen bytes. toBytes() writes the sparse form as 3 bytes per pair
+ * or the dense form as 6 bits per register, whichever the sketch is in; both are at most
+ * 3/4 of a byte per register.
+ *
+ * Sketches merge by taking the larger rank of each register; a sketch of higher precision
+ * is folded down first, so sketches written with an older precision setting stay usable.
+ * Not thread-safe.
+ */
+final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 16;
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    private final int precision;
+    /** Sorted (register << 8 | rank) pairs while sparse */
+    private int[] sparse;
+    private int sparseSize;
+    /** One rank per register once dense, null while sparse */
+    private byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                    + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.sparse = new int[4];
+    }
+
+    int precision() {
+        return precision;
+    }
+
+    /**
+     * Add a value, e.g. a viewer's user ID
+     */
+    void add(long value) {
+        long hash = mix(value);
+        int register = (int) (hash >>> (64 - precision));
+        // The marker bit bounds the rank at 64 - precision + 1, which fits 6 bits
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(register, rank);
+    }
+
+    /**
+     * Add every value counted by another sketch. If the other sketch has a lower precision
+     * this one cannot absorb it; use union() instead
+     */
+    void merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            throw new IllegalArgumentException("Cannot merge a sketch of precision " + other.precision
+                    + " into one of precision " + precision);
+        }
+        HyperLogLog source = other.precision == precision ? other : other.fold(precision);
+        if (source.registers != null) {
+            for (int register = 0; register < source.registers.length; register++) {
+                if (source.registers[register] != 0) {
+                    set(register, source.registers[register]);
+                }
+            }
+        } else {
+            for (int i = 0; i < source.sparseSize; i++) {
+                set(source.sparse[i] >>> 8, source.sparse[i] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Union of two sketches at the lower of their precisions; may return either argument, changed
+     */
+    static HyperLogLog union(HyperLogLog a, HyperLogLog b) {
+        HyperLogLog target = a.precision <= b.precision ? a : b;
+        target.merge(target == a ? b : a);
+        return target;
+    }
+
+    /**
+     * Estimated number of distinct values added
+     */
+    long estimate() {
+        int m = 1 << precision;
+        int zeros;
+        double sum;
+        if (registers != null) {
+            zeros = 0;
+            sum = 0;
+            for (byte rank : registers) {
+                if (rank == 0) {
+                    zeros++;
+                }
+                sum += Math.scalb(1.0, -rank);
+            }
+        } else {
+            zeros = m - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.scalb(1.0, -(sparse[i] & 0xFF));
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    boolean isEmpty() {
+        return registers == null && sparseSize == 0;
+    }
+
+    /**
+     * Compact binary form: format, precision, then the sparse pairs or the packed registers
+     */
+    byte[] toBytes() {
+        if (registers == null) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + 3 * sparseSize);
+            buffer.put(FORMAT_SPARSE).put((byte) precision);
+            for (int i = 0; i < sparseSize; i++) {
+                buffer.putShort((short) (sparse[i] >>> 8)).put((byte) sparse[i]);
+            }
+            return buffer.array();
+        }
+        byte[] bytes = new byte[2 + registers.length * 6 / 8];
+        bytes[0] = FORMAT_DENSE;
+        bytes[1] = (byte) precision;
+        // Four 6-bit registers per three bytes; the register count is a multiple of four
+        for (int register = 0, at = 2; register < registers.length; register += 4, at += 3) {
+            int packed = registers[register] << 18 | registers[register + 1] << 12
+                    | registers[register + 2] << 6 | registers[register + 3];
+            bytes[at] = (byte) (packed >>> 16);
+            bytes[at + 1] = (byte) (packed >>> 8);
+            bytes[at + 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 2) {
+            throw new IllegalArgumentException("Truncated HyperLogLog sketch");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        int m = 1 << sketch.precision;
+        if (bytes[0] == FORMAT_SPARSE && (bytes.length - 2) % 3 == 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            while (buffer.hasRemaining()) {
+                int register = Short.toUnsignedInt(buffer.getShort());
+                int rank = buffer.get();
+                if (register >= m || rank < 1 || rank > 64 - sketch.precision + 1) {
+                    throw new IllegalArgumentException("HyperLogLog pair out of range: " + register + "/" + rank);
+                }
+                sketch.set(register, rank);
+            }
+            return sketch;
+        }
+        if (bytes[0] == FORMAT_DENSE && bytes.length == 2 + m * 6 / 8) {
+            sketch.registers = new byte[m];
+            for (int register = 0, at = 2; register < m; register += 4, at += 3) {
+                int packed = (bytes[at] & 0xFF) << 16 | (bytes[at + 1] & 0xFF) << 8 | (bytes[at + 2] & 0xFF);
+                sketch.registers[register] = (byte) (packed >>> 18);
+                sketch.registers[register + 1] = (byte) (packed >>> 12 & 0x3F);
+                sketch.registers[register + 2] = (byte) (packed >>> 6 & 0x3F);
+                sketch.registers[register + 3] = (byte) (packed & 0x3F);
+            }
+            sketch.sparse = null;
+            return sketch;
+        }
+        throw new IllegalArgumentException("Unknown HyperLogLog format " + bytes[0] + " of " + bytes.length + " bytes");
+    }
+
+    /**
+     * The same values at a lower precision: each register's dropped index bits become
+     * the leading bits of the rank
+     */
+    private HyperLogLog fold(int lower) {
+        HyperLogLog folded = new HyperLogLog(lower);
+        int shift = precision - lower;
+        int lowMask = (1 << shift) - 1;
+        for (int register = 0; register < (1 << precision); register++) {
+            int rank = rankAt(register);
+            if (rank == 0) {
+                continue;
+            }
+            int low = register & lowMask;
+            int foldedRank = low != 0 ? Integer.numberOfLeadingZeros(low) - (32 - shift) + 1 : shift + rank;
+            folded.set(register >>> shift, foldedRank);
+        }
+        return folded;
+    }
+
+    private int rankAt(int register) {
+        if (registers != null) {
+            return registers[register];
+        }
+        int i = find(register);
+        return i >= 0 ? sparse[i] & 0xFF : 0;
+    }
+
+    private void set(int register, int rank) {
+        if (registers != null) {
+            if (rank > registers[register]) {
+                registers[register] = (byte) rank;
+            }
+            return;
+        }
+        int i = find(register);
+        if (i >= 0) {
+            if (rank > (sparse[i] & 0xFF)) {
+                sparse[i] = register << 8 | rank;
+            }
+            return;
+        }
+        // Past a quarter of the registers, pairs take as much memory as one byte per register
+        if (sparseSize + 1 > (1 << precision) / 4) {
+            densify();
+            registers[register] = (byte) rank;
+            return;
+        }
+        int at = -i - 1;
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, at, sparse, at + 1, sparseSize - at);
+        sparse[at] = register << 8 | rank;
+        sparseSize++;
+    }
+
+    /** Binary search for a register among the sparse pairs, as Arrays.binarySearch */
+    private int find(int register) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midRegister = sparse[mid] >>> 8;
+            if (midRegister < register) {
+                low = mid + 1;
+            } else if (midRegister > register) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void densify() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /** Finalizer of SplitMix64, so sequential user IDs spread over all registers */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
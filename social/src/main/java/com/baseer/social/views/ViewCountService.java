@@ -0,0 +1,229 @@
+package com.baseer.social.views;
+
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.ViewCountRow;
+import com.baseer.social.service.PostCache;
+import com.baseer.social.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique viewer counts per post, from HyperLogLog sketches of viewer IDs.
+ *
+ * Clients report the posts they showed in batches; each impression only updates an
+ * in-memory sketch of the views since the last flush (at most max-pending-posts of them,
+ * further posts are dropped and counted). Every flush-interval-ms the pending sketches are
+ * merged into the stored ones chunk by chunk, each chunk in one transaction that locks its
+ * rows, so several instances can flush the same posts without losing views. The stored
+ * estimate is written next to the sketch and cached, so reading view counts never decodes
+ * a sketch and costs one IN query for the misses of a page.
+ *
+ * Counts shown lag impressions by up to one flush, and flushes of other instances by up to
+ * cache-expire-after-write. Authors viewing their own posts are not counted. A sketch holds
+ * hashed register ranks, not viewer IDs; a stored sketch that cannot be decoded is replaced
+ * by the pending one, losing the views it held.
+ *
+ * Metrics: social.views.impressions, social.views.dropped, social.views.pending.posts,
+ * social.views.flush (timer).
+ */
+@Slf4j
+@Service
+public class ViewCountService {
+
+    private static final String SELECT_FOR_UPDATE = "SELECT post_id, sketch FROM post_views WHERE post_id IN (%s) FOR UPDATE";
+    private static final String UPSERT = "INSERT INTO post_views (post_id, view_count, sketch) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE view_count = VALUES(view_count), sketch = VALUES(sketch)";
+
+    private final PostRepository postRepository;
+    private final PostCache postCache;
+    private final UserService userService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final int maxPendingPosts;
+    private final int flushChunkSize;
+
+    private final ConcurrentHashMap<Long, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final Cache<Long, Long> counts;
+
+    private final Counter impressions;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public ViewCountService(PostRepository postRepository,
+                            PostCache postCache,
+                            UserService userService,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${social.views.precision:12}") int precision,
+                            @Value("${social.views.max-pending-posts:200000}") int maxPendingPosts,
+                            @Value("${social.views.flush-chunk-size:500}") int flushChunkSize,
+                            @Value("${social.views.cache-size:100000}") long cacheSize,
+                            @Value("${social.views.cache-expire-after-write:1m}") Duration cacheExpireAfterWrite) {
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException("social.views.precision must be between "
+                    + HyperLogLog.MIN_PRECISION + " and " + HyperLogLog.MAX_PRECISION);
+        }
+        this.postRepository = postRepository;
+        this.postCache = postCache;
+        this.userService = userService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+        this.maxPendingPosts = maxPendingPosts;
+        this.flushChunkSize = flushChunkSize;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheExpireAfterWrite)
+                .recordStats()
+                .build();
+
+        this.impressions = meterRegistry.counter("social.views.impressions");
+        this.dropped = meterRegistry.counter("social.views.dropped");
+        meterRegistry.gauge("social.views.pending.posts", pending, Map::size);
+        this.flushTimer = meterRegistry.timer("social.views.flush");
+    }
+
+    /**
+     * Count the current user as a viewer of each post; unknown and deleted posts are ignored
+     */
+    public void recordImpressions(Collection<Long> postIds) {
+        Long viewerId = userService.getCurrentUserId();
+        for (Long postId : new LinkedHashSet<>(postIds)) {
+            PostCache.CachedPost post = postCache.get(postId);
+            if (post == null || post.userId().equals(viewerId)) {
+                continue;
+            }
+            pending.compute(postId, (id, sketch) -> {
+                if (sketch == null) {
+                    if (pending.size() >= maxPendingPosts) {
+                        dropped.increment();
+                        return null;
+                    }
+                    sketch = new HyperLogLog(precision);
+                }
+                sketch.add(viewerId);
+                return sketch;
+            });
+            impressions.increment();
+        }
+    }
+
+    /**
+     * Unique viewers of one post as of the last flush
+     */
+    public long getViewCount(Long postId) {
+        return getViewCounts(List.of(postId)).get(postId);
+    }
+
+    /**
+     * Unique viewers of several posts as of the last flush, loading every miss in one query
+     * @return a count, possibly 0, for every given post
+     */
+    public Map<Long, Long> getViewCounts(Collection<Long> postIds) {
+        return counts.getAll(Set.copyOf(postIds), this::loadCounts);
+    }
+
+    /**
+     * Merge the pending sketches into the stored ones
+     */
+    @Scheduled(fixedDelayString = "${social.views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            List<Long> postIds = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < postIds.size(); from += flushChunkSize) {
+                Map<Long, HyperLogLog> chunk = new HashMap<>();
+                for (Long postId : postIds.subList(from, Math.min(postIds.size(), from + flushChunkSize))) {
+                    HyperLogLog sketch = pending.remove(postId);
+                    if (sketch != null) {
+                        chunk.put(postId, sketch);
+                    }
+                }
+                if (chunk.isEmpty()) {
+                    continue;
+                }
+                try {
+                    counts.putAll(transactionTemplate.execute(status -> write(chunk)));
+                } catch (DataAccessException e) {
+                    // Keep the views for the next flush
+                    log.warn("Could not write view sketches of {} posts: {}", chunk.size(), e.getMessage());
+                    chunk.forEach((postId, sketch) -> pending.merge(postId, sketch, HyperLogLog::union));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Merge a chunk of pending sketches into the stored rows, locked for the transaction
+     * @return the new estimate of every post in the chunk
+     */
+    private Map<Long, Long> write(Map<Long, HyperLogLog> chunk) {
+        Map<Long, HyperLogLog> merged = new HashMap<>(chunk);
+        String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_FOR_UPDATE, placeholders), row -> {
+            Long postId = row.getLong(1);
+            HyperLogLog stored;
+            try {
+                stored = HyperLogLog.fromBytes(row.getBytes(2));
+            } catch (IllegalArgumentException e) {
+                // Retrying cannot fix it, so the row is overwritten
+                log.warn("Resetting the unreadable view sketch of post {}: {}", postId, e.getMessage());
+                return;
+            }
+            merged.put(postId, HyperLogLog.union(stored, merged.get(postId)));
+        }, chunk.keySet().toArray());
+
+        Map<Long, Long> estimates = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(merged.size());
+        merged.forEach((postId, sketch) -> {
+            long estimate = sketch.estimate();
+            estimates.put(postId, estimate);
+            rows.add(new Object[]{postId, estimate, sketch.toBytes()});
+        });
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+        return estimates;
+    }
+
+    private Map<Long, Long> loadCounts(Set<? extends Long> postIds) {
+        Map<Long, Long> loaded = new HashMap<>();
+        for (Long postId : postIds) {
+            loaded.put(postId, 0L);
+        }
+        for (ViewCountRow row : postRepository.findViewCounts(Set.copyOf(postIds))) {
+            loaded.put(row.getPostId(), row.getViewCount());
+        }
+        return loaded;
+    }
+}
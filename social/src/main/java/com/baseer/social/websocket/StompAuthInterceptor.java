@@ -0,0 +1,56 @@
+package com.baseer.social.websocket;
+
+import com.baseer.social.security.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions from the "Authorization: Bearer ..." header of the CONNECT frame,
+ * the same JWT the REST API takes. An authenticated session is the user's principal, so
+ * /user/queue/... subscriptions receive what is sent to that username.
+ * Sessions without a valid token stay anonymous and can still subscribe to public topics.
+ * JwtUtil.validateToken checks the token's user ID as well as its username, so the token of
+ * an erased account stays anonymous even after someone else registers the freed name.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            String username = jwtUtil.extractUsername(jwt);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (jwtUtil.validateToken(jwt, userDetails)) {
+                accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            }
+        } catch (UsernameNotFoundException | JwtException e) {
+            // Expired, malformed or erased account: continue anonymous
+        }
+        return message;
+    }
+}
@@ -0,0 +1,21 @@
+package com.baseer.social.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * WebSocket event for live viewer counts.
+ * Sent to /topic/post/{postId}/viewers when the number of sessions viewing the post changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewerCountEvent {
+
+    private Long postId;
+    private Integer viewers;
+    private Long timestamp;
+}
@@ -1,11 +1,20 @@
 package com.baseer.social.websocket;
 
+import com.baseer.social.presence.PresenceTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 /**
  * WebSocket Configuration.
  * Enables STOMP messaging over WebSocket for real-time updates.
@@ -13,13 +22,30 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * Flow:
  * 1. Client connects to /ws endpoint
  * 2. Client subscribes to topics (e.g., /topic/post/{postId})
+ *    and, when it sent a JWT with CONNECT, to its own queues (e.g., /user/queue/notifications)
  * 3. Server sends messages to subscribed clients
  * 4. Clients receive real-time updates
+ * 5. Both sides exchange heartbeats every social.presence.heartbeat-ms, if the client offers them
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ObjectMapper objectMapper;
+    private final StompAuthInterceptor stompAuthInterceptor;
+    private final PresenceTracker presenceTracker;
+    private final long heartbeatMillis;
+
+    public WebSocketConfig(ObjectMapper objectMapper,
+                           StompAuthInterceptor stompAuthInterceptor,
+                           PresenceTracker presenceTracker,
+                           @Value("${social.presence.heartbeat-ms:10000}") long heartbeatMillis) {
+        this.objectMapper = objectMapper;
+        this.stompAuthInterceptor = stompAuthInterceptor;
+        this.presenceTracker = presenceTracker;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
     /**
      * Register STOMP endpoints that clients connect to
      */
@@ -33,11 +59,43 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     /**
      * Configure message broker
      * - /topic: for broadcasting to multiple subscribers
+     * - /queue: for messages to one user, subscribed to as /user/queue/...
      * - /app: prefix for messages routed to @MessageMapping methods
+     * The broker's heartbeats run on their own scheduler thread, not a bean, so they do not
+     * take over the scheduler of the @Scheduled jobs.
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        heartbeatScheduler.setDaemon(true);
+        heartbeatScheduler.initialize();
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(heartbeatScheduler);
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    /**
+     * Authenticate sessions from the JWT sent with CONNECT,
+     * then let presence see every inbound frame as a sign of life
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthInterceptor, presenceTracker);
+    }
+
+    /**
+     * Serialize STOMP payloads with the application's ObjectMapper,
+     * so events use the same ID and date formats as the REST API
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        messageConverters.add(converter);
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+-- One-to-one messages (DirectMessageService). A conversation is the pair of user IDs, lower first,
+-- and the primary key clusters each conversation's messages in time order (Snowflake IDs), so a
+-- write appends to the end of its conversation and a page is one range read of the primary key.
+-- user_high is indexed for account erasure, which deletes the conversations on both sides.
+CREATE TABLE direct_messages (
+    user_low   BIGINT        NOT NULL,
+    user_high  BIGINT        NOT NULL,
+    id         BIGINT        NOT NULL,
+    sender_id  BIGINT        NOT NULL,
+    content    VARCHAR(2000) NOT NULL,
+    created_at DATETIME(6)   NOT NULL,
+    PRIMARY KEY (user_low, user_high, id),
+    KEY idx_direct_messages_user_high (user_high)
+) ENGINE = InnoDB;
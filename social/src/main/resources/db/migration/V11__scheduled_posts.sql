@@ -0,0 +1,13 @@
+-- Posts scheduled for later publication (ScheduledPostPublisher). A row only lives until its
+-- post is published, which inserts the post and deletes the row in one transaction. The publisher
+-- reads the table once at startup, by primary key; user_id serves the owner's listing and erasure.
+CREATE TABLE scheduled_posts (
+    id         BIGINT       NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    content    TEXT         NOT NULL,
+    image_url  VARCHAR(255),
+    publish_at DATETIME(6)  NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_scheduled_posts_user_id_id (user_id, id)
+) ENGINE = InnoDB;
@@ -0,0 +1,71 @@
+-- Baseline: the schema previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases already have it and are baselined at this version (see application.properties).
+
+CREATE TABLE users (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    bio             TEXT,
+    created_at      DATETIME(6),
+    email           VARCHAR(100) NOT NULL,
+    full_name       VARCHAR(100),
+    password        VARCHAR(255) NOT NULL,
+    profile_picture VARCHAR(255),
+    updated_at      DATETIME(6),
+    username        VARCHAR(50)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE posts (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    comments_count INT,
+    content        TEXT   NOT NULL,
+    created_at     DATETIME(6),
+    image_url      VARCHAR(255),
+    likes_count    INT,
+    updated_at     DATETIME(6),
+    user_id        BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    KEY FK5lidm6cqbc7u4xhqpxm898qme (user_id),
+    CONSTRAINT FK5lidm6cqbc7u4xhqpxm898qme FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE comments (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    content       TEXT   NOT NULL,
+    created_at    DATETIME(6),
+    replies_count INT,
+    updated_at    DATETIME(6),
+    post_id       BIGINT NOT NULL,
+    user_id       BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    KEY FKh4c7lvsc298whoyd4w9ta25cr (post_id),
+    KEY FK8omq0tc18jd43bu5tjh6jvraq (user_id),
+    CONSTRAINT FK8omq0tc18jd43bu5tjh6jvraq FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKh4c7lvsc298whoyd4w9ta25cr FOREIGN KEY (post_id) REFERENCES posts (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE replies (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    content    TEXT   NOT NULL,
+    created_at DATETIME(6),
+    comment_id BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    KEY FKn0xus92n25hvud6dlfni0ttqg (comment_id),
+    KEY FKn60t7po8l0rllye52xx25q4xx (user_id),
+    CONSTRAINT FKn0xus92n25hvud6dlfni0ttqg FOREIGN KEY (comment_id) REFERENCES comments (id),
+    CONSTRAINT FKn60t7po8l0rllye52xx25q4xx FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE likes (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    post_id    BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK2jovqhqo324cubdomovkex03b UNIQUE (post_id, user_id),
+    KEY FKnvx9seeqqyy71bij291pwiwrg (user_id),
+    CONSTRAINT FKnvx9seeqqyy71bij291pwiwrg FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKry8tnr4x2vwemv2bb0h5hyl0x FOREIGN KEY (post_id) REFERENCES posts (id)
+) ENGINE = InnoDB;
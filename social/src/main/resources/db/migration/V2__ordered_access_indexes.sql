@@ -0,0 +1,26 @@
+-- IDs are assigned by the application (Snowflake, time-ordered). The id columns keep AUTO_INCREMENT,
+-- which explicit IDs insert into as is: MySQL refuses to change it on columns referenced by foreign keys.
+-- Every per-parent listing pages by (parent_id, id); the composite indexes below serve those
+-- queries in index order without a filesort, and replace the single-column foreign key indexes.
+-- InnoDB secondary indexes also carry the primary key, so ID-only and count queries are covered.
+
+-- findRowsByUserId: WHERE user_id = ? ORDER BY id DESC
+ALTER TABLE posts
+    ADD INDEX idx_posts_user_id_id (user_id, id),
+    DROP INDEX FK5lidm6cqbc7u4xhqpxm898qme;
+
+-- findViewPage / findViewPageAfter / countByPostId: WHERE post_id = ? [AND id > ?] ORDER BY id
+ALTER TABLE comments
+    ADD INDEX idx_comments_post_id_id (post_id, id),
+    DROP INDEX FKh4c7lvsc298whoyd4w9ta25cr;
+
+-- findViewPage / findViewPageAfter / findFirstRepliesPerComment: WHERE comment_id = ? ORDER BY id
+ALTER TABLE replies
+    ADD INDEX idx_replies_comment_id_id (comment_id, id),
+    DROP INDEX FKn0xus92n25hvud6dlfni0ttqg;
+
+-- (post_id, user_id) is already unique and covers existsBy/findBy/countByPostId.
+-- (user_id, post_id) covers "which posts did this user like" without touching the clustered index.
+ALTER TABLE likes
+    ADD INDEX idx_likes_user_id_post_id (user_id, post_id),
+    DROP INDEX FKnvx9seeqqyy71bij291pwiwrg;
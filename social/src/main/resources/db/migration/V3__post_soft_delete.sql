@@ -0,0 +1,5 @@
+-- Deleted posts are hidden by setting deleted_at and removed later by PostReaper.
+-- The index serves both the reaper's backlog scan and the "deleted_at IS NULL" filter on counts.
+ALTER TABLE posts
+    ADD COLUMN deleted_at DATETIME(6) NULL,
+    ADD INDEX idx_posts_deleted_at (deleted_at);
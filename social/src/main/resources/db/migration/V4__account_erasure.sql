@@ -0,0 +1,20 @@
+-- Checkpoints of running account erasures (AccountErasureService).
+-- phase/last_id are updated in the same transaction as each deleted chunk, so a restart resumes exactly.
+CREATE TABLE account_erasures (
+    user_id      BIGINT      NOT NULL,
+    phase        VARCHAR(16) NOT NULL,
+    last_id      BIGINT      NOT NULL,
+    rows_deleted BIGINT      NOT NULL,
+    requested_at DATETIME(6) NOT NULL,
+    updated_at   DATETIME(6),
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
+
+-- Keyset scans of one user's comments and replies: WHERE user_id = ? AND id > ? ORDER BY id
+ALTER TABLE comments
+    ADD INDEX idx_comments_user_id_id (user_id, id),
+    DROP INDEX FK8omq0tc18jd43bu5tjh6jvraq;
+
+ALTER TABLE replies
+    ADD INDEX idx_replies_user_id_id (user_id, id),
+    DROP INDEX FKn60t7po8l0rllye52xx25q4xx;
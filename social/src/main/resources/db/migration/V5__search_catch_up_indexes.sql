@@ -0,0 +1,9 @@
+-- The search index is restored from an on-disk snapshot at startup and then catches up on rows
+-- created, edited or soft-deleted since the snapshot was written:
+-- findSearchDocsUpdatedSince: WHERE updated_at >= ? AND (updated_at > ? OR id > ?) ORDER BY updated_at, id
+-- InnoDB secondary indexes carry the primary key, so (updated_at) is ordered by (updated_at, id).
+ALTER TABLE posts
+    ADD INDEX idx_posts_updated_at (updated_at);
+
+ALTER TABLE comments
+    ADD INDEX idx_comments_updated_at (updated_at);
@@ -0,0 +1,17 @@
+-- Hashtags and @mentions extracted from post text (PostTagIndexer).
+-- Timelines read newest first: WHERE tag = ? AND post_id < ? ORDER BY post_id DESC, a range of the primary key.
+-- The post_id indexes serve re-extraction on edit and removal by PostReaper.
+-- Tags are stored folded (lowercase, no accents), so a binary collation compares them exactly.
+CREATE TABLE post_tags (
+    tag     VARCHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    post_id BIGINT NOT NULL,
+    PRIMARY KEY (tag, post_id),
+    INDEX idx_post_tags_post_id (post_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE post_mentions (
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, post_id),
+    INDEX idx_post_mentions_post_id (post_id)
+) ENGINE = InnoDB;
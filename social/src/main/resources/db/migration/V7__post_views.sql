@@ -0,0 +1,9 @@
+-- Unique viewers per post as HyperLogLog sketches (ViewCountService).
+-- Impressions are merged into the sketch in memory and written here periodically;
+-- view_count is the sketch's estimate at that time, so reads never decode the blob.
+CREATE TABLE post_views (
+    post_id    BIGINT NOT NULL,
+    view_count BIGINT NOT NULL,
+    sketch     BLOB NOT NULL,
+    PRIMARY KEY (post_id)
+) ENGINE = InnoDB;
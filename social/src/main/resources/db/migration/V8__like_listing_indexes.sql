@@ -0,0 +1,8 @@
+-- Likers of a post and posts liked by a user, newest like first (LikeService):
+-- WHERE post_id = ? AND id < ? ORDER BY id DESC and the same per user_id, each a range of one index,
+-- so a page reads page-size entries however many likes the post or user has.
+-- The existing (post_id, user_id) and (user_id, post_id) indexes keep serving uniqueness,
+-- membership and the liked-posts index load.
+ALTER TABLE likes
+    ADD INDEX idx_likes_post_id_id (post_id, id),
+    ADD INDEX idx_likes_user_id_id (user_id, id);
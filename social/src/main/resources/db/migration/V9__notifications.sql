@@ -0,0 +1,20 @@
+-- Aggregated notifications (NotificationService): one row per recipient and target, e.g. all
+-- likes of one post, so a viral post updates one row instead of adding one per like.
+-- Events are summed in memory and upserted in batches; activity_id is a fresh Snowflake ID on
+-- every write, so the unread list is keyset-paginated on (recipient_id, is_read, activity_id).
+-- actor_ids holds the latest actors, newest first, for "alice, bob and 57 others".
+CREATE TABLE notifications (
+    id           BIGINT      NOT NULL,
+    recipient_id BIGINT      NOT NULL,
+    kind         VARCHAR(16) NOT NULL,
+    target_id    BIGINT      NOT NULL,
+    post_id      BIGINT      NOT NULL,
+    actor_count  INT         NOT NULL,
+    actor_ids    VARCHAR(64) NOT NULL,
+    activity_id  BIGINT      NOT NULL,
+    is_read      BOOLEAN     NOT NULL,
+    updated_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_notifications_recipient_target (recipient_id, kind, target_id),
+    KEY idx_notifications_recipient_unread (recipient_id, is_read, activity_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,29 @@
+package com.baseer.social;
+
+import com.baseer.social.dto.PostResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonConfigTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JacksonConfig().idAsStringModule());
+
+    @Test
+    void writesIdsAsStringsAndOtherLongsAsNumbers() {
+        long id = (1L << 62) + 1;
+        PostResponse post = PostResponse.builder()
+                .id(id)
+                .viewCount(12L)
+                .user(PostResponse.UserDTO.builder().id(id + 1).build())
+                .build();
+
+        JsonNode json = objectMapper.valueToTree(post);
+        assertTrue(json.get("id").isTextual());
+        assertEquals(Long.toString(id), json.get("id").asText());
+        assertEquals(Long.toString(id + 1), json.get("user").get("id").asText());
+        assertTrue(json.get("viewCount").isNumber());
+    }
+}
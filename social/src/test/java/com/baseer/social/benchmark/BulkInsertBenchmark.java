@@ -0,0 +1,98 @@
+package com.baseer.social.benchmark;
+
+import com.baseer.social.entity.Like;
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.User;
+import com.baseer.social.id.IdGenerators;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-insert throughput of likes: JPA with application-assigned IDs and JDBC batching,
+ * against one round trip per row (what GenerationType.IDENTITY forces).
+ *
+ * Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=BulkInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BulkInsertBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final int CHUNK = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void likesInsertThroughput() {
+        long generatorStart = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            IdGenerators.nextId();
+        }
+        double idsPerSecond = 1_000_000 * 1e9 / (System.nanoTime() - generatorStart);
+
+        List<User> users = new ArrayList<>(ROWS);
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(User.builder().username("bench" + run + "_" + i).email("bench" + run + "_" + i + "@example.com")
+                    .password("x").fullName("Bench " + i).build());
+        }
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+        Post batchedPost = postRepository.save(Post.builder().user(users.get(0)).content("bench")
+                .likesCount(0).commentsCount(0).build());
+        Post singlePost = postRepository.save(Post.builder().user(users.get(0)).content("bench")
+                .likesCount(0).commentsCount(0).build());
+
+        long batchedStart = System.nanoTime();
+        for (int from = 0; from < ROWS; from += CHUNK) {
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                Post post = entityManager.getReference(Post.class, batchedPost.getId());
+                for (int i = start; i < start + CHUNK; i++) {
+                    entityManager.persist(Like.builder().post(post)
+                            .user(entityManager.getReference(User.class, users.get(i).getId())).build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        double batchedRate = ROWS * 1e9 / (System.nanoTime() - batchedStart);
+
+        long singleStart = System.nanoTime();
+        for (int from = 0; from < ROWS; from += CHUNK) {
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (int i = start; i < start + CHUNK; i++) {
+                    jdbcTemplate.update("INSERT INTO likes (id, post_id, user_id, created_at) VALUES (?, ?, ?, ?)",
+                            IdGenerators.nextId(), singlePost.getId(), users.get(i).getId(), now);
+                }
+            });
+        }
+        double singleRate = ROWS * 1e9 / (System.nanoTime() - singleStart);
+
+        System.out.printf("id generator:               %,12.0f ids/s%n", idsPerSecond);
+        System.out.printf("JPA batched (snowflake IDs): %,11.0f rows/s%n", batchedRate);
+        System.out.printf("row-at-a-time (identity):    %,11.0f rows/s%n", singleRate);
+    }
+}
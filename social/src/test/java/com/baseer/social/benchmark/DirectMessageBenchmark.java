@@ -0,0 +1,108 @@
+package com.baseer.social.benchmark;
+
+import com.baseer.social.entity.User;
+import com.baseer.social.id.IdGenerators;
+import com.baseer.social.messaging.DirectMessageService;
+import com.baseer.social.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Direct-message throughput on one node: SENDERS concurrent clients, each sending and waiting for
+ * the acknowledgement of one message at a time, through the group-committing MessageWriter
+ * against one transaction per message.
+ *
+ * Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=DirectMessageBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class DirectMessageBenchmark {
+
+    private static final int USERS = 200;
+    private static final int SENDERS = 64;
+    private static final int MESSAGES_PER_SENDER = 500;
+
+    @Autowired
+    private DirectMessageService messageService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void messagesPerSecond() throws Exception {
+        List<User> users = new ArrayList<>(USERS);
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().username("dm" + run + "_" + i).email("dm" + run + "_" + i + "@example.com")
+                    .password("x").fullName("Sender " + i).build());
+        }
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+        List<Long> userIds = users.stream().map(User::getId).toList();
+
+        double groupRate = run(() -> {
+            long[] pair = randomPair(userIds);
+            messageService.send(pair[0], pair[1], "benchmark message").join();
+        });
+        double singleRate = run(() -> {
+            long[] pair = randomPair(userIds);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                    "INSERT INTO direct_messages (user_low, user_high, id, sender_id, content, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                    Math.min(pair[0], pair[1]), Math.max(pair[0], pair[1]), IdGenerators.nextId(), pair[0],
+                    "benchmark message", Timestamp.valueOf(LocalDateTime.now())));
+        });
+
+        System.out.printf("group commit (MessageWriter): %,10.0f messages/s%n", groupRate);
+        System.out.printf("one transaction per message:  %,10.0f messages/s%n", singleRate);
+    }
+
+    /** Runs SENDERS closed-loop clients of MESSAGES_PER_SENDER sends each, returns sends per second */
+    private static double run(Runnable send) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(SENDERS);
+        try {
+            long start = System.nanoTime();
+            List<Future<Integer>> clients = new ArrayList<>();
+            for (int c = 0; c < SENDERS; c++) {
+                clients.add(pool.submit(() -> {
+                    for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                        send.run();
+                    }
+                    return MESSAGES_PER_SENDER;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> client : clients) {
+                total += client.get();
+            }
+            assertEquals(SENDERS * MESSAGES_PER_SENDER, total);
+            return total * 1e9 / (System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long[] randomPair(List<Long> userIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(userIds.size());
+        int recipient = (sender + 1 + random.nextInt(userIds.size() - 1)) % userIds.size();
+        return new long[]{userIds.get(sender), userIds.get(recipient)};
+    }
+}
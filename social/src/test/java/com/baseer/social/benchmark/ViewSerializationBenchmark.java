@@ -0,0 +1,86 @@
+package com.baseer.social.benchmark;
+
+import com.baseer.social.JacksonConfig;
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.entity.Comment;
+import com.baseer.social.entity.User;
+import com.baseer.social.service.AuthorCardCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares serializing a page of Comment entities (the old response type)
+ * with serializing the equivalent CommentView projections.
+ *
+ * Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none
+ */
+@Tag("benchmark")
+class ViewSerializationBenchmark {
+
+    private static final int ROWS = 200;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void entityVersusView() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new JacksonConfig().hibernate6Module())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+        List<Comment> entities = new ArrayList<>(ROWS);
+        List<CommentView> views = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            User user = User.builder()
+                    .id((long) i % 20).username("user" + i % 20).email("user" + i % 20 + "@example.com")
+                    .password("$2a$10$hash").fullName("User " + i % 20).bio("bio of user " + i % 20)
+                    .createdAt(now).updatedAt(now).build();
+            entities.add(Comment.builder()
+                    .id((long) i).user(user).content("comment body number " + i)
+                    .repliesCount(i % 5).createdAt(now).updatedAt(now).build());
+            views.add(new CommentView((long) i, 1L, "comment body number " + i, i % 5, now, now,
+                    AuthorCardCache.toCard(user)));
+        }
+
+        Result entity = measure(mapper, entities);
+        Result view = measure(mapper, views);
+
+        System.out.printf("entity path: %,10.0f pages/s  %,10d bytes/page  %,8d B allocated/page%n",
+                entity.pagesPerSecond, entity.payloadBytes, entity.allocatedPerPage);
+        System.out.printf("view path:   %,10.0f pages/s  %,10d bytes/page  %,8d B allocated/page%n",
+                view.pagesPerSecond, view.payloadBytes, view.allocatedPerPage);
+    }
+
+    private Result measure(ObjectMapper mapper, Object page) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            size = mapper.writeValueAsBytes(page).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Result(ITERATIONS * 1e9 / elapsed, size, allocated / ITERATIONS);
+    }
+
+    private record Result(double pagesPerSecond, int payloadBytes, long allocatedPerPage) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comment threads paged by keyset cursor, with reply previews and reply cursors.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class CommentThreadTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    @Test
+    void pagesCommentsAndContinuesRepliesFromTheirCursor() {
+        String author = user("threader");
+        String replier = user("replier");
+        long postId = restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "thread me"),
+                headers(author)), PostResponse.class).getBody().getId();
+        List<Long> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(post("/api/comments/post/" + postId, "comment " + i, author).get("id").asLong());
+        }
+        for (int i = 0; i < 4; i++) {
+            post("/api/comments/" + comments.get(1) + "/replies", "reply " + i, replier);
+        }
+        post("/api/comments/" + comments.get(3) + "/replies", "only reply", replier);
+
+        // Oldest first, two comments per page, no comment twice
+        JsonNode first = get("/api/comments/post/" + postId + "/thread?size=2&replies=2", author);
+        JsonNode second = get("/api/comments/post/" + postId + "/thread?size=2&replies=2&cursor="
+                + first.get("nextCursor").asText(), author);
+        JsonNode third = get("/api/comments/post/" + postId + "/thread?size=2&replies=2&cursor="
+                + second.get("nextCursor").asText(), author);
+        List<Long> paged = new ArrayList<>();
+        for (JsonNode page : List.of(first, second, third)) {
+            page.get("items").forEach(item -> paged.add(item.get("id").asLong()));
+        }
+        assertEquals(comments, paged);
+        assertTrue(first.get("hasMore").asBoolean());
+        assertFalse(third.get("hasMore").asBoolean());
+        assertTrue(third.get("nextCursor").isNull());
+
+        JsonNode first0 = first.get("items").get(0);
+        assertEquals(author, first0.get("user").get("username").asText());
+        assertEquals(0, first0.get("replies").size());
+        assertFalse(first0.get("hasMoreReplies").asBoolean());
+
+        // Two of four replies inlined, the cursor continues with the other two
+        JsonNode first1 = first.get("items").get(1);
+        assertEquals(List.of("reply 0", "reply 1"), contents(first1.get("replies")));
+        assertEquals(replier, first1.get("replies").get(0).get("user").get("username").asText());
+        assertTrue(first1.get("hasMoreReplies").asBoolean());
+        JsonNode rest = get("/api/comments/" + comments.get(1) + "/replies/page?size=5&cursor="
+                + first1.get("nextReplyCursor").asText(), author);
+        assertEquals(List.of("reply 2", "reply 3"), contents(rest.get("items")));
+        assertTrue(rest.get("nextCursor").isNull());
+
+        // A comment with fewer replies than the preview size gets no reply cursor
+        JsonNode second1 = second.get("items").get(1);
+        assertEquals(List.of("only reply"), contents(second1.get("replies")));
+        assertFalse(second1.get("hasMoreReplies").asBoolean());
+        assertTrue(second1.get("nextReplyCursor").isNull());
+
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/api/comments/post/" + postId + "/thread?cursor=@@",
+                HttpMethod.GET, new HttpEntity<>(headers(author)), String.class).getStatusCode());
+    }
+
+    private static List<String> contents(JsonNode items) {
+        List<String> contents = new ArrayList<>();
+        items.forEach(item -> contents.add(item.get("content").asText()));
+        return contents;
+    }
+
+    private JsonNode post(String uri, String content, String username) {
+        return restTemplate.postForEntity(uri, new HttpEntity<>(Map.of("content", content), headers(username)),
+                JsonNode.class).getBody();
+    }
+
+    private JsonNode get(String uri, String username) {
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers(username)), JsonNode.class).getBody();
+    }
+
+    private String user(String prefix) {
+        String username = prefix + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        return username;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+}
@@ -0,0 +1,225 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.LikeRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Liking through the REST API, with like status served from the liked-posts index,
+ * and exact counters under concurrent likes of one post.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class LikeTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private LikeRepository likeRepository;
+    @Autowired private PostRepository postRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    @Test
+    void toggleAndPageStatusFollowTheLikesTable() {
+        String username = "liker" + System.nanoTime();
+        Long userId = userRepository.save(User.builder().username(username).email(username + "@test").password("x").build()).getId();
+        List<Long> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            posts.add(restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "like me " + i),
+                    headers(username)), PostResponse.class).getBody().getId());
+        }
+
+        assertTrue(toggle(username, posts.get(0)));
+        assertTrue(toggle(username, posts.get(2)));
+        assertEquals(List.of(true, false, true), statuses(username, posts));
+        assertFalse(toggle(username, posts.get(2)));
+        assertEquals(List.of(true, false, false), statuses(username, posts));
+        assertEquals(1, restTemplate.exchange("/api/posts/" + posts.get(0), HttpMethod.GET,
+                new HttpEntity<>(headers(username)), PostResponse.class).getBody().getLikesCount());
+
+        // A like removed behind the index's back: the toggle still likes the post rather than failing
+        transactionTemplate.executeWithoutResult(status -> likeRepository.deleteOne(posts.get(0), userId));
+        assertTrue(toggle(username, posts.get(0)));
+        assertFalse(toggle(username, posts.get(0)));
+        assertFalse(likeRepository.existsByPostIdAndUserId(posts.get(0), userId));
+    }
+
+    @Test
+    void rejectsOversizedStatusBatches() {
+        String username = "liker" + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        StringBuilder ids = new StringBuilder("1");
+        for (int i = 2; i <= 101; i++) {
+            ids.append(',').append(i);
+        }
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/api/likes/status?postIds=" + ids, HttpMethod.GET,
+                new HttpEntity<>(headers(username)), String.class).getStatusCode());
+    }
+
+    @Test
+    void concurrentLikesKeepTheCounterExact() throws Exception {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String username = "hammer" + i + "x" + System.nanoTime();
+            userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+            users.add(username);
+        }
+        long postId = restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "hammered"),
+                headers(users.get(0))), PostResponse.class).getBody().getId();
+
+        // Every user likes three times at once: 30 likes
+        List<Callable<HttpStatusCode>> requests = new ArrayList<>();
+        for (String username : users) {
+            for (int i = 0; i < 3; i++) {
+                requests.add(() -> send(username, postId, HttpMethod.PUT));
+            }
+        }
+        runAtOnce(requests);
+        assertEquals(30, likeRepository.countByPostId(postId));
+        assertEquals(30, postRepository.findRowById(postId).orElseThrow().getLikesCount());
+
+        // Even users unlike twice and odd users like again: 15 likes
+        requests.clear();
+        for (int i = 0; i < users.size(); i++) {
+            String username = users.get(i);
+            HttpMethod method = i % 2 == 0 ? HttpMethod.DELETE : HttpMethod.PUT;
+            requests.add(() -> send(username, postId, method));
+            requests.add(() -> send(username, postId, method));
+        }
+        runAtOnce(requests);
+        assertEquals(15, likeRepository.countByPostId(postId));
+        assertEquals(15, postRepository.findRowById(postId).orElseThrow().getLikesCount());
+
+        // Double-clicked toggles: whatever each pair ends in, the counter matches the rows
+        requests.clear();
+        for (String username : users) {
+            requests.add(() -> send(username, postId, HttpMethod.POST));
+            requests.add(() -> send(username, postId, HttpMethod.POST));
+        }
+        runAtOnce(requests);
+        assertEquals(likeRepository.countByPostId(postId),
+                postRepository.findRowById(postId).orElseThrow().getLikesCount().longValue());
+    }
+
+    @Test
+    void listsLikersAndLikedPostsNewestFirstAcrossPages() {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String username = "lister" + i + "x" + System.nanoTime();
+            userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+            users.add(username);
+        }
+        String reader = users.get(0);
+        Long readerId = userRepository.findByUsername(reader).orElseThrow().getId();
+        List<Long> posts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            posts.add(restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "listed " + i),
+                    headers(users.get(i))), PostResponse.class).getBody().getId());
+        }
+        for (String username : users) {
+            send(username, posts.get(0), HttpMethod.PUT);
+        }
+        for (int i = 4; i >= 1; i--) {
+            send(reader, posts.get(i), HttpMethod.PUT);
+        }
+
+        List<String> likers = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = get("/api/likes/post/" + posts.get(0) + "?size=2" + (cursor == null ? "" : "&cursor=" + cursor), reader);
+            page.get("items").forEach(item -> likers.add(item.get("user").get("username").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        List<String> newestFirst = new ArrayList<>(users);
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, likers);
+
+        List<Long> liked = new ArrayList<>();
+        cursor = null;
+        do {
+            JsonNode page = get("/api/likes/user/" + readerId + "?size=2" + (cursor == null ? "" : "&cursor=" + cursor), reader);
+            page.get("items").forEach(item -> liked.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of(posts.get(1), posts.get(2), posts.get(3), posts.get(4), posts.get(0)), liked);
+    }
+
+    private JsonNode get(String uri, String username) {
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers(username)), JsonNode.class).getBody();
+    }
+
+    private HttpStatusCode send(String username, long postId, HttpMethod method) {
+        return restTemplate.exchange("/api/likes/post/" + postId, method, new HttpEntity<>(headers(username)),
+                String.class).getStatusCode();
+    }
+
+    /** Runs the requests on 16 threads released together and checks that all succeeded */
+    private static void runAtOnce(List<Callable<HttpStatusCode>> requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HttpStatusCode>> results = new ArrayList<>();
+            for (Callable<HttpStatusCode> request : requests) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+            for (Future<HttpStatusCode> result : results) {
+                assertEquals(HttpStatus.OK, result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private boolean toggle(String username, long postId) {
+        return restTemplate.exchange("/api/likes/post/" + postId, HttpMethod.POST,
+                new HttpEntity<>(headers(username)), JsonNode.class).getBody().get("liked").asBoolean();
+    }
+
+    private List<Boolean> statuses(String username, List<Long> postIds) {
+        JsonNode body = restTemplate.exchange("/api/likes/status?postIds=" + postIds.stream().map(String::valueOf)
+                        .reduce((a, b) -> a + "," + b).orElseThrow(), HttpMethod.GET,
+                new HttpEntity<>(headers(username)), JsonNode.class).getBody();
+        List<Boolean> statuses = new ArrayList<>();
+        postIds.forEach(postId -> statuses.add(body.get(String.valueOf(postId)).asBoolean()));
+        return statuses;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+}
@@ -0,0 +1,166 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.MediaResponse;
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.baseer.social.service.MediaStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uploads an image over real HTTP, checks deduplication, background variants and
+ * attaching the stored object to a post, then serves objects from both the mapped
+ * cache (small) and sendfile (above the 1 KB test limit) with ranges and ETags.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"social.media.root=target/test-media", "social.media.cache.max-object-size=1KB",
+                "spring.jpa.show-sql=false"})
+class MediaUploadTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private MediaStore mediaStore;
+
+    @Test
+    void uploadIsContentAddressedAndResizedInBackground() throws Exception {
+        String username = "media" + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        byte[] png = png(1200, 800);
+
+        ResponseEntity<MediaResponse> first = upload(username, png, MediaType.IMAGE_PNG);
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        String key = first.getBody().getKey();
+        assertTrue(key.endsWith(".png"));
+        assertEquals("/media/" + key, first.getBody().getUrl());
+        assertEquals(png.length, Files.size(mediaStore.pathOf(key)));
+
+        assertEquals(key, upload(username, png, MediaType.IMAGE_PNG).getBody().getKey(), "same bytes, same key");
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                upload(username, png, MediaType.IMAGE_JPEG).getStatusCode(), "type must match content");
+
+        for (int width : List.of(320, 960)) {
+            var variant = mediaStore.pathOf(MediaStore.variantKey(key, width, "png"));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!Files.exists(variant) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(width, ImageIO.read(variant.toFile()).getWidth());
+        }
+
+        ResponseEntity<PostResponse> post = restTemplate.postForEntity("/api/posts",
+                new HttpEntity<>(Map.of("content", "with image", "mediaKey", key), headers(username, MediaType.APPLICATION_JSON)),
+                PostResponse.class);
+        assertEquals(HttpStatus.CREATED, post.getStatusCode());
+        assertEquals("/media/" + key, post.getBody().getImageUrl());
+    }
+
+    @Test
+    void servesWholeObjectsRangesAndNotModified() throws Exception {
+        String username = "serve" + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        byte[] small = png(8, 8);
+        byte[] large = png(64, 64, new Random(7));
+        assertTrue(small.length < 1024 && large.length > 1024);
+
+        for (byte[] content : List.of(small, large)) {
+            String key = upload(username, content, MediaType.IMAGE_PNG).getBody().getKey();
+            for (int round = 0; round < 2; round++) {
+                ResponseEntity<byte[]> whole = get(key, new HttpHeaders());
+                assertEquals(HttpStatus.OK, whole.getStatusCode());
+                assertArrayEquals(content, whole.getBody());
+                assertEquals(MediaType.IMAGE_PNG, whole.getHeaders().getContentType());
+                assertEquals("\"" + key + "\"", whole.getHeaders().getETag());
+                assertEquals("public, max-age=31536000, immutable", whole.getHeaders().getCacheControl());
+            }
+
+            HttpHeaders range = new HttpHeaders();
+            range.set(HttpHeaders.RANGE, "bytes=4-11");
+            ResponseEntity<byte[]> part = get(key, range);
+            assertEquals(HttpStatus.PARTIAL_CONTENT, part.getStatusCode());
+            assertArrayEquals(Arrays.copyOfRange(content, 4, 12), part.getBody());
+            assertEquals("bytes 4-11/" + content.length, part.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+            range.set(HttpHeaders.RANGE, "bytes=-5");
+            assertArrayEquals(Arrays.copyOfRange(content, content.length - 5, content.length), get(key, range).getBody());
+
+            range.set(HttpHeaders.RANGE, "bytes=" + content.length + "-");
+            assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, get(key, range).getStatusCode());
+
+            HttpHeaders conditional = new HttpHeaders();
+            conditional.setIfNoneMatch("\"" + key + "\"");
+            assertEquals(HttpStatus.NOT_MODIFIED, get(key, conditional).getStatusCode());
+        }
+
+        assertEquals(HttpStatus.NOT_FOUND, get("0".repeat(64) + ".png", new HttpHeaders()).getStatusCode());
+    }
+
+    private ResponseEntity<byte[]> get(String key, HttpHeaders headers) {
+        return restTemplate.exchange("/media/" + key, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private ResponseEntity<MediaResponse> upload(String username, byte[] body, MediaType type) {
+        return restTemplate.postForEntity("/api/media", new HttpEntity<>(body, headers(username, type)), MediaResponse.class);
+    }
+
+    private HttpHeaders headers(String username, MediaType type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        headers.setContentType(type);
+        return headers;
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color((int) System.nanoTime() & 0xFFFFFF));
+        graphics.fillRect(0, 0, width, height / 2);
+        graphics.dispose();
+        return encode(image);
+    }
+
+    /**
+     * Noise does not compress, so the PNG is about 3 bytes per pixel
+     */
+    private static byte[] png(int width, int height, Random random) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return encode(image);
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,114 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.entity.User;
+import com.baseer.social.messaging.DirectMessageService;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Direct messages through the REST API: stored before the send returns, pushed to the
+ * recipient's STOMP queue, counted as unread and paged newest first.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class MessageTest {
+
+    @LocalServerPort private int port;
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private SimpUserRegistry userRegistry;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    @Test
+    void messagesArePushedCountedAndPagedPerConversation() throws Exception {
+        String alice = user("alice");
+        String bob = user("bob");
+        long aliceId = userRepository.findByUsername(alice).orElseThrow().getId();
+        long bobId = userRepository.findByUsername(bob).orElseThrow().getId();
+
+        List<String> sent = new ArrayList<>();
+        try (StompTestClient stomp = new StompTestClient(port, bob, token(bob),
+                DirectMessageService.USER_DESTINATION, objectMapper, userRegistry)) {
+            for (int i = 0; i < 5; i++) {
+                ResponseEntity<JsonNode> response = send(alice, bobId, "hello " + i);
+                assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                assertEquals(bobId, response.getBody().get("recipientId").asLong());
+                sent.add(response.getBody().get("id").asText());
+            }
+            List<String> pushed = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                JsonNode message = stomp.next();
+                assertNotNull(message);
+                pushed.add(message.get("id").asText());
+            }
+            assertEquals(sent.stream().sorted().toList(), pushed.stream().sorted().toList());
+        }
+        assertEquals(HttpStatus.CREATED, send(bob, aliceId, "hi back").getStatusCode());
+
+        assertEquals(5, get("/api/messages/unread", bob).get(String.valueOf(aliceId)).asInt());
+        restTemplate.exchange("/api/messages/" + aliceId + "/read", HttpMethod.PUT, new HttpEntity<>(headers(bob)), Void.class);
+        assertTrue(get("/api/messages/unread", bob).isEmpty());
+
+        // Both sides read the same conversation, newest first, without gaps or repeats
+        List<String> contents = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = get("/api/messages/" + bobId + "?size=2" + (cursor == null ? "" : "&cursor=" + cursor), alice);
+            page.get("items").forEach(item -> contents.add(item.get("content").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of("hi back", "hello 4", "hello 3", "hello 2", "hello 1", "hello 0"), contents);
+        assertEquals(6, get("/api/messages/" + aliceId + "?size=50", bob).get("items").size());
+
+        assertEquals(HttpStatus.BAD_REQUEST, send(alice, aliceId, "me").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, send(alice, -1L, "nobody").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, send(alice, bobId, " ").getStatusCode());
+    }
+
+    private ResponseEntity<JsonNode> send(String username, long recipientId, String content) {
+        return restTemplate.postForEntity("/api/messages/" + recipientId,
+                new HttpEntity<>(Map.of("content", content), headers(username)), JsonNode.class);
+    }
+
+    private JsonNode get(String uri, String username) {
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers(username)), JsonNode.class).getBody();
+    }
+
+    private String user(String prefix) {
+        String username = prefix + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        return username;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token(username));
+        return headers;
+    }
+
+    private String token(String username) {
+        return jwtUtil.generateToken(userDetailsService.loadUserByUsername(username));
+    }
+}
@@ -0,0 +1,152 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.notification.NotificationService;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notifications aggregated per recipient and target, listed through the REST API
+ * and pushed to the recipient's STOMP user queue.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class NotificationTest {
+
+    @LocalServerPort private int port;
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private NotificationService notificationService;
+    @Autowired private SimpUserRegistry userRegistry;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    @Test
+    void likesOfOnePostCollapseIntoOneNotification() throws Exception {
+        String author = user("author");
+        List<String> likers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            likers.add(user("fan" + i));
+        }
+        long postId = restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "notify me"),
+                headers(author)), PostResponse.class).getBody().getId();
+
+        for (String liker : likers.subList(0, 3)) {
+            like(liker, postId, HttpMethod.PUT);
+        }
+        like(author, postId, HttpMethod.PUT);
+        long commentId = restTemplate.postForEntity("/api/comments/post/" + postId,
+                new HttpEntity<>(Map.of("content", "nice"), headers(likers.get(0))), JsonNode.class)
+                .getBody().get("id").asLong();
+        restTemplate.postForEntity("/api/comments/" + commentId + "/replies",
+                new HttpEntity<>(Map.of("content", "agreed"), headers(likers.get(1))), JsonNode.class);
+        notificationService.flush();
+
+        List<JsonNode> unread = unread(author);
+        assertEquals(2, unread.size());
+        JsonNode likes = ofKind(unread, "LIKE");
+        assertEquals(3, likes.get("actorCount").asInt());
+        assertEquals(List.of(likers.get(2), likers.get(1), likers.get(0)), usernames(likes));
+        assertEquals(1, ofKind(unread, "COMMENT").get("actorCount").asInt());
+        JsonNode reply = ofKind(unread(likers.get(0)), "REPLY");
+        assertEquals(commentId, reply.get("targetId").asLong());
+        assertEquals(postId, reply.get("postId").asLong());
+
+        // A later like updates the same notification and is pushed to the author's queue
+        try (StompTestClient stomp = new StompTestClient(port, author, token(author),
+                NotificationService.USER_DESTINATION, objectMapper, userRegistry)) {
+            like(likers.get(3), postId, HttpMethod.PUT);
+            notificationService.flush();
+            JsonNode update = stomp.next();
+            assertNotNull(update);
+            assertEquals(likes.get("id").asText(), update.get("id").asText());
+            assertEquals(4, update.get("actorCount").asInt());
+            assertEquals(List.of(likers.get(3), likers.get(2), likers.get(1)), usernames(update));
+        }
+        assertEquals(2, unread(author).size());
+
+        // Once read, the next like starts the notification over
+        restTemplate.exchange("/api/notifications/read", HttpMethod.PUT, new HttpEntity<>(headers(author)), Void.class);
+        assertEquals(0, restTemplate.exchange("/api/notifications/unread-count", HttpMethod.GET,
+                new HttpEntity<>(headers(author)), JsonNode.class).getBody().get("unread").asLong());
+        like(likers.get(0), postId, HttpMethod.DELETE);
+        like(likers.get(0), postId, HttpMethod.PUT);
+        notificationService.flush();
+        unread = unread(author);
+        assertEquals(1, unread.size());
+        assertEquals(likes.get("id").asText(), unread.get(0).get("id").asText());
+        assertEquals(1, unread.get(0).get("actorCount").asInt());
+    }
+
+    @Test
+    void tokenOfAnErasedAccountConnectsAnonymouslyAfterItsNameIsTaken() throws Exception {
+        String username = user("erased");
+        String oldToken = token(username);
+        restTemplate.exchange("/api/users/me", HttpMethod.DELETE, new HttpEntity<>(headers(username)), Void.class);
+        userRepository.save(User.builder().username(username).email(username + "@new").password("x").build());
+
+        try (StompTestClient stale = new StompTestClient(port, username, oldToken, objectMapper, userRegistry)) {
+            assertNull(userRegistry.getUser(username), "old token must not authenticate the new owner");
+        }
+        try (StompTestClient owner = new StompTestClient(port, username, token(username), objectMapper, userRegistry)) {
+            assertNotNull(userRegistry.getUser(username));
+        }
+    }
+
+    private List<JsonNode> unread(String username) {
+        List<JsonNode> items = new ArrayList<>();
+        restTemplate.exchange("/api/notifications?size=50", HttpMethod.GET, new HttpEntity<>(headers(username)),
+                JsonNode.class).getBody().get("items").forEach(items::add);
+        return items;
+    }
+
+    private static JsonNode ofKind(List<JsonNode> notifications, String kind) {
+        return notifications.stream().filter(n -> kind.equals(n.get("kind").asText())).findFirst().orElseThrow();
+    }
+
+    private static List<String> usernames(JsonNode notification) {
+        List<String> usernames = new ArrayList<>();
+        notification.get("actors").forEach(actor -> usernames.add(actor.get("username").asText()));
+        return usernames;
+    }
+
+    private void like(String username, long postId, HttpMethod method) {
+        restTemplate.exchange("/api/likes/post/" + postId, method, new HttpEntity<>(headers(username)), String.class);
+    }
+
+    private String user(String prefix) {
+        String username = prefix + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        return username;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token(username));
+        return headers;
+    }
+
+    private String token(String username) {
+        return jwtUtil.generateToken(userDetailsService.loadUserByUsername(username));
+    }
+}
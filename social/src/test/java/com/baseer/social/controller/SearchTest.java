@@ -0,0 +1,222 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.search.PostTagIndexer;
+import com.baseer.social.search.SearchService;
+import com.baseer.social.search.UserSearchService;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the search index through the REST API: posts and comments become searchable after
+ * commit, edits and deletes are reflected, ranked pages chain through the cursor, and the
+ * indexes survive a rebuild and a reload from the snapshot plus catch-up. Users are found by
+ * username and full-name prefix, before and after the prefix index is rebuilt. Hashtag and
+ * mention timelines follow edits and are restored by the backfill.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class SearchTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private SearchService searchService;
+    @Autowired private UserSearchService userSearchService;
+    @Autowired private PostTagIndexer postTagIndexer;
+    @Autowired private PostRepository postRepository;
+
+    @Test
+    void indexesChangesRanksAndPagesThroughResults() {
+        String username = "search" + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        String word = "w" + Long.toString(System.nanoTime(), 36);
+        awaitTrue(searchService::isReady);
+
+        long once = createPost(username, "a long post that mentions " + word + " only once among many other words");
+        long twice = createPost(username, word + " and " + word + " again");
+        long edited = createPost(username, "short " + word);
+        awaitTrue(() -> ids(search(username, "posts", word, null, 10)).size() == 3);
+
+        JsonNode first = search(username, "posts", word, null, 2);
+        assertEquals(List.of(twice, edited), ids(first));
+        assertTrue(first.get("hasMore").asBoolean());
+        JsonNode second = search(username, "posts", word, first.get("nextCursor").asText(), 2);
+        assertEquals(List.of(once), ids(second));
+        assertFalse(second.get("hasMore").asBoolean());
+
+        exchange(username, HttpMethod.PUT, "/api/posts/" + edited, Map.of("content", "rewritten " + word + "x"));
+        exchange(username, HttpMethod.DELETE, "/api/posts/" + once, null);
+        awaitTrue(() -> ids(search(username, "posts", word, null, 10)).equals(List.of(twice)));
+        assertEquals(List.of(edited), ids(search(username, "posts", "REWRITTEN " + word + "x", null, 10)));
+
+        long comment = exchange(username, HttpMethod.POST, "/api/comments/post/" + twice,
+                Map.of("content", "replying about " + word)).get("id").asLong();
+        awaitTrue(() -> ids(search(username, "comments", word, null, 10)).equals(List.of(comment)));
+
+        assertTrue(searchService.rebuild());
+        assertEquals(List.of(twice), ids(search(username, "posts", word, null, 10)));
+        assertEquals(List.of(comment), ids(search(username, "comments", word, null, 10)));
+
+        // Written after the snapshot, so only the catch-up can bring it into the reloaded index
+        searchService.persist();
+        long late = createPost(username, "late " + word);
+        assertTrue(searchService.reload());
+        assertEquals(List.of(twice, late).stream().sorted().toList(),
+                ids(search(username, "posts", word, null, 10)).stream().sorted().toList());
+
+        ResponseEntity<String> blank = restTemplate.exchange("/api/search/posts?q= ", HttpMethod.GET,
+                new HttpEntity<>(headers(username)), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+    }
+
+    @Test
+    void findsUsersByUsernameAndFullNamePrefix() {
+        String tag = Long.toString(System.nanoTime(), 36);
+        String quiet = "quiet" + tag;
+        String busy = "busy" + tag;
+        for (String username : List.of(quiet, busy)) {
+            ResponseEntity<JsonNode> registered = restTemplate.postForEntity("/api/auth/register",
+                    Map.of("username", username, "email", username + "@example.com", "password", "secret1",
+                            "fullName", "New " + username), JsonNode.class);
+            assertTrue(registered.getStatusCode().is2xxSuccessful());
+        }
+        awaitTrue(userSearchService::rebuild);
+        createPost(busy, "first");
+        createPost(busy, "second");
+
+        exchange(quiet, HttpMethod.PUT, "/api/users/me", Map.of("fullName", "Team" + tag + " Quinn"));
+        assertEquals(List.of(quiet), usernames(searchUsers(quiet, "@QUIET" + tag)));
+        assertEquals(List.of(quiet), usernames(searchUsers(quiet, "team" + tag + " q")));
+
+        // Rebuilding picks up post counts, so the busier account ranks first
+        exchange(busy, HttpMethod.PUT, "/api/users/me", Map.of("fullName", "Team" + tag + " Blake"));
+        awaitTrue(userSearchService::rebuild);
+        assertEquals(List.of(busy, quiet), usernames(searchUsers(quiet, "TEAM" + tag)));
+    }
+
+    @Test
+    void pagesThroughHashtagAndMentionTimelines() {
+        String author = "tagger" + System.nanoTime();
+        String mentioned = "tagged" + System.nanoTime();
+        userRepository.save(User.builder().username(author).email(author + "@test").password("x").build());
+        long mentionedId = userRepository.save(User.builder().username(mentioned).email(mentioned + "@test")
+                .password("x").build()).getId();
+        String tag = "t" + Long.toString(System.nanoTime(), 36);
+
+        long first = createPost(author, "#" + tag + " opening");
+        long second = createPost(author, "more about #" + tag.toUpperCase() + ", cc @" + mentioned + ".");
+        long third = createPost(author, "closing #" + tag);
+        awaitTrue(() -> ids(timeline(author, "tag/" + tag, null, 10)).size() == 3);
+
+        JsonNode page = timeline(author, "tag/" + tag, null, 2);
+        assertEquals(List.of(third, second), ids(page));
+        assertTrue(page.get("hasMore").asBoolean());
+        page = timeline(author, "tag/" + tag, page.get("nextCursor").asText(), 2);
+        assertEquals(List.of(first), ids(page));
+        assertFalse(page.get("hasMore").asBoolean());
+        assertEquals(List.of(second), ids(timeline(author, "mentioning/" + mentionedId, null, 10)));
+
+        exchange(author, HttpMethod.PUT, "/api/posts/" + second, Map.of("content", "no tags any more"));
+        exchange(author, HttpMethod.DELETE, "/api/posts/" + third, null);
+        awaitTrue(() -> ids(timeline(author, "tag/" + tag, null, 10)).equals(List.of(first))
+                && ids(timeline(author, "mentioning/" + mentionedId, null, 10)).isEmpty());
+
+        // Rows lost (as for posts written before the tables existed) come back with the backfill
+        postRepository.deleteTagsByPostId(first);
+        assertTrue(ids(timeline(author, "tag/" + tag, null, 10)).isEmpty());
+        assertTrue(postTagIndexer.backfill() > 0);
+        assertEquals(List.of(first), ids(timeline(author, "tag/" + tag, null, 10)));
+    }
+
+    private JsonNode timeline(String username, String path, String cursor, int size) {
+        String url = "/api/posts/" + path + "?size={size}" + (cursor == null ? "" : "&cursor=" + cursor);
+        ResponseEntity<JsonNode> response = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers(username)), JsonNode.class, size);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private JsonNode searchUsers(String username, String query) {
+        ResponseEntity<JsonNode> response = restTemplate.exchange("/api/users/search?q={q}", HttpMethod.GET,
+                new HttpEntity<>(headers(username)), JsonNode.class, query);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private static List<String> usernames(JsonNode users) {
+        List<String> usernames = new ArrayList<>();
+        users.forEach(user -> usernames.add(user.get("username").asText()));
+        return usernames;
+    }
+
+    private long createPost(String username, String content) {
+        ResponseEntity<PostResponse> response = restTemplate.postForEntity("/api/posts",
+                new HttpEntity<>(Map.of("content", content), headers(username)), PostResponse.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody().getId();
+    }
+
+    private JsonNode search(String username, String kind, String query, String cursor, int size) {
+        String url = "/api/search/" + kind + "?q={q}&size={size}" + (cursor == null ? "" : "&cursor=" + cursor);
+        ResponseEntity<JsonNode> response = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers(username)), JsonNode.class, query, size);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private JsonNode exchange(String username, HttpMethod method, String url, Object body) {
+        ResponseEntity<JsonNode> response = restTemplate.exchange(url, method,
+                new HttpEntity<>(body, headers(username)), JsonNode.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), method + " " + url + ": " + response.getStatusCode());
+        return response.getBody();
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+        return ids;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+
+    /**
+     * Index updates are applied on the indexer thread after commit, so wait for them
+     */
+    private static void awaitTrue(Supplier<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.get()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10s");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.baseer.social.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STOMP session of one user against the test server's /ws endpoint, collecting what arrives
+ * on its subscriptions. The session exchanges heartbeats with the server like a browser client.
+ */
+public final class StompTestClient implements AutoCloseable {
+
+    private static final ThreadPoolTaskScheduler HEARTBEATS = heartbeatScheduler();
+
+    private final StompSession session;
+    private final String username;
+    private final SimpUserRegistry userRegistry;
+    private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    private int subscriptions;
+
+    /**
+     * Connect with the user's JWT and subscribe to /user{destination}; returns once the server
+     * has registered the subscription
+     */
+    public StompTestClient(int port, String username, String bearerToken, String destination,
+                           ObjectMapper objectMapper, SimpUserRegistry userRegistry) throws Exception {
+        this(port, username, bearerToken, objectMapper, userRegistry);
+        subscribe("/user" + destination);
+    }
+
+    /**
+     * Connect with the user's JWT, without subscribing
+     */
+    public StompTestClient(int port, String username, String bearerToken,
+                           ObjectMapper objectMapper, SimpUserRegistry userRegistry) throws Exception {
+        this.username = username;
+        this.userRegistry = userRegistry;
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        client.setMessageConverter(converter);
+        client.setTaskScheduler(HEARTBEATS);
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + bearerToken);
+        session = client.connectAsync("http://localhost:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Subscribe to a destination; returns once the server has registered the subscription
+     */
+    public void subscribe(String destination) throws InterruptedException {
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((JsonNode) payload);
+            }
+        });
+        subscriptions++;
+
+        // The subscription is registered asynchronously; wait until the server knows it
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (registered(userRegistry.getUser(username)) < subscriptions) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Subscription of " + username + " to " + destination + " not registered");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Next payload received, or null after ten seconds
+     */
+    public JsonNode next() throws InterruptedException {
+        return received.poll(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Whether the session is still open, false once either side closed it
+     */
+    public boolean isConnected() {
+        return session.isConnected();
+    }
+
+    @Override
+    public void close() {
+        session.disconnect();
+    }
+
+    private static int registered(SimpUser user) {
+        return user == null ? 0 : user.getSessions().stream().mapToInt(s -> s.getSubscriptions().size()).sum();
+    }
+
+    private static ThreadPoolTaskScheduler heartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("stomp-test-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
@@ -0,0 +1,84 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.baseer.social.trending.TrendingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Posting, liking and commenting through the REST API feed the trending lists after a refresh.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class TrendingTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private TrendingService trendingService;
+
+    @Test
+    void engagementMakesPostsAndHashtagsTrend() {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String username = "trend" + i + "x" + System.nanoTime();
+            userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+            users.add(username);
+        }
+        String tag = "hot" + Long.toString(System.nanoTime(), 36);
+
+        ResponseEntity<PostResponse> created = restTemplate.postForEntity("/api/posts",
+                new HttpEntity<>(Map.of("content", "look at this #" + tag), headers(users.get(0))), PostResponse.class);
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        long postId = created.getBody().getId();
+        for (String username : users) {
+            assertEquals(HttpStatus.OK, restTemplate.exchange("/api/likes/post/" + postId, HttpMethod.POST,
+                    new HttpEntity<>(headers(username)), String.class).getStatusCode());
+        }
+        assertTrue(restTemplate.exchange("/api/comments/post/" + postId, HttpMethod.POST,
+                new HttpEntity<>(Map.of("content", "nice"), headers(users.get(1))), String.class)
+                .getStatusCode().is2xxSuccessful());
+
+        trendingService.refresh();
+
+        JsonNode trending = restTemplate.exchange("/api/trending?limit=50", HttpMethod.GET,
+                new HttpEntity<>(headers(users.get(0))), JsonNode.class).getBody();
+        int score = -1;
+        for (JsonNode entry : trending.get("tags")) {
+            if (entry.get("tag").asText().equals(tag)) {
+                score = entry.get("score").asInt();
+            }
+        }
+        // Creation 1, three likes 1 each, one comment 2; sketches may only overcount
+        assertTrue(score >= 6, "score of #" + tag + ": " + score);
+        List<Long> postIds = new ArrayList<>();
+        trending.get("posts").forEach(post -> postIds.add(post.get("id").asLong()));
+        assertTrue(postIds.contains(postId));
+        assertNotNull(trending.get("computedAt").asText());
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+}
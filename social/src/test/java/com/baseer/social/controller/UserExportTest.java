@@ -0,0 +1,99 @@
+package com.baseer.social.controller;
+
+import com.baseer.social.entity.Comment;
+import com.baseer.social.entity.Like;
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.Reply;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a user with more lines than one flush batch over real HTTP, plain and gzip.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class UserExportTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Test
+    void streamsWholeHistoryAsNdjsonPlainAndGzipped() throws IOException {
+        String username = "export" + System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .username(username).email(username + "@test").password("x").fullName("Export").build());
+            for (int i = 0; i < 600; i++) {
+                Post post = Post.builder().user(user).content("post " + i).likesCount(1).commentsCount(1).build();
+                entityManager.persist(post);
+                entityManager.persist(Like.builder().post(post).user(user).build());
+                if (i % 10 == 0) {
+                    Comment comment = Comment.builder().post(post).user(user).content("c").repliesCount(1).build();
+                    entityManager.persist(comment);
+                    entityManager.persist(Reply.builder().comment(comment).user(user).content("r").build());
+                }
+            }
+        });
+
+        String plain = new String(export(username, false), StandardCharsets.UTF_8);
+        List<JsonNode> lines = parse(plain);
+        assertEquals(1 + 600 + 60 + 60 + 600, lines.size());
+        assertEquals("profile", lines.get(0).get("type").asText());
+        assertEquals(username, lines.get(0).get("data").get("username").asText());
+        assertEquals("post 0", lines.get(1).get("data").get("content").asText());
+        assertEquals("like", lines.get(lines.size() - 1).get("type").asText());
+        assertTrue(plain.endsWith("\n"));
+
+        byte[] gzipped = export(username, true);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(gzipped.length < plain.length() / 4, "gzip should compress repetitive NDJSON");
+    }
+
+    private byte[] export(String username, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        ResponseEntity<byte[]> response = restTemplate.exchange("/api/users/me/export?gzip=" + gzip,
+                HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private List<JsonNode> parse(String ndjson) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
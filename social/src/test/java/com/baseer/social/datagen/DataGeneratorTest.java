@@ -0,0 +1,98 @@
+package com.baseer.social.datagen;
+
+import com.baseer.social.id.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+
+    @Test
+    void sameSeedGivesSameRowsAndCountersMatchChildren() {
+        RecordingSink first = new RecordingSink();
+        DataGenerator.Counts counts = new DataGenerator(settings(7), "hash").generate(first);
+        RecordingSink second = new RecordingSink();
+        new DataGenerator(settings(7), "hash").generate(second);
+        RecordingSink other = new RecordingSink();
+        new DataGenerator(settings(8), "hash").generate(other);
+
+        assertEquals(first.digest, second.digest);
+        assertNotEquals(first.digest, other.digest);
+
+        assertEquals(counts.likes(), first.likedPosts.size());
+        assertEquals(first.likesCounts, first.likesPerPost);
+        assertEquals(first.commentsCounts, first.commentsPerPost);
+        assertEquals(first.repliesCounts, first.repliesPerComment);
+        assertTrue(first.likesCounts.containsValue(200), "viral post liked by viral-share of users");
+    }
+
+    private static DataGenSettings settings(long seed) {
+        return new DataGenSettings(seed, 500, 2_000, 4_000, 8_000, 20_000, 2, 0.4,
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-02T00:00:00Z"), 1023, "gen");
+    }
+
+    /**
+     * Checks per-row invariants while recording counters and a digest of every row
+     */
+    private static final class RecordingSink implements RowSink {
+
+        long digest = 17;
+        long lastId;
+        final Set<String> likedPosts = new HashSet<>();
+        final Map<Long, Integer> likesCounts = new HashMap<>();
+        final Map<Long, Integer> likesPerPost = new HashMap<>();
+        final Map<Long, Integer> commentsCounts = new HashMap<>();
+        final Map<Long, Integer> commentsPerPost = new HashMap<>();
+        final Map<Long, Integer> repliesCounts = new HashMap<>();
+        final Map<Long, Integer> repliesPerComment = new HashMap<>();
+
+        @Override
+        public void user(long id, String username, String email, String password, String fullName, long createdAt) {
+            row(id, createdAt, username.hashCode() + fullName.hashCode());
+        }
+
+        @Override
+        public void post(long id, long userId, String content, int likesCount, int commentsCount, long createdAt) {
+            row(id, createdAt, userId + content.hashCode());
+            likesCounts.put(id, likesCount);
+            commentsCounts.put(id, commentsCount);
+            likesPerPost.put(id, 0);
+            commentsPerPost.put(id, 0);
+        }
+
+        @Override
+        public void comment(long id, long postId, long userId, String content, int repliesCount, long createdAt) {
+            row(id, createdAt, postId + userId + content.hashCode());
+            commentsPerPost.merge(postId, 1, Integer::sum);
+            repliesCounts.put(id, repliesCount);
+            repliesPerComment.put(id, 0);
+        }
+
+        @Override
+        public void reply(long id, long commentId, long userId, String content, long createdAt) {
+            row(id, createdAt, commentId + userId + content.hashCode());
+            repliesPerComment.merge(commentId, 1, Integer::sum);
+        }
+
+        @Override
+        public void like(long id, long postId, long userId, long createdAt) {
+            row(id, createdAt, postId + userId);
+            assertTrue(likedPosts.add(postId + ":" + userId), "duplicate like");
+            likesPerPost.merge(postId, 1, Integer::sum);
+        }
+
+        private void row(long id, long createdAt, long content) {
+            assertTrue(id > lastId, "rows must come in ID order");
+            assertEquals(SnowflakeIdGenerator.timestampOf(id), createdAt);
+            lastId = id;
+            digest = digest * 31 + id;
+            digest = digest * 31 + content;
+        }
+    }
+}
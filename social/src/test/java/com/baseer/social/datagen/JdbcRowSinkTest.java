@@ -0,0 +1,88 @@
+package com.baseer.social.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writer failures reach the producer and close() instead of leaving them waiting.
+ */
+class JdbcRowSinkTest {
+
+    @Test
+    void writesEveryRowInBatches() throws Exception {
+        AtomicInteger inserts = new AtomicInteger();
+        try (JdbcRowSink sink = new JdbcRowSink(dataSource(sql -> false, inserts), 10, 2)) {
+            for (int i = 0; i < 95; i++) {
+                sink.like(i, 1, i, 0);
+            }
+        }
+        assertEquals(10, inserts.get());
+    }
+
+    @Test
+    void closeRethrowsAFailedInsert() {
+        SQLException error = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(SQLException.class, () -> {
+            try (JdbcRowSink sink = new JdbcRowSink(dataSource(sql -> sql.startsWith("INSERT"), new AtomicInteger()), 10, 2)) {
+                for (int i = 0; i < 25; i++) {
+                    sink.like(i, 1, i, 0);
+                }
+            }
+        }));
+        assertEquals("insert failed", error.getCause().getMessage());
+    }
+
+    @Test
+    void closeRethrowsAFailureAfterTheLastBatch() {
+        // Restoring the session settings fails once the writer has already taken its end marker
+        SQLException error = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(SQLException.class, () -> {
+            try (JdbcRowSink sink = new JdbcRowSink(dataSource(sql -> sql.endsWith("= 1"), new AtomicInteger()), 10, 1)) {
+                sink.like(1, 1, 1, 0);
+            }
+        }));
+        assertEquals("insert failed", error.getCause().getMessage());
+    }
+
+    /**
+     * Connections whose statements fail for the matching SQL and count executed inserts
+     */
+    private static DataSource dataSource(Predicate<String> fails, AtomicInteger inserts) throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            if (fails.test(invocation.getArgument(0))) {
+                throw new SQLException("insert failed");
+            }
+            return false;
+        });
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            PreparedStatement insert = mock(PreparedStatement.class);
+            doAnswer(update -> {
+                if (fails.test(sql)) {
+                    throw new SQLException("insert failed");
+                }
+                inserts.incrementAndGet();
+                return 1;
+            }).when(insert).executeUpdate();
+            return insert;
+        });
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,96 @@
+package com.baseer.social.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedFeedIndexTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void recentEngagementOutranksOlderTotals() {
+        RankedFeedIndex index = new RankedFeedIndex(HOUR, 0, 100);
+        // Ten likes two hours ago decay to 2.5, three likes now count 3
+        for (int i = 0; i < 10; i++) {
+            index.add(1, 1, 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            index.add(2, 1, 2 * HOUR);
+        }
+        assertEquals(List.of(2L, 1L), ids(index.page(null, 10)));
+
+        // Two more likes at the old post, now: 4.5 against 3
+        index.add(1, 2, 2 * HOUR);
+        assertEquals(List.of(1L, 2L), ids(index.page(null, 10)));
+
+        index.remove(1);
+        assertEquals(List.of(2L), ids(index.page(null, 10)));
+    }
+
+    @Test
+    void pagesCoverEveryPostOnceAndKeepTheBest() {
+        RankedFeedIndex index = new RankedFeedIndex(HOUR, 0, 500);
+        for (long id = 1; id <= 1_000; id++) {
+            index.add(id, 1 + id % 7, id * 1_000);
+        }
+        assertEquals(500, index.size());
+
+        Set<Long> seen = new HashSet<>();
+        List<RankedFeedIndex.Entry> page = index.page(null, 30);
+        RankedFeedIndex.Entry previous = null;
+        while (!page.isEmpty()) {
+            for (RankedFeedIndex.Entry entry : page) {
+                assertTrue(seen.add(entry.postId()));
+                assertTrue(previous == null || RankedFeedIndex.RANKING.compare(previous, entry) < 0);
+                previous = entry;
+            }
+            page = index.page(previous, 30);
+        }
+        assertEquals(500, seen.size());
+        // The newest posts have the highest scores, so they are the ones kept
+        assertTrue(seen.contains(1_000L) && !seen.contains(1L));
+    }
+
+    @Test
+    void concurrentUpdatesKeepEveryKeptPostListedOnce() throws Exception {
+        RankedFeedIndex index = new RankedFeedIndex(HOUR, 0, 50);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                writers.add(pool.submit(() -> {
+                    for (long i = 0; i < 5_000; i++) {
+                        index.add(i % 200 + offset, 1, i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Long> listed = ids(index.page(null, 1_000));
+        assertEquals(50, index.size());
+        assertEquals(50, listed.size());
+        assertEquals(50, new HashSet<>(listed).size());
+    }
+
+    private static List<Long> ids(List<RankedFeedIndex.Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+        entries.forEach(entry -> ids.add(entry.postId()));
+        return ids;
+    }
+}
@@ -0,0 +1,126 @@
+package com.baseer.social.feed;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.id.SnowflakeIdGenerator;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.repository.projection.FeedScoreRow;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Likes through the REST API reorder the ranked feed right away; the startup load is
+ * retried against an in-memory posts table that fails at first.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class RankedFeedServiceTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void likesMoveAPostUpTheRankedFeed() {
+        String username = "ranked" + System.nanoTime();
+        userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        List<Long> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            posts.add(restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", "ranked " + i),
+                    headers(username)), PostResponse.class).getBody().getId());
+        }
+        // Other tests' posts share the feed, so only the relative order of these three is checked
+        assertEquals(List.of(posts.get(2), posts.get(1), posts.get(0)), rankedOrder(username, posts));
+
+        restTemplate.exchange("/api/likes/post/" + posts.get(0), HttpMethod.POST, new HttpEntity<>(headers(username)), String.class);
+        assertEquals(List.of(posts.get(0), posts.get(2), posts.get(1)), rankedOrder(username, posts));
+    }
+
+    @Test
+    void retriesAFailedLoadUntilItSucceeds() {
+        RankedFeedService service = new RankedFeedService(postRepository(2), null, meterRegistry,
+                Duration.ofHours(6), Duration.ofDays(7), 100, 1, 1, 3, true, 10, Duration.ofMillis(1));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), service::loadUntilReady);
+        // Two failed reads, then one chunk and the empty chunk that ends the load
+        assertEquals(4, queries.get());
+        assertEquals(1, meterRegistry.get("social.feed.ranked.posts").gauge().value());
+    }
+
+    private PostRepository postRepository(int failures) {
+        long postId = SnowflakeIdGenerator.minIdAt(System.currentTimeMillis());
+        FeedScoreRow row = new FeedScoreRow() {
+            public Long getId() { return postId; }
+            public Integer getLikesCount() { return 2; }
+            public Integer getCommentsCount() { return 0; }
+        };
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findFeedScoreChunk(anyLong(), anyInt())).thenAnswer(invocation -> {
+            if (queries.incrementAndGet() <= failures) {
+                throw new DataAccessResourceFailureException("database is down");
+            }
+            return invocation.<Long>getArgument(0) < postId ? List.of(row) : List.of();
+        });
+        return postRepository;
+    }
+
+    /** Pages through the ranked feed until every wanted post has been seen, checking no post repeats */
+    private List<Long> rankedOrder(String username, List<Long> wanted) {
+        List<Long> order = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            String url = "/api/posts/ranked?size=50" + (cursor == null ? "" : "&cursor=" + cursor);
+            ResponseEntity<JsonNode> response = restTemplate.exchange(url, HttpMethod.GET,
+                    new HttpEntity<>(headers(username)), JsonNode.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            for (JsonNode item : response.getBody().get("items")) {
+                long id = item.get("id").asLong();
+                assertTrue(seen.add(id));
+                if (wanted.contains(id)) {
+                    order.add(id);
+                }
+            }
+            JsonNode next = response.getBody().get("nextCursor");
+            cursor = next == null || next.isNull() ? null : next.asText();
+        } while (order.size() < wanted.size() && cursor != null);
+        return order;
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+}
@@ -0,0 +1,126 @@
+package com.baseer.social.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsAreStrictlyIncreasingAndEncodeNodeAndTime() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+        long before = System.currentTimeMillis();
+
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "IDs must increase");
+            previous = id;
+        }
+
+        assertEquals(42, SnowflakeIdGenerator.nodeOf(previous));
+        long timestamp = SnowflakeIdGenerator.timestampOf(previous);
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+        assertTrue(SnowflakeIdGenerator.minIdAt(timestamp) <= previous);
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void toleratesClockMovingBackwards() {
+        long[] now = {SnowflakeIdGenerator.EPOCH + 10_000};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3) {
+            @Override
+            protected long currentTimeMillis() {
+                return now[0];
+            }
+        };
+
+        long first = generator.nextId();
+        now[0] -= 5_000;
+        long second = generator.nextId();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    void sleepsOutAShortBackwardsStepOnceTheSequenceIsUsedUp() {
+        long[] behind = {0};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3) {
+            @Override
+            protected long currentTimeMillis() {
+                return System.currentTimeMillis() - behind[0];
+            }
+        };
+
+        long previous = generator.nextId();
+        behind[0] = 50;
+        for (int i = 0; i <= SnowflakeIdGenerator.SEQUENCE_MASK; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertTrue(SnowflakeIdGenerator.timestampOf(previous) <= System.currentTimeMillis() - behind[0]);
+    }
+
+    @Test
+    void failsRatherThanWaitOutALongBackwardsStep() {
+        long[] now = {SnowflakeIdGenerator.EPOCH + 10_000};
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3) {
+            @Override
+            protected long currentTimeMillis() {
+                return now[0];
+            }
+        };
+
+        long first = generator.nextId();
+        now[0] -= 5_000;
+        for (int i = 0; i < SnowflakeIdGenerator.SEQUENCE_MASK; i++) {
+            generator.nextId();
+        }
+        assertThrows(IllegalStateException.class, generator::nextId);
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        // Once the clock is past the last timestamp, IDs continue above every earlier one
+        now[0] += 5_001;
+        long next = generator.nextId();
+        assertTrue(next > first + SnowflakeIdGenerator.SEQUENCE_MASK);
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeIds() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
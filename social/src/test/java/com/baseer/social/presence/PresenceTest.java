@@ -0,0 +1,136 @@
+package com.baseer.social.presence;
+
+import com.baseer.social.controller.StompTestClient;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Viewer counts and online users from STOMP session lifecycle events, heartbeat expiry and
+ * coalesced viewer broadcasts.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class PresenceTest {
+
+    @LocalServerPort private int port;
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PresenceTracker presenceTracker;
+    @Autowired private ViewerCountBroadcaster broadcaster;
+    @Autowired private SimpUserRegistry userRegistry;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    @Test
+    void countsViewersOncePerSessionAndExpiresSilentSessions() throws Exception {
+        User alice = user("alice");
+        User bob = user("bob");
+        User carol = user("carol");
+        long postId = System.nanoTime();
+        String topic = "/topic/post/" + postId;
+
+        StompTestClient aliceSession = connect(alice);
+        aliceSession.subscribe(topic + "/likes");
+        aliceSession.subscribe(topic + "/viewers");
+        StompTestClient bobSession = connect(bob);
+        bobSession.subscribe(topic + "/comments");
+        await(() -> presenceTracker.getViewerCount(postId) == 2);
+        assertEquals(List.of(alice.getId(), bob.getId()), online(alice, bob, carol));
+
+        // Both arrivals go out as one event carrying the current count
+        broadcaster.broadcast();
+        JsonNode event = aliceSession.next();
+        assertEquals(postId, event.get("postId").asLong());
+        assertEquals(2, event.get("viewers").asInt());
+
+        bobSession.close();
+        await(() -> presenceTracker.getViewerCount(postId) == 1);
+        assertEquals(List.of(alice.getId()), online(alice, bob, carol));
+        broadcaster.broadcast();
+        assertEquals(1, aliceSession.next().get("viewers").asInt());
+        assertEquals(1, restTemplate.exchange("/api/presence/post/" + postId + "/viewers", HttpMethod.GET,
+                new HttpEntity<>(headers(carol)), JsonNode.class).getBody().get("viewers").asInt());
+
+        // Heartbeats keep the session until it stays silent for missed-heartbeats intervals
+        presenceTracker.expire(System.currentTimeMillis());
+        assertEquals(1, presenceTracker.getViewerCount(postId));
+        presenceTracker.expire(System.currentTimeMillis() + 60_000);
+        assertEquals(0, presenceTracker.getViewerCount(postId));
+        assertEquals(List.of(), online(alice, bob, carol));
+        // The expired session is disconnected rather than left open and uncounted
+        await(() -> !aliceSession.isConnected());
+        await(() -> userRegistry.getUser(alice.getUsername()) == null);
+    }
+
+    @Test
+    void ignoresPostZero() throws Exception {
+        User dave = user("dave");
+        StompTestClient session = connect(dave);
+        session.subscribe("/topic/post/0/likes");
+        session.subscribe("/topic/post/00/viewers");
+        assertFalse(presenceTracker.drainChangedPosts().contains(0L));
+        assertEquals(0, presenceTracker.getViewerCount(0));
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.exchange("/api/presence/post/0/viewers", HttpMethod.GET,
+                new HttpEntity<>(headers(dave)), String.class).getStatusCode());
+        session.close();
+    }
+
+    private StompTestClient connect(User user) throws Exception {
+        return new StompTestClient(port, user.getUsername(), token(user), objectMapper, userRegistry);
+    }
+
+    private List<Long> online(User... users) {
+        StringBuilder ids = new StringBuilder();
+        for (User user : users) {
+            ids.append(ids.isEmpty() ? "" : ",").append(user.getId());
+        }
+        List<Long> online = new ArrayList<>();
+        restTemplate.exchange("/api/presence/online?userIds=" + ids, HttpMethod.GET,
+                new HttpEntity<>(headers(users[0])), JsonNode.class).getBody().forEach(id -> online.add(id.asLong()));
+        return online;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached");
+            Thread.sleep(20);
+        }
+    }
+
+    private User user(String prefix) {
+        String username = prefix + System.nanoTime();
+        return userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+    }
+
+    private HttpHeaders headers(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token(user));
+        return headers;
+    }
+
+    private String token(User user) {
+        return jwtUtil.generateToken(userDetailsService.loadUserByUsername(user.getUsername()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.baseer.social.publishing;
+
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.ScheduledPostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import com.baseer.social.service.PostService;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scheduled posts kept in the publisher's timing wheel and published as regular posts when due.
+ * Each test runs its own publisher, filled by load(), so moving its wheel ahead leaves the
+ * application's publisher alone.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class ScheduledPostTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ScheduledPostRepository scheduledPostRepository;
+    @Autowired private PostService postService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ScheduledPostPublisher publisher;
+
+    @BeforeEach
+    void createPublisher() {
+        publisher = new ScheduledPostPublisher(scheduledPostRepository, postService, meterRegistry,
+                1000, 5, 500, 10000, false);
+    }
+
+    @AfterEach
+    void shutdownPublisher() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void publishesDuePostsOnceAndSkipsCancelledOnes() {
+        User author = user();
+        LocalDateTime inOneHour = LocalDateTime.now().plusHours(1);
+        long first = schedule(author, "first scheduled", inOneHour).get("id").asLong();
+        long second = schedule(author, "second scheduled", inOneHour.plusMinutes(30)).get("id").asLong();
+        long cancelled = schedule(author, "cancelled", inOneHour).get("id").asLong();
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity("/api/posts/scheduled",
+                new HttpEntity<>(Map.of("content", "too late", "publishAt", LocalDateTime.now().minusMinutes(1).toString()),
+                        headers(author)), String.class).getStatusCode());
+
+        assertEquals(List.of(cancelled, second, first), scheduledIds(author));
+        restTemplate.exchange("/api/posts/scheduled/" + cancelled, HttpMethod.DELETE,
+                new HttpEntity<>(headers(author)), Void.class);
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange("/api/posts/scheduled/" + cancelled, HttpMethod.DELETE,
+                new HttpEntity<>(headers(author)), Void.class).getStatusCode());
+
+        // Nothing is published early
+        publisher.load();
+        publisher.publishDue(System.currentTimeMillis());
+        assertEquals(List.of(), postContents(author));
+
+        // A restart reads the table again; the reloaded entries must not publish a second copy
+        publisher.load();
+        publisher.publishDue(System.currentTimeMillis() + 65 * 60_000);
+        assertEquals(List.of("first scheduled"), postContents(author));
+        assertEquals(List.of(second), scheduledIds(author));
+
+        publisher.publishDue(System.currentTimeMillis() + 2 * 3600_000);
+        assertEquals(List.of("second scheduled", "first scheduled"), postContents(author));
+        assertEquals(List.of(), scheduledIds(author));
+    }
+
+    @Test
+    void retriesAFailingPostAloneWithADelay() {
+        User author = user();
+        User gone = user();
+        LocalDateTime inOneHour = LocalDateTime.now().plusHours(1);
+        schedule(author, "fine", inOneHour);
+        long orphan = schedule(gone, "orphaned", inOneHour).get("id").asLong();
+        // Its author disappears, so inserting its post violates the foreign key
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", gone.getId());
+        try {
+            publisher.load();
+            long due = System.currentTimeMillis() + 65 * 60_000;
+            assertTrue(publisher.publishDue(due) >= 1);
+            assertEquals(List.of("fine"), postContents(author));
+            assertEquals(1, meterRegistry.get("social.scheduled-posts.failed").counter().count());
+
+            // Retried after two ticks, then after four
+            publisher.publishDue(due + 1_000);
+            assertEquals(1, meterRegistry.get("social.scheduled-posts.failed").counter().count());
+            publisher.publishDue(due + 2_000);
+            assertEquals(2, meterRegistry.get("social.scheduled-posts.failed").counter().count());
+            publisher.publishDue(due + 5_000);
+            assertEquals(2, meterRegistry.get("social.scheduled-posts.failed").counter().count());
+            publisher.publishDue(due + 6_000);
+            assertEquals(3, meterRegistry.get("social.scheduled-posts.failed").counter().count());
+        } finally {
+            jdbcTemplate.update("DELETE FROM scheduled_posts WHERE id = ?", orphan);
+        }
+    }
+
+    private JsonNode schedule(User author, String content, LocalDateTime publishAt) {
+        return restTemplate.postForEntity("/api/posts/scheduled",
+                new HttpEntity<>(Map.of("content", content, "publishAt", publishAt.toString()), headers(author)),
+                JsonNode.class).getBody();
+    }
+
+    private List<Long> scheduledIds(User author) {
+        List<Long> ids = new ArrayList<>();
+        restTemplate.exchange("/api/posts/scheduled", HttpMethod.GET, new HttpEntity<>(headers(author)), JsonNode.class)
+                .getBody().forEach(post -> ids.add(post.get("id").asLong()));
+        return ids;
+    }
+
+    private List<String> postContents(User author) {
+        List<String> contents = new ArrayList<>();
+        restTemplate.exchange("/api/posts/user/" + author.getId(), HttpMethod.GET, new HttpEntity<>(headers(author)),
+                JsonNode.class).getBody().get("content").forEach(post -> contents.add(post.get("content").asText()));
+        return contents;
+    }
+
+    private User user() {
+        String username = "scheduler" + System.nanoTime();
+        return userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+    }
+
+    private HttpHeaders headers(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(user.getUsername())));
+        return headers;
+    }
+}
@@ -0,0 +1,57 @@
+package com.baseer.social.publishing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEveryIdExactlyAtItsTickAcrossLevels() {
+        long start = 1_000_003;
+        TimingWheel wheel = new TimingWheel(4, start);
+        Map<Long, Long> dueTicks = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (long id = 1; id <= 20_000; id++) {
+            // Distances spread over every level, a few beyond the top level's span
+            long distance = (long) Math.pow(20_000_000, random.nextDouble());
+            dueTicks.put(id, start + distance);
+            wheel.add(id, start + distance);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long tick = start;
+        while (wheel.size() > 0) {
+            // Uneven steps, like ticks delayed by a busy scheduler
+            tick += 1 + random.nextInt(3);
+            long now = tick;
+            wheel.advance(now, id -> assertNull(firedAt.put(id, now), "fired twice: " + id));
+        }
+
+        assertEquals(dueTicks.size(), firedAt.size());
+        dueTicks.forEach((id, due) -> {
+            long fired = firedAt.get(id);
+            assertTrue(fired >= due && fired < due + 3, id + " due " + due + " fired " + fired);
+        });
+    }
+
+    @Test
+    void firesPastIdsOnTheNextTick() {
+        TimingWheel wheel = new TimingWheel(5, 100);
+        wheel.add(1, 50);
+        wheel.add(2, 100);
+        wheel.add(3, 102);
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(101, fired::add);
+        assertEquals(List.of(1L, 2L), fired);
+        wheel.advance(102, fired::add);
+        assertEquals(List.of(1L, 2L, 3L), fired);
+        assertEquals(0, wheel.size());
+    }
+}
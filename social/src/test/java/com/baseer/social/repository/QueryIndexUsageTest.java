@@ -0,0 +1,251 @@
+package com.baseer.social.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query, captures the SQL Hibernate sends and EXPLAINs it.
+ * Fails when a statement does a full table scan, reads a table without any index,
+ * or needs a filesort, so a query change that no longer matches the indexes in
+ * db/migration shows up here instead of in production.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.baseer.social.repository.QueryIndexUsageTest$SqlCapture")
+@Transactional
+class QueryIndexUsageTest {
+
+    /** Collects the SQL of the current thread, installed through the statement_inspector property */
+    public static class SqlCapture implements StatementInspector {
+        private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+
+        static List<String> drain() {
+            List<String> statements = new ArrayList<>(STATEMENTS.get());
+            STATEMENTS.get().clear();
+            return statements;
+        }
+    }
+
+    /** Queries run against an ID that never exists, so the mutating ones change nothing */
+    private static final long NO_ID = -1L;
+
+    @Autowired private PostRepository postRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private ReplyRepository replyRepository;
+    @Autowired private LikeRepository likeRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountErasureRepository accountErasureRepository;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private DirectMessageRepository directMessageRepository;
+    @Autowired private ScheduledPostRepository scheduledPostRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        PageRequest page = PageRequest.of(0, 20);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("PostRepository.findFeedRows", () -> postRepository.findFeedRows(PageRequest.of(1, 20)));
+        queries.put("PostRepository.findRowsByUserId",
+                () -> postRepository.findRowsByUserId(NO_ID, PageRequest.of(1, 20)));
+        queries.put("PostRepository.findRowById", () -> postRepository.findRowById(NO_ID));
+        queries.put("PostRepository.findByUserId", () -> postRepository.findByUserId(NO_ID));
+        queries.put("PostRepository.adjustLikesCount", () -> postRepository.adjustLikesCount(NO_ID, 1));
+        queries.put("PostRepository.adjustCommentsCount", () -> postRepository.adjustCommentsCount(NO_ID, 1));
+        queries.put("PostRepository.softDelete", () -> postRepository.softDelete(NO_ID, LocalDateTime.now()));
+        queries.put("PostRepository.findSoftDeletedIds", () -> postRepository.findSoftDeletedIds(100));
+        queries.put("PostRepository.countSoftDeleted", () -> postRepository.countSoftDeleted());
+        queries.put("PostRepository.purgeSoftDeleted", () -> postRepository.purgeSoftDeleted(NO_ID));
+        queries.put("PostRepository.decrementLikesCountIn",
+                () -> postRepository.decrementLikesCountIn(List.of(NO_ID, NO_ID - 1), 1));
+        queries.put("PostRepository.decrementCommentsCountIn",
+                () -> postRepository.decrementCommentsCountIn(List.of(NO_ID, NO_ID - 1), 1));
+        queries.put("PostRepository.findIdChunkByUserId", () -> postRepository.findIdChunkByUserId(NO_ID, 0L, 100));
+        queries.put("PostRepository.findAnyIdByUserId", () -> postRepository.findAnyIdByUserId(NO_ID));
+        queries.put("PostRepository.softDeleteIn",
+                () -> postRepository.softDeleteIn(List.of(NO_ID, NO_ID - 1), LocalDateTime.now()));
+        queries.put("PostRepository.findRowsByIdIn", () -> postRepository.findRowsByIdIn(List.of(NO_ID, NO_ID - 1)));
+        queries.put("PostRepository.findSearchDocChunk", () -> postRepository.findSearchDocChunk(0L, 100));
+        queries.put("PostRepository.findSearchDocsUpdatedSince",
+                () -> postRepository.findSearchDocsUpdatedSince(LocalDateTime.now(), 0L, 100));
+        queries.put("PostRepository.countByUserIdBetween", () -> postRepository.countByUserIdBetween(NO_ID, NO_ID));
+        queries.put("PostRepository.findFeedScoreChunk", () -> postRepository.findFeedScoreChunk(0L, 100));
+        queries.put("PostRepository.findIdsByTag", () -> postRepository.findIdsByTag("x", Long.MAX_VALUE, 20));
+        queries.put("PostRepository.findIdsMentioning", () -> postRepository.findIdsMentioning(NO_ID, Long.MAX_VALUE, 20));
+        queries.put("PostRepository.deleteTagsByPostId", () -> postRepository.deleteTagsByPostId(NO_ID));
+        queries.put("PostRepository.deleteMentionsByPostId", () -> postRepository.deleteMentionsByPostId(NO_ID));
+        queries.put("PostRepository.findViewCounts", () -> postRepository.findViewCounts(List.of(NO_ID, NO_ID - 1)));
+        queries.put("PostRepository.deleteViewsByPostId", () -> postRepository.deleteViewsByPostId(NO_ID));
+        queries.put("PostRepository.deleteMentionChunkByUserId",
+                () -> postRepository.deleteMentionChunkByUserId(NO_ID, 100));
+
+        queries.put("CommentRepository.findViewsByPostId", () -> commentRepository.findViewsByPostId(NO_ID));
+        queries.put("CommentRepository.findViewPage", () -> commentRepository.findViewPage(NO_ID, page));
+        queries.put("CommentRepository.findViewPageAfter", () -> commentRepository.findViewPageAfter(NO_ID, NO_ID, page));
+        queries.put("CommentRepository.findPostIdById", () -> commentRepository.findPostIdById(NO_ID));
+        queries.put("CommentRepository.countByPostId", () -> commentRepository.countByPostId(NO_ID));
+        queries.put("CommentRepository.findIdChunkByPostId", () -> commentRepository.findIdChunkByPostId(NO_ID, 100));
+        queries.put("CommentRepository.deleteByIdIn", () -> commentRepository.deleteByIdIn(List.of(NO_ID, NO_ID - 1)));
+        queries.put("CommentRepository.findRefChunkByUserId",
+                () -> commentRepository.findRefChunkByUserId(NO_ID, 0L, 100));
+        queries.put("CommentRepository.decrementRepliesCountIn",
+                () -> commentRepository.decrementRepliesCountIn(List.of(NO_ID, NO_ID - 1), 1));
+        queries.put("CommentRepository.findViewsByIdIn",
+                () -> commentRepository.findViewsByIdIn(List.of(NO_ID, NO_ID - 1)));
+        queries.put("CommentRepository.findSearchDocChunk", () -> commentRepository.findSearchDocChunk(0L, 100));
+        queries.put("CommentRepository.findSearchDocsUpdatedSince",
+                () -> commentRepository.findSearchDocsUpdatedSince(LocalDateTime.now(), 0L, 100));
+
+        queries.put("ReplyRepository.countByCommentId", () -> replyRepository.countByCommentId(NO_ID));
+        queries.put("ReplyRepository.findFirstRepliesPerComment",
+                () -> replyRepository.findFirstRepliesPerComment(List.of(NO_ID, NO_ID - 1), 3));
+        queries.put("ReplyRepository.findViewsByCommentId", () -> replyRepository.findViewsByCommentId(NO_ID));
+        queries.put("ReplyRepository.findViewPage", () -> replyRepository.findViewPage(NO_ID, page));
+        queries.put("ReplyRepository.findViewPageAfter", () -> replyRepository.findViewPageAfter(NO_ID, NO_ID, page));
+        queries.put("ReplyRepository.deleteChunkByCommentIdIn",
+                () -> replyRepository.deleteChunkByCommentIdIn(List.of(NO_ID, NO_ID - 1), 100));
+        queries.put("ReplyRepository.findRefChunkByUserId", () -> replyRepository.findRefChunkByUserId(NO_ID, 0L, 100));
+        queries.put("ReplyRepository.deleteByIdIn", () -> replyRepository.deleteByIdIn(List.of(NO_ID, NO_ID - 1)));
+
+        queries.put("LikeRepository.findByPostIdAndUserId", () -> likeRepository.findByPostIdAndUserId(NO_ID, NO_ID));
+        queries.put("LikeRepository.existsByPostIdAndUserId", () -> likeRepository.existsByPostIdAndUserId(NO_ID, NO_ID));
+        queries.put("LikeRepository.countByPostId", () -> likeRepository.countByPostId(NO_ID));
+        queries.put("LikeRepository.deleteByPostIdAndUserId", () -> likeRepository.deleteByPostIdAndUserId(NO_ID, NO_ID));
+        queries.put("LikeRepository.deleteChunkByPostId", () -> likeRepository.deleteChunkByPostId(NO_ID, 100));
+        queries.put("LikeRepository.deleteOne", () -> likeRepository.deleteOne(NO_ID, NO_ID));
+        queries.put("LikeRepository.findLikerPage",
+                () -> likeRepository.findLikerPage(NO_ID, Long.MAX_VALUE, PageRequest.of(0, 21)));
+        queries.put("LikeRepository.findLikedPostPage",
+                () -> likeRepository.findLikedPostPage(NO_ID, Long.MAX_VALUE, 21));
+        queries.put("LikeRepository.findPostIdChunkByUserId",
+                () -> likeRepository.findPostIdChunkByUserId(NO_ID, 0L, 100));
+        queries.put("LikeRepository.deleteByUserIdAndPostIdIn",
+                () -> likeRepository.deleteByUserIdAndPostIdIn(NO_ID, List.of(NO_ID, NO_ID - 1)));
+
+        queries.put("UserRepository.findByUsername", () -> userRepository.findByUsername("x"));
+        queries.put("UserRepository.findIdByUsername", () -> userRepository.findIdByUsername("x"));
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail("x"));
+        queries.put("UserRepository.existsByUsername", () -> userRepository.existsByUsername("x"));
+        queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("x"));
+        queries.put("UserRepository.findProfileById", () -> userRepository.findProfileById(NO_ID));
+        queries.put("UserRepository.findProfileByUsername", () -> userRepository.findProfileByUsername("x"));
+        queries.put("UserRepository.findAuthorCardsByIdIn",
+                () -> userRepository.findAuthorCardsByIdIn(List.of(NO_ID, NO_ID - 1)));
+        queries.put("UserRepository.purgeById", () -> userRepository.purgeById(NO_ID));
+        queries.put("UserRepository.findDirectoryChunk", () -> userRepository.findDirectoryChunk(0L, 100));
+
+        // Streams run on first read and must be closed: an open streaming result set blocks the connection
+        queries.put("PostRepository.streamRowsByUserId", () -> firstRow(postRepository.streamRowsByUserId(NO_ID)));
+        queries.put("CommentRepository.streamRowsByUserId", () -> firstRow(commentRepository.streamRowsByUserId(NO_ID)));
+        queries.put("ReplyRepository.streamRowsByUserId", () -> firstRow(replyRepository.streamRowsByUserId(NO_ID)));
+        queries.put("LikeRepository.streamRowsByUserId", () -> firstRow(likeRepository.streamRowsByUserId(NO_ID)));
+
+        queries.put("NotificationRepository.findUnreadPage",
+                () -> notificationRepository.findUnreadPage(NO_ID, Long.MAX_VALUE, 21));
+        queries.put("NotificationRepository.findUnreadSince",
+                () -> notificationRepository.findUnreadSince(List.of(NO_ID, NO_ID - 1), 0L));
+        queries.put("NotificationRepository.countUnread", () -> notificationRepository.countUnread(NO_ID));
+        queries.put("NotificationRepository.markRead", () -> notificationRepository.markRead(NO_ID, NO_ID));
+        queries.put("NotificationRepository.markAllRead", () -> notificationRepository.markAllRead(NO_ID));
+        queries.put("NotificationRepository.deleteChunkByRecipientId",
+                () -> notificationRepository.deleteChunkByRecipientId(NO_ID, 100));
+
+        queries.put("DirectMessageRepository.findConversationPage",
+                () -> directMessageRepository.findConversationPage(NO_ID, NO_ID + 1, Long.MAX_VALUE, PageRequest.of(0, 31)));
+        queries.put("DirectMessageRepository.deleteChunkByUserLow",
+                () -> directMessageRepository.deleteChunkByUserLow(NO_ID, 100));
+        queries.put("DirectMessageRepository.deleteChunkByUserHigh",
+                () -> directMessageRepository.deleteChunkByUserHigh(NO_ID, 100));
+
+        queries.put("ScheduledPostRepository.findRefChunk",
+                () -> scheduledPostRepository.findRefChunk(0L, PageRequest.of(0, 100)));
+        queries.put("ScheduledPostRepository.findForPublish",
+                () -> scheduledPostRepository.findForPublish(List.of(NO_ID, NO_ID - 1)));
+        queries.put("ScheduledPostRepository.findByUserId", () -> scheduledPostRepository.findByUserId(NO_ID));
+        queries.put("ScheduledPostRepository.countByUserId", () -> scheduledPostRepository.countByUserId(NO_ID));
+        queries.put("ScheduledPostRepository.deleteByIdIn",
+                () -> scheduledPostRepository.deleteByIdIn(List.of(NO_ID, NO_ID - 1)));
+        queries.put("ScheduledPostRepository.deleteByIdAndUserId",
+                () -> scheduledPostRepository.deleteByIdAndUserId(NO_ID, NO_ID));
+        queries.put("ScheduledPostRepository.deleteByUserId", () -> scheduledPostRepository.deleteByUserId(NO_ID));
+
+        queries.put("AccountErasureRepository.findForUpdate", () -> accountErasureRepository.findForUpdate(NO_ID));
+        queries.put("AccountErasureRepository.findPendingUserIds", () -> accountErasureRepository.findPendingUserIds(page));
+
+        List<String> problems = new ArrayList<>();
+        SqlCapture.drain();
+        queries.forEach((name, query) -> {
+            query.run();
+            List<String> statements = SqlCapture.drain();
+            assertTrue(!statements.isEmpty(), name + " issued no SQL");
+            for (String sql : statements) {
+                problems.addAll(checkPlan(name, sql));
+            }
+        });
+
+        assertTrue(problems.isEmpty(), "Queries not served by an index:\n" + String.join("\n", problems));
+    }
+
+    private static void firstRow(Stream<?> stream) {
+        try (stream) {
+            stream.findFirst();
+        }
+    }
+
+    /**
+     * EXPLAIN one statement with placeholder literals. Plans are compared on shape only
+     * (access type, chosen key, filesort), so the literal values do not matter.
+     */
+    private List<String> checkPlan(String name, String sql) {
+        String explainable = sql
+                .replaceAll("(?i)limit\\s+\\?\\s*,\\s*\\?", "limit 0, 20")
+                .replaceAll("(?i)limit\\s+\\?", "limit 20")
+                .replaceAll("(?i)offset\\s+\\?", "offset 0")
+                .replace("?", "'1'");
+
+        List<String> problems = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + explainable)) {
+            String table = String.valueOf(row.get("table"));
+            String type = String.valueOf(row.get("type"));
+            Object key = row.get("key");
+            String extra = String.valueOf(row.get("Extra"));
+
+            // Derived tables are materialized from an inner select that is checked in its own row
+            if (table.startsWith("<")) {
+                continue;
+            }
+            // Unique lookups on a missing key are resolved while optimizing and report no key
+            boolean resolvedByConstLookup = extra.contains("Impossible WHERE noticed after reading const tables")
+                    || extra.contains("no matching row in const table");
+
+            if ("ALL".equals(type)) {
+                problems.add(name + ": full scan of " + table + " -> " + sql);
+            } else if (key == null && !resolvedByConstLookup) {
+                problems.add(name + ": no index on " + table + " (" + extra + ") -> " + sql);
+            }
+            if (extra.contains("Using filesort")) {
+                problems.add(name + ": filesort on " + table + " -> " + sql);
+            }
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,91 @@
+package com.baseer.social.repository;
+
+import com.baseer.social.dto.CommentView;
+import com.baseer.social.dto.ReplyView;
+import com.baseer.social.dto.UserProfileView;
+import com.baseer.social.entity.Comment;
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.Reply;
+import com.baseer.social.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Profile, comment and reply projections select exactly the serialized columns.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ViewProjectionTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private CommentRepository commentRepository;
+    @Autowired private ReplyRepository replyRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private ObjectMapper objectMapper;
+
+    @Test
+    void profileCarriesOnlyPublicColumns() {
+        String username = "projected" + System.nanoTime();
+        User user = userRepository.save(User.builder().username(username).email(username + "@test")
+                .password("secret-hash").fullName("Pro Jected").bio("bio").build());
+
+        UserProfileView profile = userRepository.findProfileByUsername(username).orElseThrow();
+        assertEquals(user.getId(), profile.id());
+        assertEquals(username + "@test", profile.email());
+        assertEquals("Pro Jected", profile.fullName());
+        assertEquals("bio", profile.bio());
+        assertNotNull(profile.createdAt());
+        assertEquals(profile, userRepository.findProfileById(user.getId()).orElseThrow());
+
+        List<String> fields = new ArrayList<>();
+        objectMapper.valueToTree(profile).fieldNames().forEachRemaining(fields::add);
+        assertEquals(List.of("id", "username", "email", "fullName", "bio", "profilePicture", "createdAt"), fields);
+    }
+
+    @Test
+    void commentAndReplyViewsSelectTheAuthorIdOnly() {
+        String username = "commenter" + System.nanoTime();
+        User user = userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        Long[] ids = transactionTemplate.execute(status -> {
+            Post post = Post.builder().user(user).content("p").build();
+            entityManager.persist(post);
+            Comment comment = Comment.builder().post(post).user(user).content("c").repliesCount(1).build();
+            entityManager.persist(comment);
+            Reply reply = Reply.builder().comment(comment).user(user).content("r").build();
+            entityManager.persist(reply);
+            return new Long[]{post.getId(), comment.getId(), reply.getId()};
+        });
+
+        List<CommentView> comments = commentRepository.findViewsByPostId(ids[0]);
+        assertEquals(1, comments.size());
+        CommentView comment = comments.get(0);
+        assertEquals(ids[1], comment.getId());
+        assertEquals(ids[0], comment.getPostId());
+        assertEquals("c", comment.getContent());
+        assertEquals(1, comment.getRepliesCount());
+        // The rest of the card is attached from AuthorCardCache by the service
+        assertEquals(user.getId(), comment.getUser().getId());
+        assertNull(comment.getUser().getUsername());
+
+        List<ReplyView> replies = replyRepository.findViewsByCommentId(ids[1]);
+        assertEquals(1, replies.size());
+        assertEquals(ids[2], replies.get(0).getId());
+        assertEquals(ids[1], replies.get(0).getCommentId());
+        assertEquals("r", replies.get(0).getContent());
+        assertEquals(user.getId(), replies.get(0).getUser().getId());
+
+        JsonNode json = objectMapper.valueToTree(comment);
+        assertFalse(json.has("post"));
+        assertFalse(json.get("user").has("password"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.baseer.social.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void ranksConjunctiveMatchesAndPagesWithoutGapsOrRepeats() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(1, "Coffee and cake");
+        index.index(2, "coffee coffee coffee");
+        index.index(3, "Café au lait, the best coffee in a long and winding text about mornings");
+        index.index(4, "tea only");
+        for (long id = 100; id < 1100; id++) {
+            // Spans several posting blocks so advance() skips whole blocks
+            index.index(id, "filler coffee " + (id % 7 == 0 ? "cafe" : "water"));
+        }
+
+        assertEquals(List.of(2L, 1L), index.search("coffee", null, 2).stream().map(InvertedIndex.Hit::id).toList(),
+                "higher term frequency and shorter text rank first");
+        assertEquals(List.of(1L), ids(index.search("cake COFFEE", null, 10)));
+        assertTrue(index.search("coffee tea", null, 10).isEmpty(), "every term must match");
+        assertTrue(index.search("unknownword", null, 10).isEmpty());
+        assertEquals(1 + 143, index.search("cafe coffee", null, 1000).size(), "accents are folded");
+
+        List<Long> paged = new ArrayList<>();
+        InvertedIndex.Hit after = null;
+        List<InvertedIndex.Hit> page;
+        while (!(page = index.search("coffee", after, 37)).isEmpty()) {
+            page.forEach(hit -> paged.add(hit.id()));
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(ids(index.search("coffee", null, 5000)), paged);
+        assertEquals(1003, paged.size());
+    }
+
+    @Test
+    void updatesRemovalsMergesAndCompactionKeepResults() {
+        InvertedIndex index = new InvertedIndex();
+        index.index(10, "first draft");
+        index.index(11, "another draft");
+        index.index(10, "final version");
+        index.remove(11);
+        index.remove(12);
+
+        assertTrue(index.search("draft", null, 10).isEmpty());
+        assertEquals(List.of(10L), ids(index.search("final", null, 10)));
+        assertEquals(1, index.size());
+        assertEquals(2 / 3.0, index.deletedRatio(), 1e-9);
+
+        InvertedIndex chunk = new InvertedIndex();
+        chunk.index(20, "final chunk");
+        index.addAll(chunk);
+        InvertedIndex compacted = index.compact();
+        assertEquals(0, compacted.deletedRatio());
+        assertEquals(ids(index.search("final", null, 10)), ids(compacted.search("final", null, 10)));
+        assertEquals(List.of(20L, 10L), ids(compacted.search("final", null, 10)));
+    }
+
+    @Test
+    void snapshotRoundTripsAndRejectsCorruptFiles(@TempDir Path dir) throws IOException {
+        InvertedIndex posts = new InvertedIndex();
+        InvertedIndex comments = new InvertedIndex();
+        for (long id = 1; id <= 500; id++) {
+            posts.index(id, "post number " + id + (id % 2 == 0 ? " even" : " odd"));
+        }
+        posts.remove(2);
+        comments.index(7, "مرحبا بالعالم");
+
+        Path file = dir.resolve("search.seg");
+        SegmentFile.write(file, 1234L, posts, comments);
+        SegmentFile.Snapshot snapshot = SegmentFile.read(file);
+
+        assertEquals(1234L, snapshot.watermark());
+        assertEquals(posts.size(), snapshot.posts().size());
+        assertEquals(ids(posts.search("even post", null, 1000)), ids(snapshot.posts().search("even post", null, 1000)));
+        assertEquals(List.of(7L), ids(snapshot.comments().search("مرحبا", null, 10)));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertNull(SegmentFile.read(file), "checksum mismatch");
+        Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.TRUNCATE_EXISTING);
+        assertNull(SegmentFile.read(file), "truncated");
+        assertNull(SegmentFile.read(dir.resolve("missing.seg")));
+    }
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.baseer.social.search;
+
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.repository.projection.SearchDocRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The backfill only inserts tags of posts that are unchanged since it read them.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class PostTagIndexerTest {
+
+    @Autowired private PostTagIndexer postTagIndexer;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void skipsPostsEditedOrDeletedSinceTheyWereRead() {
+        String username = "backfiller" + System.nanoTime();
+        User user = userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+        String tag = "b" + Long.toString(System.nanoTime(), 36);
+        long unchanged = post(user, "#" + tag + " one");
+        long edited = post(user, "#" + tag + " two");
+        long deleted = post(user, "#" + tag + " three");
+        SearchDocRow unchangedRow = read(unchanged);
+        SearchDocRow editedRow = read(edited);
+        SearchDocRow deletedRow = read(deleted);
+
+        // The edit and delete commit after the backfill read the rows and before it inserts
+        transactionTemplate.executeWithoutResult(status ->
+                postRepository.findById(edited).orElseThrow().setContent("no tags any more"));
+        transactionTemplate.executeWithoutResult(status -> postRepository.softDelete(deleted, LocalDateTime.now()));
+        postTagIndexer.backfillChunk(List.of(unchangedRow, editedRow, deletedRow));
+
+        assertEquals(List.of(unchanged), postRepository.findIdsByTag(tag, Long.MAX_VALUE, 10));
+    }
+
+    private long post(User user, String content) {
+        return postRepository.save(Post.builder().user(user).content(content).likesCount(0).commentsCount(0).build()).getId();
+    }
+
+    private SearchDocRow read(long postId) {
+        return postRepository.findSearchDocChunk(postId - 1, 1).get(0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.baseer.social.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostTagsTest {
+
+    @Test
+    void extractsFoldedHashtagsAndMentions() {
+        PostTags tags = PostTags.of("#Café time with @ada_l and @bob.smith. #cafe again, #2024 #go2024 "
+                + "a#b mail@example.com (#Java) #مَرحبا @-");
+
+        assertEquals(List.of("cafe", "go2024", "java", "مرحبا"), List.copyOf(tags.hashtags()));
+        assertEquals(List.of("ada_l", "bob.smith"), List.copyOf(tags.mentions()));
+    }
+
+    @Test
+    void normalizesQueriedTags() {
+        assertEquals("cafe", PostTags.normalizeTag("#CAFÉ"));
+        assertEquals("go_2024", PostTags.normalizeTag("go_2024"));
+        assertNull(PostTags.normalizeTag("2024"));
+        assertNull(PostTags.normalizeTag("two words"));
+        assertNull(PostTags.normalizeTag("#"));
+        assertNull(PostTags.normalizeTag("x".repeat(PostTags.MAX_TAG_LENGTH + 1)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.baseer.social.search;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Builds a prefix index over 10M synthetic users and measures per-keystroke query latency
+ * for one- to four-character prefixes, the hot path of @mention completion.
+ * Popularity follows a heavy tail, as post counts do.
+ *
+ * Run with: mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=UserPrefixIndexBenchmark -DargLine=-Xmx3g
+ */
+@Tag("benchmark")
+class UserPrefixIndexBenchmark {
+
+    private static final int USERS = 10_000_000;
+    private static final int QUERIES = 200_000;
+    private static final String[] SYLLABLES = {
+            "a", "ba", "da", "el", "ka", "li", "ma", "mo", "na", "ne", "ol", "ra", "sa", "ti", "to", "zu"};
+
+    @Test
+    void tenMillionUsers() {
+        SplittableRandom random = new SplittableRandom(7);
+        long start = System.nanoTime();
+        UserPrefixIndex.Builder builder = UserPrefixIndex.builder(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            int popularity = (int) Math.min(100_000, 1 / Math.pow(1 - random.nextDouble(), 1 / 1.2) - 1);
+            builder.add(id, name(random, 3) + id % 1000, name(random, 2) + " " + name(random, 3), popularity);
+        }
+        long added = System.nanoTime();
+        UserPrefixIndex index = builder.build();
+        long built = System.nanoTime();
+        System.out.printf("%,d users, %,d keys, %,d precomputed prefixes; add %,d ms, sort+tops %,d ms%n",
+                index.users(), index.keys(), index.heavyPrefixes(),
+                (added - start) / 1_000_000, (built - added) / 1_000_000);
+
+        for (int length = 1; length <= 4; length++) {
+            byte[][] prefixes = new byte[QUERIES][];
+            for (int i = 0; i < QUERIES; i++) {
+                String name = name(random, 3);
+                prefixes[i] = name.substring(0, Math.min(length, name.length())).getBytes(StandardCharsets.UTF_8);
+            }
+            for (int i = 0; i < QUERIES; i++) {
+                index.search(prefixes[i], id -> false, new TopUsers(10));
+            }
+            long[] nanos = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long t = System.nanoTime();
+                index.search(prefixes[i], id -> false, new TopUsers(10));
+                nanos[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("prefix length %d: p50 %,6.1f us  p99 %,6.1f us  max %,8.1f us%n", length,
+                    nanos[QUERIES / 2] / 1e3, nanos[QUERIES * 99 / 100] / 1e3, nanos[QUERIES - 1] / 1e3);
+        }
+    }
+
+    private static String name(SplittableRandom random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.baseer.social.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrefixIndexTest {
+
+    private static final String[] SYLLABLES = {"a", "ba", "ka", "li", "mo", "ne", "ra", "sa", "ti", "zu", "é"};
+
+    @Test
+    void matchesBruteForceForLightAndPrecomputedPrefixes() {
+        SplittableRandom random = new SplittableRandom(11);
+        List<User> users = new ArrayList<>();
+        UserPrefixIndex.Builder builder = UserPrefixIndex.builder(16);
+        for (long id = 1; id <= 20_000; id++) {
+            String username = name(random, 3) + id;
+            String fullName = name(random, 2) + " " + name(random, 3);
+            User user = new User(id, username, fullName, random.nextInt(50),
+                    List.copyOf(UserPrefixIndex.keysOf(username, fullName)));
+            users.add(user);
+            builder.add(user.id, user.username, user.fullName, user.popularity);
+        }
+        UserPrefixIndex index = builder.build();
+        assertTrue(index.heavyPrefixes() > 0);
+
+        Set<Long> stale = new HashSet<>();
+        for (int i = 0; i < 2_000; i += 3) {
+            stale.add(users.get(random.nextInt(users.size())).id);
+        }
+        List<String> prefixes = new ArrayList<>(List.of("a", "b", "ka", "li", "e", "mo ", "zz", "@"));
+        for (int i = 0; i < 300; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            String key = user.keys.get(random.nextInt(user.keys.size()));
+            prefixes.add(key.substring(0, 1 + random.nextInt(Math.min(6, key.length()))));
+        }
+
+        for (String prefix : prefixes) {
+            for (Set<Long> excluded : List.of(Set.<Long>of(), stale)) {
+                TopUsers top = new TopUsers(10);
+                index.search(prefix.getBytes(StandardCharsets.UTF_8), excluded::contains, top);
+                assertEquals(bruteForce(users, prefix, excluded, 10), ids(top), "prefix " + prefix);
+            }
+        }
+    }
+
+    @Test
+    void keysCoverUsernameFullNameAndLaterWords() {
+        assertEquals(List.of("ada_l", "ada king lovelace", "king lovelace", "lovelace"),
+                List.copyOf(UserPrefixIndex.keysOf("Ada_L", "  Ada   KING Lovelace ")));
+        assertEquals(List.of("jose"), List.copyOf(UserPrefixIndex.keysOf("José", null)));
+    }
+
+    private static List<Long> bruteForce(List<User> users, String prefix, Set<Long> excluded, int limit) {
+        return users.stream()
+                .filter(u -> !excluded.contains(u.id))
+                .filter(u -> u.keys.stream().anyMatch(k -> k.startsWith(prefix)))
+                .sorted(Comparator.comparingInt((User u) -> -u.popularity).thenComparingLong(u -> u.id))
+                .limit(limit)
+                .map(u -> u.id)
+                .toList();
+    }
+
+    private static List<Long> ids(TopUsers top) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < top.size(); i++) {
+            ids.add(top.idAt(i));
+        }
+        return ids;
+    }
+
+    private static String name(SplittableRandom random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    private record User(long id, String username, String fullName, int popularity, List<String> keys) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.baseer.social.service;
+
+import com.baseer.social.entity.Comment;
+import com.baseer.social.entity.Like;
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.Reply;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.AccountErasureRepository;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Erases a user whose likes, comments and replies sit on another user's post, plus
+ * their own posts with other users' activity. A batch size of 2 makes every phase take
+ * several checkpointed steps.
+ */
+@SpringBootTest(properties = "social.erasure.batch-size=2")
+class AccountErasureServiceTest {
+
+    @Autowired private AccountErasureService erasureService;
+    @Autowired private AccountErasureRepository erasureRepository;
+    @Autowired private PostReaper postReaper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PostRepository postRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private UserIdCache userIdCache;
+    @Autowired private UserService userService;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void erasesHistoryInChunksAndFixesCountersOfOtherUsersContent() {
+        long n = System.nanoTime();
+        User victim = user("victim" + n);
+        User other = user("other" + n);
+
+        Long[] ids = transactionTemplate.execute(status -> {
+            Post otherPost = postRepository.save(Post.builder()
+                    .user(other).content("p").likesCount(2).commentsCount(2).build());
+            entityManager.persist(Like.builder().post(otherPost).user(victim).build());
+            entityManager.persist(Like.builder().post(otherPost).user(other).build());
+
+            Comment victimComment = Comment.builder().post(otherPost).user(victim).content("v").repliesCount(4).build();
+            entityManager.persist(victimComment);
+            for (int i = 0; i < 3; i++) {
+                entityManager.persist(Reply.builder().comment(victimComment).user(other).content("o").build());
+            }
+            entityManager.persist(Reply.builder().comment(victimComment).user(victim).content("v").build());
+
+            Comment otherComment = Comment.builder().post(otherPost).user(other).content("o").repliesCount(3).build();
+            entityManager.persist(otherComment);
+            for (int i = 0; i < 2; i++) {
+                entityManager.persist(Reply.builder().comment(otherComment).user(victim).content("v").build());
+            }
+            entityManager.persist(Reply.builder().comment(otherComment).user(other).content("o").build());
+
+            for (int i = 0; i < 3; i++) {
+                Post victimPost = postRepository.save(Post.builder()
+                        .user(victim).content("v").likesCount(1).commentsCount(1).build());
+                entityManager.persist(Like.builder().post(victimPost).user(other).build());
+                entityManager.persist(Comment.builder().post(victimPost).user(other).content("o").repliesCount(0).build());
+            }
+            return new Long[]{otherPost.getId(), otherComment.getId()};
+        });
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(victim.getUsername(), null, List.of()));
+        erasureService.requestErasure();
+        assertTrue(userRepository.findByUsername(victim.getUsername()).isEmpty(), "old username must be released");
+
+        int steps = 0;
+        while (erasureService.processChunk(victim.getId())) {
+            steps++;
+        }
+        assertTrue(steps > 5, "expected several chunks, got " + steps);
+        assertTrue(erasureRepository.existsById(victim.getId()), "user row waits for PostReaper");
+
+        postReaper.reap();
+        assertFalse(erasureService.processChunk(victim.getId()));
+
+        assertFalse(erasureRepository.existsById(victim.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM users WHERE id = ?", victim.getId()));
+        for (String table : List.of("posts", "comments", "replies", "likes")) {
+            assertEquals(0, count("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", victim.getId()), table);
+        }
+
+        assertEquals(1, count("SELECT likes_count FROM posts WHERE id = ?", ids[0]));
+        assertEquals(1, count("SELECT comments_count FROM posts WHERE id = ?", ids[0]));
+        assertEquals(1, count("SELECT replies_count FROM comments WHERE id = ?", ids[1]));
+        assertEquals(1, count("SELECT COUNT(*) FROM replies WHERE comment_id = ?", ids[1]));
+    }
+
+    @Test
+    void tokenOfAnErasedAccountDoesNotAuthenticateTheNextOwnerOfItsName() {
+        String username = "reused" + System.nanoTime();
+        user(username);
+        String oldToken = jwtUtil.generateToken(userDetailsService.loadUserByUsername(username));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        erasureService.requestErasure();
+        user(username);
+
+        UserDetails newOwner = userDetailsService.loadUserByUsername(username);
+        assertEquals(username, jwtUtil.extractUsername(oldToken));
+        assertFalse(jwtUtil.validateToken(oldToken, newOwner));
+        assertTrue(jwtUtil.validateToken(jwtUtil.generateToken(newOwner), newOwner));
+    }
+
+    @Test
+    void theNextOwnerOfAFreedNameGetsTheirOwnId() {
+        String username = "renamed" + System.nanoTime();
+        User erased = user(username);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        transactionTemplate.executeWithoutResult(status -> {
+            erasureService.requestErasure();
+            // Another request still sees the committed row and caches its ID before the commit
+            assertEquals(erased.getId(), CompletableFuture.supplyAsync(() -> userIdCache.get(username)).join());
+        });
+
+        User newOwner = user(username);
+        assertEquals(newOwner.getId(), userIdCache.get(username));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                userDetailsService.loadUserByUsername(username), null, List.of()));
+        assertEquals(newOwner.getId(), userService.getCurrentUserId());
+        assertEquals(newOwner.getId(), userService.getCurrentUser().getId());
+    }
+
+    private User user(String username) {
+        return userRepository.save(User.builder()
+                .username(username).email(username + "@test").password("x").build());
+    }
+
+    private long count(String sql, Long id) {
+        return jdbcTemplate.queryForObject(sql, Long.class, id);
+    }
+}
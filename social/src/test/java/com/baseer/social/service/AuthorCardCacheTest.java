@@ -0,0 +1,121 @@
+package com.baseer.social.service;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Author cards against an in-memory user table: batched misses, placeholders for missing
+ * authors, and invalidation racing a load.
+ */
+class AuthorCardCacheTest {
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile CountDownLatch queryStarted = new CountDownLatch(0);
+    private volatile CountDownLatch releaseQuery = new CountDownLatch(0);
+
+    private final AuthorCardCache cache = new AuthorCardCache(userRepository(), 100, Duration.ofMinutes(10));
+
+    @Test
+    void attachesCardsLoadingAllMissesInOneQuery() {
+        names.put(1L, "ann");
+        names.put(2L, "bo");
+        cache.get(1L);
+        queries.set(0);
+
+        List<PostResponse.UserDTO[]> items = new ArrayList<>();
+        for (long id : new long[]{1, 2, 3, 2}) {
+            items.add(new PostResponse.UserDTO[]{PostResponse.UserDTO.builder().id(id).build()});
+        }
+        cache.attach(items, item -> item[0].getId(), (item, card) -> item[0] = card);
+
+        assertEquals(1, queries.get());
+        assertEquals("ann", items.get(0)[0].getUsername());
+        assertEquals("bo", items.get(1)[0].getUsername());
+        assertEquals("bo", items.get(3)[0].getUsername());
+        // User 3 is gone: the item keeps an ID-only card instead of a null author
+        assertEquals(3L, items.get(2)[0].getId());
+        assertNull(items.get(2)[0].getUsername());
+        assertNull(cache.get(3L));
+    }
+
+    @Test
+    void invalidateDuringALoadIsNotOverwritten() throws Exception {
+        names.put(1L, "old");
+        queryStarted = new CountDownLatch(1);
+        releaseQuery = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<PostResponse.UserDTO> load = pool.submit(() -> cache.get(1L));
+            assertTrue(queryStarted.await(10, TimeUnit.SECONDS));
+
+            // The profile changes after the query read the row but before it returns
+            names.put(1L, "new");
+            cache.invalidate(1L);
+            releaseQuery.countDown();
+            assertEquals("old", load.get(10, TimeUnit.SECONDS).getUsername());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals("new", cache.get(1L).getUsername());
+    }
+
+    @Test
+    void invalidatesAgainWhenTheProfileChangeCommits() {
+        names.put(1L, "old");
+        cache.get(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> commit;
+        try {
+            cache.invalidate(1L);
+            // A reader loads the still committed row before the update commits
+            assertEquals("old", cache.get(1L).getUsername());
+            names.put(1L, "new");
+            commit = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        commit.forEach(TransactionSynchronization::afterCommit);
+        assertEquals("new", cache.get(1L).getUsername());
+    }
+
+    private UserRepository userRepository() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAuthorCardsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            List<PostResponse.UserDTO> cards = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                String name = names.get(id);
+                if (name != null) {
+                    cards.add(PostResponse.UserDTO.builder().id(id).username(name).build());
+                }
+            }
+            queryStarted.countDown();
+            releaseQuery.await(10, TimeUnit.SECONDS);
+            return cards;
+        });
+        return userRepository;
+    }
+}
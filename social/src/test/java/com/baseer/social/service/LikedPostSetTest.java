@@ -0,0 +1,60 @@
+package com.baseer.social.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikedPostSetTest {
+
+    @Test
+    void matchesATreeSetUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        // Snowflake-like IDs: a millisecond timestamp over a few days, node and sequence bits
+        long base = 1_700_000_000_000L << 22;
+        for (int i = 0; i < 2_000; i++) {
+            expected.add(base + ((long) random.nextInt(300_000_000) << 22) + random.nextInt(1 << 22));
+        }
+        LikedPostSet set = LikedPostSet.of(expected.stream().mapToLong(Long::longValue).toArray());
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = base + ((long) random.nextInt(300_000_000) << 22) + random.nextInt(1 << 22);
+            // Half of the operations hit an ID that is present
+            if (random.nextBoolean() && expected.ceiling(id) != null) {
+                id = expected.ceiling(id);
+            }
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(id), set.add(id));
+            } else {
+                assertEquals(expected.remove(id), set.remove(id));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (Long id : expected) {
+            assertTrue(set.contains(id));
+            assertFalse(set.contains(id + 1) && !expected.contains(id + 1));
+        }
+        assertFalse(set.contains(base - 1));
+        // Gaps of a few days' worth of IDs take at most 6 bytes instead of 8
+        assertTrue(set.weight() < expected.size() * 8, "weight " + set.weight());
+    }
+
+    @Test
+    void emptiesAndRefills() {
+        LikedPostSet set = LikedPostSet.of(new long[0]);
+        assertFalse(set.contains(1));
+        for (long id = 1_000; id > 0; id--) {
+            assertTrue(set.add(id * 1_000_003));
+        }
+        for (long id = 1; id <= 1_000; id++) {
+            assertTrue(set.contains(id * 1_000_003));
+            assertTrue(set.remove(id * 1_000_003));
+        }
+        assertEquals(0, set.size());
+        assertTrue(set.add(7));
+        assertTrue(set.contains(7));
+    }
+}
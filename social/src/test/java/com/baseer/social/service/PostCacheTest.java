@@ -0,0 +1,134 @@
+package com.baseer.social.service;
+
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.projection.PostRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counter changes applied after commit against an in-memory posts row, including loads
+ * that run before, after and across the commit.
+ */
+class PostCacheTest {
+
+    private static final long POST_ID = 7L;
+
+    private volatile int likesCount = 3;
+    private volatile CountDownLatch loadStarted = new CountDownLatch(0);
+    private volatile CountDownLatch releaseLoad = new CountDownLatch(0);
+
+    private final PostCache cache = new PostCache(postRepository(), 100, Duration.ofMinutes(10));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void appliesTheDeltaToAnEntryLoadedBeforeTheChange() {
+        assertEquals(3, cache.get(POST_ID).likesCount());
+
+        List<TransactionSynchronization> commit = inTransaction(() -> {
+            likesCount++;
+            cache.adjustLikesCount(POST_ID, 1);
+        });
+        assertEquals(3, cache.get(POST_ID).likesCount());
+        commit.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(4, cache.get(POST_ID).likesCount());
+
+        cache.adjustCommentsCount(POST_ID, 2);
+        assertEquals(2, cache.get(POST_ID).commentsCount());
+    }
+
+    @Test
+    void doesNotCountTwiceWhenTheRowWasLoadedAfterTheCommit() {
+        List<TransactionSynchronization> commit = inTransaction(() -> {
+            likesCount++;
+            cache.adjustLikesCount(POST_ID, 1);
+        });
+        // A reader loads the committed row before the after-commit callback runs
+        assertEquals(4, cache.get(POST_ID).likesCount());
+        commit.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(4, cache.get(POST_ID).likesCount());
+    }
+
+    @Test
+    void dropsAnEntryWhoseLoadOverlappedTheCommit() throws Exception {
+        loadStarted = new CountDownLatch(1);
+        releaseLoad = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<PostCache.CachedPost> load = pool.submit(() -> cache.get(POST_ID));
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+
+            List<TransactionSynchronization> commit = inTransaction(() -> {
+                likesCount++;
+                cache.adjustLikesCount(POST_ID, 1);
+            });
+            releaseLoad.countDown();
+            assertEquals(3, load.get(10, TimeUnit.SECONDS).likesCount());
+
+            // Whether the loaded row had the change is unknown, so it is read again
+            commit.forEach(TransactionSynchronization::afterCommit);
+            assertEquals(4, cache.get(POST_ID).likesCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the body with transaction synchronization active and return the callbacks it
+     * registered, for the test to run as the commit
+     */
+    private static List<TransactionSynchronization> inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private PostRepository postRepository() {
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findRowById(POST_ID)).thenAnswer(invocation -> {
+            PostRow row = row(likesCount);
+            loadStarted.countDown();
+            releaseLoad.await(10, TimeUnit.SECONDS);
+            return Optional.of(row);
+        });
+        return postRepository;
+    }
+
+    private static PostRow row(int likesCount) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return new PostRow() {
+            public Long getId() { return POST_ID; }
+            public Long getUserId() { return 1L; }
+            public String getContent() { return "cached"; }
+            public String getImageUrl() { return null; }
+            public Integer getLikesCount() { return likesCount; }
+            public Integer getCommentsCount() { return 0; }
+            public LocalDateTime getCreatedAt() { return createdAt; }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.baseer.social.service;
+
+import com.baseer.social.entity.Comment;
+import com.baseer.social.entity.Like;
+import com.baseer.social.entity.Post;
+import com.baseer.social.entity.Reply;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.PostRepository;
+import com.baseer.social.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Soft delete hides a post at once; the reaper then removes it and all of its
+ * children. A batch size of 3 forces several chunks per table.
+ */
+@SpringBootTest(properties = "social.reaper.batch-size=3")
+class PostReaperTest {
+
+    @Autowired private PostReaper postReaper;
+    @Autowired private PostRepository postRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    void softDeletedPostIsHiddenThenReapedInChunks() {
+        Long postId = transactionTemplate.execute(status -> {
+            long n = System.nanoTime();
+            User author = userRepository.save(User.builder()
+                    .username("reaper" + n).email("reaper" + n + "@test").password("x").build());
+            Post post = postRepository.save(Post.builder()
+                    .user(author).content("doomed").likesCount(0).commentsCount(0).build());
+            for (int i = 0; i < 7; i++) {
+                Comment comment = Comment.builder().post(post).user(author).content("c" + i).repliesCount(0).build();
+                entityManager.persist(comment);
+                for (int j = 0; j < 4; j++) {
+                    entityManager.persist(Reply.builder().comment(comment).user(author).content("r" + j).build());
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                User liker = userRepository.save(User.builder()
+                        .username("liker" + n + i).email("liker" + n + i + "@test").password("x").build());
+                entityManager.persist(Like.builder().post(post).user(liker).build());
+            }
+            return post.getId();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> postRepository.softDelete(postId, LocalDateTime.now()));
+        assertTrue(postRepository.findRowById(postId).isEmpty(), "soft-deleted post must be hidden");
+        assertEquals(1, count("SELECT COUNT(*) FROM posts WHERE id = ?", postId));
+
+        double likesBefore = meterRegistry.counter("social.reaper.deleted.rows", "table", "likes").count();
+        double repliesBefore = meterRegistry.counter("social.reaper.deleted.rows", "table", "replies").count();
+        postReaper.reapPost(postId);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM posts WHERE id = ?", postId));
+        assertEquals(0, count("SELECT COUNT(*) FROM comments WHERE post_id = ?", postId));
+        assertEquals(0, count("SELECT COUNT(*) FROM likes WHERE post_id = ?", postId));
+        assertEquals(5, meterRegistry.counter("social.reaper.deleted.rows", "table", "likes").count() - likesBefore);
+        assertEquals(28, meterRegistry.counter("social.reaper.deleted.rows", "table", "replies").count() - repliesBefore);
+    }
+
+    private long count(String sql, Long postId) {
+        return jdbcTemplate.queryForObject(sql, Long.class, postId);
+    }
+}
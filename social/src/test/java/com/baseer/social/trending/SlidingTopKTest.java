@@ -0,0 +1,51 @@
+package com.baseer.social.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingTopKTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void findsHeavyHittersOfASkewedStream() {
+        SlidingTopK<Long> top = new SlidingTopK<>(WINDOW, 6, 4, 1024, 64, Long::longValue);
+        Map<Long, Integer> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200_000; i++) {
+            // Zipf-like: key k drawn with probability about 1/k over 100k keys
+            long key = (long) Math.floor(Math.pow(100_000, random.nextDouble())) + 1;
+            top.add(key, 1, 1_000 + i / 10);
+            exact.merge(key, 1, Integer::sum);
+        }
+
+        List<SlidingTopK.Counted<Long>> best = top.top(10, 30_000);
+        List<Long> exactBest = exact.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(5).map(Map.Entry::getKey).toList();
+        assertEquals(exactBest, best.subList(0, 5).stream().map(SlidingTopK.Counted::key).toList());
+        for (SlidingTopK.Counted<Long> entry : best) {
+            assertTrue(entry.count() >= exact.get(entry.key()));
+        }
+    }
+
+    @Test
+    void forgetsWeightOutsideTheWindow() {
+        SlidingTopK<String> top = new SlidingTopK<>(WINDOW, 6, 4, 1024, 8, String::hashCode);
+        top.add("old", 100, 0);
+        top.add("new", 5, 35_000);
+        assertEquals(List.of("old", "new"), top.top(2, 35_000).stream().map(SlidingTopK.Counted::key).toList());
+
+        // "old" sat in the first 10 s bucket, which leaves the window at 60 s
+        assertEquals(0, top.estimate("old", 65_000));
+        assertEquals(5, top.estimate("new", 65_000));
+        assertEquals("new", top.top(1, 65_000).get(0).key());
+        assertTrue(top.top(5, 200_000).stream().allMatch(entry -> entry.count() == 0));
+    }
+}
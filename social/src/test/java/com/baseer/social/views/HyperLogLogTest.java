@@ -0,0 +1,68 @@
+package com.baseer.social.views;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinFourStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        double maxError = 4 * 1.04 / Math.sqrt(1 << 12);
+        long added = 0;
+        for (long target : new long[]{10, 100, 1_000, 5_000, 20_000, 100_000, 1_000_000}) {
+            while (added < target) {
+                sketch.add(++added);
+                // Repeats must not count
+                sketch.add(added / 2 + 1);
+            }
+            long estimate = sketch.estimate();
+            assertTrue(Math.abs(estimate - target) <= Math.max(1, maxError * target),
+                    "estimate " + estimate + " for " + target);
+        }
+    }
+
+    @Test
+    void roundTripsSparseAndDenseForms() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long user = 1; user <= 50; user++) {
+            sketch.add(user * 7919);
+        }
+        byte[] sparse = sketch.toBytes();
+        assertEquals(2 + 3 * 50, sparse.length, "50 users hit 50 registers");
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(sparse).estimate());
+
+        for (long user = 51; user <= 50_000; user++) {
+            sketch.add(user * 7919);
+        }
+        byte[] dense = sketch.toBytes();
+        assertEquals(2 + 4096 * 6 / 8, dense.length);
+        HyperLogLog restored = HyperLogLog.fromBytes(dense);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(dense, restored.toBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{2, 12, 0}));
+    }
+
+    @Test
+    void mergeIsUnionAcrossPrecisions() {
+        HyperLogLog a = new HyperLogLog(12);
+        HyperLogLog b = new HyperLogLog(14);
+        HyperLogLog both = new HyperLogLog(12);
+        for (long user = 0; user < 30_000; user++) {
+            (user % 3 == 0 ? a : b).add(user);
+            // Overlap: every fifth user is in both
+            if (user % 5 == 0) {
+                a.add(user);
+                b.add(user);
+            }
+            both.add(user);
+        }
+        HyperLogLog union = HyperLogLog.union(b, a);
+        assertEquals(12, union.precision());
+        // Folding b to precision 12 gives exactly the registers it would have had
+        assertEquals(both.estimate(), union.estimate());
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(14).merge(new HyperLogLog(12)));
+    }
+}
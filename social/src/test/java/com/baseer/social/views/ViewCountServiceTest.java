@@ -0,0 +1,111 @@
+package com.baseer.social.views;
+
+import com.baseer.social.dto.PostResponse;
+import com.baseer.social.entity.User;
+import com.baseer.social.repository.UserRepository;
+import com.baseer.social.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Impressions reported through the REST API become unique view counts after a flush.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.show-sql=false")
+class ViewCountServiceTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private ViewCountService viewCountService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void impressionsCountUniqueViewersAfterAFlush() {
+        List<String> users = users("viewer", 4);
+        long postId = post(users.get(0), "seen");
+        long otherId = post(users.get(0), "also seen");
+
+        // The author's own view and repeated views do not count
+        for (String username : users) {
+            assertEquals(HttpStatus.NO_CONTENT, impressions(username, List.of(postId, otherId, postId)));
+        }
+        assertEquals(HttpStatus.NO_CONTENT, impressions(users.get(1), List.of(postId)));
+        assertEquals(HttpStatus.BAD_REQUEST, impressions(users.get(1), List.of()));
+        assertEquals(0, viewCount(users.get(1), postId));
+
+        viewCountService.flush();
+        assertEquals(3, viewCount(users.get(1), postId));
+
+        // A second flush merges into the stored sketch
+        impressions(users.get(1), List.of(postId));
+        viewCountService.flush();
+        assertEquals(3, viewCount(users.get(1), postId));
+        assertEquals(3, viewCount(users.get(1), otherId));
+    }
+
+    @Test
+    void anUnreadableStoredSketchIsReplaced() {
+        List<String> users = users("reset", 3);
+        long postId = post(users.get(0), "corrupt views");
+        jdbcTemplate.update("INSERT INTO post_views (post_id, view_count, sketch) VALUES (?, 7, ?)",
+                postId, new byte[]{1});
+
+        impressions(users.get(1), List.of(postId));
+        viewCountService.flush();
+        assertEquals(1, viewCount(users.get(1), postId));
+
+        // The replaced row merges like any other, and nothing was queued again
+        impressions(users.get(2), List.of(postId));
+        viewCountService.flush();
+        assertEquals(2, viewCount(users.get(1), postId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT view_count FROM post_views WHERE post_id = ?",
+                Long.class, postId));
+    }
+
+    private List<String> users(String prefix, int count) {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String username = prefix + i + "x" + System.nanoTime();
+            userRepository.save(User.builder().username(username).email(username + "@test").password("x").build());
+            users.add(username);
+        }
+        return users;
+    }
+
+    private long post(String username, String content) {
+        return restTemplate.postForEntity("/api/posts", new HttpEntity<>(Map.of("content", content),
+                headers(username)), PostResponse.class).getBody().getId();
+    }
+
+    private HttpStatus impressions(String username, List<Long> postIds) {
+        return (HttpStatus) restTemplate.postForEntity("/api/posts/impressions",
+                new HttpEntity<>(Map.of("postIds", postIds), headers(username)), String.class).getStatusCode();
+    }
+
+    private long viewCount(String username, long postId) {
+        return restTemplate.exchange("/api/posts/" + postId, HttpMethod.GET, new HttpEntity<>(headers(username)),
+                PostResponse.class).getBody().getViewCount();
+    }
+
+    private HttpHeaders headers(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken(userDetailsService.loadUserByUsername(username)));
+        return headers;
+    }
+}